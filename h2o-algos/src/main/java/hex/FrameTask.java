@@ -480,16 +480,27 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
         shuf_map[i] = start + i;
       shuffleArray(shuf_map, new Random().nextLong());
     }
+    // Rows are bulk-decoded a block at a time; shuffled rows are visited in
+    // random order, so decode those one at a time.
+    final int bsz = shuf_map != null ? 1 : Chunk.ROW_BLOCK;
+    final double [][] block = new double[chunks.length][bsz];
+    int bstart = 0, bend = 0;
     for(int rrr = 0; rrr < repeats; ++rrr) {
     OUTER:
       for(int rr = start; rr < end; ++rr){
         final int r = shuf_map != null ? (int)shuf_map[rr-start] : rr;
         if ((_dinfo._nfolds > 0 && (r % _dinfo._nfolds) == _dinfo._foldId)
                 || (skip_rng != null && skip_rng.nextFloat() > _useFraction))continue;
-        for(Chunk c:chunks)if(c.isNA0(r))continue OUTER; // skip rows with NAs!
+        if(r < bstart || r >= bend){
+          bstart = r;
+          bend = Math.min(r + bsz, nrows);
+          for(int j = 0; j < chunks.length; ++j) chunks[j].getDoubles(block[j], bstart, bend);
+        }
+        final int b = r - bstart;
+        for(double [] col:block)if(Double.isNaN(col[b]))continue OUTER; // skip rows with NAs!
         int i = 0, ncats = 0;
         for(; i < _dinfo._cats; ++i){
-          int c = (int)chunks[i].at80(r);
+          int c = (int)block[i][b];
           if(_dinfo._catLvls != null){ // some levels are ignored?
             c = Arrays.binarySearch(_dinfo._catLvls[i],c);
             if(c >= 0)
@@ -501,12 +512,12 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
         }
         final int n = chunks.length-_dinfo._responses;
         for(;i < n;++i){
-          double d = chunks[i].at0(r);
+          double d = block[i][b];
           if(_dinfo._normMul != null) d = (d - _dinfo._normSub[i-_dinfo._cats])*_dinfo._normMul[i-_dinfo._cats];
           nums[i-_dinfo._cats] = d;
         }
         for(i = 0; i < _dinfo._responses; ++i) {
-          response[i] = chunks[chunks.length-_dinfo._responses + i].at0(r);
+          response[i] = block[chunks.length-_dinfo._responses + i][b];
           if (_dinfo._normRespMul != null) response[i] = (response[i] - _dinfo._normRespSub[i])*_dinfo._normRespMul[i];
         }
         if (outputs != null && outputs.length > 0)
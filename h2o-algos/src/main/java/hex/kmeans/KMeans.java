@@ -5,7 +5,9 @@ import java.util.Random;
 import water.*;
 import water.H2O.H2OCountedCompleter;
 import water.fvec.*;
+import water.util.AccLongs;
 import water.util.ArrayUtils;
+import water.util.LocalReducer;
 import water.util.Log;
 import water.util.RandomUtils;
 
@@ -200,10 +202,14 @@ public class KMeans extends Job<KMeansModel> {
 
     @Override public void map(Chunk[] cs) {
       double[] values = new double[cs.length];
+      double[][] block = new double[cs.length][Chunk.ROW_BLOCK];
       ClusterDist cd = new ClusterDist();
-      for( int row = 0; row < cs[0].len(); row++ ) {
-        data(values, cs, row, _means, _mults);
-        _sqr += minSqr(_clusters, values, _ncats, cd);
+      for( int row0 = 0; row0 < cs[0].len(); row0 += Chunk.ROW_BLOCK ) {
+        int end = nextBlock(block, cs, row0);
+        for( int row = row0; row < end; row++ ) {
+          data(values, block, row-row0, cs, _means, _mults);
+          _sqr += minSqr(_clusters, values, _ncats, cd);
+        }
       }
       _means = _mults = null;
       _clusters = null;
@@ -241,13 +247,17 @@ public class KMeans extends Job<KMeansModel> {
       double[] values = new double[cs.length];
       ArrayList<double[]> list = new ArrayList<>();
       Random rand = RandomUtils.getRNG(_seed + cs[0].start());
+      double[][] block = new double[cs.length][Chunk.ROW_BLOCK];
       ClusterDist cd = new ClusterDist();
 
-      for( int row = 0; row < cs[0].len(); row++ ) {
-        data(values, cs, row, _means, _mults);
-        double sqr = minSqr(_clusters, values, _ncats, cd);
-        if( _probability * sqr > rand.nextDouble() * _sqr )
-          list.add(values.clone());
+      for( int row0 = 0; row0 < cs[0].len(); row0 += Chunk.ROW_BLOCK ) {
+        int end = nextBlock(block, cs, row0);
+        for( int row = row0; row < end; row++ ) {
+          data(values, block, row-row0, cs, _means, _mults);
+          double sqr = minSqr(_clusters, values, _ncats, cd);
+          if( _probability * sqr > rand.nextDouble() * _sqr )
+            list.add(values.clone());
+        }
       }
 
       _sampled = new double[list.size()][];
@@ -276,12 +286,15 @@ public class KMeans extends Job<KMeansModel> {
 
     // OUT
     double[][] _cMeans;         // Means for each cluster
-    long[/*K*/][/*ncats*/][] _cats; // Histogram of cat levels
+    AccLongs[/*K*/][/*ncats*/] _cats; // Histogram of cat levels; mostly zeros
     double[] _cSqr;             // Sum of squares for each cluster
     long[] _rows;               // Rows per cluster
     long _worse_row;            // Row with max err
     double _worse_err;          // Max-err-row's max-err
 
+    // Cat histograms are counted per-thread for the whole Node, not per-Chunk
+    transient LocalReducer<AccLongs[][]> _localCats;
+
     Lloyds( double[][] clusters, double[] means, double[] mults, int ncats, int K ) {
       _clusters = clusters;
       _means = means;
@@ -290,37 +303,59 @@ public class KMeans extends Job<KMeansModel> {
       _K = K;
     }
 
+    @Override protected void setupLocal() {
+      final Vec[] vecs = _fr.vecs();
+      _localCats = new LocalReducer<AccLongs[][]>() {
+        @Override protected AccLongs[][] make() {
+          AccLongs[][] cats = new AccLongs[_K][_ncats];
+          for( int clu=0; clu<_K; clu++ )
+            for( int col=0; col<_ncats; col++ )
+              cats[clu][col] = new AccLongs(vecs[col].cardinality());
+          return cats;
+        }
+        @Override protected AccLongs[][] reduce( AccLongs[][] a, AccLongs[][] b ) { return addCats(a,b); }
+      };
+    }
+    private static AccLongs[][] addCats( AccLongs[][] a, AccLongs[][] b ) {
+      if( a == null ) return b;
+      if( b != null )
+        for( int clu=0; clu<a.length; clu++ )
+          for( int col=0; col<a[clu].length; col++ )
+            a[clu][col].add(b[clu][col]);
+      return a;
+    }
+
     @Override public void map(Chunk[] cs) {
       int N = cs.length;
       assert _clusters[0].length==N;
       _cMeans = new double[_K][N];
       _cSqr = new double[_K];
       _rows = new long[_K];
-      // Space for cat histograms
-      _cats = new long[_K][_ncats][];
-      for( int clu=0; clu<_K; clu++ )
-        for( int col=0; col<_ncats; col++ )
-          _cats[clu][col] = new long[cs[col].vec().cardinality()];
+      AccLongs[][] cats = _localCats.get();
       _worse_err = 0;
 
       // Find closest cluster for each row
       double[] values = new double[N];
+      double[][] block = new double[N][Chunk.ROW_BLOCK];
       ClusterDist cd = new ClusterDist();
-      for( int row = 0; row < cs[0].len(); row++ ) {
-        data(values, cs, row, _means, _mults);
-        closest(_clusters, values, _ncats, cd);
-        int clu = cd._cluster;
-        assert clu != -1; // No broken rows
-        _cSqr[clu] += cd._dist;
-
-        // Add values and increment counter for chosen cluster
-        for( int col = 0; col < _ncats; col++ )
-          _cats[clu][col][(int)values[col]]++; // Histogram the cats
-        for( int col = _ncats; col < N; col++ )
-          _cMeans[clu][col] += values[col];
-        _rows[clu]++;
-        // Track worse row
-        if( cd._dist > _worse_err ) { _worse_err = cd._dist; _worse_row = cs[0].start()+row; }
+      for( int row0 = 0; row0 < cs[0].len(); row0 += Chunk.ROW_BLOCK ) {
+        int end = nextBlock(block, cs, row0);
+        for( int row = row0; row < end; row++ ) {
+          data(values, block, row-row0, cs, _means, _mults);
+          closest(_clusters, values, _ncats, cd);
+          int clu = cd._cluster;
+          assert clu != -1; // No broken rows
+          _cSqr[clu] += cd._dist;
+
+          // Add values and increment counter for chosen cluster
+          for( int col = 0; col < _ncats; col++ )
+            cats[clu][col].add((int)values[col],1); // Histogram the cats
+          for( int col = _ncats; col < N; col++ )
+            _cMeans[clu][col] += values[col];
+          _rows[clu]++;
+          // Track worse row
+          if( cd._dist > _worse_err ) { _worse_err = cd._dist; _worse_row = cs[0].start()+row; }
+        }
       }
       // Scale back down to local mean
       for( int clu = 0; clu < _K; clu++ )
@@ -338,12 +373,13 @@ public class KMeans extends Job<KMeansModel> {
         for( int c = 0; c < ma.length; c++ ) // Recursive mean
           if( ra+rb > 0 ) ma[c] = (ma[c] * ra + mb[c] * rb) / (ra + rb);
       }
-      ArrayUtils.add(_cats, mr._cats);
+      _cats = addCats(_cats, mr._cats);
       ArrayUtils.add(_cSqr, mr._cSqr);
       ArrayUtils.add(_rows, mr._rows);
       // track global worse-row
       if( _worse_err < mr._worse_err ) { _worse_err = mr._worse_err; _worse_row = mr._worse_row; }
     }
+    @Override protected void closeLocal() { _cats = addCats(_cats, _localCats.fold()); }
   }
 
   // A pair result: nearest cluster, and the square distance
@@ -476,12 +512,12 @@ public class KMeans extends Job<KMeansModel> {
   }
 
   // Pick most common cat level for each cluster_centers' cat columns
-  private static double[][] max_cats(double[][] clusters, long[][][] cats) {
+  private static double[][] max_cats(double[][] clusters, AccLongs[][] cats) {
     int K = cats.length;
     int ncats = cats[0].length;
     for( int clu = 0; clu < K; clu++ )
       for( int col = 0; col < ncats; col++ ) // Cats use max level for cluster center
-        clusters[clu][col] = ArrayUtils.maxIndex(cats[clu][col]);
+        clusters[clu][col] = ArrayUtils.maxIndex(cats[clu][col].vals());
     return clusters;
   }
 
@@ -505,9 +541,18 @@ public class KMeans extends Job<KMeansModel> {
     }
   }
 
-  private static void data(double[] values, Chunk[] chks, int row, double[] means, double[] mults) {
+  // Decode the next block of rows, starting at 'row', for every column.
+  // Returns the end of the block.
+  private static int nextBlock(double[][] block, Chunk[] chks, int row) {
+    int end = Math.min(row + Chunk.ROW_BLOCK, chks[0].len());
+    for( int i = 0; i < chks.length; i++ )
+      chks[i].getDoubles(block[i], row, end);
+    return end;
+  }
+
+  private static void data(double[] values, double[][] block, int b, Chunk[] chks, double[] means, double[] mults) {
     for( int i = 0; i < values.length; i++ ) {
-      double d = chks[i].at0(row);
+      double d = block[i][b];
       values[i] = data(d, i, means, mults, chks[i].vec().cardinality());
     }
   }
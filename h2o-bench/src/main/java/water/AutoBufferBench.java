@@ -0,0 +1,72 @@
+package water;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Scope; // Not water.Scope
+
+/** AutoBuffer serialization of primitive arrays, and of Freezables through
+ *  their generated Icers.  Scores are in microseconds per round trip. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=5)
+@Fork(1)
+public class AutoBufferBench {
+  @Param({"1000","100000"})
+  int _len;
+
+  byte  [] _a1;
+  int   [] _a4;
+  long  [] _a8;
+  double[] _a8d;
+  Point _point;
+  Point[] _points;
+
+  /** A typical small Iced: scalars, an array and a String */
+  public static class Point extends Iced {
+    int _id;
+    long _stamp;
+    double _x, _y;
+    double[] _weights;
+    String _label;
+    public Point() { }
+    Point( int id, Random r ) {
+      _id = id;  _stamp = r.nextLong();
+      _x = r.nextDouble();  _y = r.nextDouble();
+      _weights = new double[] {r.nextDouble(), r.nextDouble(), r.nextDouble()};
+      _label = "point"+id;
+    }
+  }
+
+  @Setup public void setup() {
+    BenchCloud.boot();          // TypeMap ids for Freezables
+    Random r = new Random(42);
+    _a1 = new byte[_len];  r.nextBytes(_a1);
+    _a4 = new int[_len];
+    _a8 = new long[_len];
+    _a8d = new double[_len];
+    for( int i=0; i<_len; i++ ) {
+      _a4[i] = r.nextInt();  _a8[i] = r.nextLong();  _a8d[i] = r.nextDouble();
+    }
+    _point = new Point(0,r);
+    _points = new Point[Math.min(_len,10000)];
+    for( int i=0; i<_points.length; i++ ) _points[i] = new Point(i,r);
+  }
+
+  @Benchmark public byte[] putA1() { return new AutoBuffer().putA1(_a1).buf(); }
+  @Benchmark public byte[] putA4() { return new AutoBuffer().putA4(_a4).buf(); }
+  @Benchmark public byte[] putA8() { return new AutoBuffer().putA8(_a8).buf(); }
+  @Benchmark public byte[] putA8d() { return new AutoBuffer().putA8d(_a8d).buf(); }
+
+  @Benchmark public byte[] roundTripA1() { return new AutoBuffer().putA1(_a1).flipForReading().getA1(); }
+  @Benchmark public int[] roundTripA4() { return new AutoBuffer().putA4(_a4).flipForReading().getA4(); }
+  @Benchmark public long[] roundTripA8() { return new AutoBuffer().putA8(_a8).flipForReading().getA8(); }
+  @Benchmark public double[] roundTripA8d() { return new AutoBuffer().putA8d(_a8d).flipForReading().getA8d(); }
+
+  // One small Freezable per buffer, as in most RPC calls
+  @Benchmark public Point roundTripFreezable() { return new AutoBuffer().put(_point).flipForReading().get(); }
+  // Many Freezables per buffer, as in a reduced MRTask result
+  @Benchmark public Point[] roundTripFreezables() { return new AutoBuffer().putA(_points).flipForReading().getA(Point.class); }
+}
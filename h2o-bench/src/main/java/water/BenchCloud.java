@@ -0,0 +1,15 @@
+package water;
+
+/** Boots a private single-node cloud, once per benchmark JVM, for the
+ *  benchmarks needing the K/V store, the TypeMap or MRTask. */
+public final class BenchCloud {
+  private static boolean _booted;
+
+  public static synchronized void boot() {
+    if( _booted ) return;
+    // A unique cloud name, so a benchmark never joins someone else's cloud
+    H2O.main(new String[] {"-name","h2o-bench-"+System.nanoTime()});
+    H2O.waitForCloudSize(1, 10000);
+    _booted = true;
+  }
+}
@@ -0,0 +1,73 @@
+package water;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Scope; // Not water.Scope
+import water.fvec.*;
+
+/** MRTask.doAll over a multi-chunk Frame on a single node: the fork/join
+ *  fan-out, per-chunk map and tree reduce.  Scores are in milliseconds per
+ *  doAll. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=5)
+@Fork(1)
+public class MRTaskBench {
+  static final int NCOLS = 4;
+
+  @Param({"16","256"})
+  int _nchunks;
+  @Param({"10000"})
+  int _chunkRows;
+
+  Frame _fr;
+
+  @Setup public void setup() {
+    BenchCloud.boot();
+    Futures fs = new Futures();
+    Key[] keys = Vec.VectorGroup.VG_LEN1.addVecs(NCOLS);
+    Vec[] vecs = new Vec[NCOLS];
+    for( int c=0; c<NCOLS; c++ ) {
+      AppendableVec av = new AppendableVec(keys[c]);
+      for( int cidx=0; cidx<_nchunks; cidx++ ) {
+        NewChunk nc = new NewChunk(av,cidx);
+        for( int r=0; r<_chunkRows; r++ ) nc.addNum((cidx*_chunkRows+r)%1000*(c+1),0);
+        nc.close(cidx,fs);
+      }
+      vecs[c] = av.close(fs);
+    }
+    fs.blockForPending();
+    _fr = new Frame(vecs);
+  }
+
+  @TearDown public void tearDown() { _fr.delete(); }
+
+  // Column sums; a typical cheap map with a small reduce
+  static class Sum extends MRTask<Sum> {
+    double[] _sums;
+    @Override public void map( Chunk[] cs ) {
+      _sums = new double[cs.length];
+      double[] ds = new double[cs[0].len()];
+      for( int c=0; c<cs.length; c++ ) {
+        cs[c].getDoubles(ds,0,ds.length);
+        double s = 0;
+        for( double d : ds ) s += d;
+        _sums[c] = s;
+      }
+    }
+    @Override public void reduce( Sum other ) {
+      for( int c=0; c<_sums.length; c++ ) _sums[c] += other._sums[c];
+    }
+  }
+
+  @Benchmark public double[] doAll() { return new Sum().doAll(_fr)._sums; }
+
+  // Empty map: what the framework itself costs per chunk
+  static class Noop extends MRTask<Noop> {
+    @Override public void map( Chunk[] cs ) { }
+  }
+
+  @Benchmark public Noop doAllNoop() { return new Noop().doAll(_fr); }
+}
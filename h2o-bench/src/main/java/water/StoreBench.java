@@ -0,0 +1,65 @@
+package water;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Scope; // Not water.Scope
+import water.fvec.Vec;
+import water.nbhm.NonBlockingHashMap;
+import water.util.UnsafeUtils;
+
+/** The K/V store map: the generic NonBlockingHashMap against the
+ *  Key-specialized NonBlockingKeyHashMap, under a concurrent mix of get,
+ *  putIfMatch and remove on chunk-style Keys.  Lookups use fresh copies of
+ *  the Keys, as chunk accesses do, so they cannot hit on pointer equality.
+ *  Scores are in operations per microsecond, summed over threads. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=5)
+@Fork(1)
+@Threads(4)
+public class StoreBench {
+  @Param({"nbhm","keymap"})
+  String _map;
+  @Param({"10000","1000000"})
+  int _keys;
+  @Param({"90"})
+  int _getPct;                  // The rest are split between puts and removes
+
+  NonBlockingHashMap<Key,Value> _nbhm;
+  NonBlockingKeyHashMap<Value> _kmap;
+  byte[][] _kbs;                // Key bytes, to make fresh Keys from
+  Value _val;
+
+  @Setup public void setup() {
+    BenchCloud.boot();
+    _kbs = new byte[_keys][];
+    byte[] vkb = Vec.newKey()._kb;
+    for( int i=0; i<_keys; i++ ) {
+      byte[] kb = vkb.clone();
+      kb[0] = Key.DVEC;
+      UnsafeUtils.set4(kb,6,i); // Chunk#
+      _kbs[i] = kb;
+    }
+    _val = new Value(Key.make(_kbs[0]),new byte[8]);
+    _nbhm = new NonBlockingHashMap<>();
+    _kmap = new NonBlockingKeyHashMap<>();
+    for( int i=0; i<_keys; i+=2 )  // Half the Keys start out present
+      if( _map.equals("nbhm") ) _nbhm.put(Key.make(_kbs[i]),_val);
+      else                      _kmap.put(Key.make(_kbs[i]),_val);
+  }
+
+  @Benchmark public Object mix() {
+    ThreadLocalRandom r = ThreadLocalRandom.current();
+    Key k = Key.make(_kbs[r.nextInt(_keys)]);
+    int op = r.nextInt(100);
+    if( _map.equals("nbhm") ) {
+      if( op < _getPct ) return _nbhm.get(k);
+      return _nbhm.putIfMatchUnlocked(k,(op&1)==0 ? _val : null,_nbhm.get(k));
+    }
+    if( op < _getPct ) return _kmap.get(k);
+    return _kmap.putIfMatchUnlocked(k,(op&1)==0 ? _val : null,_kmap.get(k));
+  }
+}
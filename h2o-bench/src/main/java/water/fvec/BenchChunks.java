@@ -0,0 +1,60 @@
+package water.fvec;
+
+import water.util.UnsafeUtils;
+
+/** Chunks of every compression scheme, filled with data typical of that
+ *  scheme, for the benchmarks. */
+public final class BenchChunks {
+  /** Names of all the codecs {@link #make} knows */
+  public static final String[] CODECS = {"C0L","C0D","C1","C1N","C1S","C2","C2S","C4","C4S","C4F","C8","C8D","CBS","CX0","CXI","CXD","CDL","CDD","CRL"};
+
+  /** Make a 'len'-row Chunk of the named codec.  Dense codecs which allow
+   *  missing values get one NA every 1000 rows; sparse codecs hold a value
+   *  every 97th row; run-length CRL holds runs of 500. */
+  public static Chunk make( String codec, int len ) {
+    if( codec.equals("C4F") ) return floats(len);
+    Chunk c = newChunk(codec,len).compress();
+    if( !c.getClass().getSimpleName().equals(codec+"Chunk") )
+      throw new IllegalStateException("Expected "+codec+" but compressed to "+c.getClass().getSimpleName());
+    return c;
+  }
+
+  /** A filled NewChunk which compresses to the named codec; see {@link #make} */
+  public static NewChunk newChunk( String codec, int len ) {
+    NewChunk nc = new NewChunk(null,0);
+    for( int i=0; i<len; i++ ) {
+      boolean na = i%1000 == 999;
+      boolean nz = i%97 == 5;
+      switch( codec ) {
+      case "C0L": nc.addNum(7,0); break;
+      case "C0D": nc.addNum(15,-1); break;
+      case "C1":  if( na ) nc.addNA(); else nc.addNum(i%250,0); break;
+      case "C1N": nc.addNum(i%250,0); break;
+      case "C1S": if( na ) nc.addNA(); else nc.addNum(i%200+5,-1); break;
+      case "C2":  if( na ) nc.addNA(); else nc.addNum(i%60000-30000,0); break;
+      case "C2S": if( na ) nc.addNA(); else nc.addNum(i%60000-30000,-2); break;
+      // Scattered, so no delta encoding beats 4 bytes
+      case "C4":  if( na ) nc.addNA(); else nc.addNum((i*2654435761L)%2000000000L-1000000000L,0); break;
+      case "C4S": if( na ) nc.addNA(); else nc.addNum(i*31L-1000001L,-2); break;
+      case "C8":  if( na ) nc.addNA(); else nc.addNum(i*31111111111L,0); break;
+      case "C8D": nc.addNum(na ? Double.NaN : i*Math.PI); break;
+      case "CBS": if( na ) nc.addNA(); else nc.addNum(i%3==0 ? 1 : 0,0); break;
+      case "CX0": nc.addNum(nz ? 1 : 0,0); break;
+      case "CXI": if( nz ) nc.addNum(17+i%100,0); else nc.addNum(0,0); break;
+      case "CXD": if( nz ) nc.addNum(i*Math.PI); else nc.addNum(0,0); break;
+      case "CDL": if( na ) nc.addNA(); else nc.addNum(1400000000000L+i*1000L+i%7,0); break; // Millisecond time stamps
+      case "CDD": nc.addNum(na ? Double.NaN : (i%20)*Math.PI); break;
+      case "CRL": nc.addNum(i/500,0); break;
+      default: throw new IllegalArgumentException("No NewChunk data for codec "+codec);
+      }
+    }
+    return nc;
+  }
+
+  // NewChunk never compresses to 4-byte floats; build one directly
+  private static Chunk floats( int len ) {
+    byte[] bs = new byte[len<<2];
+    for( int i=0; i<len; i++ ) UnsafeUtils.set4f(bs,i<<2,i%1000==999 ? Float.NaN : i*1.5e20f);
+    return new C4FChunk(bs);
+  }
+}
@@ -0,0 +1,65 @@
+package water.fvec;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** Row-at-a-time vs bulk decoding of a Chunk, per codec.  Scores are in
+ *  nanoseconds per row. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=5)
+@Fork(1)
+public class ChunkDecodeBench {
+  static final int ROWS = 1<<16;
+
+  @Param({"C0L","C0D","C1","C1N","C1S","C2","C2S","C4","C4S","C4F","C8","C8D","CBS","CX0","CXI","CXD","CDL","CDD","CRL"})
+  String _codec;
+
+  Chunk _chk;
+  final double[] _ds = new double[ROWS];
+  final long[] _ls = new long[ROWS];
+  final long[] _nas = new long[ROWS>>6];
+
+  @Setup public void setup() { _chk = BenchChunks.make(_codec,ROWS); }
+
+  @Benchmark @OperationsPerInvocation(ROWS)
+  public double at0() {
+    Chunk c = _chk;
+    double sum = 0;
+    for( int i=0; i<ROWS; i++ ) {
+      double d = c.at0(i);
+      if( !Double.isNaN(d) ) sum += d;
+    }
+    return sum;
+  }
+
+  @Benchmark @OperationsPerInvocation(ROWS)
+  public double getDoubles() {
+    double[] ds = _chk.getDoubles(_ds,0,ROWS);
+    double sum = 0;
+    for( int i=0; i<ROWS; i++ ) {
+      double d = ds[i];
+      if( !Double.isNaN(d) ) sum += d;
+    }
+    return sum;
+  }
+
+  @Benchmark @OperationsPerInvocation(ROWS)
+  public long at80() {
+    Chunk c = _chk;
+    long sum = 0;
+    for( int i=0; i<ROWS; i++ )
+      if( !c.isNA0(i) ) sum += c.at80(i);
+    return sum;
+  }
+
+  @Benchmark @OperationsPerInvocation(ROWS)
+  public long getLongs() {
+    _chk.getLongs(_ls,_nas,0,ROWS);
+    long sum = 0;               // Missing rows decode as zero
+    for( int i=0; i<ROWS; i++ ) sum += _ls[i];
+    return sum;
+  }
+}
@@ -0,0 +1,27 @@
+package water.fvec;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** NewChunk.compress() into every output codec.  Scores are in nanoseconds
+ *  per row; filling the NewChunk is not timed. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=5)
+@Fork(1)
+public class NewChunkCompressBench {
+  static final int ROWS = 1<<16;
+
+  // C4F is never chosen by compress()
+  @Param({"C0L","C0D","C1","C1N","C1S","C2","C2S","C4","C4S","C8","C8D","CBS","CX0","CXI","CXD","CDL","CDD","CRL"})
+  String _codec;
+
+  NewChunk _nc;
+
+  @Setup(Level.Invocation) public void fill() { _nc = BenchChunks.newChunk(_codec,ROWS); }
+
+  @Benchmark @OperationsPerInvocation(ROWS)
+  public Chunk compress() { return _nc.compress(); }
+}
@@ -0,0 +1,88 @@
+package water.parser;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import water.Iced;
+import water.fvec.NewChunk;
+
+/** CsvParser tokenizing one chunk of CSV bytes into NewChunks, the way the
+ *  parse's FVecDataOut does (minus the K/V store).  Scores are in
+ *  milliseconds per 4MB chunk. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=5)
+@Measurement(iterations=5)
+@Fork(1)
+public class CsvParseBench {
+  static final int BYTES = 4<<20;
+  static final int NCOLS = 6;
+  static final String[] LEVELS = {"alpha","bravo","charlie","delta","echo","foxtrot","golf","hotel","india","juliett"};
+
+  byte[] _bits;
+  ParseSetup _setup;
+
+  // Columns: small ints, longs, 2-digit decimals, doubles with exponents,
+  // categoricals, and ints with ~1% missing
+  @Setup public void setup() {
+    Random r = new Random(42);
+    StringBuilder sb = new StringBuilder(BYTES+100);
+    while( sb.length() < BYTES ) {
+      sb.append(r.nextInt(100)).append(',');
+      sb.append(r.nextLong()>>>20).append(',');
+      sb.append(r.nextInt(100000)/100.0).append(',');
+      sb.append(r.nextGaussian()*1e-5).append(',');
+      sb.append(LEVELS[r.nextInt(LEVELS.length)]).append(',');
+      if( r.nextInt(100) != 0 ) sb.append(r.nextInt(1<<20));
+      sb.append('\n');
+    }
+    _bits = sb.toString().getBytes();
+    _setup = new ParseSetup(true,0,null,ParserType.CSV,(byte)',',NCOLS,false,null,null,-1);
+  }
+
+  @Benchmark public NewChunk[] parse() {
+    final byte[] bits = _bits;
+    Parser.DataIn din = new Parser.DataIn() {
+      @Override public byte[] getChunkData( int cidx ) { return cidx == 0 ? bits : null; }
+      @Override public int getChunkDataStart( int cidx ) { return -1; }
+      @Override public void setChunkDataStart( int cidx, int offset ) { }
+    };
+    ChunkDataOut dout = new ChunkDataOut(NCOLS);
+    _setup.parser().parallelParse(0,din,dout);
+    return dout._nvs;
+  }
+
+  // Numbers, NAs and enums into NewChunks, as in ParseDataset2.FVecDataOut
+  static final class ChunkDataOut extends Iced implements Parser.DataOut {
+    final NewChunk[] _nvs;
+    final Enum[] _enums;
+    int _col = -1;
+    ChunkDataOut( int ncols ) {
+      _nvs = new NewChunk[ncols];
+      _enums = new Enum[ncols];
+      for( int i=0; i<ncols; i++ ) { _nvs[i] = new NewChunk(null,0); _enums[i] = new Enum(); }
+    }
+    @Override public void setColumnNames( String[] names ) { }
+    @Override public void newLine() {
+      if( _col >= 0 )
+        for( int i=_col+1; i<_nvs.length; i++ ) addInvalidCol(i);
+      _col = -1;
+    }
+    @Override public boolean isString( int colIdx ) { return false; }
+    @Override public void addNumCol( int colIdx, long number, int exp ) {
+      if( colIdx < _nvs.length ) _nvs[_col = colIdx].addNum(number,exp);
+    }
+    @Override public void addNumCol( int colIdx, double d ) {
+      if( colIdx < _nvs.length ) _nvs[_col = colIdx].addNum(d);
+    }
+    @Override public void addInvalidCol( int colIdx ) {
+      if( colIdx < _nvs.length ) _nvs[_col = colIdx].addNA();
+    }
+    @Override public void addStrCol( int colIdx, ValueString str ) {
+      if( colIdx < _nvs.length ) _nvs[_col = colIdx].addEnum(_enums[colIdx].addKey(str));
+    }
+    @Override public void rollbackLine() { }
+    @Override public void invalidLine( String err ) { newLine(); }
+  }
+}
@@ -27,11 +27,11 @@ public final class AutoBuffer {
   ByteBuffer _bb;
 
   // The ByteChannel for schlorping more data in or out.  Could be a
-  // SocketChannel (for a TCP connection) or a FileChannel (spill-to-disk) or a
+  // TCPMux.Stream (for a TCP message) or a FileChannel (spill-to-disk) or a
   // DatagramChannel (for a UDP connection).
   private ByteChannel _chan;
 
-  // If we need a SocketChannel, raise the priority so we get the I/O over
+  // If we need a TCP stream, raise the priority so we get the I/O over
   // with.  Do not want to have some TCP socket open, blocking the TCP channel
   // and then have the thread stalled out.  If we raise the priority - be sure
   // to lower it again.  Note this is for TCP channels ONLY, and only because
@@ -96,19 +96,18 @@ public final class AutoBuffer {
     _persist = 0;               // No persistance
   }
 
-  // Incoming TCP request.  Make a read-mode AutoBuffer from the open Channel,
-  // figure the originating H2ONode from the first few bytes read.
-  AutoBuffer( SocketChannel sock ) throws IOException {
-    _chan = sock;
-    raisePriority();            // Make TCP priority high
+  // Incoming TCP request, reassembled from a multiplexed link.  Make a
+  // read-mode AutoBuffer from it; the link knows the originating H2ONode.
+  AutoBuffer( H2ONode h2o, TCPMux.InStream in ) {
+    _chan = in;
     _bb = bbMake();
     _bb.flip();
     _read = true;               // Reading by default
     _firstPage = true;
-    // Read Inet from socket, port from the stream, figure out H2ONode
-    _h2o = H2ONode.intern(sock.socket().getInetAddress(), getPort());
+    _h2o = h2o;
+    int port = getPort();       // Load the first page
+    assert _h2o != null && _h2o != H2O.SELF && port == _h2o._key.getPort();
     _firstPage = true;          // Yes, must reset this.
-    assert _h2o != null && _h2o != H2O.SELF;
     _time_start_ms = System.currentTimeMillis();
     _persist = Value.TCP;
   }
@@ -138,6 +137,27 @@ public final class AutoBuffer {
     _persist = persist;         // One of Value.ICE, NFS, S3, HDFS
   }
 
+  // Write to a stream, e.g. an HTTP response body, a ByteBuffer-full at a
+  // time; close() sends the rest and closes the stream.
+  public AutoBuffer( OutputStream os ) {
+    _bb = bbMake();
+    _chan = new StreamChannel(Channels.newChannel(os));
+    _h2o = null;
+    _read = false;
+    _time_start_ms = System.currentTimeMillis();
+    _persist = 0;               // No persistance
+  }
+
+  // Write-only ByteChannel over an OutputStream
+  private static final class StreamChannel implements ByteChannel {
+    private final WritableByteChannel _wc;
+    StreamChannel( WritableByteChannel wc ) { _wc = wc; }
+    @Override public int read( ByteBuffer bb ) { throw new UnsupportedOperationException(); }
+    @Override public int write( ByteBuffer bb ) throws IOException { return _wc.write(bb); }
+    @Override public boolean isOpen() { return _wc.isOpen(); }
+    @Override public void close() throws IOException { _wc.close(); }
+  }
+
   // Read from UDP multicast.  Same as the byte[]-read variant, except there is an H2O.
   AutoBuffer( DatagramPacket pack ) {
     _size = pack.getLength();
@@ -150,6 +170,17 @@ public final class AutoBuffer {
     _persist = 0;               // No persistance
   }
 
+  // One packet split out of a UDPBatch; the batch knew the sender.
+  AutoBuffer( H2ONode h2o, byte[] pkt ) {
+    _size = pkt.length;
+    _bb = ByteBuffer.wrap(pkt).order(ByteOrder.nativeOrder());
+    _read = true;
+    _firstPage = true;
+    _chan = null;
+    _h2o = h2o;
+    _persist = 0;               // No persistance
+  }
+
   /** Read from a fixed byte[]; should not be closed. */
   AutoBuffer( byte[] buf ) { this(buf,0); }
   /** Read from a fixed byte[]; should not be closed. */
@@ -289,36 +320,26 @@ public final class AutoBuffer {
       // Force AutoBuffer 'close' calls to order; i.e. block readers until
       // writers do a 'close' - by writing 1 more byte in the close-call which
       // the reader will have to wait for.
-      if( tcp ) {               // TCP connection?
-        SocketChannel sock = (SocketChannel)_chan;
+      if( tcp ) {               // TCP message?
         try {
           if( failed ) throw new IOException("failed before tcp close");
           if( _read ) {         // Reader?
             int x = get1U();    // Read 1 more byte
             assert x == 0xab : "AB.close instead of 0xab sentinel got "+x+", "+this;
-            // Write the reader-handshake-byte.
-            sock.socket().getOutputStream().write(0xcd);
-            // do not close actually reader socket; recycle it in TCPReader thread
           } else {              // Writer?
             put1(0xab);         // Write one-more byte
             sendPartial();      // Finish partial writes
-            sock = (SocketChannel)_chan; // Reload, in-case _chan was null and is not set
-            // Read the writer-handshake-byte.
-            int x = sock.socket().getInputStream().read();
-            // either TCP con was dropped or other side closed connection without reading/confirming (e.g. task was cancelled).
-            if( x == -1 ) new IOException("Other side closed connection unexpectedly.");
-            assert x == 0xcd : "Handshake; writer expected a 0xcd from reader but got "+x;
           }
+          // Writers block until the reader is done with the whole message
+          _chan.close();
         } catch( IOException ioe ) {
-          try { _chan.close(); } catch( IOException ignore ) {} // Silently close
-          sock = null;
+          if( _chan != null ) ((TCPMux.Stream)_chan).abort(); // Silently drop the message
           throw ioe;            // Rethrow after close
         } finally {
-          if( !_read ) _h2o.freeTCPSocket(sock); // Recycle writable TCP channel
           restorePriority();        // And if we raised priority, lower it back
         }
 
-      } else {                      // FileChannel
+      } else {                      // FileChannel or stream
         if( !_read ) sendPartial(); // Finish partial file-system writes
         _chan.close();
       }
@@ -339,27 +360,22 @@ public final class AutoBuffer {
     assert _firstPage && _bb.limit() >= 1+2+4; // At least something written
     assert _chan == null;
     assert _bb.position()==0;
-    _chan = _h2o.getTCPSocket();
+    _chan = _h2o.openTCPStream();
     raisePriority();
   }
-  // Just close the channel here without reading anything. Without the task object at hand we do not know what (how many bytes) should
-  // we read from the channel. And since the other side will try to read confirmation from us in before closing the channel,
-  // we can not read till the end. So we just close the channel and let the other side to deal with it and figure out the task has been cancelled
-  // (still sending ack ack back).
+  // Just drop the message here without reading anything. Without the task
+  // object at hand we do not know what (how many bytes) should we read; the
+  // other side figures out the task has been cancelled (still sending ack ack
+  // back).
   void drainClose() {
-    try {
-      try {              Log.info("drainClose channel to " + ((SocketChannel) _chan).socket().getInetAddress()); }
-      catch(Throwable t){Log.info("drainClose channel to unknown node");}
-      _chan.close();
-      restorePriority();        // And if we raised priority, lower it back
-      bbFree();
-    } catch( IOException e ) {  // Dunno how to handle so crash-n-burn
-      throw Log.throwErr(e);
-    }
+    Log.info("drainClose channel to " + _h2o);
+    ((TCPMux.Stream)_chan).abort();
+    restorePriority();        // And if we raised priority, lower it back
+    bbFree();
   }
 
   // True if we opened a TCP channel, or will open one to close-and-send
-  boolean hasTCP() { return _chan instanceof SocketChannel || (_chan==null && _h2o!=null && _bb != null && _bb.position() >= MTU); }
+  boolean hasTCP() { return _chan instanceof TCPMux.Stream || (_chan==null && _h2o!=null && _bb != null && _bb.position() >= MTU); }
 
   // True if we are in read-mode
   boolean readMode() { return _read; }
@@ -391,7 +407,7 @@ public final class AutoBuffer {
   // over with.
   private void raisePriority() {
     if(_oldPrior == -1){
-      assert _chan instanceof SocketChannel;
+      assert _chan instanceof TCPMux.Stream;
       _oldPrior = Thread.currentThread().getPriority();
       Thread.currentThread().setPriority(Thread.MAX_PRIORITY-1);
     }
@@ -413,7 +429,7 @@ public final class AutoBuffer {
     _bb.flip();                 // Flip for sending
     if( _h2o==H2O.SELF ) {      // SELF-send is the multi-cast signal
       water.init.NetworkInit.multicast(_bb);
-    } else {                    // Else single-cast send
+    } else if( !UDPBatch.offer(_h2o,_bb) ) { // Else coalesce, or single-cast send
       water.init.NetworkInit.CLOUD_DGRAM.send(_bb, _h2o._key);
     }
     return 0;                   // Flow-coding
@@ -467,6 +483,8 @@ public final class AutoBuffer {
         if( res ==  0 ) throw new RuntimeException("Reading zero bytes - so no progress?");
         _size += res;            // What we read
       } catch( IOException e ) { // Dunno how to handle so crash-n-burn
+        // The sender gave up on the message, or its link failed
+        if( e instanceof EOFException ) throw new TCPIsUnreliableException(e);
         // Linux/Ubuntu message for a reset-channel
         if( e.getMessage().equals("An existing connection was forcibly closed by the remote host") )
           throw new TCPIsUnreliableException(e);
@@ -515,7 +533,7 @@ public final class AutoBuffer {
       long ns = System.nanoTime();
       while( _bb.hasRemaining() ) {
         _chan.write(_bb);
-        if( RANDOM_TCP_DROP != null &&_chan instanceof SocketChannel && RANDOM_TCP_DROP.nextInt(100) == 0 )
+        if( RANDOM_TCP_DROP != null &&_chan instanceof TCPMux.Stream && RANDOM_TCP_DROP.nextInt(100) == 0 )
           throw new IOException("Random TCP Write Fail");
       }
       _time_io_ns += (System.nanoTime()-ns);
@@ -1487,7 +1505,7 @@ public final class AutoBuffer {
     return put1(']');
   }
 
-  AutoBuffer putJSON8d( double d ) { return d==Double.POSITIVE_INFINITY?putJSONStr(JSON_POS_INF):(d==Double.NEGATIVE_INFINITY?putJSONStr(JSON_NEG_INF):(Double.isNaN(d)?putJSONStr(JSON_NAN):putJStr(Double.toString(d)))); }
+  public AutoBuffer putJSON8d( double d ) { return d==Double.POSITIVE_INFINITY?putJSONStr(JSON_POS_INF):(d==Double.NEGATIVE_INFINITY?putJSONStr(JSON_NEG_INF):(Double.isNaN(d)?putJSONStr(JSON_NAN):putJStr(Double.toString(d)))); }
   public AutoBuffer putJSON8d( String name, double d ) { return putJSONStr(name).put1(':').putJSON8d(d); }
   public AutoBuffer putJSONA8d( double[] a ) {
     if( a == null ) return putJNULL();
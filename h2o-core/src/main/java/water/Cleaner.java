@@ -101,6 +101,7 @@ class Cleaner extends Thread {
       else                           System.err.println(s);
       long cleaned = 0;
       long freed = 0;
+      OffHeap.reclaim();        // Free off-heap blocks of dead Chunks
 
       // For faster K/V store walking get the NBHM raw backing array,
       // and walk it directly.
@@ -121,6 +122,19 @@ class Cleaner extends Thread {
         if( val.isLockable() ) continue; // we do not want to throw out Lockables.
         boolean isChunk = p instanceof Chunk;
 
+        // Off-heap Chunks cost no heap, so heap pressure is no reason to touch
+        // them.  But if the off-heap tier itself is filling up, spill the
+        // older ones on to disk and drop them.
+        if( isChunk && ((Chunk)p).isOffHeap() ) {
+          if( m != null ) { val.freeMem(); freed += val._max; } // Serialized heap copy can be remade
+          if( !OffHeap.isFull() || now-val._lastAccessedTime < 5000 ) continue;
+          try {
+            if( !val.isPersisted() && !diskFull ) val.storePersist();
+          } catch(IOException e) { diskFull = true; }
+          if( val.isPersisted() ) { val.freeMem(); val.freePOJO(); }
+          continue;
+        }
+
         // Ignore things younger than the required age.  In particular, do
         // not spill-to-disk all dirty things we find.
         long touched = val._lastAccessedTime;
@@ -135,6 +149,13 @@ class Cleaner extends Thread {
           continue;             // Too young
         }
 
+        // Under pressure, first try to move Chunk payloads off-heap: this
+        // frees the heap without a trip to disk.
+        if( force && isChunk && val.moveOffHeap() ) {
+          freed += val._max;
+          continue;
+        }
+
         // Should I write this value out to disk?
         // Should I further force it from memory?
         if( !val.isPersisted() && !diskFull && (force || (lazyPersist() && lazy_clean(key)))) {
@@ -198,6 +219,7 @@ class Cleaner extends Thread {
     long _hStep;  // Histogram step: (now-eldest)/histogram.length
     long _cached; // Total alive data in the histogram
     long _total;  // Total data in local K/V
+    long _offheap;// Total Chunk data held off-heap; not part of _cached
     long _when;   // When was this histogram computed
     Value _vold;  // For assertions: record the oldest Value
     boolean _clean; // Was "clean" K/V when built?
@@ -226,6 +248,7 @@ class Cleaner extends Thread {
       Object[] kvs = H2O.STORE.raw_array();
       long cached = 0; // Total K/V cached in ram
       long total = 0;  // Total K/V in local node
+      long offheap = 0;// Total K/V off-heap in local node
       long oldest = Long.MAX_VALUE; // K/V with the longest time since being touched
       Value vold = null;
       // Start the walk at slot 2, because slots 0,1 hold meta-data
@@ -242,6 +265,7 @@ class Cleaner extends Thread {
         if( m != null ) len += val._max;
         if( p != null ) len += val._max;
         if( p instanceof Chunk ) len -= val._max; // Do not double-count Chunks
+        if( p instanceof Chunk && ((Chunk)p).isOffHeap() ) offheap += val._max;
         if( len == 0 ) continue;
         cached += len; // Accumulate total amount of cached keys
 
@@ -257,6 +281,7 @@ class Cleaner extends Thread {
       }
       _cached = cached; // Total cached; NOTE: larger than sum of histogram buckets
       _total = total;   // Total used data
+      _offheap = offheap; // Total off-heap data
       _oldest = oldest; // Oldest seen in this pass
       _vold = vold;
       _clean = clean && _dirty==Long.MAX_VALUE; // Looks like a clean K/V the whole time?
@@ -280,7 +305,7 @@ class Cleaner extends Thread {
     @Override public String toString() {
       long x = _eldest;
       long now = System.currentTimeMillis();
-      return "H("+(_cached>>20)+"M, "+x+"ms < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*128)+"ms < +"+(now-x)+")";
+      return "H("+(_cached>>20)+"M, offheap="+(_offheap>>20)+"M, "+x+"ms < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*128)+"ms < +"+(now-x)+")";
     }
   }
 }
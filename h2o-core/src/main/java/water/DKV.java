@@ -1,5 +1,10 @@
 package water;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Distributed Key/Value Store
  *
@@ -38,6 +43,26 @@ public abstract class DKV {
     }
   }
 
+  /** Put many Values at once, each as by {@link #put(Key,Value,Futures)}.
+   *  Puts to Keys homed elsewhere are sent as one RPC per home Node, rather
+   *  than one per Key. */
+  static public void put( Key[] keys, Value[] vals, Futures fs ) {
+    assert keys.length == vals.length;
+    TaskPutKeys.Batch batch = new TaskPutKeys.Batch();
+    for( int i=0; i<keys.length; i++ ) {
+      Key key = keys[i];
+      Value val = vals[i];
+      assert val==null || val._key == key:"non-matching keys " + key.toString() + " != " + val._key.toString();
+      while( true ) {
+        Value old = H2O.raw_get(key);
+        Value res = DputIfMatch(key,val,old,fs,false,batch);
+        if( res == old ) break;
+        if( val != null && val._key != key ) key = val._key;
+      }
+    }
+    batch.send(fs);
+  }
+
   // Remove this Key, blocking by default
   static public Value remove( Key key ) { return put(key,null); }
   static public Value remove( Key key, Futures fs ) { return put(key,null,fs); }
@@ -48,10 +73,17 @@ public abstract class DKV {
   // either success or fail.  If a Futures is passed in, it can be used to
   // block until the PUT completes cluster-wide.
   static public Value DputIfMatch( Key key, Value val, Value old, Futures fs, boolean dontCache ) {
+    return DputIfMatch(key,val,old,fs,dontCache,null);
+  }
+  // As above, but remote pushes are gathered in the batch if one is given
+  static private Value DputIfMatch( Key key, Value val, Value old, Futures fs, boolean dontCache, TaskPutKeys.Batch batch ) {
     // First: I must block repeated remote PUTs to the same Key until all prior
     // ones complete - the home node needs to see these PUTs in order.
     // Repeated PUTs on the home node are already ordered.
-    if( old != null && !key.home() ) old.startRemotePut();
+    if( old != null && !key.home() ) {
+      if( batch != null && batch.has(key) ) batch.send(fs);
+      old.startRemotePut();
+    }
 
     // local update first, since this is a weak update
     Value res = H2O.putIfMatch(key,val,old);
@@ -76,7 +108,8 @@ public abstract class DKV {
       if( old != null ) old.lockAndInvalidate(H2O.SELF,fs);
     } else {                    // On non-HOME?
       // Start a write, but do not block for it
-      TaskPutKey.put(key.home_node(),key,val,fs, dontCache);
+      if( batch != null ) batch.add(key.home_node(),key,val);
+      else TaskPutKey.put(key.home_node(),key,val,fs, dontCache);
     }
     return old;
   }
@@ -86,7 +119,7 @@ public abstract class DKV {
   static public void write_barrier() {
     for( H2ONode h2o : H2O.CLOUD._memary )
       for( RPC rpc : h2o.tasks() )
-        if( rpc._dt instanceof TaskPutKey || rpc._dt instanceof Atomic )
+        if( rpc._dt instanceof TaskPutKey || rpc._dt instanceof TaskPutKeys || rpc._dt instanceof Atomic )
           rpc.get();
   }
 
@@ -119,6 +152,19 @@ public abstract class DKV {
     // e.g., because a prior 'put' of a null (i.e. a remove) is still mid-
     // send to the remote, so the local get has missed above, but a remote
     // get still might 'win' because the remote 'remove' is still in-progress.
+    Object put = pendingPut(home,key);
+    if( put != NO_PUT ) return (Value)put;
+    // Already being fetched in a batch?
+    RPC<TaskGetKeys> tgks = TaskGetKeys.inflight(key);
+    if( tgks != null ) return blocking ? TaskGetKeys.get(tgks,key) : null;
+    // Get data "the hard way"
+    RPC<TaskGetKey> tgk = TaskGetKey.start(home,key);
+    return blocking ? TaskGetKey.get(tgk) : null;
+  }
+
+  // The Value of a pending write of key to home from this node, or NO_PUT
+  private static final Object NO_PUT = new Object();
+  static private Object pendingPut( H2ONode home, Key key ) {
     for( RPC<?> rpc : home.tasks() ) {
       DTask dt = rpc._dt;       // Read once; racily changing
       if( dt instanceof TaskPutKey ) {
@@ -127,10 +173,69 @@ public abstract class DKV {
         Key k = tpk._key;
         if( k != null && key.equals(k) )
           return tpk._xval;
+      } else if( dt instanceof TaskPutKeys ) {
+        assert rpc._target == home;
+        TaskPutKeys tpks = (TaskPutKeys)dt;
+        int i = tpks.find(key);
+        if( i != -1 ) return tpks._xvals[i];
       }
     }
-    // Get data "the hard way"
-    RPC<TaskGetKey> tgk = TaskGetKey.start(home,key);
-    return blocking ? TaskGetKey.get(tgk) : null;
+    return NO_PUT;
+  }
+
+  /** Get many Keys at once.  Keys missing from the local cache are fetched
+   *  with one RPC per home Node (per {@link TaskGetKeys#MAX_KEYS} keys)
+   *  rather than one per Key; Keys already being fetched share that fetch.
+   *  @return the Values, in the order of the Keys */
+  static public Value[] get    ( Key[] keys ) { return get(keys,true ); }
+  /** Start fetching many Keys at once, without blocking for them */
+  static public void    prefetch( Key[] keys ) {        get(keys,false); }
+
+  static private Value[] get( Key[] keys, boolean blocking ) {
+    H2O cloud = H2O.CLOUD;
+    Value[] vals = new Value[keys.length];
+    RPC[] rpcs = new RPC[keys.length]; // Fetches to wait on
+    HashMap<H2ONode,ArrayList<Integer>> misses = new HashMap<>();
+    for( int i=0; i<keys.length; i++ ) {
+      Key key = keys[i];
+      Value val = H2O.get(key);
+      if( val != null && (val.rawMem() != null || val.rawPOJO() != null || val.isPersisted()) ) {
+        vals[i] = val;
+        continue;
+      }
+      H2ONode home = cloud._memary[key.home(cloud)];
+      if( home == H2O.SELF ) continue; // No V for this K
+      Object put = pendingPut(home,key);
+      if( put != NO_PUT ) { vals[i] = (Value)put; continue; }
+      RPC rpc = TaskGetKey.inflight(key);
+      if( rpc == null ) rpc = TaskGetKeys.inflight(key);
+      if( rpc != null ) { rpcs[i] = rpc; continue; }
+      ArrayList<Integer> idxs = misses.get(home);
+      if( idxs == null ) misses.put(home,idxs = new ArrayList<>());
+      idxs.add(i);
+    }
+    for( Map.Entry<H2ONode,ArrayList<Integer>> e : misses.entrySet() ) {
+      H2ONode home = e.getKey();
+      ArrayList<Integer> idxs = e.getValue();
+      if( idxs.size() == 1 ) {  // Nothing to batch
+        int i = idxs.get(0);
+        rpcs[i] = TaskGetKey.start(home,keys[i]);
+        continue;
+      }
+      for( int lo=0; lo<idxs.size(); lo+=TaskGetKeys.MAX_KEYS ) {
+        List<Integer> sub = idxs.subList(lo,Math.min(idxs.size(),lo+TaskGetKeys.MAX_KEYS));
+        ArrayList<Key> ks = new ArrayList<>(sub.size());
+        for( int i : sub ) ks.add(keys[i]);
+        RPC<TaskGetKeys> rpc = TaskGetKeys.start(home,ks);
+        for( int i : sub ) rpcs[i] = rpc;
+      }
+    }
+    if( !blocking ) return null;
+    for( int i=0; i<keys.length; i++ )
+      if( rpcs[i] != null )
+        vals[i] = rpcs[i]._dt instanceof TaskGetKey
+          ? TaskGetKey.get((RPC<TaskGetKey>)rpcs[i])
+          : TaskGetKeys.get((RPC<TaskGetKeys>)rpcs[i],keys[i]);
+    return vals;
   }
 }
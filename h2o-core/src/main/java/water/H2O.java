@@ -8,7 +8,6 @@ import java.util.concurrent.atomic.AtomicLong;
 import jsr166y.*;
 import water.api.RequestServer;
 import water.init.*;
-import water.nbhm.NonBlockingHashMap;
 import water.util.*;
 import water.util.DocGen.HTML;
 
@@ -240,6 +239,12 @@ final public class H2O {
     // Less common config options
     int nthreads=Math.max(99,10*NUMCPUS); // Max number of F/J threads in the low-priority batch queue
     boolean random_udp_drop; // test only, randomly drop udp incoming
+    int rpc_batch_us=100; // Max usecs small RPC packets wait to share a datagram; 0 disables
+    int rpc_batch_msgs=64;// Max small RPC packets per datagram
+    public boolean tcp_compress; // LZ4-compress large TCP messages to peers which also allow it
+    public int readahead_chunks=16; // Max remote Chunks fetched ahead of a sequential reader; 0 disables
+    String offheap;      // Max off-heap memory for Chunk payloads, e.g. "64g"; null disables
+    public boolean ice_segments;// Spill Chunks to memory-mapped ICE segment files
 
     // HDFS & AWS
     public String hdfs; // HDFS backend
@@ -325,6 +330,29 @@ final public class H2O {
     "          Maximum number of threads in the low priority batch-work queue.\n" +
     "          (The default is 99.)\n" +
     "\n" +
+    "    -ice_segments\n" +
+    "          Spill data chunks into large memory-mapped files under ice_root,\n" +
+    "          and reload them without copying.\n" +
+    "\n" +
+    "    -offheap <size>\n" +
+    "          Off-heap memory (e.g. 64g) for holding data chunks under memory\n" +
+    "          pressure before spilling them to disk.  (The default is none.)\n" +
+    "\n" +
+    "    -rpc_batch_us <usecs>\n" +
+    "          How long small task packets to one node may wait to share a\n" +
+    "          single datagram.  0 sends each packet at once.  (The default is 100.)\n" +
+    "\n" +
+    "    -rpc_batch_msgs <count>\n" +
+    "          Most small task packets sent in one datagram.  (The default is 64.)\n" +
+    "\n" +
+    "    -tcp_compress\n" +
+    "          Compress large messages sent over TCP to other nodes started with\n" +
+    "          this option.  Helps on slow links with spare CPU.\n" +
+    "\n" +
+    "    -readahead_chunks <count>\n" +
+    "          Most remote data chunks fetched ahead of a reader walking a\n" +
+    "          vector in order.  0 disables read-ahead.  (The default is 16.)\n" +
+    "\n" +
     "Cloud formation behavior:\n" +
     "\n" +
     "    New H2O nodes join together to form a cloud at startup time.\n" +
@@ -570,7 +598,7 @@ final public class H2O {
 
   // --------------------------------------------------------------------------
   // The (local) set of Key/Value mappings.
-  static final NonBlockingHashMap<Key,Value> STORE = new NonBlockingHashMap<>();
+  static final NonBlockingKeyHashMap<Value> STORE = new NonBlockingKeyHashMap<>();
 
   // PutIfMatch
   // - Atomically update the STORE, returning the old Value on success
@@ -643,6 +671,9 @@ final public class H2O {
       throw new RuntimeException("Invalid ice_root: " + ice + ", " + ex.getMessage());
     }
 
+    // Off-heap tier for Chunk payloads, if asked-for
+    OffHeap.MAX = OffHeap.parseSize(ARGS.offheap);
+
     // Always print version, whether asked-for or not!
     printAndLogVersion();
     if( ARGS.version ) { exit(0); }
@@ -3,7 +3,6 @@ package water;
 import java.io.*;
 import java.net.*;
 import java.nio.channels.DatagramChannel;
-import java.nio.channels.SocketChannel;
 import java.util.*;
 import java.util.concurrent.DelayQueue;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -26,7 +25,6 @@ public class H2ONode extends Iced<H2ONode> implements Comparable {
   boolean _announcedLostContact;  // True if heartbeat published a no-contact msg
   public long _last_heard_from; // Time in msec since we last heard from this Node
   public volatile HeartBeat _heartbeat;  // My health info.  Changes 1/sec.
-  public int _tcp_readers;               // Count of started TCP reader threads
 
   // A JVM is uniquely named by machine IP address and port#
   public final H2Okey _key;
@@ -180,45 +178,26 @@ public class H2ONode extends Iced<H2ONode> implements Comparable {
   long get_max_mem() { return this == H2O.SELF ? Runtime.getRuntime().maxMemory() : _heartbeat.get_max_mem(); }
 
   // ---------------
-  // A queue of available TCP sockets
-  // re-usable TCP socket opened to this node, or null.
-  // This is essentially a BlockingQueue/Stack that allows null.
-  private SocketChannel _socks[] = new SocketChannel[2];
-  private int _socksAvail=_socks.length;
-  // Count of concurrent TCP requests both incoming and outgoing
+  // Persistent multiplexed TCP links to this node, made lazily and remade
+  // after a failure.  Each TCP send is a stream on one of them; see TCPMux.
+  private final TCPMux.OutLink _links[] = new TCPMux.OutLink[TCPMux.LINKS];
+  private int _nextLink;
+  // Count of concurrent TCP sends
   static final AtomicInteger TCPS = new AtomicInteger(0);
-  SocketChannel getTCPSocket() throws IOException {
-    // Under lock, claim an existing open socket if possible
+  TCPMux.OutStream openTCPStream() throws IOException {
+    TCPMux.OutLink link;
     synchronized(this) {
-      // Limit myself to the number of open sockets from node-to-node
-      while( _socksAvail == 0 )
-        try { wait(); } catch( InterruptedException ignored ) { }
-      // Claim an open socket
-      SocketChannel sock = _socks[--_socksAvail];
-      if( sock != null ) {
-        if( sock.isOpen() ) return sock; // Return existing socket!
-        // Else its an already-closed socket, lower open TCP count
-        assert TCPS.get() > 0;
-        TCPS.decrementAndGet();
-      }
+      int i = _nextLink = (_nextLink+1)%_links.length;
+      link = _links[i];
+      if( link == null || link.failed() )
+        _links[i] = link = TCPMux.connect(this);
     }
-    // Must make a fresh socket
-    SocketChannel sock2 = SocketChannel.open();
-    sock2.socket().setSendBufferSize(AutoBuffer.BBSIZE);
-    boolean res = sock2.connect( _key );
-    assert res && !sock2.isConnectionPending() && sock2.isBlocking() && sock2.isConnected() && sock2.isOpen();
-    TCPS.incrementAndGet();     // Cluster-wide counting
-    return sock2;
-  }
-  synchronized void freeTCPSocket( SocketChannel sock ) {
-    assert 0 <= _socksAvail && _socksAvail < _socks.length;
-    if( sock != null && !sock.isOpen() ) sock = null;
-    _socks[_socksAvail++] = sock;
-    assert TCPS.get() > 0;
-    if( sock == null ) TCPS.decrementAndGet();
-    notify();
+    return link.open();
   }
 
+  // Small outgoing task packets waiting to share a datagram; see UDPBatch
+  final UDPBatch.Queue _batch = new UDPBatch.Queue(this);
+
   // ---------------
   // The *outgoing* client-side calls; pending tasks this Node wants answered.
   private final NonBlockingHashMapLong<RPC> _tasks = new NonBlockingHashMapLong<>();
@@ -22,6 +22,7 @@ public class HeartBeat extends Iced<HeartBeat> {
   long _process_total_ticks;
   public int _process_num_open_fds;
   public String _pid;
+  boolean _tcp_lz4;      // Accepts LZ4-compressed TCP frames
 
   // Scaled by K or by M setters & getters.
   private int _free_mem;         // Free memory in K (goes up and down with GC)
@@ -39,6 +40,9 @@ public class HeartBeat extends Iced<HeartBeat> {
   public long get_mvalsz()  { return ((long)_mvalsz)<<10 ; }
   void set_tvalsz(long n) { _tvalsz = (int)(n>>10); }
   public long get_tvalsz()  { return ((long)_tvalsz)<<10 ; }
+  int _offheap;          // Chunk bytes held off-heap, in K; not part of _mvalsz
+  void set_offheap(long n) { _offheap = (int)(n>>10); }
+  public long get_offheap()  { return ((long)_offheap)<<10 ; }
   int _free_disk;        // Free disk (internally stored in megabyte precision)
   void set_free_disk(long n) { _free_disk = (int)(n>>20); }
   public long get_free_disk()  { return ((long)_free_disk)<<20 ; }
@@ -70,6 +70,7 @@ public class HeartBeatThread extends Thread {
       hb._keys       = (H2O.STORE.size ());
       hb.set_mvalsz    (myHisto.histo(false)._cached);
       hb.set_tvalsz    (myHisto.histo(false)._total );
+      hb.set_offheap   (OffHeap.used());
       hb._num_cpus   = (char)run.availableProcessors();
       Object load = null;
       try {
@@ -114,6 +115,7 @@ public class HeartBeatThread extends Thread {
         hb._process_num_open_fds = -1;
       }
       hb._pid = lpfr.getProcessID();
+      hb._tcp_lz4 = H2O.ARGS.tcp_compress;
 
       // Announce what Cloud we think we are in.
       // Publish our health as well.
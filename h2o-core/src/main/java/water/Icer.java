@@ -5,7 +5,7 @@ import water.nbhm.UtilUnsafe;
 import water.util.DocGen.HTML;
 
 // Base Class for the "iced implementation" heirarchy.  Subclasses are all
-// auto-gen'd.  Since this is the base, it has no fields to read or write.
+// auto-gen'd: at build time by IcerGen, or on first use by the Weaver.  Since this is the base, it has no fields to read or write.
 public class Icer<T extends Freezable> { 
   protected static final Unsafe _unsafe = UtilUnsafe.getUnsafe();
   static final Icer<Iced> ICER = new Icer<Iced>(null);
@@ -20,6 +20,12 @@ public class Icer<T extends Freezable> {
   protected void copyOver( T dst, T src ) { /*base of the call chain; no fields to copy*/ }
   protected int frozenType() { throw fail(); }
   protected String className() { throw fail(); }
+  // Field offset for generated Unsafe field accesses, looked up once when
+  // the Icer class initializes.
+  protected static long fieldOffset( String clz, String fld ) {
+    try { return _unsafe.objectFieldOffset(Class.forName(clz).getDeclaredField(fld)); }
+    catch( ClassNotFoundException | NoSuchFieldException e ) { throw new RuntimeException(e); }
+  }
   private RuntimeException fail() {
     return new RuntimeException(getClass().toString()+" should be automatically overridden by the auto-serialization code");
   }
@@ -0,0 +1,118 @@
+package water;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Build-time Icer generation.  Run over a module's compiled classes:
+ *
+ *   java -cp classes:deps water.IcerGen classes
+ *
+ * Every Freezable class found gets a type ID - Bootstrap IDs and IDs from the
+ * tables of other jars on the class path are kept, new ones follow - and an
+ * Icer class file named for that ID.  The IDs are written to {@link
+ * TypeMap#PREBUILT_IDS} in the same directory, so they ship in the jar.
+ *
+ * At runtime TypeMap installs the table before anything else, so Nodes agree
+ * on these IDs without asking the leader, and uses the prebuilt Icers instead
+ * of weaving.  Classes not seen here (loaded later, or failing to generate)
+ * still get an ID from the leader and a woven Icer on first use.
+ */
+public class IcerGen {
+  public static void main( String[] args ) throws IOException {
+    if( args.length != 1 ) {
+      System.err.println("Usage: IcerGen <classes dir>");
+      System.exit(1);
+    }
+    File dir = new File(args[0]);
+    // Drop the output of any earlier run, before TypeMap loads (reading the
+    // constant does not load it) and finds our own stale table.
+    new File(dir,TypeMap.PREBUILT_IDS).delete();
+    List<String> names = new ArrayList<>();
+    scan(dir,"",names);
+    Collections.sort(names);    // Stable ID order
+
+    // The Freezables
+    ClassLoader loader = IcerGen.class.getClassLoader();
+    Map<String,Class> clzs = new LinkedHashMap<>();
+    for( String name : names ) {
+      try {
+        Class clz = Class.forName(name,false,loader);
+        if( !clz.isInterface() && Freezable.class.isAssignableFrom(clz) ) clzs.put(name,clz);
+      } catch( ClassNotFoundException | LinkageError e ) {
+        // Needs something not on the build class path; left to runtime
+      }
+    }
+
+    // Keep known IDs, number the rest
+    Map<String,Integer> ids = new LinkedHashMap<>();
+    int next = TypeMap.nextId();
+    for( String name : clzs.keySet() ) {
+      int id = TypeMap.knownId(name);
+      ids.put(name,id == -1 ? next++ : id);
+    }
+
+    // Icers, each after its super class's
+    Set<String> done = new HashSet<>();
+    int n=0;
+    for( Class clz : clzs.values() )
+      if( gen(clz,clzs,ids,done,dir.getPath()) ) n++;
+
+    // The table, for the IDs new here
+    File tab = new File(dir,TypeMap.PREBUILT_IDS);
+    tab.getParentFile().mkdirs();
+    try( PrintWriter pw = new PrintWriter(tab) ) {
+      for( Map.Entry<String,Integer> e : ids.entrySet() )
+        if( TypeMap.knownId(e.getKey()) == -1 )
+          pw.println(e.getValue()+" "+e.getKey());
+    }
+    System.out.println("IcerGen: "+ids.size()+" types, "+n+" Icers in "+dir);
+  }
+
+  // Class names of all class files under dir, minus Icers
+  private static void scan( File dir, String pkg, List<String> names ) {
+    File[] fs = dir.listFiles();
+    if( fs == null ) return;
+    for( File f : fs ) {
+      String name = f.getName();
+      if( f.isDirectory() ) scan(f,pkg+name+".",names);
+      else if( name.endsWith(".class") ) {
+        name = name.substring(0,name.length()-6);
+        if( name.matches(".*\\$Icer\\d*") ) { f.delete(); continue; } // Stale output
+        names.add(pkg+name);
+      }
+    }
+  }
+
+  // Write the Icer for clz, after its super class's.  False if it cannot be
+  // built now; it is then woven at runtime.
+  private static boolean gen( Class clz, Map<String,Class> clzs, Map<String,Integer> ids, Set<String> done, String dir ) {
+    String name = clz.getName();
+    if( done.contains(name) ) return false;
+    done.add(name);
+    if( name.equals("water.Iced") || name.equals("water.H2O$H2OCountedCompleter") ) return false; // Base Icer
+    Class sup = clz.getSuperclass();
+    if( sup == null || !Freezable.class.isAssignableFrom(sup) ) return false;
+    String sname = sup.getName();
+    Integer sid = ids.get(sname);
+    if( sid == null ) sid = TypeMap.knownId(sname);  // From another jar
+    else if( clzs.containsKey(sname) ) {
+      gen(sup,clzs,ids,done,dir);
+      if( !new File(dir,TypeMap.prebuiltIcerName(sname,sid).replace('.','/')+".class").exists() &&
+          !sname.equals("water.Iced") && !sname.equals("water.H2O$H2OCountedCompleter") )
+        return false;           // Super class Icer failed
+    }
+    if( sid == -1 ) return false;
+    try {
+      Weaver.writeIcer(ids.get(name),clz,sid,dir);
+      return true;
+    } catch( Exception e ) {
+      // E.g. a field type the Weaver cannot serialize, in a class never sent
+      // anywhere; the same error shows at runtime if it ever is.
+      System.err.println("IcerGen: skipping "+name+": "+e);
+      return false;
+    }
+  }
+}
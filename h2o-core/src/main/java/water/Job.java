@@ -221,19 +221,27 @@ public class Job<T extends Keyed> extends Keyed {
 
 
   /** Returns a float from 0 to 1 representing progress.  Polled periodically.  
-   *  Can default to returning e.g. 0 always.  */
+   *  Can default to returning e.g. 0 always.  Includes work reported on this
+   *  node but not yet pushed to the Job; see {@link JobProgress}. */
   public final long _work;
   private long _worked;
-  public final float progress() { return (float)_worked/(float)_work; }
+  public final float progress() { return (float)Math.min(_work,_worked+JobProgress.pending(_key))/(float)_work; }
   public final void update(final long newworked) { update(newworked,_key); }
-  public static void update(final long newworked, Key jobkey) { 
-    new TAtomic<Job>() {
+  /** Report work done.  Cheap and local; the total reaches the Job shortly. */
+  public static void update(final long newworked, Key jobkey) { JobProgress.add(jobkey,newworked); }
+
+  // Add pushed work to the Job itself
+  static void worked( Key jobkey, final long newworked, boolean block ) {
+    TAtomic<Job> ta = new TAtomic<Job>() {
       @Override public Job atomic(Job old) {
+        if( old == null ) return null; // Job already removed
         assert newworked+old._worked <= old._work;
         old._worked+=newworked;
         return old;
       }
-    }.fork(jobkey);
+    };
+    if( block ) ta.invoke(jobkey);
+    else ta.fork(jobkey);
   }
 
 }
@@ -0,0 +1,116 @@
+package water;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+
+/**
+ * Node-local accumulation of Job progress.
+ *
+ * {@link Job#update} used to launch a TAtomic at the Job's home Node on every
+ * call, rewriting the whole Job each time; with many workers on many Nodes
+ * the home Node became a hotspot.  Instead, work done is added to striped
+ * counters here, and a single thread per Node pushes the summed delta for
+ * each Job home every {@link #PUSH_MS} msec - one small atomic update per Job
+ * per period, no matter how often workers report.
+ *
+ * Progress read on a Node merges in that Node's unpushed work, so a Job's
+ * home sees its own workers in real time and remote workers at most one
+ * period late.
+ */
+class JobProgress {
+  static final int PUSH_MS = 200;
+  // Stripes of counters per Job; a power of 2.  Each counter gets its own
+  // cache line.
+  static final int STRIPES = Math.min(64,Integer.highestOneBit(Math.max(1,H2O.NUMCPUS*2-1))<<1);
+  private static final int PAD = 8;
+  // Drop a Job's counters after this many periods without work
+  private static final int IDLE_PUSHES = 10;
+
+  private static final NonBlockingHashMap<Key,Counter> COUNTERS = new NonBlockingHashMap<>();
+
+  private static final class Counter {
+    final Key _job;
+    final AtomicLongArray _cells = new AtomicLongArray(STRIPES*PAD);
+    volatile boolean _dead;     // Dropped from COUNTERS; adders push their own work
+    int _idle;                  // Pusher thread only
+    Counter( Key job ) { _job = job; }
+
+    void add( long x ) {
+      int h = (int)Thread.currentThread().getId();
+      h ^= (h>>>7)^(h>>>4);
+      _cells.addAndGet((h&(STRIPES-1))*PAD,x);
+    }
+    long sum() {
+      long s = 0;
+      for( int i=0; i<STRIPES; i++ ) s += _cells.get(i*PAD);
+      return s;
+    }
+    long drain() {
+      long s = 0;
+      for( int i=0; i<STRIPES; i++ ) s += _cells.getAndSet(i*PAD,0);
+      return s;
+    }
+  }
+
+  /** Record work done for a Job */
+  static void add( Key job, long worked ) {
+    if( worked == 0 ) return;
+    Counter c = COUNTERS.get(job);
+    if( c == null ) {
+      Counter c2 = COUNTERS.putIfAbsent(job,c = new Counter(job));
+      if( c2 != null ) c = c2;
+      else start();
+    }
+    c.add(worked);
+    // The pusher retired this counter, perhaps before seeing our work: the
+    // drain hands any leftover to exactly one of us.
+    if( c._dead ) {
+      long x = c.drain();
+      if( x != 0 ) Job.worked(job,x,false);
+    }
+  }
+
+  /** Work recorded on this Node but not yet pushed to the Job */
+  static long pending( Key job ) {
+    Counter c = COUNTERS.get(job);
+    return c == null ? 0 : c.sum();
+  }
+
+  /** Push all pending work now; optionally block until it lands */
+  static void flush( boolean block ) {
+    for( Map.Entry<Key,Counter> e : COUNTERS.entrySet() ) {
+      Counter c = e.getValue();
+      long x = c.drain();
+      if( x != 0 ) { Job.worked(c._job,x,block); c._idle = 0; }
+      else if( ++c._idle >= IDLE_PUSHES ) {
+        c._dead = true;         // Adders now push for themselves...
+        COUNTERS.remove(e.getKey(),c);
+        x = c.drain();          // ...and anything which raced in is ours
+        if( x != 0 ) Job.worked(c._job,x,block);
+      }
+    }
+  }
+
+  // The pusher thread, started with the first counter
+  private static volatile Thread PUSHER;
+  private static void start() {
+    if( PUSHER != null ) return;
+    synchronized( JobProgress.class ) {
+      if( PUSHER != null ) return;
+      Thread t = new Thread("JobProgress") {
+          @Override public void run() {
+            while( true ) {
+              try { Thread.sleep(PUSH_MS); } catch( InterruptedException ignore ) { }
+              try { flush(false); }
+              catch( Throwable t ) { Log.err("Job progress push failed",t); }
+            }
+          }
+        };
+      t.setDaemon(true);
+      t.start();
+      PUSHER = t;
+    }
+  }
+}
@@ -133,24 +133,40 @@ public class KeySnapshot {
   public <T extends Iced> Map<String, T> fetchAll(Class<T> c, boolean exact, int offset, int limit) {
     TreeMap<String, T> res = new TreeMap<String, T>();
     final int typeId = TypeMap.onIce(c.getName());
+    // Fetch matching keys a window at a time, in one bulk get per window
+    ArrayList<Key> window = new ArrayList<Key>(FETCH_WINDOW);
     for (KeyInfo kinfo : _keyInfos) {
       if (kinfo._type == typeId || (!exact && Value.isSubclassOf(kinfo._type, c))) {
         if (offset > 0) {
           --offset;
           continue;
         }
-        Value v = DKV.get(kinfo._key);
-        if (v != null) {
-          T t = v.get();
-          res.put(kinfo._key.toString(), t);
-          if (res.size() == limit)
-            break;
-        }
+        window.add(kinfo._key);
+        if (window.size() == FETCH_WINDOW && fetchWindow(window, res, limit))
+          return res;
       }
     }
+    fetchWindow(window, res, limit);
     return res;
   }
 
+  private static final int FETCH_WINDOW = 64;
+  // Fetch and add the window's objects to res; true once res reaches limit
+  private static <T extends Iced> boolean fetchWindow(ArrayList<Key> window, TreeMap<String, T> res, int limit) {
+    Key[] keys = window.toArray(new Key[window.size()]);
+    window.clear();
+    Value[] vals = DKV.get(keys);
+    for (int i = 0; i < keys.length; i++) {
+      if (vals[i] != null) {
+        T t = vals[i].get();
+        res.put(keys[i].toString(), t);
+        if (res.size() == limit)
+          return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Get the user keys from this node only.
    * Includes non-local keys which are cached locally.
@@ -0,0 +1,93 @@
+package water;
+
+import java.util.concurrent.atomic.AtomicLong;
+import water.nbhm.NonBlockingHashMapLong;
+
+/**
+ * Work stealing between Nodes running the same {@link MRTask}.
+ *
+ * In stealing mode each Node puts the chunk indices homed on it in a
+ * {@link Queue}, registered under the task's cloud-wide id.  Local workers
+ * take chunks from the front.  A Node which runs out of local chunks sends
+ * this task to a busy peer, which hands over up to half its remaining chunks
+ * from the back; the thief then maps them, fetching their data remotely.
+ * Every chunk is taken exactly once, so results are reduced exactly once
+ * wherever the chunk was mapped.
+ *
+ * A peer with no registered Queue - not started yet, or already done - hands
+ * over nothing, and is not asked again.
+ */
+public class MRSteal extends DTask<MRSteal> {
+  static final int MAX_STEAL = 8; // Most chunks handed over per steal
+
+  private static final AtomicLong IDS = new AtomicLong();
+  private static final NonBlockingHashMapLong<Queue> QUEUES = new NonBlockingHashMapLong<>();
+
+  long _id;                     // Task to steal from; set by the thief
+  int[] _chks;                  // Chunks handed over; set by the victim
+
+  private MRSteal( long id ) { _id = id; }
+
+  // A cloud-wide unique id for a stealing MRTask
+  static long nextId() { return ((long)H2O.SELF.index()<<48) | IDS.incrementAndGet(); }
+
+  // Ask node for chunks of task id; returns null if it has none to spare
+  static int[] steal( H2ONode node, long id ) {
+    int[] chks = new RPC<>(node,new MRSteal(id)).call().get()._chks;
+    return chks == null || chks.length == 0 ? null : chks;
+  }
+
+  @Override public void compute2() {
+    Queue q = QUEUES.get(_id);
+    _chks = q == null ? null : q.steal();
+    tryComplete();
+  }
+  @Override public boolean logVerbose() { return false; }
+  @Override protected byte priority() { return H2O.GET_KEY_PRIORITY; }
+
+  /** Chunks homed on this Node for one stealing MRTask, and which peers are
+   *  known to have nothing left to steal. */
+  static final class Queue {
+    private final long _id;
+    private final int[] _chks;
+    private int _head, _tail;   // Chunks [_head,_tail) are not taken yet
+    private final boolean[] _dry; // Peers with nothing to steal
+
+    Queue( long id, int[] chks ) {
+      _id = id;
+      _chks = chks;
+      _tail = chks.length;
+      _dry = new boolean[H2O.CLOUD.size()];
+      _dry[H2O.SELF.index()] = true;
+      QUEUES.put(id,this);
+    }
+    long id() { return _id; }
+
+    // Next local chunk, or -1 when all are taken
+    synchronized int next() { return _head < _tail ? _chks[_head++] : -1; }
+
+    // Up to half the remaining chunks, from the back.  A last lone chunk is
+    // left to the local workers, which will get to it before a thief could
+    // fetch its data.
+    synchronized int[] steal() {
+      int n = Math.min(MAX_STEAL,(_tail-_head)>>1);
+      if( n == 0 ) return null;
+      _tail -= n;
+      int[] chks = new int[n];
+      System.arraycopy(_chks,_tail,chks,0,n);
+      return chks;
+    }
+
+    // A peer worth asking for work, starting the search at from; -1 if none
+    synchronized int victim( int from ) {
+      for( int i=0; i<_dry.length; i++ ) {
+        int n = (from+i)%_dry.length;
+        if( !_dry[n] ) return n;
+      }
+      return -1;
+    }
+    synchronized void dry( int node ) { _dry[node] = true; }
+
+    void remove() { QUEUES.remove(_id); }
+  }
+}
@@ -1,8 +1,10 @@
 package water;
 
+import java.util.Arrays;
 import jsr166y.CountedCompleter;
 import jsr166y.ForkJoinPool;
 import water.fvec.*;
+import water.util.MRMetrics;
 import water.util.PrettyPrint;
 import water.fvec.Vec.VectorGroup;
 
@@ -39,6 +41,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   private int _noutputs;
   // If TRUE, run entirely local - which will pull all the data locally.
   private boolean _run_local;
+  // If TRUE, Nodes out of local Chunks steal Chunks from busy peers
+  private boolean _steal;
+  private long _stealId;        // Cloud-wide id of a stealing task
+  transient private MRSteal.Queue _queue; // This Node's Chunks, when stealing
 
   private byte _priority;
   @Override public byte priority() { return _priority; }
@@ -150,6 +156,15 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // last job, and the exec time & completion time of 1st job done.
     long _time1st, _done1st;
     int _size_rez0, _size_rez1; // i/o size in bytes during reduce
+    // Node-local totals for MRMetrics: nanos in user map & reduce calls, RPC
+    // bytes sent & received, and chunks (or keys) mapped.
+    long _mapNs, _redNs, _rpcBytes;
+    int _nchks;
+    // Latest end of local map work, chunks stolen from other Nodes, and
+    // per-Node ms spent mapping (indexed by Node).
+    long _mapEnd;
+    int _nstolen;
+    long[] _busy;
     MRProfile _last;
     long sumTime() { return _onCdone - (_localstart==0 ? _mapstart : _localstart); }
     void gather( MRProfile p, int size_rez ) {
@@ -165,10 +180,33 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         else { /*assert _size_rez1==0;*/ _size_rez1=size_rez; }
       assert _last._onCdone >= _done1st;
     }
+    void busy( int node, long ms ) {
+      if( _busy == null ) _busy = new long[H2O.CLOUD.size()];
+      _busy[node] = Math.max(0,ms);
+    }
+    void gatherBusy( MRProfile p ) {
+      _nstolen += p._nstolen;
+      if( p._busy == null ) return;
+      if( _busy == null ) _busy = new long[p._busy.length];
+      for( int i=0; i<p._busy.length && i<_busy.length; i++ )
+        _busy[i] = Math.max(_busy[i],p._busy[i]);
+    }
 
     @Override public String toString() { return print(new StringBuilder(),0).toString(); }
     private StringBuilder print(StringBuilder sb, int d) {
-      if( d==0 ) sb.append(_clz).append("\n");
+      if( d==0 ) {
+        sb.append(_clz).append("\n");
+        // Per-Node busy time, and time idle while the busiest Node worked on
+        if( _busy != null ) {
+          long max = 0;
+          for( long b : _busy ) max = Math.max(max,b);
+          sb.append("Node busy/idle");
+          for( int i=0; i<_busy.length; i++ )
+            sb.append(" ").append(i).append(":").append(_busy[i]).append("/").append(max-_busy[i]).append("ms");
+          if( _nstolen > 0 ) sb.append(", stole ").append(_nstolen).append(" chunks");
+          sb.append("\n");
+        }
+      }
       for( int i=0; i<d; i++ ) sb.append("  ");
       if( _localstart != 0 ) sb.append("Node local ").append(_localdone - _localstart).append("ms, ");
       if( _userstart == 0 ) {   // Forked job?
@@ -196,10 +234,19 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   }
   MRProfile _profile;
   public String profString() { return _profile.toString(); }
+  // Chunks mapped away from their home Node, when stealing
+  int nstolen() { return _profile._nstolen; }
 
   // Support for fluid-programming with strong types
   private T self() { return (T)this; }
 
+  /** Schedule by actual Chunk homes, and let Nodes which run out of local
+   *  Chunks steal Chunks from busy peers, mapping them over remotely fetched
+   *  data.  Helps when a Frame's Chunks are unevenly spread over the Cloud.
+   *  Call before doAll/dfork.  No effect when running local or on a single
+   *  Node.  */
+  public final T withWorkStealing() { _steal = true; return self(); }
+
   /** Invokes the map/reduce computation over the given Vecs.  This call is
    *  blocking. */
   public final T doAll( Vec... vecs ) { return doAll(0,vecs); }
@@ -230,6 +277,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _fr = fr;                   // Record vectors to work on
     _nxx = (short)H2O.SELF.index(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     _run_local = run_local;     // Run locally by copying data, or run globally?
+    if( _steal ) _stealId = MRSteal.nextId();
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
   }
@@ -313,7 +361,18 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _nrite = remote_compute( nmid,_nhi);
       _profile._rpcRdone  = System.currentTimeMillis();
     }
-    if( _fr != null ) {                       // Doing a Frame
+    if( _fr != null && _steal && !_run_local && H2O.CLOUD.size() > 1 ) {
+      // Queue up the Chunks homed here; divide-and-conquer over workers
+      // pulling from the queue instead of over Chunk indices.
+      Vec v0 = _fr.anyVec();
+      int[] chks = new int[v0.nChunks()];
+      int n = 0;
+      for( int i=0; i<chks.length; i++ )
+        if( v0.chunkKey(i).home() ) chks[n++] = i;
+      _queue = new MRSteal.Queue(_stealId,Arrays.copyOf(chks,n));
+      _lo = 0;  _hi = H2O.NUMCPUS;
+      _fr.vecs();
+    } else if( _fr != null ) {                // Doing a Frame
       _lo = 0;  _hi = _fr.anyVec().nChunks(); // Do All Chunks
       // If we have any output vectors, make a blockable Futures for them to
       // block on.
@@ -366,65 +425,108 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       if( _keys == null ||     // Once-per-node mode
           _hi > _lo && _keys[_lo].home() ) {
         _profile._userstart = System.currentTimeMillis();
-        if( _keys != null ) map(_keys[_lo]);
+        long t0 = System.nanoTime();
+        if( _keys != null ) { map(_keys[_lo]); _profile._nchks = 1; }
         _res = self();        // Save results since called map() at least once!
+        _profile._mapNs = System.nanoTime()-t0;
         _profile._closestart = System.currentTimeMillis();
       }
+    } else if( _queue != null ) { // Frame, one worker pulling Chunks
+      work();
     } else if( _hi > _lo ) {    // Frame, Single chunk?
       Vec v0 = _fr.anyVec();
-      if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
-
-        // Make decompression chunk headers for these chunks
-        Vec vecs[] = _fr.vecs();
-        Chunk bvs[] = new Chunk[vecs.length];
-        NewChunk [] appendableChunks = null;
-        for( int i=0; i<vecs.length; i++ )
-          if( vecs[i] != null ) {
-            assert _run_local || vecs[i].chunkKey(_lo).home()
-              : "Chunk="+_lo+" v0="+v0+", k="+v0.chunkKey(_lo)+"   v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(_lo);
-            bvs[i] = vecs[i].chunkForChunkIdx(_lo);
-          }
-        if(_noutputs > 0){
-          final VectorGroup vg = vecs[0].group();
-          _appendables = new AppendableVec[_noutputs];
-          appendableChunks = new NewChunk[_noutputs];
-          for(int i = 0; i < _appendables.length; ++i){
-            _appendables[i] = new AppendableVec(vg.vecKey(_vid+i));
-            appendableChunks[i] = _appendables[i].chunkForChunkIdx(_lo);
-          }
-        }
-        // Call all the various map() calls that apply
-        _profile._userstart = System.currentTimeMillis();
-        if( _fr.vecs().length == 1 ) map(bvs[0]);
-        if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1]);
-        if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2]);
-        if( true                  )  map(bvs );
-        if(_noutputs == 1){ // convenience versions for cases with single output.
-          if( appendableChunks == null ) throw H2O.fail(); // Silence IdeaJ warnings
-          if( _fr.vecs().length == 1 ) map(bvs[0], appendableChunks[0]);
-          if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1],appendableChunks[0]);
-          if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2],appendableChunks[0]);
-          if( true                  )  map(bvs,    appendableChunks[0]);
-        }
-        if(_noutputs == 2){ // convenience versions for cases with 2 outputs (e.g split).
-          if( appendableChunks == null ) throw H2O.fail(); // Silence IdeaJ warnings
-          if( _fr.vecs().length == 1 ) map(bvs[0], appendableChunks[0],appendableChunks[1]);
-          if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1],appendableChunks[0],appendableChunks[1]);
-          if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2],appendableChunks[0],appendableChunks[1]);
-          if( true                  )  map(bvs,    appendableChunks[0],appendableChunks[1]);
-        }
-        map(bvs,appendableChunks);
-        _res = self();          // Save results since called map() at least once!
-        // Further D/K/V put any new vec results.
-        _profile._closestart = System.currentTimeMillis();
-        for( Chunk bv : bvs ) bv.close(_lo,_fs);
-        if(_noutputs > 0) for(NewChunk nch:appendableChunks)nch.close(_lo, _fs);
-      }
+      if( _run_local || v0.chunkKey(_lo).home() ) // And chunk is homed here?
+        map1(_lo);
     }
     _profile._mapdone = System.currentTimeMillis();
+    if( _profile._mapEnd == 0 ) _profile._mapEnd = _profile._mapdone;
     tryComplete();              // And this task is complete
   }
 
+  // Map a single chunk; homed here unless running local or stealing
+  private void map1( int cidx ) {
+    // Make decompression chunk headers for these chunks
+    Vec vecs[] = _fr.vecs();
+    Chunk bvs[] = new Chunk[vecs.length];
+    NewChunk [] appendableChunks = null;
+    for( int i=0; i<vecs.length; i++ )
+      if( vecs[i] != null ) {
+        assert _run_local || _queue != null || vecs[i].chunkKey(cidx).home()
+          : "Chunk="+cidx+" v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(cidx);
+        bvs[i] = vecs[i].chunkForChunkIdx(cidx);
+      }
+    if(_noutputs > 0){
+      final VectorGroup vg = vecs[0].group();
+      _appendables = new AppendableVec[_noutputs];
+      appendableChunks = new NewChunk[_noutputs];
+      for(int i = 0; i < _appendables.length; ++i){
+        _appendables[i] = new AppendableVec(vg.vecKey(_vid+i));
+        appendableChunks[i] = _appendables[i].chunkForChunkIdx(cidx);
+      }
+    }
+    // Call all the various map() calls that apply
+    _profile._userstart = System.currentTimeMillis();
+    long t0 = System.nanoTime();
+    if( _fr.vecs().length == 1 ) map(bvs[0]);
+    if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1]);
+    if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2]);
+    if( true                  )  map(bvs );
+    if(_noutputs == 1){ // convenience versions for cases with single output.
+      if( appendableChunks == null ) throw H2O.fail(); // Silence IdeaJ warnings
+      if( _fr.vecs().length == 1 ) map(bvs[0], appendableChunks[0]);
+      if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1],appendableChunks[0]);
+      if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2],appendableChunks[0]);
+      if( true                  )  map(bvs,    appendableChunks[0]);
+    }
+    if(_noutputs == 2){ // convenience versions for cases with 2 outputs (e.g split).
+      if( appendableChunks == null ) throw H2O.fail(); // Silence IdeaJ warnings
+      if( _fr.vecs().length == 1 ) map(bvs[0], appendableChunks[0],appendableChunks[1]);
+      if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1],appendableChunks[0],appendableChunks[1]);
+      if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2],appendableChunks[0],appendableChunks[1]);
+      if( true                  )  map(bvs,    appendableChunks[0],appendableChunks[1]);
+    }
+    map(bvs,appendableChunks);
+    _res = self();          // Save results since called map() at least once!
+    _profile._mapNs = System.nanoTime()-t0;
+    _profile._nchks = 1;
+    // Further D/K/V put any new vec results.
+    _profile._closestart = System.currentTimeMillis();
+    for( Chunk bv : bvs ) bv.close(cidx,_fs);
+    if(_noutputs > 0) for(NewChunk nch:appendableChunks)nch.close(cidx, _fs);
+  }
+
+  // Stealing-mode worker: map local Chunks off the queue, then Chunks stolen
+  // from busy peers, folding each result into this task's.
+  private void work() {
+    _profile._userstart = System.currentTimeMillis();
+    int c;
+    while( (c=_queue.next()) != -1 ) mapFold(c);
+    // Local Chunks all taken; workers start asking at different peers
+    int n = H2O.SELF.index()+1+_lo;
+    while( (n=_queue.victim(n)) != -1 ) {
+      int[] chks = MRSteal.steal(H2O.CLOUD._memary[n],_queue.id());
+      if( chks == null ) { _queue.dry(n); continue; }
+      _profile._nstolen += chks.length;
+      for( int chk : chks ) mapFold(chk);
+    }
+    _profile._closestart = _profile._mapEnd = System.currentTimeMillis();
+  }
+
+  private void mapFold( int cidx ) {
+    MRTask<T> x = copyAndInit();
+    x._profile = new MRProfile(this);
+    x.map1(cidx);
+    _profile._mapNs += x._profile._mapNs;
+    _profile._nchks += x._profile._nchks;
+    if( x._res == null ) return;
+    if( _res == null ) _res = x._res;
+    else {
+      long t0 = System.nanoTime();
+      _res.reduce4(x._res);
+      _profile._redNs += System.nanoTime()-t0;
+    }
+  }
+
   /** OnCompletion - reduce the left & right into self.  Called internal by
    *  F/J.  Not expected to be user-called. */
   @Override public final void onCompletion( CountedCompleter caller ) {
@@ -445,8 +547,17 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   private void reduce2( MRTask<T> mrt ) {
     if( mrt == null ) return;
     _profile.gather(mrt._profile,0);
+    _profile._mapNs += mrt._profile._mapNs;
+    _profile._redNs += mrt._profile._redNs;
+    _profile._nchks += mrt._profile._nchks;
+    _profile._nstolen += mrt._profile._nstolen;
+    _profile._mapEnd = Math.max(_profile._mapEnd,mrt._profile._mapEnd);
     if( _res == null ) _res = mrt._res;
-    else if( mrt._res != null ) _res.reduce4(mrt._res);
+    else if( mrt._res != null ) {
+      long t0 = System.nanoTime();
+      _res.reduce4(mrt._res);
+      _profile._redNs += System.nanoTime()-t0;
+    }
     // Futures are shared on local node and transient (so no remote updates)
     assert _fs == mrt._fs;
   }
@@ -457,6 +568,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Block for other queued pending tasks.
   // Copy any final results into 'this', such that a return of 'this' has the results.
   private void postLocal() {
+    if( _queue != null ) _queue.remove(); // Nothing left to steal here
+    if( _fr != null ) _profile.busy(H2O.SELF.index(),_profile._mapEnd-_profile._mapstart);
     reduce3(_nleft);            // Reduce global results from neighbors.
     reduce3(_nrite);
     _profile._remoteBlkDone = System.currentTimeMillis();
@@ -476,6 +589,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _fr.postWrite(_fs).blockForPending();
     if( nlo==0 && nhi == H2O.CLOUD.size() )
       postGlobal();             // User's continuation work
+    MRMetrics.record(getClass(),_profile._mapNs,_profile._redNs,_profile._rpcBytes,_profile._nchks);
   }
 
   // Block for RPCs to complete, then reduce global results into self results
@@ -487,10 +601,17 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // to the self _fs which will be not-null and still have local pending
     // blocks.  Not much can be asserted there.
     _profile.gather(mrt._profile, rpc.size_rez());
+    _profile.gatherBusy(mrt._profile);
+    _profile._rpcBytes += rpc.size_snd()+rpc.size_rez();
+    MRMetrics.recordRPC(getClass(),rpc.latency());
     // Unlike reduce2, results are in mrt directly not mrt._res.
     if( mrt._nhi != -1L ) {     // Any results at all?
       if( _res == null ) _res = mrt;
-      else _res.reduce4(mrt);
+      else {
+        long t0 = System.nanoTime();
+        _res.reduce4(mrt);
+        _profile._redNs += System.nanoTime()-t0;
+      }
     }
   }
 
@@ -295,7 +295,7 @@ abstract public class MemoryManager {
    * @param m - requested number of bytes
    * @return true if there is enough free memory
    */
-  static boolean tryReserveTaskMem(long m){
+  public static boolean tryReserveTaskMem(long m){
     if(!CAN_ALLOC)return false;
     if( m == 0 ) return true;
     assert m >= 0:"m < 0: " + m;
@@ -328,7 +328,7 @@ abstract public class MemoryManager {
    * Free the memory successfully reserved by task.
    * @param m
    */
-  static void freeTaskMem(long m){
+  public static void freeTaskMem(long m){
     if(m == 0)return;
     _taskMem.addAndGet(m);
     synchronized(_taskMemLock){
@@ -3,6 +3,7 @@ package water;
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.Pattern;
 import water.util.*;
 
@@ -25,7 +26,9 @@ import water.util.*;
  *    <li> Supports partial content (streaming)</li>
  *    <li> Supports ETags</li>
  *    <li> Never caches anything </li>
- *    <li> Doesn't limit bandwidth, request time or simultaneous connections </li>
+ *    <li> Doesn't limit bandwidth or request time </li>
+ *    <li> Serves sessions from a bounded thread pool; answers 503 when full </li>
+ *    <li> Keeps connections alive across requests without a body </li>
  *    <li> Default code serves files and shows all HTTP parameters and headers</li>
  *    <li> File server supports directory listing, index.html and index.htm</li>
  *    <li> File server supports partial content (streaming)</li>
@@ -127,6 +130,17 @@ public class NanoHTTPD
       catch ( java.io.UnsupportedEncodingException e ) { Log.err(e); }
     }
 
+    /**
+     * Streaming constructor: the body is written by the given
+     * writer as it is produced, never held whole in memory.
+     */
+    public Response( String status, String mimeType, StreamWriter stream )
+    {
+      this.status = status;
+      this.mimeType = mimeType;
+      this.stream = stream;
+    }
+
     /**
      * Adds given line to the header.
      */
@@ -150,6 +164,11 @@ public class NanoHTTPD
      */
     public InputStream data;
 
+    /**
+     * Writer of a streamed body, used instead of data if not null.
+     */
+    public StreamWriter stream;
+
     /**
      * Headers for the HTTP response. Use addHeader()
      * to add lines.
@@ -157,6 +176,15 @@ public class NanoHTTPD
     public Properties header = new Properties();
   }
 
+  /**
+   * Writes a response body of unknown length.  Sent chunked to HTTP/1.1
+   * clients, else up to the connection close.  The stream may be closed
+   * when done; that ends the body, not the connection.
+   */
+  public interface StreamWriter {
+    void writeTo( OutputStream os ) throws IOException;
+  }
+
   /**
    * Some HTTP response status codes
    */
@@ -196,11 +224,24 @@ public class NanoHTTPD
     myRootDir = wwwroot;
     myServerSocket = socket;
     myServerSocket.setReuseAddress(true);
+    myPool = new ThreadPoolExecutor(POOL_THREADS, POOL_THREADS, 60, TimeUnit.SECONDS,
+                                    new ArrayBlockingQueue<Runnable>(POOL_QUEUE), new ThreadFactory() {
+        @Override public Thread newThread( Runnable r ) {
+          Thread t = new Thread( r, "NanoHTTPD Session" );
+          t.setDaemon( true );
+          t.setPriority(Thread.MAX_PRIORITY-1);
+          return t;
+        }
+      });
+    myPool.allowCoreThreadTimeOut(true);
     myThread = new Thread(new Runnable() {
       public void run() {
         try {
-          while( true )
-            new HTTPSession( myServerSocket.accept());
+          while( true ) {
+            Socket s = myServerSocket.accept();
+            try { myPool.execute(new HTTPSession(s)); }
+            catch( RejectedExecutionException ree ) { busy(s); }
+          }
         } catch ( IOException e ) { }
       }
     }, "NanoHTTPD Thread");
@@ -215,6 +256,7 @@ public class NanoHTTPD
     try {
       myServerSocket.close();
       myThread.join();
+      myPool.shutdownNow();
     } catch ( IOException | InterruptedException e ) {
     }
   }
@@ -256,46 +298,72 @@ public class NanoHTTPD
     try { System.in.read(); } catch( Throwable t ) { Log.err(t); }
   }
 
+  /** Answer 503 to a connection the pool has no room for. */
+  private static void busy( Socket s ) {
+    try( Socket s2 = s ) {
+      OutputStream out = s2.getOutputStream();
+      out.write(("HTTP/1.0 503 Service Unavailable\r\nConnection: close\r\nContent-Length: 0\r\n\r\n").getBytes());
+      out.flush();
+    } catch( IOException ignore ) { }
+  }
+
   /**
-   * Handles one session, i.e. parses the HTTP request
-   * and returns the response.
+   * Handles one session, i.e. parses the HTTP requests on one connection and
+   * returns the responses.  The connection is kept for further requests when
+   * the client asks for it, the request had no body (so nothing past the
+   * header is read ahead), the response length is known, and the pool is not
+   * busy - an idle kept connection holds a pool thread until it times out.
    */
   private class HTTPSession implements Runnable {
-    public HTTPSession( Socket s ) {
-      mySocket = s;
-      Thread t = new Thread( this, "NanoHTTPD Session" );
-      t.setDaemon( true );
-      t.setPriority(Thread.MAX_PRIORITY-1);
-      t.start();
-    }
+    public HTTPSession( Socket s ) { mySocket = s; }
 
     /** Maximal supported header. */
     static final int MAX_HEADER_BUFFER_SIZE = 1 << 16; // 64k
+    /** Idle time and number of requests allowed on a kept connection. */
+    static final int KEEP_ALIVE_MS = 5000, KEEP_ALIVE_MAX = 100;
+
+    private boolean myKeepAlive;  // Keep the connection after this response
+    private boolean myHttp11;     // An HTTP/1.1 request, answered in kind
+
     public void run() {
       try (Socket mySocket=this.mySocket ) { // Try-with-resources; auto-close on exit
         InputStream is = new BufferedInputStream(mySocket.getInputStream());
+        for( int n=1; serveOne(is, n < KEEP_ALIVE_MAX); n++ )
+          mySocket.setSoTimeout(KEEP_ALIVE_MS);
+      } catch( IOException ignore ) {
+        // Closed by the client, or idle too long between requests
+      }
+    }
+
+    // Read, serve and answer one request; true to keep the connection.
+    private boolean serveOne( InputStream is, boolean mayKeepAlive ) throws SocketTimeoutException {
+      myKeepAlive = myHttp11 = false;
+      try {
         is.mark(MAX_HEADER_BUFFER_SIZE);
 
-        // Read the first 8192 bytes.
-        // The full header should fit in here.
-        // Apache's default header limit is 8KB.
-        int bufsize = 8192;
-        byte[] buf = new byte[bufsize];
+        // Read up to the blank line ending the header, in bulk.  The full
+        // header should fit in 8192 bytes; Apache's default header limit is
+        // 8KB.  Bytes read past the header are read again below.
+        byte[] buf = new byte[8192];
         boolean nl = false;     // Saw a nl
-        int rlen=0;
-        while( rlen < MAX_HEADER_BUFFER_SIZE ) {
-          int b = is.read();
-          if( b == -1 ) return;
-          buf[rlen++] = (byte)b;
-          if( b == '\n' ) {
-            if(nl) break; // 2nd nl in a row ==> done with header
-            nl = true;
-          } else if( b != '\r' ) nl = false;
+        int rlen=0, hlen=-1;
+        while( hlen == -1 && rlen < MAX_HEADER_BUFFER_SIZE ) {
           if (rlen == buf.length) buf = Arrays.copyOf(buf, 2*buf.length);
+          int n = is.read(buf, rlen, buf.length-rlen);
+          if( n == -1 ) return false;
+          for( int i=rlen; i<rlen+n; i++ ) {
+            byte b = buf[i];
+            if( b == '\n' ) {
+              if(nl) { hlen = i+1; break; } // 2nd nl in a row ==> done with header
+              nl = true;
+            } else if( b != '\r' ) nl = false;
+          }
+          rlen += n;
         }
 
-        if (rlen == MAX_HEADER_BUFFER_SIZE)
+        if (hlen == -1)
           sendError(HTTP_TOOLONGREQUEST, "Requested URL is too long!");
+        rlen = hlen;
 
         // Create a BufferedReader for parsing the header.
         ByteArrayInputStream hbis = new ByteArrayInputStream(buf, 0, rlen);
@@ -308,6 +376,14 @@ public class NanoHTTPD
         decodeHeader(hin, pre, parms, header);
         String method = pre.getProperty("method");
         String uri = pre.getProperty("uri");
+        String connection = header.getProperty("connection","");
+        myHttp11 = "HTTP/1.1".equalsIgnoreCase(pre.getProperty("protocol"));
+        myKeepAlive = mayKeepAlive &&
+          (myHttp11 ? !connection.equalsIgnoreCase("close") : connection.equalsIgnoreCase("keep-alive")) &&
+          !method.equalsIgnoreCase("POST") && !method.equalsIgnoreCase("PUT") &&
+          header.getProperty("content-length","0").trim().equals("0") &&
+          header.getProperty("transfer-encoding") == null &&
+          myPool.getQueue().isEmpty() && myPool.getActiveCount() <= POOL_THREADS/2;
 
         long size = 0x7FFFFFFFFFFFFFFFl;
         String contentLength = header.getProperty("content-length");
@@ -419,18 +495,21 @@ public class NanoHTTPD
         Response r = serve( uri, method, header, parms );
         if ( r == null )
           sendError( HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: Serve() returned a null response." );
+        else if ( r.stream != null )
+          sendStream( r );
         else
           sendResponse( r.status, r.mimeType, r.header, r.data );
-
-        in.close();
-        is.close();
+        return myKeepAlive;
+      } catch ( SocketTimeoutException ste ) {
+        throw ste;              // Idle kept connection; just close it
       } catch ( IOException ioe ) {
         try {
           sendError( HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: IOException: " + ioe.getMessage());
         } catch ( Throwable t ) { Log.err(t); }
       } catch ( InterruptedException e ) {
-        // Thrown by sendError, ignore and exit the thread.
+        // Thrown by sendError, ignore and close the connection.
       }
+      return false;
     }
 
     /**
@@ -466,11 +545,12 @@ public class NanoHTTPD
         else uri = decodePercent(uri);
 
         // If there's another token, it's protocol version,
-        // followed by HTTP headers. Ignore version but parse headers.
+        // followed by HTTP headers.
         // NOTE: this now forces header names lowercase since they are
         // case insensitive and vary by client.
         if ( st.hasMoreTokens())
         {
+          pre.put("protocol", st.nextToken());
           String line = in.readLine();
           while ( line != null && line.trim().length() > 0 )
           {
@@ -642,6 +722,7 @@ public class NanoHTTPD
      */
     private void sendError( String status, String msg ) throws InterruptedException
     {
+      myKeepAlive = false;
       sendResponse( status, MIME_PLAINTEXT, null, new ByteArrayInputStream( msg.getBytes()));
       throw new InterruptedException();
     }
@@ -658,27 +739,20 @@ public class NanoHTTPD
 
         OutputStream out = mySocket.getOutputStream();
         PrintWriter pw = new PrintWriter( out );
-        pw.print("HTTP/1.0 " + status + " \r\n");
-
-        if ( mime != null )
-          pw.print("Content-Type: " + mime + "\r\n");
+        pw.print((myHttp11 ? "HTTP/1.1 " : "HTTP/1.0 ") + status + " \r\n");
 
-        if ( header == null || header.getProperty( "Date" ) == null )
-          pw.print( "Date: " + gmtFrmt.format( new Date()) + "\r\n");
-
-        if ( header != null )
+        // A kept connection needs the response length
+        if ( myKeepAlive && (header == null || header.getProperty( "Content-Length" ) == null))
         {
-          Enumeration e = header.keys();
-          while ( e.hasMoreElements())
-          {
-            String key = (String)e.nextElement();
-            String value = header.getProperty( key );
-            pw.print( key + ": " + value + "\r\n");
-          }
+          if ( data == null ) pw.print("Content-Length: 0\r\n");
+          else if ( data instanceof ByteArrayInputStream ) pw.print("Content-Length: " + data.available() + "\r\n");
+          else myKeepAlive = false;
         }
+        pw.print(myKeepAlive
+                 ? "Connection: keep-alive\r\nKeep-Alive: timeout=" + KEEP_ALIVE_MS/1000 + ", max=" + KEEP_ALIVE_MAX + "\r\n"
+                 : "Connection: close\r\n");
 
-        pw.print("\r\n");
-        pw.flush();
+        printHeader( pw, mime, header );
 
         if ( data != null )
         {
@@ -694,7 +768,8 @@ public class NanoHTTPD
           }
         }
         out.flush();
-        out.close();
+        if ( !myKeepAlive )
+          out.close();
         if ( data != null )
           data.close();
       }
@@ -705,9 +780,99 @@ public class NanoHTTPD
       }
     }
 
+    /**
+     * Sends a streamed response: chunked to HTTP/1.1 clients, which may keep
+     * the connection, else up to the close.  A failure once the header is out
+     * can only cut the body short, so the connection is dropped.
+     */
+    private void sendStream( Response r )
+    {
+      if ( !myHttp11 ) myKeepAlive = false;
+      try
+      {
+        OutputStream out = mySocket.getOutputStream();
+        PrintWriter pw = new PrintWriter( out );
+        pw.print((myHttp11 ? "HTTP/1.1 " : "HTTP/1.0 ") + r.status + " \r\n");
+        if ( myHttp11 ) pw.print("Transfer-Encoding: chunked\r\n");
+        pw.print(myKeepAlive
+                 ? "Connection: keep-alive\r\nKeep-Alive: timeout=" + KEEP_ALIVE_MS/1000 + ", max=" + KEEP_ALIVE_MAX + "\r\n"
+                 : "Connection: close\r\n");
+        printHeader( pw, r.mimeType, r.header );
+
+        ChunkedOutputStream chunked = myHttp11 ? new ChunkedOutputStream( out ) : null;
+        OutputStream os = new BufferedOutputStream( chunked != null ? chunked : out, theBufferSize );
+        r.stream.writeTo( os );
+        os.flush();
+        if ( chunked != null )
+          chunked.finish();     // Only a body written in full is ended
+        if ( !myKeepAlive )
+          out.close();
+      }
+      catch( IOException | RuntimeException e ) {
+        Log.err(e);
+        myKeepAlive = false;
+        // Reset rather than close, dropping anything still buffered, so the
+        // client cannot mistake the body for a complete one.
+        try { mySocket.setSoLinger(true,0); mySocket.close(); } catch( IOException ignore ) { }
+      }
+    }
+
+    // Content-Type, Date and extra header lines, then the blank line.
+    private void printHeader( PrintWriter pw, String mime, Properties header )
+    {
+      if ( mime != null )
+        pw.print("Content-Type: " + mime + "\r\n");
+
+      if ( header == null || header.getProperty( "Date" ) == null )
+        pw.print( "Date: " + gmtFrmt.format( new Date()) + "\r\n");
+
+      if ( header != null )
+      {
+        Enumeration e = header.keys();
+        while ( e.hasMoreElements())
+        {
+          String key = (String)e.nextElement();
+          String value = header.getProperty( key );
+          pw.print( key + ": " + value + "\r\n");
+        }
+      }
+
+      pw.print("\r\n");
+      pw.flush();
+    }
+
     private Socket mySocket;
   }
 
+  /**
+   * HTTP/1.1 chunked transfer coding: each write goes out as one chunk.
+   * finish() writes the last, empty chunk and leaves the wrapped stream open,
+   * so the connection can carry the next request.  Closing only flushes: a
+   * writer closing its stream must not end a body the server has not seen
+   * written in full.
+   */
+  static final class ChunkedOutputStream extends FilterOutputStream {
+    private boolean _closed;
+    ChunkedOutputStream( OutputStream out ) { super(out); }
+    @Override public void write( int b ) throws IOException { write(new byte[]{(byte)b},0,1); }
+    @Override public void write( byte[] b, int off, int len ) throws IOException {
+      if( _closed ) throw new IOException("Stream closed");
+      if( len == 0 ) return;    // An empty chunk would end the body
+      out.write((Integer.toHexString(len)+"\r\n").getBytes());
+      out.write(b,off,len);
+      out.write(CRLF);
+    }
+    @Override public void close() throws IOException { flush(); }
+    void finish() throws IOException {
+      if( _closed ) return;
+      _closed = true;
+      out.write(LAST_CHUNK);
+      out.flush();
+    }
+    private static final byte[] CRLF = {'\r','\n'};
+    private static final byte[] LAST_CHUNK = {'0','\r','\n','\r','\n'};
+  }
+
   private static final class InputStreamWrapper extends InputStream {
     static final byte[] BOUNDARY_PREFIX = { '\r', '\n', '-', '-' };
     final InputStream _wrapped;
@@ -827,6 +992,7 @@ public class NanoHTTPD
   }
 
   private final ServerSocket myServerSocket;
+  private final ThreadPoolExecutor myPool;
   private Thread myThread;
   private File myRootDir;
 
@@ -1072,6 +1238,13 @@ public class NanoHTTPD
 
   private static int theBufferSize = 16 * 1024;
 
+  /**
+   * Session pool: threads, and connections waiting for one before new ones
+   * are answered 503.
+   */
+  private static final int POOL_THREADS = Math.max(8, 2*Runtime.getRuntime().availableProcessors());
+  private static final int POOL_QUEUE = 256;
+
   // Change this if you want to log to somewhere else than stdout
   protected static final PrintStream myOut = System.out;
 
@@ -0,0 +1,137 @@
+package water;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import sun.misc.Unsafe;
+import water.nbhm.UtilUnsafe;
+
+/**
+ * A block of raw memory outside the Java heap, holding the payload bytes of a
+ * {@link water.fvec.Chunk}.  This is the off-heap tier between the K/V cache
+ * on the heap and the ICE spill files: under memory pressure the {@link
+ * Cleaner} first copies Chunk payloads here, freeing the heap without a trip
+ * to disk.  The Chunk decoders read straight from the block address.
+ *
+ * Blocks are immutable once filled, and are shared by all Chunk clones made
+ * from the same off-heap Chunk.  A block is freed when it is no longer
+ * reachable from any Chunk; the allocator polls for such blocks (via phantom
+ * references) on every allocation and from the Cleaner.
+ *
+ * The tier is disabled unless a size is given with the {@code -offheap}
+ * command-line flag.
+ *
+ * A block can also be a view into memory owned by someone else, such as a
+ * memory-mapped ICE segment; views are not counted against the tier and are
+ * never freed here.
+ */
+public final class OffHeap {
+  private static final Unsafe _unsafe = UtilUnsafe.getUnsafe();
+  private static final long _Bbase = _unsafe.arrayBaseOffset(byte[].class);
+
+  /** Raw address of the first byte */
+  public final long _addr;
+  /** Length in bytes */
+  public final int _len;
+  // For views: the object owning the memory, kept reachable by the view
+  private final Object _owner;
+  private OffHeap( long addr, int len, Object owner ) { _addr = addr; _len = len; _owner = owner; }
+
+  // Max bytes allowed off-heap; zero disables the tier.  Set once at boot.
+  static long MAX;
+  // Bytes currently allocated off-heap, including blocks not yet reclaimed
+  private static final AtomicLong USED = new AtomicLong();
+
+  // Phantom references to every live block, so we can free the raw memory
+  // after the last Chunk using the block is collected.
+  private static final ReferenceQueue<OffHeap> DEAD = new ReferenceQueue<>();
+  private static final Set<Reaper> LIVE = Collections.newSetFromMap(new ConcurrentHashMap<Reaper,Boolean>());
+  private static final class Reaper extends PhantomReference<OffHeap> {
+    final long _addr; final int _len;
+    Reaper( OffHeap oh ) { super(oh,DEAD); _addr = oh._addr; _len = oh._len; }
+  }
+
+  /** Is the off-heap tier turned on? */
+  public static boolean enabled() { return MAX > 0; }
+  /** Bytes of Chunk payload currently held off-heap */
+  public static long used() { return USED.get(); }
+  /** Off-heap tier is above 7/8ths of its limit */
+  static boolean isFull() { return USED.get() > MAX-(MAX>>3); }
+
+  /** Copy a byte array into a new off-heap block.  Returns null if the tier
+   *  is disabled, full, or the OS refuses the allocation; callers then fall
+   *  back to the usual spill-to-disk. */
+  public static OffHeap copyOf( byte[] mem ) {
+    reclaim();
+    final int len = mem.length;
+    if( !enabled() || len == 0 ) return null;
+    if( USED.addAndGet(len) > MAX ) { USED.addAndGet(-len); return null; }
+    long addr;
+    try { addr = _unsafe.allocateMemory(len); }
+    catch( OutOfMemoryError e ) { USED.addAndGet(-len); return null; }
+    _unsafe.copyMemory(mem,_Bbase,null,addr,len);
+    OffHeap oh = new OffHeap(addr,len,null);
+    LIVE.add(new Reaper(oh));
+    return oh;
+  }
+
+  /** A view of 'len' bytes at 'addr' inside memory kept alive by 'owner',
+   *  e.g. a MappedByteBuffer. */
+  public static OffHeap view( long addr, int len, Object owner ) {
+    assert owner != null;
+    return new OffHeap(addr,len,owner);
+  }
+
+  /** Raw address of a direct or mapped buffer */
+  public static long address( java.nio.Buffer buf ) {
+    assert buf.isDirect();
+    return _unsafe.getLong(buf,_bufAddrOff);
+  }
+  private static final long _bufAddrOff;
+  static {
+    try { _bufAddrOff = _unsafe.objectFieldOffset(java.nio.Buffer.class.getDeclaredField("address")); }
+    catch( NoSuchFieldException e ) { throw new RuntimeException(e); }
+  }
+
+  // Raw copies between heap arrays and raw addresses
+  public static void copy( byte[] src, long dst, int len ) { _unsafe.copyMemory(src,_Bbase,null,dst,len); }
+  public static void copy( long src, byte[] dst, int len ) { _unsafe.copyMemory(null,src,dst,_Bbase,len); }
+  public static void copy( long src, long dst, int len ) { _unsafe.copyMemory(src,dst,len); }
+
+  /** Copy the block back into a fresh heap array */
+  public byte[] toHeap() {
+    byte[] mem = MemoryManager.malloc1(_len);
+    _unsafe.copyMemory(null,_addr,mem,_Bbase,_len);
+    return mem;
+  }
+
+  /** Free the raw memory of all blocks no longer reachable from a Chunk */
+  static void reclaim() {
+    Reaper r;
+    while( (r = (Reaper)DEAD.poll()) != null ) {
+      LIVE.remove(r);
+      _unsafe.freeMemory(r._addr);
+      USED.addAndGet(-r._len);
+    }
+  }
+
+  /** Parse a size such as "512m" or "64g" from the command line; null or
+   *  empty means disabled. */
+  static long parseSize( String s ) {
+    if( s == null || s.isEmpty() ) return 0;
+    s = s.trim().toLowerCase();
+    long scale = 1;
+    switch( s.charAt(s.length()-1) ) {
+    case 'k': scale = 1L<<10; break;
+    case 'm': scale = 1L<<20; break;
+    case 'g': scale = 1L<<30; break;
+    case 't': scale = 1L<<40; break;
+    }
+    if( scale != 1 ) s = s.substring(0,s.length()-1);
+    try { return Long.parseLong(s)*scale; }
+    catch( NumberFormatException nfe ) { throw new IllegalArgumentException("Invalid -offheap size: "+s); }
+  }
+}
@@ -82,6 +82,8 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   // if should remain the same size.
   int _size;
   int _size_rez;                // Size of received results
+  int _size_snd;                // Size of the sent DTask
+  long _doneMs;                 // When the answer arrived, for profiling
 
   // Magic Cookies
   static final byte SERVER_UDP_SEND = 10;
@@ -153,6 +155,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
             boolean t = ab.hasTCP();
             assert sz_check(ab) : "Resend of "+_dt.getClass()+" changes size from "+_size+" to "+ab.size()+" for task#"+_tasknum;
             ab.close(t,false);
+            _size_snd = ab.size();
             _sentTcp = t;       // Set after close (and any other possible fail)
             break;              // Break out of retry loop
           } catch( AutoBuffer.TCPIsUnreliableException e ) {
@@ -477,6 +480,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
         UDPTimeOutThread.PENDING.remove(this);
         _dt.read(ab);             // Read the answer (under lock?)
         _size_rez = ab.size();    // Record received size
+        _doneMs = System.currentTimeMillis();
         ab.close(true,false);     // Also finish the read (under lock?)
         _dt.onAck();              // One time only execute (before sending ACKACK)
         _done = true;             // Only read one (of many) response packets
@@ -521,6 +525,10 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   }
   // Size of received results
   int size_rez() { return _size_rez; }
+  // Size of the sent task, once sent
+  int size_snd() { return _size_snd; }
+  // Launch-to-answer msec, once answered
+  long latency() { return _doneMs - _started; }
 
   // ---
   static final long RETRY_MS = 200; // Initial UDP packet retry in msec
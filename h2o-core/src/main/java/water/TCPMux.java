@@ -0,0 +1,631 @@
+package water;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import water.util.Log;
+
+/**
+ * Multiplexed, non-blocking node-to-node TCP.
+ *
+ * Each Node keeps a few persistent outbound connections ("links") per peer,
+ * and accepts its peers' links in turn; links carry data one way only.  A
+ * small fixed set of I/O threads drives every link with a Selector, so the
+ * thread count no longer grows with the number of peers or connections.
+ *
+ * Each large AutoBuffer send is a "stream" on a link.  Its bytes are cut into
+ * frames, and the link interleaves the frames of all its streams, serving
+ * streams which have not sent anything yet first.  A short RPC control
+ * message thus waits behind at most one frame of each bulk transfer, never
+ * behind a whole transfer.
+ *
+ * Flow control is per stream and end to end: a stream may only have WINDOW
+ * frames sent but not yet taken by its reader, and its writer blocks until
+ * the reader hands back credit.  One large send or one slow reader cannot
+ * flood the link or either heap, nor stall the other streams of the link.
+ *
+ * The receiving side hands each stream to a handler thread at its first
+ * frame, which runs the usual TCP handlers; they read the frames as they
+ * arrive, so a large message streams through rather than piling up.  The
+ * I/O thread never allocates: payloads are read into buffers recycled per
+ * link, and when none is free the link stops reading until a handler
+ * thread has allocated one.  A writer's close() returns once the reader is
+ * done with the whole message.
+ *
+ * When both ends run with -tcp_compress (each advertises it in its
+ * HeartBeat), the writer LZ4-compresses each frame.  A frame which does not
+ * shrink by at least an eighth goes out raw, and a stream whose first frames
+ * all fail to shrink stops trying.  The reader inflates frames as its handler
+ * consumes them, off the I/O thread.  Both ends record each message's raw
+ * and wire sizes and the CPU spent in the TimeLine.
+ *
+ * A link starts with [MAGIC:4][sender port:2]; after that it is all frames of
+ * [stream id:4][flags|length:4][payload], the length at most FRAME.  An LZ4
+ * frame's payload is [raw length:4][LZ4 block].  Streams end with a LAST
+ * frame, or an ABORT frame if the sender gave up part way.  The other way
+ * go acks of [stream id:4][flags|count:4]: credit for count frames taken by
+ * the reader, and LAST once the reader is done with the message.
+ */
+public class TCPMux {
+  static final int MAGIC = 0x48324D58;  // "H2MX"
+  static final int LINKS = 2;           // Outbound links per peer
+  static final int FRAME = AutoBuffer.BBSIZE; // Max frame payload
+  static final int WINDOW = 4;          // Max frames per stream sent but not taken by the reader
+  static final int POOL = 2*WINDOW;     // Frame buffers kept for reuse per inbound link
+  static final int IO_THREADS = Math.max(1,Math.min(4,H2O.NUMCPUS>>2));
+  private static final int HDR = 8;
+  private static final int LAST  = 0x80000000;
+  private static final int ABORT = 0x40000000;
+  private static final int LZ4   = 0x20000000;
+  private static final int LEN_MASK = ~(LAST|ABORT|LZ4);
+  static final int MIN_LZ4 = 1024;      // Smaller frames are not worth compressing
+  static final int LZ4_MISSES = 2;      // A stream stops compressing after this many misses with no hit
+
+  // ---------------
+  // I/O threads, started lazily and never stopped
+  private static IOThread[] IOS;
+  private static int NEXT_IO;
+  private static synchronized IOThread io() throws IOException {
+    if( IOS == null ) {
+      IOThread[] ios = new IOThread[IO_THREADS];
+      for( int i=0; i<ios.length; i++ ) (ios[i] = new IOThread(i)).start();
+      IOS = ios;
+    }
+    return IOS[NEXT_IO++ % IOS.length];
+  }
+
+  // Handler threads, one per inbound stream being read, and frame buffer
+  // allocations for starved links
+  private static final ExecutorService DISPATCH = Executors.newCachedThreadPool(new ThreadFactory() {
+      final AtomicInteger _n = new AtomicInteger();
+      @Override public Thread newThread( Runnable r ) {
+        Thread t = new Thread(r,"TCP-Dispatch-"+_n.getAndIncrement());
+        t.setDaemon(true);
+        t.setPriority(Thread.MAX_PRIORITY-1);
+        return t;
+      }
+    });
+
+  private static class IOThread extends Thread {
+    final Selector _sel;
+    // Links to register, or whose interest set changed; applied on this thread
+    private final ConcurrentLinkedQueue<Link> _pending = new ConcurrentLinkedQueue<>();
+    IOThread( int i ) throws IOException {
+      super("TCP-IO-"+i);
+      setDaemon(true);
+      setPriority(MAX_PRIORITY-1);
+      _sel = Selector.open();
+    }
+    void wake( Link l ) { _pending.add(l); _sel.wakeup(); }
+    @Override public void run() {
+      while( true ) {
+        try { _sel.select(); }
+        catch( IOException e ) { Log.err("TCP selector failed: ",e); continue; }
+        Link l;
+        while( (l = _pending.poll()) != null )
+          try { l.update(_sel); } catch( IOException|RuntimeException e ) { l.fail(e); }
+        Iterator<SelectionKey> it = _sel.selectedKeys().iterator();
+        while( it.hasNext() ) {
+          SelectionKey k = it.next();
+          it.remove();
+          l = (Link)k.attachment();
+          try {
+            if( k.isValid() && k.isReadable() ) l.doRead ();
+            if( k.isValid() && k.isWritable() ) l.doWrite();
+          } catch( IOException|RuntimeException e ) { l.fail(e); }
+        }
+      }
+    }
+  }
+
+  // ---------------
+  /** Open an outbound link to a peer.  Blocks for the connect. */
+  static OutLink connect( H2ONode h2o ) throws IOException {
+    SocketChannel sock = SocketChannel.open();
+    try {
+      sock.socket().setSendBufferSize(AutoBuffer.BBSIZE);
+      sock.socket().setTcpNoDelay(true); // Control frames must not wait on Nagle
+      boolean res = sock.connect(h2o._key);
+      assert res && !sock.isConnectionPending() && sock.isBlocking() && sock.isConnected() && sock.isOpen();
+      ByteBuffer hello = ByteBuffer.allocate(6).putInt(MAGIC).putChar((char)H2O.H2O_PORT);
+      hello.flip();
+      while( hello.hasRemaining() ) sock.write(hello);
+      sock.configureBlocking(false);
+    } catch( IOException e ) {
+      sock.close();
+      throw e;
+    }
+    OutLink link = new OutLink(h2o,sock,io());
+    link._io.wake(link);
+    return link;
+  }
+
+  /** Take over an accepted inbound link */
+  static void accept( SocketChannel sock ) throws IOException {
+    sock.configureBlocking(false);
+    register(new InLink(sock));
+  }
+  static void register( InLink link ) throws IOException {
+    link._io = io();
+    link._io.wake(link);
+  }
+
+  private static abstract class Link {
+    final SocketChannel _sock;
+    IOThread _io;
+    SelectionKey _key;
+    Link( SocketChannel sock, IOThread io ) { _sock = sock; _io = io; }
+    abstract void update( Selector sel ) throws IOException;
+    abstract void doRead () throws IOException;
+    abstract void doWrite() throws IOException;
+    abstract void fail( Throwable t );
+    void closeSocket() {
+      if( _key != null ) _key.cancel();
+      try { _sock.close(); } catch( IOException ignore ) { }
+    }
+  }
+
+  /** A ByteChannel view of one message on a link */
+  static abstract class Stream implements ByteChannel {
+    /** Give up on the message: drop it without delivering it */
+    abstract void abort();
+  }
+
+  // ---------------
+  /** Sending side of a link.  Writers queue frames under the link lock; the
+   *  I/O thread picks the next frame to send, and applies the reader's acks,
+   *  under the same lock. */
+  static final class OutLink extends Link {
+    final H2ONode _h2o;
+    private int _nextId;
+    // Streams with queued frames: not yet started, and started
+    private final ArrayDeque<OutStream> _fresh = new ArrayDeque<>(), _busy = new ArrayDeque<>();
+    // Streams the reader is not done with yet, by id
+    private final HashMap<Integer,OutStream> _open = new HashMap<>();
+    private boolean _wantWrite;   // Asked the I/O thread to select for write
+    private IOException _err;     // Set when the link fails; it is then dead
+    private ByteBuffer _cur;      // Frame being written; I/O thread only
+    private final ByteBuffer _ack = ByteBuffer.allocate(HDR); // Ack being read; I/O thread only
+
+    OutLink( H2ONode h2o, SocketChannel sock, IOThread io ) { super(sock,io); _h2o = h2o; }
+
+    synchronized boolean failed() { return _err != null; }
+
+    /** A new message on this link */
+    synchronized OutStream open() throws IOException {
+      if( _err != null ) throw new IOException("TCP link to "+_h2o+" failed",_err);
+      H2ONode.TCPS.incrementAndGet();
+      OutStream s = new OutStream(this,_nextId++,H2O.ARGS.tcp_compress && _h2o._heartbeat._tcp_lz4);
+      _open.put(s._id,s);
+      return s;
+    }
+
+    /** Queue a frame; a data frame first waits for credit.  Data for a reader
+     *  already done with the message is dropped. */
+    synchronized void enqueue( OutStream s, ByteBuffer f, boolean data ) throws IOException {
+      while( _err == null && data && s._credit == 0 && !s._consumed )
+        try { wait(); } catch( InterruptedException ignore ) { }
+      if( _err != null ) throw new IOException("TCP link to "+_h2o+" failed",_err);
+      if( data && s._consumed ) return;
+      if( data ) s._credit--;
+      if( s._frames.isEmpty() ) (s._started ? _busy : _fresh).add(s);
+      s._frames.add(f);
+      if( !_wantWrite ) { _wantWrite = true; _io.wake(this); }
+    }
+
+    synchronized void awaitConsumed( OutStream s ) throws IOException {
+      while( _err == null && !s._consumed )
+        try { wait(); } catch( InterruptedException ignore ) { }
+      if( !s._consumed ) throw new IOException("TCP link to "+_h2o+" failed",_err);
+    }
+
+    synchronized void abort( OutStream s ) {
+      _open.remove(s._id);
+      _fresh.remove(s);
+      _busy.remove(s);
+      s._frames.clear();
+      if( _err == null && s._started ) { // Receiver has a partial message; tell it to drop it
+        _busy.add(s);
+        s._frames.add(frame(s._id,ABORT));
+        if( !_wantWrite ) { _wantWrite = true; _io.wake(this); }
+      }
+    }
+
+    @Override void update( Selector sel ) throws IOException {
+      if( _key == null ) _key = _sock.register(sel,SelectionKey.OP_READ,this);
+      synchronized(this) {
+        if( _err != null ) return;
+        _key.interestOps(SelectionKey.OP_READ | (_wantWrite ? SelectionKey.OP_WRITE : 0));
+      }
+    }
+
+    // Only the reader's acks come back on an outbound link
+    @Override void doRead() throws IOException {
+      while( true ) {
+        if( _sock.read(_ack) == -1 ) throw new EOFException("TCP link closed by "+_h2o);
+        if( _ack.hasRemaining() ) return; // Wait for more
+        acked(_ack.getInt(0),_ack.getInt(4));
+        _ack.clear();
+      }
+    }
+    private synchronized void acked( int id, int flags ) {
+      OutStream s = _open.get(id);
+      if( s == null ) return;   // Aborted here already
+      s._credit += flags & LEN_MASK;
+      if( (flags & LAST) != 0 ) { s._consumed = true; _open.remove(id); }
+      notifyAll();
+    }
+
+    @Override void doWrite() throws IOException {
+      while( true ) {
+        if( _cur == null && !next() ) return;
+        _sock.write(_cur);
+        if( _cur.hasRemaining() ) return; // Socket buffer full; wait for the next OP_WRITE
+        _cur = null;
+      }
+    }
+
+    // Pick the next frame: fresh streams first, then round-robin over started ones
+    private synchronized boolean next() {
+      OutStream s = _fresh.poll();
+      if( s == null ) s = _busy.poll();
+      if( s == null ) {
+        _wantWrite = false;
+        _key.interestOps(SelectionKey.OP_READ);
+        return false;
+      }
+      _cur = s._frames.poll();
+      s._started = true;
+      if( !s._frames.isEmpty() ) _busy.add(s);
+      return true;
+    }
+
+    @Override void fail( Throwable t ) {
+      synchronized(this) {
+        if( _err != null ) return;
+        _err = t instanceof IOException ? (IOException)t : new IOException(t);
+        _fresh.clear();
+        _busy.clear();
+        _open.clear();
+        notifyAll();
+      }
+      if( !(t instanceof EOFException) ) Log.warn("TCP link to "+_h2o+" failed: "+t);
+      closeSocket();
+    }
+  }
+
+  static ByteBuffer frame( int id, int flags ) {
+    ByteBuffer f = ByteBuffer.allocate(HDR).putInt(id).putInt(flags);
+    f.flip();
+    return f;
+  }
+
+  /** One outbound message.  Used by a single writer thread. */
+  static final class OutStream extends Stream {
+    final OutLink _link;
+    final int _id;
+    // Under the link lock: queued frames, frames the reader has room for,
+    // whether any frame went out, and whether the reader is done with it
+    final ArrayDeque<ByteBuffer> _frames = new ArrayDeque<>();
+    int _credit = WINDOW;
+    boolean _started, _consumed;
+    private boolean _done;
+    // Compression: still trying, misses & hits so far, scratch space, and
+    // payload bytes before & after, and nanos spent
+    private boolean _lz4;
+    private int _misses, _hits;
+    private byte[] _zbuf;
+    long _raw, _wire, _zns;
+    OutStream( OutLink link, int id, boolean lz4 ) { _link = link; _id = id; _lz4 = lz4; }
+
+    @Override public int write( ByteBuffer src ) throws IOException {
+      int n = src.remaining();
+      while( src.hasRemaining() ) {
+        int len = Math.min(src.remaining(),FRAME);
+        ByteBuffer f = ByteBuffer.allocate(HDR+len).putInt(_id).putInt(len);
+        int lim = src.limit();
+        src.limit(src.position()+len);
+        f.put(src);
+        src.limit(lim);
+        f.flip();
+        _raw += len;
+        if( _lz4 && len >= MIN_LZ4 ) f = deflate(f,len);
+        _wire += f.limit()-HDR;
+        _link.enqueue(this,f,true);
+      }
+      return n;
+    }
+
+    // Swap a raw frame for a compressed one, if it shrinks enough
+    private ByteBuffer deflate( ByteBuffer f, int len ) {
+      long t0 = System.nanoTime();
+      if( _zbuf == null ) _zbuf = new byte[HDR+4+FRAME];
+      int zlen = water.util.LZ4.compress(f.array(),HDR,len,_zbuf,HDR+4,HDR+4+len-(len>>3)-4);
+      _zns += System.nanoTime()-t0;
+      if( zlen == -1 ) {
+        if( ++_misses >= LZ4_MISSES && _hits == 0 ) _lz4 = false; // Incompressible; quit trying
+        return f;
+      }
+      _hits++;
+      ByteBuffer z = ByteBuffer.allocate(HDR+4+zlen).putInt(_id).putInt(LZ4|(4+zlen)).putInt(len);
+      z.put(_zbuf,HDR+4,zlen);
+      z.flip();
+      return z;
+    }
+    @Override public int read( ByteBuffer dst ) { throw H2O.fail(); }
+    @Override public boolean isOpen() { return !_done; }
+
+    /** End the message, and block until the reader is done with it */
+    @Override public void close() throws IOException {
+      if( _done ) return;
+      _done = true;
+      try {
+        _link.enqueue(this,frame(_id,LAST),false);
+        _link.awaitConsumed(this);
+        if( _zns > 0 ) TimeLine.record_lz4(_link._h2o,true,_zns,_raw,_wire);
+      } finally {
+        H2ONode.TCPS.decrementAndGet();
+      }
+    }
+    @Override void abort() {
+      if( _done ) return;
+      _done = true;
+      _link.abort(this);
+      H2ONode.TCPS.decrementAndGet();
+    }
+  }
+
+  // ---------------
+  /** Receiving side of a link.  Frames are read, and streams started, by its
+   *  I/O thread; handler threads hand back buffers and queue acks under the
+   *  link lock. */
+  static class InLink extends Link {
+    H2ONode _h2o;               // Known after the hello
+    private final ByteBuffer _hdr = ByteBuffer.allocate(HDR);
+    private ByteBuffer _body;   // Payload being read, if any
+    private final HashMap<Integer,InStream> _streams = new HashMap<>();
+    // Under the link lock: buffers to read payloads into, acks to send, and
+    // whether reading waits on a buffer, acks wait on the socket, or the link
+    // is dead
+    private final ArrayDeque<byte[]> _free = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuffer> _acks = new ArrayDeque<>();
+    private boolean _starved, _wantWrite, _failed;
+
+    InLink( SocketChannel sock ) { super(sock,null); _hdr.limit(6); }
+
+    @Override void update( Selector sel ) throws IOException {
+      if( _key == null ) _key = _sock.register(sel,0,this);
+      synchronized(this) {
+        if( !_failed ) interest();
+      }
+    }
+    private void interest() {
+      _key.interestOps((_starved ? 0 : SelectionKey.OP_READ) | (_wantWrite ? SelectionKey.OP_WRITE : 0));
+    }
+
+    @Override void doRead() throws IOException {
+      while( true ) {
+        if( _body == null ) {
+          if( _hdr.hasRemaining() ) {
+            if( _sock.read(_hdr) == -1 ) throw new EOFException();
+            if( _hdr.hasRemaining() ) return; // Wait for more
+            if( _h2o == null ) {  // The hello
+              if( _hdr.getInt(0) != MAGIC ) throw new IOException("Not an H2O link from "+_sock.socket().getInetAddress());
+              _h2o = H2ONode.intern(_sock.socket().getInetAddress(),_hdr.getChar(4));
+              _hdr.clear();
+              continue;
+            }
+          }
+          int len = _hdr.getInt(4) & LEN_MASK;
+          if( len > FRAME ) throw new IOException("Bad TCP frame length "+len+" from "+_h2o);
+          if( len > 0 ) {       // Header done, now the payload
+            byte[] buf = buffer();
+            if( buf == null ) return; // Reading resumes once one is allocated
+            _body = ByteBuffer.wrap(buf,0,len);
+          }
+        }
+        if( _body != null ) {
+          if( _sock.read(_body) == -1 ) throw new EOFException();
+          if( _body.hasRemaining() ) return; // Wait for more
+          _body.flip();
+        }
+        deliver(_hdr.getInt(0),_hdr.getInt(4),_body);
+        _body = null;
+        _hdr.clear();
+      }
+    }
+
+    private void deliver( int id, int flags, ByteBuffer body ) {
+      InStream s = _streams.get(id);
+      if( s == null ) {
+        _streams.put(id, s = new InStream(this,id));
+        start(s);
+      }
+      if( body != null ) s.add(body,(flags & LZ4) != 0);
+      if( (flags & (LAST|ABORT)) != 0 ) {
+        _streams.remove(id);
+        s.end((flags & ABORT) != 0);
+      }
+    }
+
+    // A free buffer for the next payload.  If there is none, stop reading and
+    // have a handler thread allocate one, so the I/O thread never waits on
+    // memory.
+    private byte[] buffer() {
+      synchronized(this) {
+        byte[] b = _free.poll();
+        if( b != null ) return b;
+        _starved = true;
+        interest();
+      }
+      DISPATCH.execute(new Runnable() {
+          @Override public void run() {
+            byte[] b = MemoryManager.malloc1(FRAME);
+            synchronized(InLink.this) { _free.add(b); _starved = false; }
+            _io.wake(InLink.this);
+          }
+        });
+      return null;
+    }
+    synchronized void recycle( byte[] b ) {
+      if( !_failed && b.length == FRAME && _free.size() < POOL ) _free.add(b);
+    }
+
+    synchronized void ack( int id, int flags ) {
+      if( _failed ) return;
+      _acks.add(frame(id,flags));
+      if( !_wantWrite ) { _wantWrite = true; _io.wake(this); }
+    }
+    @Override void doWrite() throws IOException {
+      while( true ) {
+        ByteBuffer a;
+        synchronized(this) {
+          if( (a = _acks.peek()) == null ) { _wantWrite = false; interest(); return; }
+        }
+        _sock.write(a);
+        if( a.hasRemaining() ) return; // Socket buffer full; wait for the next OP_WRITE
+        synchronized(this) { _acks.poll(); }
+      }
+    }
+
+    // Read the stream on a handler thread, and finish it whether it was read
+    // through or not
+    private void start( final InStream s ) {
+      DISPATCH.execute(new Runnable() {
+          @Override public void run() {
+            try { received(s); }
+            finally { s.close(); }
+          }
+        });
+    }
+    /** A new message; runs on a handler thread, reading frames as they arrive */
+    void received( InStream s ) {
+      AutoBuffer ab;
+      try { ab = new AutoBuffer(_h2o,s); }
+      catch( AutoBuffer.TCPIsUnreliableException e ) { return; } // Aborted before a page arrived
+      TCPReceiverThread.dispatch(ab);
+    }
+
+    @Override void fail( Throwable t ) {
+      synchronized(this) {
+        if( _failed ) return;
+        _failed = true;
+        _free.clear();
+        _acks.clear();
+      }
+      // A peer closing its link is normal, e.g. on shutdown
+      if( !(t instanceof EOFException) ) Log.warn("TCP link from "+(_h2o == null ? _sock.socket().getInetAddress() : _h2o)+" failed: "+t);
+      for( InStream s : _streams.values() )
+        s.end(true);            // Partial messages are lost; senders see the failure and retry
+      _streams.clear();
+      closeSocket();
+    }
+  }
+
+  /** One inbound message, read by a single handler thread as its frames
+   *  arrive.  Compressed frames are inflated as the reader reaches them. */
+  static final class InStream extends Stream {
+    final InLink _link;
+    final H2ONode _h2o;
+    final int _id;
+    // Under the stream lock: frames not taken yet, compressed ones by number,
+    // and whether the sender ended the message or gave up on it, and whether
+    // the reader is done with it
+    private final ArrayDeque<ByteBuffer> _frames = new ArrayDeque<>();
+    private final java.util.BitSet _packed = new java.util.BitSet();
+    private int _nframes, _head; // Frames added, and frames taken
+    private boolean _ended, _aborted, _closed;
+    private ByteBuffer _cur;    // Frame being read; reader only
+    private long _raw, _wire, _zns; // Inflation stats
+    InStream( InLink link, int id ) { _link = link; _h2o = link._h2o; _id = id; }
+
+    synchronized void add( ByteBuffer f, boolean lz4 ) {
+      if( _closed ) { _link.recycle(f.array()); return; } // Nobody reading
+      if( lz4 ) _packed.set(_nframes);
+      _nframes++;
+      _frames.add(f);
+      notifyAll();
+    }
+    synchronized void end( boolean abort ) {
+      _ended = true;
+      _aborted |= abort;
+      notifyAll();
+    }
+
+    // Take the next frame, waiting for it to arrive, and credit the sender
+    // with room for another.  Null at the end of the message.
+    private ByteBuffer next() throws IOException {
+      ByteBuffer f;
+      boolean lz4;
+      synchronized(this) {
+        while( _frames.isEmpty() && !_ended )
+          try { wait(); } catch( InterruptedException ignore ) { }
+        if( _aborted ) throw new EOFException("TCP message from "+_h2o+" cut short");
+        if( (f = _frames.poll()) == null ) return null;
+        lz4 = _packed.get(_head++);
+      }
+      _link.ack(_id,1);
+      return lz4 ? inflate(f) : f;
+    }
+
+    private ByteBuffer inflate( ByteBuffer z ) throws IOException {
+      long t0 = System.nanoTime();
+      int len = z.limit() < 4 ? -1 : z.getInt(0);
+      if( len < 0 || len > FRAME ) throw new IOException("Bad compressed TCP frame from "+_h2o);
+      byte[] f = MemoryManager.malloc1(len);
+      try {
+        if( water.util.LZ4.decompress(z.array(),4,z.limit()-4,f,0) != len )
+          throw new IOException("Bad compressed TCP frame from "+_h2o);
+      } catch( IndexOutOfBoundsException e ) {
+        throw new IOException("Bad compressed TCP frame from "+_h2o,e);
+      }
+      _link.recycle(z.array());
+      _raw += len;
+      _wire += z.limit();
+      _zns += System.nanoTime()-t0;
+      return ByteBuffer.wrap(f);
+    }
+
+    @Override public int read( ByteBuffer dst ) throws IOException {
+      int n = 0;
+      while( dst.hasRemaining() ) {
+        if( _cur == null ) {
+          if( n > 0 ) break;    // Hand back what we have rather than wait
+          if( (_cur = next()) == null ) return -1;
+        }
+        int len = Math.min(dst.remaining(),_cur.remaining());
+        dst.put(_cur.array(),_cur.position(),len);
+        _cur.position(_cur.position()+len);
+        n += len;
+        if( !_cur.hasRemaining() ) { _link.recycle(_cur.array()); _cur = null; }
+      }
+      return n;
+    }
+    @Override public int write( ByteBuffer src ) { throw H2O.fail(); }
+    @Override public synchronized boolean isOpen() { return !_closed; }
+    /** Done with the message, read through or not: drop what is left, and
+     *  tell the sender */
+    @Override public void close() {
+      synchronized(this) {
+        if( _closed ) return;
+        _closed = true;
+        for( ByteBuffer f : _frames ) _link.recycle(f.array());
+        _frames.clear();
+      }
+      if( _cur != null ) { _link.recycle(_cur.array()); _cur = null; }
+      _link.ack(_id,LAST);
+      if( _zns > 0 ) { TimeLine.record_lz4(_h2o,false,_zns,_raw,_wire); _zns = 0; }
+    }
+    @Override void abort() { close(); }
+  }
+}
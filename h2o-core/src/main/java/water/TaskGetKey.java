@@ -29,6 +29,9 @@ public class TaskGetKey extends DTask<TaskGetKey> {
     TGKS.putIfMatchUnlocked(tgk._xkey,null,rpc); // Clear from dup cache
     return tgk._val;
   }
+  // An in-progress fetch of this Key, if any
+  static RPC<TaskGetKey> inflight( Key key ) { return TGKS.get(key); }
+
   // Start an RPC to fetch a Value, handling short-cutting dup-fetches
   static RPC<TaskGetKey> start( H2ONode target, Key key ) {
     // Do we have an old TaskGetKey in-progress?
@@ -49,21 +52,31 @@ public class TaskGetKey extends DTask<TaskGetKey> {
     _h2o = sender;
     Key k = _key;
     _key = null;          // Not part of the return result
+    _val = fetch(k,sender);     // The return result
+    tryComplete();
+  }
+
+  // Read a home Value for shipping to sender
+  static Value fetch( Key k, H2ONode sender ) {
     assert k.home();      // Gets are always from home (less we do replication)
     // Shipping a result?  Track replicas so we can invalidate.  There's a
     // narrow race on a moving K/V mapping tracking this Value just as it gets
     // deleted - in which case, simply retry for another Value.
-    do  _val = H2O.get(k);      // The return result
-    while( _val != null && !_val.setReplica(sender) );
-    tryComplete();
+    Value val;
+    do  val = H2O.get(k);
+    while( val != null && !val.setReplica(sender) );
+    return val;
   }
   @Override public void compute2() { throw H2O.fail(); }
 
   // Received an ACK; executes on the node asking&receiving the Value
-  @Override public void onAck() {
-    if( _val != null ) {        // Set transient fields after deserializing
-      assert !_xkey.home() && _val._key == null;
-      _val._key = _xkey;
+  @Override public void onAck() { _val = install(_xkey,_val); }
+
+  // Cache a fetched Value locally; returns the Value now cached
+  static Value install( Key xkey, Value val ) {
+    if( val != null ) {         // Set transient fields after deserializing
+      assert !xkey.home() && val._key == null;
+      val._key = xkey;
     }
     // Now update the local store, caching the result.
 
@@ -76,10 +89,10 @@ public class TaskGetKey extends DTask<TaskGetKey> {
 
     // Hence we can do a blind putIfMatch here over a null or empty Value
     // If it fails, what is there is also the TGK result.
-    Value old = H2O.raw_get(_xkey);
+    Value old = H2O.raw_get(xkey);
     if( old != null && !old.isEmpty() ) old=null;
-    Value res = H2O.putIfMatch(_xkey,_val,old);
-    if( res != old ) _val = res;
+    Value res = H2O.putIfMatch(xkey,val,old);
+    return res != old ? res : val;
   }
 
   // Received an ACKACK; executes on the node sending the Value
@@ -0,0 +1,77 @@
+package water;
+
+import java.util.List;
+import water.nbhm.NonBlockingHashMap;
+
+/**
+ * Get many keys from the same remote node in one RPC.
+ *
+ * Same protocol as {@link TaskGetKey}, but for a batch of Keys homed on one
+ * Node: a loop over the Chunks of a non-local Vec otherwise pays a full
+ * round-trip per Chunk.  Keys being fetched are registered while in-flight,
+ * so racing gets for any of them share the one fetch.
+ */
+public class TaskGetKeys extends DTask<TaskGetKeys> {
+  static final int MAX_KEYS = 32; // Keys per RPC; bounds the size of the answer
+
+  Key[] _keys;               // Set by client/sender JVM, cleared by server JVM
+  Value[] _vals;             // Set by server JVM, read by client JVM
+  transient Key[] _xkeys;    // Set by client, read by client
+  transient H2ONode _h2o;    // Set by server JVM, read by server JVM on ACKACK
+
+  private static final NonBlockingHashMap<Key,RPC<TaskGetKeys>> INFLIGHT = new NonBlockingHashMap<>();
+
+  // An in-progress batch fetching this Key, if any
+  static RPC<TaskGetKeys> inflight( Key key ) { return INFLIGHT.get(key); }
+
+  // Start an RPC fetching the keys, all homed on target
+  static RPC<TaskGetKeys> start( H2ONode target, List<Key> keys ) {
+    assert keys.size() <= MAX_KEYS;
+    RPC<TaskGetKeys> rpc = new RPC<>(target,new TaskGetKeys(keys.toArray(new Key[keys.size()])),1.0f);
+    // Racing fetches of the same Key are rare (the caller has just checked);
+    // losing the race just means the Key is fetched twice.
+    for( Key key : keys ) INFLIGHT.putIfMatchUnlocked(key,rpc,null);
+    rpc.setTaskNum().call();
+    return rpc;
+  }
+
+  // Block for the batch, and return the Value for one of its keys
+  static Value get( RPC<TaskGetKeys> rpc, Key key ) {
+    TaskGetKeys tgks = rpc.get();
+    for( int i=0; i<tgks._xkeys.length; i++ )
+      if( tgks._xkeys[i].equals(key) )
+        return tgks._vals[i];
+    throw H2O.fail("Key "+key+" not in batch");
+  }
+
+  private TaskGetKeys( Key[] keys ) { _keys = _xkeys = keys; }
+
+  // Top-level non-recursive invoke
+  @Override public void dinvoke( H2ONode sender ) {
+    _h2o = sender;
+    Key[] ks = _keys;
+    _keys = null;               // Not part of the return result
+    _vals = new Value[ks.length];
+    for( int i=0; i<ks.length; i++ )
+      _vals[i] = TaskGetKey.fetch(ks[i],sender);
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Received an ACK; executes on the node asking&receiving the Values
+  @Override public void onAck() {
+    for( int i=0; i<_xkeys.length; i++ ) {
+      _vals[i] = TaskGetKey.install(_xkeys[i],_vals[i]);
+      // Cached now; later gets hit locally
+      RPC<TaskGetKeys> rpc = INFLIGHT.get(_xkeys[i]);
+      if( rpc != null && rpc._dt == this ) INFLIGHT.remove(_xkeys[i],rpc);
+    }
+  }
+
+  // Received an ACKACK; executes on the node sending the Values
+  @Override public void onAckAck() {
+    for( Value val : _vals )
+      if( val != null ) val.lowerActiveGetCount(_h2o);
+  }
+  @Override protected byte priority() { return H2O.GET_KEY_PRIORITY; }
+}
@@ -21,24 +21,29 @@ public class TaskPutKey extends DTask<TaskPutKey> {
   protected TaskPutKey( Key key, Value val, boolean removeCache ) { _xkey = _key = key; _xval = _val = val; _dontCache = removeCache;}
 
   @Override public void dinvoke( H2ONode sender ) {
-    assert _key.home() || _val==null; // Only PUT to home for keys, or remote invalidation from home
+    install(sender,_key,_val);
+    // No return result
+    _key = null;
+    _val = null;
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Install a Value pushed from sender
+  static void install( H2ONode sender, Key key, Value val ) {
+    assert key.home() || val==null; // Only PUT to home for keys, or remote invalidation from home
     Paxos.lockCloud();
     // Initialize Value for having a single known replica (the sender)
-    if( _val != null ) _val.initReplicaHome(sender,_key);
+    if( val != null ) val.initReplicaHome(sender,key);
     // Spin, until we update something.
-    Value old = H2O.raw_get(_key); // Raw-get: do not lazy-manifest if overwriting
-    while( H2O.putIfMatch(_key,_val,old) != old )
-      old = H2O.raw_get(_key);  // Repeat until we update something.
+    Value old = H2O.raw_get(key); // Raw-get: do not lazy-manifest if overwriting
+    while( H2O.putIfMatch(key,val,old) != old )
+      old = H2O.raw_get(key);   // Repeat until we update something.
     // Invalidate remote caches.  Block, so that all invalidates are done
     // before we return to the remote caller.
-    if( _key.home() && old != null )
+    if( key.home() && old != null )
       old.lockAndInvalidate(sender,new Futures()).blockForPending();
-    // No return result
-    _key = null;
-    _val = null;
-    tryComplete();
   }
-  @Override public void compute2() { throw H2O.fail(); }
 
   // Received an ACK
   @Override public void onAck() {
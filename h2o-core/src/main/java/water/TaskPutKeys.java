@@ -0,0 +1,91 @@
+package water;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/** Push many keys to the same remote node in one RPC.
+ *
+ *  Same protocol as {@link TaskPutKey}, for a batch of Keys all homed on the
+ *  target Node.  Built up by a {@link Batch}, one per bulk {@link DKV#put}.
+ */
+public class TaskPutKeys extends DTask<TaskPutKeys> {
+  Key[] _keys;
+  Value[] _vals;
+  transient Value[] _xvals;
+  transient Key[] _xkeys;
+
+  private TaskPutKeys( Key[] keys, Value[] vals ) { _xkeys = _keys = keys; _xvals = _vals = vals; }
+
+  @Override public void dinvoke( H2ONode sender ) {
+    for( int i=0; i<_keys.length; i++ )
+      TaskPutKey.install(sender,_keys[i],_vals[i]);
+    // No return result
+    _keys = null;
+    _vals = null;
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Pending write of this Key?  Returns the index into _xkeys, or -1
+  int find( Key key ) {
+    Key[] ks = _keys;           // Read once; racily cleared
+    if( ks != null )
+      for( int i=0; i<ks.length; i++ )
+        if( key.equals(ks[i]) )
+          return i;
+    return -1;
+  }
+
+  // Received an ACK
+  @Override public void onAck() {
+    for( Value val : _xvals )
+      if( val != null ) val.completeRemotePut();
+  }
+  @Override public byte priority() {
+    return H2O.PUT_KEY_PRIORITY;
+  }
+
+  /** Remote puts gathered by home Node, then sent as one RPC per Node (per
+   *  {@link TaskGetKeys#MAX_KEYS} keys). */
+  static final class Batch {
+    private final HashMap<H2ONode,ArrayList<Key>> _keys = new HashMap<>();
+    private final HashMap<H2ONode,ArrayList<Value>> _vals = new HashMap<>();
+
+    private final HashSet<Key> _all = new HashSet<>();
+
+    // A second put of a Key must wait for the first to complete (see
+    // Value.startRemotePut), so the batch holding the first must be sent.
+    boolean has( Key key ) { return _all.contains(key); }
+
+    void add( H2ONode home, Key key, Value val ) {
+      ArrayList<Key> ks = _keys.get(home);
+      if( ks == null ) {
+        _keys.put(home,ks = new ArrayList<>());
+        _vals.put(home,new ArrayList<Value>());
+      }
+      ks.add(key);
+      _all.add(key);
+      _vals.get(home).add(val); // Null for a remove
+    }
+
+    void send( Futures fs ) {
+      for( Map.Entry<H2ONode,ArrayList<Key>> e : _keys.entrySet() ) {
+        H2ONode home = e.getKey();
+        ArrayList<Key> ks = e.getValue();
+        ArrayList<Value> vs = _vals.get(home);
+        if( ks.size() == 1 ) { TaskPutKey.put(home,ks.get(0),vs.get(0),fs,false); continue; }
+        for( int lo=0; lo<ks.size(); lo+=TaskGetKeys.MAX_KEYS ) {
+          int hi = Math.min(ks.size(),lo+TaskGetKeys.MAX_KEYS);
+          Key[] keys = ks.subList(lo,hi).toArray(new Key[hi-lo]);
+          Value[] vals = vs.subList(lo,hi).toArray(new Value[hi-lo]);
+          fs.add(RPC.call(home,new TaskPutKeys(keys,vals)));
+        }
+      }
+      _keys.clear();
+      _all.clear();
+      _vals.clear();
+    }
+  }
+}
@@ -133,6 +133,17 @@ public class TimeLine extends UDP {
     record2(H2O.SELF,block_ns,true,r_w,0,b0,size);
   }
 
+  /* Record the compression of one TCP message to (send) or from (receive) a
+   * peer: CPU spent, and payload bytes before & after.
+   */
+  static void record_lz4( H2ONode h2o, boolean send, long ns, long raw, long wire ) {
+    long b0 = UDP.udp.lz4.ordinal(); // Special flag to indicate a compression record
+    b0 |= h2o._key.udp_port()<<8;
+    b0 |= Math.min(ns/1000,0xFFFFFFFFL)<<32; // usec of compression CPU
+    long b8 = Math.min(raw,0xFFFFFFFFL) | Math.min(wire,0xFFFFFFFFL)<<32;
+    record2(h2o,System.nanoTime(),true,send?0:1,0,b0,b8);
+  }
+
   // Accessors, for TimeLines that come from all over the system
   public static int length( ) { return MAX_EVENTS; }
   // Internal array math so we can keep layout private
@@ -1,6 +1,11 @@
 package water;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
 import java.util.Arrays;
+import java.util.Enumeration;
 import water.nbhm.NonBlockingHashMap;
 import water.util.Log;
 
@@ -42,12 +47,17 @@ public class TypeMap {
   static private int IDS;
   // JUnit helper flag
   static public volatile boolean _check_no_locking;
+  // Resource listing the type IDs fixed at build time, one "id className"
+  // per line; one per jar built with IcerGen.
+  static final String PREBUILT_IDS = "META-INF/h2o-typeids";
   static {
     CLAZZES = BOOTSTRAP_CLASSES;
-    GOLD = new Icer[BOOTSTRAP_CLASSES.length];
     int id=0;                   // The initial set of Type IDs to boot with
     for( String s : CLAZZES ) MAP.put(s,id++);
-    IDS = id;
+    // All Nodes run the same jars, so agree on the build-time IDs without
+    // asking the leader.
+    IDS = loadPrebuiltIds(id);
+    GOLD = new Icer[CLAZZES.length];
     // Some statically known names, to make life easier during e.g. bootup & parse
     NULL        = (short) -1;
     PRIM_B      = (short)onIce("[B");
@@ -83,6 +93,38 @@ public class TypeMap {
   //
 
 
+  // Install the build-time type IDs from every jar; returns the next free ID.
+  private static int loadPrebuiltIds( int ids ) {
+    try {
+      Enumeration<URL> urls = TypeMap.class.getClassLoader().getResources(PREBUILT_IDS);
+      while( urls.hasMoreElements() ) {
+        URL url = urls.nextElement();
+        try( BufferedReader br = new BufferedReader(new InputStreamReader(url.openStream())) ) {
+          for( String line; (line = br.readLine()) != null; ) {
+            int x = line.indexOf(' ');
+            if( x == -1 ) continue;
+            int id = Integer.parseInt(line.substring(0,x));
+            String className = line.substring(x+1);
+            Integer old = MAP.get(className);
+            if( old != null && old == id ) continue; // Same table seen twice
+            if( old != null || (id < CLAZZES.length && CLAZZES[id] != null) )
+              throw new IllegalStateException("Conflicting type id "+id+" for "+className+" in "+url);
+            MAP.put(className,id);
+            if( id >= CLAZZES.length ) CLAZZES = Arrays.copyOf(CLAZZES,Math.max(CLAZZES.length<<1,id+1));
+            CLAZZES[id] = className;
+            ids = Math.max(ids,id+1);
+          }
+        }
+      }
+    } catch( IOException e ) { throw new RuntimeException(e); }
+    return ids;
+  }
+
+  // Type ID of className if already known here, or -1.  Used by IcerGen.
+  static int knownId( String className ) { Integer I = MAP.get(className); return I == null ? -1 : I; }
+  // Next ID not yet in use.  Used by IcerGen.
+  static int nextId() { return IDS; }
+
   // During first Icing, get a globally unique class ID for a className
   static int onIce(Iced ice) { return onIce(ice.getClass().getName()); }
   static int onIce(Freezable ice) { return onIce(ice.getClass().getName()); }
@@ -151,8 +193,10 @@ public class TypeMap {
     synchronized( ice_clz ) {
       f = goForGold(id);        // Recheck under lock
       if( f != null ) return f; 
-      // Hard work: make a new delegate class
-      f = Weaver.genDelegate(id,ice_clz);
+      // Use the delegate class generated at build time, if any.  Else hard
+      // work: make a new delegate class.
+      Class icer_clz = prebuiltIcerClass(ice_clz,id);
+      f = icer_clz != null ? newIcer(icer_clz,ice_clz) : Weaver.genDelegate(id,ice_clz);
       // Now install until the TypeMap class lock, so the GOLD array is not
       // resized out from under the installation.
       synchronized( TypeMap.class ) {
@@ -161,6 +205,25 @@ public class TypeMap {
     }
   }
 
+  // Name of the Icer generated at build time for className under this type
+  // ID.  The ID is in the name, so an Icer built for another ID is never used.
+  static String prebuiltIcerName( String className, int id ) { return className+"$Icer"+id; }
+
+  // The Icer class generated at build time for ice_clz under this type ID, or
+  // null if none.
+  static Class prebuiltIcerClass( Class ice_clz, int id ) {
+    try { return Class.forName(prebuiltIcerName(ice_clz.getName(),id),true,ice_clz.getClassLoader()); }
+    catch( ClassNotFoundException e ) { return null; }
+  }
+
+  // A delegate instance, holding the golden instance of ice_clz
+  static Icer newIcer( Class icer_clz, Class ice_clz ) {
+    try {
+      Object ice = java.lang.reflect.Modifier.isAbstract(ice_clz.getModifiers()) ? null : Icer._unsafe.allocateInstance(ice_clz);
+      return (Icer)icer_clz.getDeclaredConstructors()[0].newInstance(ice);
+    } catch( ReflectiveOperationException e ) { throw Log.throwErr(e); }
+  }
+
   static Iced newInstance(int id) { return (Iced)newFreezable(id); }
   static Freezable newFreezable(int id) { 
     Freezable iced = theFreezable(id);
@@ -32,7 +32,9 @@ public abstract class UDP {
       // We'll hang on to these packets; filter out dup sends and auto-reply
       // identical result ACK packets.
       exec(false,new RPC.RemoteHandler()),   // Remote hi-q execution request
-      i_o (false,new UDP.IO_record());       // Only used to profile I/O
+      i_o (false,new UDP.IO_record()),       // Only used to profile I/O
+      batch(false,new UDPBatch()),           // Several small packets in one datagram
+      lz4 (false,new UDP.LZ4_record());      // Only used to profile TCP compression
 
     final UDP _udp;           // The Callable S.A.M. instance
     final boolean _paxos;     // Ignore (or not) packets from outside the Cloud
@@ -73,4 +75,13 @@ public abstract class UDP {
       return "I/O "+Value.nameOfPersist(flavor)+" "+iotime+"ms "+size+"b";
     }
   }
+  private static class LZ4_record extends UDP {
+    AutoBuffer call(AutoBuffer ab) { throw H2O.unimpl(); }
+    String print16( AutoBuffer ab ) {
+      long us  = ab.get4(4)&0xFFFFFFFFL;
+      long raw = ab.get4(8)&0xFFFFFFFFL;
+      long wire= ab.get4(12)&0xFFFFFFFFL;
+      return "LZ4 "+raw+"b -> "+wire+"b ("+String.format("%.2f",wire==0 ? 1.0 : (double)raw/wire)+"x) "+us+"us";
+    }
+  }
 }
@@ -0,0 +1,138 @@
+package water;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import water.util.Log;
+
+/**
+ * Coalesce small RPC packets bound for the same Node into one datagram.
+ *
+ * Task requests, ACKs and ACKACKs are mostly a few dozen bytes, and under
+ * DKV-heavy work a Node sends tens of thousands of them a second - the
+ * per-packet syscall costs far more than the payload.  Instead of sending
+ * each at once, {@link AutoBuffer} offers them here.  The first packet queued
+ * for a Node starts a short latency window; the queue is sent when the window
+ * closes, or sooner if it fills a datagram or hits the message limit.
+ *
+ * A batch datagram is the usual ctrl & port header, then a sequence of
+ * [2-byte length][packet] pairs.  The receiver splits it and handles each
+ * packet just as if it had arrived alone, so everything downstream -
+ * including RPC.remote_exec and dup-detection - is unchanged.  A queue holding
+ * a single packet is sent raw, without the batch wrapper.
+ *
+ * The flush policy comes from -rpc_batch_us (window; 0 disables batching) and
+ * -rpc_batch_msgs (max packets per batch).
+ */
+class UDPBatch extends UDP {
+  static final int HDR = 1+2;   // ctrl & port
+
+  // Queues with a pending window, in order of expiry
+  private static final DelayQueue<Queue> PENDING = new DelayQueue<>();
+  private static volatile Thread FLUSHER;
+
+  // Only reliable task traffic is batched; Paxos & heartbeats go out alone.
+  static boolean batchable( int ctrl ) {
+    return ctrl == udp.exec.ordinal() || ctrl == udp.ack.ordinal() || ctrl == udp.ackack.ordinal();
+  }
+
+  // Queue a flipped, ready-to-send packet for h2o.  False if the packet
+  // should be sent directly instead.
+  static boolean offer( H2ONode h2o, ByteBuffer pkt ) throws IOException {
+    if( H2O.ARGS.rpc_batch_us <= 0 || !batchable(pkt.get(0)&0xFF) ) return false;
+    return h2o._batch.add(pkt);
+  }
+
+  // Per-Node outgoing queue
+  static final class Queue implements Delayed {
+    private final H2ONode _h2o;
+    private final ByteBuffer _bb = ByteBuffer.allocate(AutoBuffer.MTU).order(ByteOrder.nativeOrder());
+    private int _msgs;          // Packets pending in _bb
+    private int _first;         // Offset of the first packet's length
+    private boolean _scheduled; // In PENDING
+    private long _deadline;     // nanoTime the window closes
+    Queue( H2ONode h2o ) { _h2o = h2o; }
+
+    synchronized boolean add( ByteBuffer pkt ) throws IOException {
+      int len = pkt.remaining();
+      if( HDR+2+len > _bb.capacity() ) { flush(); return false; } // Too big to ever batch
+      if( 2+len > _bb.remaining() ) flush();
+      if( _msgs == 0 ) {
+        _bb.clear();
+        _bb.put((byte)udp.batch.ordinal()).putChar((char)H2O.H2O_PORT);
+        _first = _bb.position();
+      }
+      _bb.putChar((char)len).put(pkt);
+      if( ++_msgs >= H2O.ARGS.rpc_batch_msgs ) flush();
+      else if( !_scheduled ) {
+        _scheduled = true;
+        _deadline = System.nanoTime()+H2O.ARGS.rpc_batch_us*1000L;
+        start();
+        PENDING.add(this);
+      }
+      return true;
+    }
+
+    // Send whatever is queued, and close any open window
+    synchronized void flush() throws IOException {
+      if( _scheduled ) { PENDING.remove(this); _scheduled = false; }
+      if( _msgs == 0 ) return;
+      _bb.flip();
+      if( _msgs == 1 )          // Lone packet: skip the wrapper
+        _bb.position(_first+2);
+      _msgs = 0;
+      water.init.NetworkInit.CLOUD_DGRAM.send(_bb, _h2o._key);
+    }
+
+    @Override public long getDelay( TimeUnit unit ) {
+      return unit.convert(_deadline-System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+    @Override public int compareTo( Delayed d ) {
+      long x = _deadline - ((Queue)d)._deadline;
+      return x < 0 ? -1 : (x > 0 ? 1 : 0);
+    }
+  }
+
+  // Lazily start the one thread closing windows
+  private static void start() {
+    if( FLUSHER != null ) return;
+    synchronized( UDPBatch.class ) {
+      if( FLUSHER != null ) return;
+      Thread t = new Thread("UDP-Batch") {
+          @Override public void run() {
+            while( true ) {
+              try {
+                Queue q = PENDING.take();
+                q.flush();
+              } catch( InterruptedException ignore ) {
+              } catch( IOException e ) {
+                Log.err("UDP batch send failed",e);
+              }
+            }
+          }
+        };
+      t.setDaemon(true);
+      t.setPriority(Thread.MAX_PRIORITY-1);
+      t.start();
+      FLUSHER = t;
+    }
+  }
+
+  // Received a batch: split it and handle every packet on its own
+  @Override AutoBuffer call( AutoBuffer ab ) {
+    ab.getPort();               // Skip the header
+    ByteBuffer bb = ab._bb;
+    while( bb.remaining() >= 2 ) {
+      byte[] pkt = new byte[bb.getChar()];
+      bb.get(pkt);
+      try { UDPReceiverThread.basic_packet_handling(new AutoBuffer(ab._h2o,pkt)); }
+      catch( IOException e ) { Log.err("Dropping batched packet from "+ab._h2o,e); }
+    }
+    return ab;
+  }
+
+  @Override String print16( AutoBuffer ab ) { return "batch"; }
+}
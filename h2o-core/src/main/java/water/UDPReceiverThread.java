@@ -68,6 +68,12 @@ public class UDPReceiverThread extends Thread {
   // Basic packet handling:
   //   - Timeline record it
   static public void basic_packet_handling( AutoBuffer ab ) throws java.io.IOException {
+    // A batch of small packets: each is handled as if it arrived alone
+    if( ab.getCtrl() == UDP.udp.batch.ordinal() ) {
+      UDP.udp.batch._udp.call(ab).close(false,false);
+      return;
+    }
+
     // Randomly drop 1/10th of the packets, as-if broken network.  Dropped
     // packets are timeline recorded before dropping - and we still will
     // respond to timelines and suicide packets.
@@ -77,6 +77,19 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     assert isPersisted() || _mem != null;
     _pojo = null;
   }
+  // Move a cached Chunk payload off the Java heap: the POJO is replaced by an
+  // off-heap clone and the heap array dropped.  Threads already holding the
+  // old heap Chunk keep reading it until they let it go.  Returns false if
+  // this is not a Chunk, or the off-heap tier cannot take it.
+  final boolean moveOffHeap() {
+    Freezable pojo = _pojo;     // Read once!
+    if( !(pojo instanceof Chunk) ) return false;
+    Chunk c = ((Chunk)pojo).offHeapClone();
+    if( c == null ) return false;
+    _pojo = c;
+    _mem = null;
+    return true;
+  }
 
   // The FAST path get-byte-array - final method for speed.
   // Will (re)build the mem array from either the POJO or disk.
@@ -104,7 +117,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     Iced pojo = (Iced)_pojo;    // Read once!
     if( pojo != null ) return (T)pojo;
     pojo = TypeMap.newInstance(_type);
-    pojo.read(new AutoBuffer(memOrLoad()));
+    if( !mapPersist(pojo) ) pojo.read(new AutoBuffer(memOrLoad()));
     return (T)(_pojo = pojo);
   }
   public <T extends Freezable> T get(Class<T> fc) {
@@ -117,7 +130,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     Freezable pojo = _pojo;     // Read once!
     if( pojo != null ) return (T)pojo;
     pojo = TypeMap.newFreezable(_type);
-    pojo.read(new AutoBuffer(memOrLoad()));
+    if( !mapPersist(pojo) ) pojo.read(new AutoBuffer(memOrLoad()));
     return (T)(_pojo = pojo);
   }
 
@@ -183,6 +196,18 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     return Persist.I[backend()].load(this);
   }
 
+  /** Reload a spilled Chunk as a view straight into the persisted bytes, if
+   *  the backend can map them; this skips copying the payload onto the heap.
+   *  Returns false if the caller must deserialize from memOrLoad instead. */
+  private boolean mapPersist( Freezable pojo ) {
+    if( _mem != null || !isPersisted() ) return false;
+    if( !(pojo instanceof Chunk) || !((Chunk)pojo).supportsOffHeap() ) return false;
+    OffHeap oh = Persist.I[backend()].map(this);
+    if( oh == null ) return false;
+    ((Chunk)pojo).readOffHeap(oh);
+    return true;
+  }
+
   String nameOfPersist() { return nameOfPersist(backend()); }
   public static String nameOfPersist(int x) {
     switch( x ) {
@@ -73,6 +73,10 @@ public class Weaver {
     if( iced_name.equals("water.Iced") ) return water.Icer.class;
     if( iced_name.equals("water.H2O$H2OCountedCompleter") ) return water.Icer.class;
 
+    // An Icer generated at build time for this type id?
+    Class prebuilt = TypeMap.prebuiltIcerClass(iced_clazz,id);
+    if( prebuilt != null ) return prebuilt;
+
     // Now look for a pre-cooked Icer.  No locking, 'cause we're just looking
     String icer_name = implClazzName(iced_name);
     CtClass icer_cc = _pool.getOrNull(icer_name); // Full Name Lookup of Icer
@@ -105,6 +109,20 @@ public class Weaver {
     }
   }
 
+  /** Build-time generation: write the Icer for clazz, under type id and with
+   *  the super class under super_id, as a class file in dir.  The Icer of the
+   *  super class must already be written, or be on the class path. */
+  static void writeIcer( int id, Class clazz, int super_id, String dir ) throws CannotCompileException, NotFoundException, NoSuchFieldException, java.io.IOException {
+    Class super_clazz = clazz.getSuperclass();
+    String super_name = super_clazz.getName();
+    CtClass super_icer_cc = _pool.get(super_name.equals("water.Iced") || super_name.equals("water.H2O$H2OCountedCompleter")
+                                      ? "water.Icer" : TypeMap.prebuiltIcerName(super_name,super_id));
+    CtClass iced_cc = _pool.get(clazz.getName());
+    boolean super_has_jfields = hasWovenJSONFields(iced_cc.getSuperclass());
+    CtClass icer_cc = genIcerClass(id,iced_cc,clazz,TypeMap.prebuiltIcerName(clazz.getName(),id),super_id,super_icer_cc,super_has_jfields);
+    icer_cc.writeFile(dir);
+  }
+
   // Generate the Icer class
   private static CtClass genIcerClass(int id, CtClass iced_cc, Class iced_clazz, String icer_name, int super_id, CtClass super_icer, boolean super_has_jfields ) throws CannotCompileException, NotFoundException, NoSuchFieldException {
     // Generate the Icer class
@@ -148,9 +166,9 @@ public class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "write", null, null,
               "  protected final water.AutoBuffer write"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               "    write"+super_id+"(ab,ice);\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n"  ,
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%d)); // %s\n"  ,
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debug);
@@ -158,9 +176,9 @@ public class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "writeJSON", super_has_jfields ? null : "    ab.", "    ab.put1(',').",
               "  protected final water.AutoBuffer writeJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               "    writeJSON"+super_id+"(ab,ice);\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n"  ,
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n"  ,
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debugJ);
@@ -168,9 +186,9 @@ public class Weaver {
       make_body(icer_cc, iced_cc, iced_clazz, "writeHTML", null, null,
               "  protected final water.util.DocGen.HTML writeHTML"+id+"(water.util.DocGen.HTML ab, "+iced_name+" ice) {\n",
               "    writeHTML"+super_id+"(ab,ice);\n",
-              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n"  ,
+              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n"  ,
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debugH);
@@ -199,9 +217,9 @@ public class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "read", null, null,
               "  protected final "+iced_name+" read"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               "    read"+super_id+"(ab,ice);\n",
-              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
-              "    ice.%s = %s[ab.get1()];\n",         "    _unsafe.put%u(ice,%dL,%s[ab.get1()]);  //%s\n",
-              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
+              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%d,ab.get%z());  //%s\n",
+              "    ice.%s = %s[ab.get1()];\n",         "    _unsafe.put%u(ice,%d,%s[ab.get1()]);  //%s\n",
+              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%d,(%C)ab.get%z(%c.class));  //%s\n",
               "    return ice;\n" +
               "  }");
     if( debug_print ) System.out.println(rbody_impl);
@@ -209,9 +227,9 @@ public class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "readJSON", null, null,
               "  protected final "+iced_name+" readJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               "    readJSON"+super_id+"(ab,ice);\n",
-              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
-              "    ice.%s = %s[ab.get1()];\n",         "    _unsafe.put%u(ice,%dL,%s[ab.get1()]);  //%s\n",
-              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
+              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%d,ab.get%z());  //%s\n",
+              "    ice.%s = %s[ab.get1()];\n",         "    _unsafe.put%u(ice,%d,%s[ab.get1()]);  //%s\n",
+              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%d,(%C)ab.get%z(%c.class));  //%s\n",
               "    return ice;\n" +
               "  }");
     if( debug_print ) System.out.println(rbodyJ_impl);
@@ -246,9 +264,9 @@ public class Weaver {
                   "    super.copyOver(fdst,fsrc);\n"+
                   "    "+iced_name+" dst = ("+iced_name+")fdst;\n"+
                   "    "+iced_name+" src = ("+iced_name+")fsrc;\n",
-                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(src,%dL));  //%s\n",
-                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(src,%dL));  //%s\n",
-                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(src,%dL));  //%s\n",
+                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%d,_unsafe.get%u(src,%d));  //%s\n",
+                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%d,_unsafe.get%u(src,%d));  //%s\n",
+                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%d,_unsafe.get%u(src,%d));  //%s\n",
                   "  }");
       if( debug_print ) System.out.println(cpbody_impl);
     }
@@ -314,7 +332,7 @@ public class Weaver {
       // access, only private is a problem.
       boolean can_access = !javassist.Modifier.isPrivate(mods);
       if( (impl.equals("read") || impl.equals("copyOver")) && javassist.Modifier.isFinal(mods) ) can_access = false; 
-      long off = _unsafe.objectFieldOffset(iced_clazz.getDeclaredField(ctf.getName()));
+      if( !can_access ) addOffsetField(icer, iced_cc.getName(), ctf.getName());
       int ftype = ftype(iced_cc, ctf.getSignature() ); // Field type encoding
       if( ftype%20 == 9 || ftype%20 == 11 ) {          // Iced/Objects
         sb.append(can_access ?  iced :  iced_unsafe);
@@ -330,7 +348,7 @@ public class Weaver {
       subsub(sb, "%s", ctf.getName());                    // %s ==> field name
       subsub(sb, "%c", base.getName().replace('$', '.')); // %c ==> base class name
       subsub(sb, "%C", ctft.getName().replace('$', '.')); // %C ==> full class name
-      subsub(sb, "%d", ""+off);                           // %d ==> field offset, only for Unsafe
+      subsub(sb, "%d", offsetField(ctf.getName()));       // %d ==> field offset, only for Unsafe
       subsub(sb, "%u", utype(ctf.getSignature()));        // %u ==> unsafe type name
 
     }
@@ -341,6 +359,16 @@ public class Weaver {
     return body;
   }
 
+  // Unsafe field offsets are looked up when the Icer class initializes, not
+  // baked into the code, so an Icer generated at build time works on any JVM.
+  private static String offsetField( String fld ) { return "_off_"+fld; }
+  private static void addOffsetField( CtClass icer_cc, String iced_name, String fld ) throws CannotCompileException {
+    String name = offsetField(fld);
+    try { icer_cc.getDeclaredField(name); return; } // Already added
+    catch( NotFoundException ignore ) { }
+    icer_cc.addField(CtField.make("  private static final long "+name+" = water.Icer.fieldOffset(\""+iced_name+"\",\""+fld+"\");\n",icer_cc));
+  }
+
   // Add a gen'd method.  Politely print if there's an error during generation.
   private static void addMethod( String body, CtClass icer_cc ) throws CannotCompileException {
     try {
@@ -53,6 +53,9 @@ class CloudV1 extends Schema<Cloud,CloudV1> {
     @API(help="Data on Node (memory only)")
     final long mem_value_size;
 
+    @API(help="Data on Node (off-heap memory)")
+    final long offheap_value_size;
+
     @API(help="#local keys")
     final int num_keys;
 
@@ -101,6 +104,7 @@ class CloudV1 extends Schema<Cloud,CloudV1> {
       // Memory being used
       total_value_size = hb.get_tvalsz();
       mem_value_size = hb.get_mvalsz();
+      offheap_value_size = hb.get_offheap();
       num_keys = hb._keys;
       // GC health
       free_mem = hb.get_free_mem();
@@ -174,7 +178,7 @@ class CloudV1 extends Schema<Cloud,CloudV1> {
     long now = System.currentTimeMillis();
     long max_ping=0;
     float load=0f;
-    long data_tot=0, data_cached=0, data_keys=0;
+    long data_tot=0, data_cached=0, data_offheap=0, data_keys=0;
     long gc_free=0, gc_tot=0, gc_max=0;
     long disk_free=0, disk_max=0;
     int cpu_rpcs=0;
@@ -187,6 +191,7 @@ class CloudV1 extends Schema<Cloud,CloudV1> {
       load       += n.sys_load;         // Sys health
       data_tot   += n.total_value_size; // Data
       data_cached+= n.  mem_value_size;
+      data_offheap+=n.offheap_value_size;
       data_keys  += n.num_keys;
       gc_free    += n.free_mem; // GC
       gc_tot     += n. tot_mem;
@@ -205,7 +210,7 @@ class CloudV1 extends Schema<Cloud,CloudV1> {
     float avg_load = load/nodes.length;
     formatRow(ab,"",
               ab.bold("Summary"),max_ping,avg_load,
-              data_tot,data_cached,data_keys,
+              data_tot,data_cached,data_offheap,data_keys,
               gc_free,gc_tot,gc_max,
               disk_free,disk_max,
               cpu_rpcs,fjthrds,fjqueue,
@@ -216,7 +221,7 @@ class CloudV1 extends Schema<Cloud,CloudV1> {
     for( Node n : nodes )
       formatRow(ab, n.healthy?"":"class=\"error\"", 
                 n.h2o.toString(), now-n.last_ping, n.sys_load,
-                n.total_value_size, n.mem_value_size,n.num_keys,
+                n.total_value_size, n.mem_value_size,n.offheap_value_size,n.num_keys,
                 n.free_mem,n.tot_mem,n.max_mem,
                 n.free_disk,n.max_disk,
                 n.rpcs_active,n.fjthrds,n.fjqueue,
@@ -230,7 +235,7 @@ class CloudV1 extends Schema<Cloud,CloudV1> {
 
   private HTML formatRow( HTML ab, String color, 
                           String name, long ping, float load, 
-                          long total_data, long mem_data, long num_keys,
+                          long total_data, long mem_data, long offheap_data, long num_keys,
                           long free_mem, long tot_mem, long max_mem,
                           long free_disk, long max_disk,
                           int rpcs, short fjthrds[], short fjqueue[],
@@ -241,7 +246,8 @@ class CloudV1 extends Schema<Cloud,CloudV1> {
     ab.cell(name).cell(PrettyPrint.msecs(ping,true)).cell(String.format("%4.3f",load));
     // Data footprint
     int data_perc = total_data==0?100:(int)(mem_data*100/total_data);
-    ab.cell(PrettyPrint.bytes(total_data)+(total_data==0?"":" ("+data_perc+"%)"));
+    ab.cell(PrettyPrint.bytes(total_data)+(total_data==0?"":" ("+data_perc+"%)")+
+            (offheap_data==0?"":"<br>"+PrettyPrint.bytes(offheap_data)+" off-heap"));
     ab.cell(num_keys);
     // GC health
     ab.cell(PrettyPrint.bytes(free_mem)+"<br>"+PrettyPrint.bytes(tot_mem)+"<br>"+PrettyPrint.bytes(max_mem));
@@ -69,11 +69,12 @@ class FrameV2 extends Schema<Frame, FrameV2> {
     @API(help="domain; not-null for enum columns only")
     final String[] domain;
 
-    @API(help="data")
-    final double[] data;
+    // Filled only for HTML; the JSON streams the rows from the Chunks
+    @API(help="data",json=false)
+    double[] data;
 
-    @API(help="string data")
-    final String[] str_data;
+    @API(help="string data",json=false)
+    String[] str_data;
 
     @API(help="decimal precision, -1 for all digits")
     final byte precision;
@@ -91,6 +92,8 @@ class FrameV2 extends Schema<Frame, FrameV2> {
     final double[] pctiles;
 
     transient Vec _vec;
+    transient final long _off;  // Rows displayed
+    transient final int _len;
 
     Col( String name, Vec vec, long off, int len ) {
       label=name;
@@ -105,18 +108,8 @@ class FrameV2 extends Schema<Frame, FrameV2> {
       sigma = rs._sigma;
       type  = vec.isEnum() ? "enum" : vec.isUUID() ? "uuid" : (vec.isInt() ? (vec.isTime() ? "time" : "int") : "real");
       domain = vec.domain();
-      len = (int)Math.min(len,vec.length()-off);
-      if( vec.isUUID() ) {
-        str_data = new String[len];
-        for( int i=0; i<len; i++ )
-          str_data[i] = vec.isNA(off+i) ? null : PrettyPrint.UUID(vec.at16l(off+i),vec.at16h(off+i));
-        data = null;
-      } else {
-        data = MemoryManager.malloc8d(len);
-        for( int i=0; i<len; i++ )
-          data[i] = vec.at(off+i);
-        str_data = null;
-      }
+      _off = off;
+      _len = (int)Math.min(len,vec.length()-off);
       _vec = vec;               // Better HTML display, not in the JSON
       precision = vec.chunkForRow(0).precision();
 
@@ -127,6 +120,51 @@ class FrameV2 extends Schema<Frame, FrameV2> {
       stride= bins==null ? 0 : rs.h_stride();
       pctiles=rs._pctiles;
     }
+
+    // Copy the displayed rows out, for the HTML page
+    void fillData() {
+      if( data != null || str_data != null ) return;
+      if( _vec.isUUID() ) {
+        str_data = new String[_len];
+        for( int i=0; i<_len; i++ )
+          str_data[i] = _vec.isNA(_off+i) ? null : PrettyPrint.UUID(_vec.at16l(_off+i),_vec.at16h(_off+i));
+      } else {
+        data = MemoryManager.malloc8d(_len);
+        for( int i=0; i<_len; i++ )
+          data[i] = _vec.at(_off+i);
+      }
+    }
+
+    // The displayed rows as a JSON array, a Chunk at a time
+    AutoBuffer putRows( AutoBuffer ab, boolean uuid ) {
+      ab.put1('[');
+      long row = _off, end = _off+_len;
+      while( row < end ) {
+        Chunk c = _vec.chunkForRow(row);
+        int i = (int)(row-c.start()), n = (int)Math.min(c.len(),end-c.start());
+        for( ; i<n; i++, row++ ) {
+          if( row > _off ) ab.put1(',');
+          if( !uuid ) ab.putJSON8d(c.at0(i));
+          else if( c.isNA0(i) ) ab.putJNULL();
+          else ab.putJSONName(PrettyPrint.UUID(c.at16l0(i),c.at16h0(i)));
+        }
+      }
+      return ab.put1(']');
+    }
+  }
+
+  // A Col whose JSON is the generated one for all Col fields, then the rows
+  // going straight from the Chunks into the AutoBuffer.  Streamed to the
+  // client, a large display is never held whole in memory.
+  private static class StreamedCol extends Col {
+    StreamedCol( String name, Vec vec, long off, int len ) { super(name,vec,off,len); }
+    @Override public AutoBuffer writeJSON_impl( AutoBuffer ab ) {
+      boolean uuid = _vec.isUUID();
+      ab.put1(',').putJSONName("data"    ).put1(':');
+      (uuid ? ab.putJNULL() : putRows(ab,false)).put1(',');
+      ab.putJSONName("str_data").put1(':');
+      return uuid ? putRows(ab,true) : ab.putJNULL();
+    }
   }
 
   // Constructor for when called from the Inspect handler instead of RequestServer
@@ -144,7 +182,7 @@ class FrameV2 extends Schema<Frame, FrameV2> {
     columns = new Col[fr.numCols()];
     Vec[] vecs = fr.vecs();
     for( int i=0; i<columns.length; i++ )
-      columns[i] = new Col(fr._names[i],vecs[i],off,len);
+      columns[i] = new StreamedCol(fr._names[i],vecs[i],off,len);
     isText = fr.numCols()==1 && vecs[0] instanceof ByteVec;
     default_pctiles = RollupStats.PERCENTILES;
   }
@@ -173,7 +211,7 @@ class FrameV2 extends Schema<Frame, FrameV2> {
     columns = new Col[_fr.numCols()];
     Vec[] vecs = _fr.vecs();
     for( int i=0; i<columns.length; i++ )
-      columns[i] = new Col(_fr._names[i],vecs[i],off,len);
+      columns[i] = new StreamedCol(_fr._names[i],vecs[i],off,len);
     return this;
   }
 
@@ -209,7 +247,8 @@ class FrameV2 extends Schema<Frame, FrameV2> {
         { formatRow(ab,"class='warning'","levels" ,new ColOp() { String op(Col c) { return c.domain==null?"":Long.toString(c.domain.length);}}); break; }
 
     // Frame data
-    int len = columns.length > 0 ? columns[0].data.length : 0;
+    for( Col c : columns ) c.fillData();
+    int len = columns.length > 0 ? columns[0]._len : 0;
     for( int i=0; i<len; i++ ) {
       final int row = i;
       formatRow(ab,"",Long.toString(off+row+1),new ColOp() { 
@@ -1,6 +1,5 @@
 package water.api;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.Properties;
 
 import water.H2O;
@@ -8,12 +7,12 @@ import water.H2O.H2OCountedCompleter;
 import water.Iced;
 import water.api.RequestServer.Route;
 
+/** A REST handler.  One instance per Route serves all its requests, possibly
+ *  concurrently, so handlers must not keep per-request state in fields. */
 public abstract class Handler<I extends Iced, S extends Schema<I,S>> extends H2OCountedCompleter {
   protected Handler( ) { super(); }
   protected Handler( Handler completer ) { super(completer); }
 
-  private long _t_start, _t_stop; // Start/Stop time in ms for the serve() call
-
   /** Dumb Version->Schema mapping */
   abstract protected S schema(int version);
   abstract protected int min_ver();
@@ -41,18 +40,10 @@ public abstract class Handler<I extends Iced, S extends Schema<I,S>> extends H2O
                                       // (as long as handler_method knows what to do with it).
 
     // Run the Handler in the Nano Thread (nano does not grok CPS!)
-    _t_start = System.currentTimeMillis();
-    Schema result = null;
-    try { result = (Schema)route._handler_method.invoke(this, version, i); }
-    // Exception throws out of the invoked method turn into InvocationTargetException
-    // rather uselessly.  Peel out the original exception & throw it.
-    catch( InvocationTargetException ite ) {
-      Throwable t = ite.getCause();
-      if( t instanceof RuntimeException ) throw (RuntimeException)t;
-      if( t instanceof Error ) throw (Error)t;
-      throw new RuntimeException(t);
-    }
-    _t_stop  = System.currentTimeMillis();
+    Schema result;
+    try { result = (Schema)route._handler_invoker.invokeExact((Handler)this, version, (Iced)i); }
+    catch( Exception | Error e ) { throw e; }
+    catch( Throwable t ) { throw new RuntimeException(t); }
 
     // Version-specific unwind from the Iced back into the Schema
     return result;
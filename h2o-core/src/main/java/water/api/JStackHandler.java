@@ -9,13 +9,12 @@ public class JStackHandler extends Handler<JStack,JStackV2> {
 
   //No Input
 
-  //Output
-  JStack _jstack; // for each node in the cloud it contains all threads stack traces
+  //Output: for each node in the cloud, all threads stack traces
 
   public JStackV2 fetch(int version, JStack js) {
-    _jstack = new JStack();
-    _jstack.execImpl();
-    return schema(version).fillFromImpl(_jstack);
+    JStack jstack = new JStack();
+    jstack.execImpl();
+    return schema(version).fillFromImpl(jstack);
   }
 
   @Override protected JStackV2 schema(int version) { return new JStackV2(); }
@@ -0,0 +1,25 @@
+package water.api;
+
+import water.H2O;
+import water.Iced;
+import water.api.MRMetricsHandler.MRMetricsInfo;
+import water.util.MRMetrics;
+
+/** Cloud-wide MRTask costs, by task class */
+public class MRMetricsHandler extends Handler<MRMetricsInfo,MRMetricsV2> {
+  @Override protected int min_ver() { return 1; }
+  @Override protected int max_ver() { return Integer.MAX_VALUE; }
+
+  public static final class MRMetricsInfo extends Iced {
+    //Output
+    MRMetrics.TaskStats[] _tasks;
+  }
+
+  @Override protected MRMetricsV2 schema(int version) { return new MRMetricsV2(); }
+  @Override public void compute2() { throw H2O.unimpl(); }
+
+  public MRMetricsV2 fetch(int version, MRMetricsInfo m) {
+    m._tasks = MRMetrics.collect();
+    return schema(version).fillFromImpl(m);
+  }
+}
@@ -0,0 +1,39 @@
+package water.api;
+
+import water.api.MRMetricsHandler.MRMetricsInfo;
+import water.util.DocGen;
+import water.util.MRMetrics.TaskStats;
+import water.util.PrettyPrint;
+
+/** Display of the cloud-wide MRTask metrics */
+public class MRMetricsV2 extends Schema<MRMetricsInfo,MRMetricsV2> {
+  // No inputs
+
+  // Output
+  @API(help="Per MRTask class histograms of map and reduce usec, RPC bytes, RPC latency msec and local chunks")
+  public TaskStats[] tasks;
+
+  @Override public MRMetricsInfo createImpl() { return new MRMetricsInfo(); }
+
+  @Override public MRMetricsV2 fillFromImpl(MRMetricsInfo m) {
+    tasks = m._tasks;
+    return this;
+  }
+
+  @Override public DocGen.HTML writeHTML_impl( DocGen.HTML ab ) {
+    ab.title("MRTask Metrics");
+    ab.bodyHead();
+    ab.arrayHead(new String[]{"Task","Calls","Map ms (mean/max)","Reduce ms (mean/max)","RPC ms (mean/max)","RPC bytes (mean)","Chunks (mean)"});
+    for( TaskStats ts : tasks )
+      ab.arrayRow(new String[]{ts._clz,Long.toString(ts._calls),
+                               ms(ts._mapUs._sum,ts._mapUs._cnt)+" / "+ms(ts._mapUs._max,1),
+                               ms(ts._reduceUs._sum,ts._reduceUs._cnt)+" / "+ms(ts._reduceUs._max,1),
+                               String.format("%.1f / %d",ts._rpcMs.mean(),ts._rpcMs._max),
+                               PrettyPrint.bytes((long)ts._bytes.mean()),
+                               String.format("%.1f",ts._chunks.mean())});
+    ab.arrayTail();
+    ab.bodyTail();
+    return ab;
+  }
+  private static String ms( long us, long cnt ) { return String.format("%.1f",cnt == 0 ? 0 : us/1000.0/cnt); }
+}
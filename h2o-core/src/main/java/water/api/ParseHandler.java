@@ -19,6 +19,9 @@ class ParseHandler extends Handler<Parse,ParseV2> {
     boolean _singleQuotes;        // Single quotes a valid char, or not
     String[] _columnNames;        // Column names to use
     int _checkHeader;             // Parse 1st line as header, or not.
+    String _saveTo;               // Optional binary FrameFile to write
+    int[] _skipCols;              // Source columns to skip
+    String _rowFilter;            // Predicate rows must pass to be kept
 
     boolean _delete_on_done = true;
     boolean _blocking = true;
@@ -33,7 +36,15 @@ class ParseHandler extends Handler<Parse,ParseV2> {
   // Entry point for parsing.
   ParseV2 parse(int version, Parse parse) {
     ParseSetup setup = new ParseSetup(true,0,null,parse._pType,parse._sep,parse._ncols,parse._singleQuotes,parse._columnNames,null,parse._checkHeader);
-    parse._job = water.parser.ParseDataset2.startParse2(parse._hex,parse._srcs,parse._delete_on_done,setup);
+    RowFilter filter = null;
+    if( parse._rowFilter != null && !parse._rowFilter.isEmpty() ) {
+      // Name the filter's column as given, else as in the header
+      String[] names = parse._columnNames;
+      if( names == null ) names = ParseDataset2.guessColumnNames(parse._srcs[0],parse._singleQuotes,parse._checkHeader);
+      filter = RowFilter.parse(parse._rowFilter,names);
+    }
+    setup.withProjection(parse._skipCols, filter);
+    parse._job = water.parser.ParseDataset2.startParse2(parse._hex,parse._srcs,parse._delete_on_done,setup,parse._saveTo);
     return schema(version).fillFromImpl(parse);
   }
 
@@ -33,6 +33,15 @@ public class ParseV2 extends Schema<Parse,ParseV2> {
   @API(help="Column Names",dependsOn={"srcs"})
   String[] columnNames;
 
+  @API(help="Source columns (0-based) to skip; they are tokenized but not kept",dependsOn={"srcs"})
+  int[] skipCols;
+
+  @API(help="Keep only rows passing a simple predicate, e.g. 'age >= 21' or 'state == CA'",dependsOn={"srcs"})
+  String rowFilter;
+
+  @API(help="Also save the parsed Frame to this path in binary form; importing the file reloads it without parsing")
+  String saveTo;
+
   @API(help="Delete input key after parse")
   boolean delete_on_done;
 
@@ -57,6 +66,9 @@ public class ParseV2 extends Schema<Parse,ParseV2> {
     p._checkHeader = checkHeader;
     p._singleQuotes = singleQuotes;
     p._columnNames = columnNames;
+    p._skipCols = skipCols;
+    p._rowFilter = rowFilter;
+    p._saveTo = saveTo;
     p._delete_on_done = delete_on_done;
     p._blocking = blocking;
     return p;
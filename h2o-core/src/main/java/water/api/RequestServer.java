@@ -1,6 +1,9 @@
 package water.api;
 
 import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -15,6 +18,7 @@ import water.Iced;
 import water.NanoHTTPD;
 import water.nbhm.NonBlockingHashMap;
 import water.util.Log;
+import water.util.MRMetrics;
 import water.parser.ParseSetupHandler;
 import water.util.RString;
 import water.fvec.Frame;
@@ -31,11 +35,15 @@ public class RequestServer extends NanoHTTPD {
   private static volatile String _htmlTemplate = "";
 
   final static class Route {
-    // TODO: handlers are now stateless, so create a single instance and stash it here
     public final String  _http_method;
     public final Pattern _url_pattern;
     public final Class   _handler_class;
     public final Method  _handler_method;
+    // Handlers are stateless, so one instance serves every request; its
+    // method is called through a handle typed (Handler,int,Iced)Schema.
+    final Handler        _handler;
+    final MethodHandle   _handler_invoker;
+    final RouteStats     _stats;
     // NOTE: Java 7 captures and lets you look up subpatterns by name but won't give you the list of names, so we need this redundant list:
     public final String[] _path_params; // list of params we capture from the url pattern, e.g. for /17/MyComplexObj/(.*)/(.*)
 
@@ -46,6 +54,15 @@ public class RequestServer extends NanoHTTPD {
       _handler_class = handler_class;
       _handler_method = handler_method;
       _path_params = path_params;
+      try {
+        _handler = (Handler)handler_class.newInstance();
+        handler_method.setAccessible(true);
+        _handler_invoker = MethodHandles.lookup().unreflect(handler_method)
+          .asType(MethodType.methodType(Schema.class, Handler.class, int.class, Iced.class));
+      } catch( InstantiationException | IllegalAccessException e ) {
+        throw H2O.fail("Cannot set up handler " + handler_class.getName() + "." + handler_method.getName() + ": " + e);
+      }
+      _stats = new RouteStats(http_method + " " + url_pattern.pattern());
     }
 
     @Override
@@ -73,6 +90,32 @@ public class RequestServer extends NanoHTTPD {
   }
 
 
+  /** Request count, error count and latency histogram of one Route, on this
+   *  Node.  Latency is from dispatch to the response being built. */
+  public static class RouteStats extends Iced {
+    public final String _route;
+    public long _calls, _errors;
+    public MRMetrics.Histo _latencyUs = new MRMetrics.Histo();
+    RouteStats( String route ) { _route = route; }
+    synchronized void record( long ns, boolean error ) {
+      _calls++;
+      if( error ) _errors++;
+      _latencyUs.add(ns/1000);
+    }
+    synchronized RouteStats copy() {
+      RouteStats rs = new RouteStats(_route);
+      rs._calls = _calls;  rs._errors = _errors;  rs._latencyUs.add(_latencyUs);
+      return rs;
+    }
+  }
+
+  /** This Node's stats for every Route, in registration order */
+  static RouteStats[] routeStats() {
+    ArrayList<RouteStats> al = new ArrayList<>();
+    for( Route r : _routes.values() ) al.add(r._stats.copy());
+    return al.toArray(new RouteStats[al.size()]);
+  }
+
   // Handlers ------------------------------------------------------------
 
   // An array of regexs-over-URLs and handling Methods.
@@ -94,6 +137,8 @@ public class RequestServer extends NanoHTTPD {
     addToNavbar(register("/Jobs"       ,"GET",JobsHandler       .class,"list"    ),"/Jobs"       , "Jobs",          "Admin");
     addToNavbar(register("/Timeline"   ,"GET",TimelineHandler   .class,"fetch"   ),"/Timeline"   , "Timeline",      "Admin");
     addToNavbar(register("/Profiler"   ,"GET",ProfilerHandler   .class,"fetch"   ),"/Profiler"   , "Profiler",      "Admin");
+    addToNavbar(register("/MRMetrics"  ,"GET",MRMetricsHandler  .class,"fetch"   ),"/MRMetrics"  , "MRTask Metrics","Admin");
+    addToNavbar(register("/RouteMetrics","GET",RouteMetricsHandler.class,"fetch"  ),"/RouteMetrics", "REST Metrics",  "Admin");
     addToNavbar(register("/JStack"     ,"GET",JStackHandler     .class,"fetch"   ),"/JStack"     , "Stack Dump",    "Admin");
     addToNavbar(register("/UnlockKeys" ,"GET",UnlockKeysHandler .class,"unlock"  ),"/UnlockKeys" , "Unlock Keys",   "Admin");
 
@@ -297,10 +342,16 @@ public class RequestServer extends NanoHTTPD {
       // if the request is not known, treat as resource request, or 404 if not found
       if( route == null )
         return getResource(uri);
-      else {
+      long t0 = System.nanoTime();
+      boolean ok = false;
+      try {
         capturePathParms(parms, versioned_path, route); // get any parameters like /Frames/<key>
         maybeLogRequest(path, versioned_path, route._url_pattern.pattern(), parms);
-        return wrap(HTTP_OK,handle(type,route,version,parms),type);
+        Response r = wrap(HTTP_OK,handle(type,route,version,parms),type);
+        ok = true;
+        return r;
+      } finally {
+        route._stats.record(System.nanoTime()-t0, !ok);
       }
     } catch( IllegalArgumentException e ) {
       return wrap(HTTP_BADREQUEST,new HttpErrorV1(400, e.getMessage(),uri),type);
@@ -316,12 +367,8 @@ public class RequestServer extends NanoHTTPD {
     case html: // These request-types only dictate the response-type;
     case java: // the normal action is always done.
     case json:
-    case xml: {
-      Class<Handler> clz = (Class<Handler>)route._handler_class;
-      // TODO: Handler no longer has state, so we can create single instances and put them in the Route
-      Handler h = clz.newInstance();
-      return h.handle(version,route,parms); // Can throw any Exception the handler throws
-    }
+    case xml:
+      return route._handler.handle(version,route,parms); // Can throw any Exception the handler throws
     case query:
     case help:
     default:
@@ -329,10 +376,15 @@ public class RequestServer extends NanoHTTPD {
     }
   }
 
-  private Response wrap( String http_code, Schema s, RequestType type ) {
+  private Response wrap( String http_code, final Schema s, RequestType type ) {
     // Convert Schema to desired output flavor
     switch( type ) {
-    case json:   return new Response(http_code, MIME_JSON, new String(s.writeJSON(new AutoBuffer()).buf()));
+    case json:   return new Response(http_code, MIME_JSON, new StreamWriter() {
+        // Written as the response goes out, a buffer-full at a time, rather
+        // than built whole first; Schemas stream from their fields (e.g. Frame
+        // rows from the Chunks).
+        @Override public void writeTo( OutputStream os ) { s.writeJSON(new AutoBuffer(os)).close(); }
+      });
     case xml:  //return new Response(http_code, MIME_XML , new String(S.writeXML (new AutoBuffer()).buf()));
     case java:
       throw H2O.unimpl();
@@ -458,17 +510,14 @@ public class RequestServer extends NanoHTTPD {
   // Return URLs for things that want to appear Frame-inspection page
   static String[] frameChoices( int version, Frame fr ) {
     ArrayList<String> al = new ArrayList<>();
-    for( Pattern p : _routes.keySet() ) {
+    for( Route r : _routes.values() ) {
       try {
-        Method meth = _routes.get(p)._handler_method;
-        Class clz0 = meth.getDeclaringClass();
-        Class<Handler> clz = (Class<Handler>)clz0;
-        Handler h = clz.newInstance(); // TODO: we don't need to create new instances; handler is stateless
+        Handler h = r._handler;
         if( version < h.min_ver() || h.max_ver() < version ) continue;
         String url = h.schema(version).acceptsFrame(fr);
         if( url != null ) al.add(url);
       }
-      catch( InstantiationException | IllegalArgumentException | IllegalAccessException ignore ) { }
+      catch( IllegalArgumentException ignore ) { }
     }
     return al.toArray(new String[al.size()]);
   }
@@ -0,0 +1,25 @@
+package water.api;
+
+import water.H2O;
+import water.Iced;
+import water.api.RequestServer.RouteStats;
+import water.api.RouteMetricsHandler.RouteMetricsInfo;
+
+/** REST request counts and latencies on this node, by route */
+public class RouteMetricsHandler extends Handler<RouteMetricsInfo,RouteMetricsV2> {
+  @Override protected int min_ver() { return 1; }
+  @Override protected int max_ver() { return Integer.MAX_VALUE; }
+
+  public static final class RouteMetricsInfo extends Iced {
+    //Output
+    RouteStats[] _routes;
+  }
+
+  @Override protected RouteMetricsV2 schema(int version) { return new RouteMetricsV2(); }
+  @Override public void compute2() { throw H2O.unimpl(); }
+
+  public RouteMetricsV2 fetch(int version, RouteMetricsInfo m) {
+    m._routes = RequestServer.routeStats();
+    return schema(version).fillFromImpl(m);
+  }
+}
@@ -0,0 +1,35 @@
+package water.api;
+
+import water.api.RequestServer.RouteStats;
+import water.api.RouteMetricsHandler.RouteMetricsInfo;
+import water.util.DocGen;
+
+/** Display of the REST route metrics of this node */
+public class RouteMetricsV2 extends Schema<RouteMetricsInfo,RouteMetricsV2> {
+  // No inputs
+
+  // Output
+  @API(help="Per route request and error counts, and log2 histogram of latency usec")
+  public RouteStats[] routes;
+
+  @Override public RouteMetricsInfo createImpl() { return new RouteMetricsInfo(); }
+
+  @Override public RouteMetricsV2 fillFromImpl(RouteMetricsInfo m) {
+    routes = m._routes;
+    return this;
+  }
+
+  @Override public DocGen.HTML writeHTML_impl( DocGen.HTML ab ) {
+    ab.title("REST Metrics");
+    ab.bodyHead();
+    ab.arrayHead(new String[]{"Route","Calls","Errors","Latency ms (mean/max)"});
+    for( RouteStats rs : routes ) {
+      if( rs._calls == 0 ) continue;
+      ab.arrayRow(new String[]{rs._route,Long.toString(rs._calls),Long.toString(rs._errors),
+                               String.format("%.2f / %.2f",rs._latencyUs.mean()/1000.0,rs._latencyUs._max/1000.0)});
+    }
+    ab.arrayTail();
+    ab.bodyTail();
+    return ab;
+  }
+}
@@ -51,4 +51,51 @@ public class ByteVec extends Vec {
       }
     };
   }
+
+  /** Open a stream view over bytes [off,off+len).  Same back-channel as
+   *  {@link #openStream(Key)}: a read into a null buffer returns the count of
+   *  Chunks entered so far.  The first is entered eagerly, so the count
+   *  starts at 1.  */
+  public InputStream openStream(final long off, final long len, final Key job_key) {
+    return new InputStream() {
+      private final long _end = off+len;
+      private long _pos = off;  // Next byte to read
+      private int _cidx = elem2ChunkIdx(off), _nchks;
+      private byte[] _mem;      // Bytes of the current Chunk
+      private long _start;      // Offset of _mem[0]
+      { enter(); }
+      private void enter() {
+        _start = chunk2StartElem(_cidx);
+        _mem = chunkForChunkIdx(_cidx++).getBytes();
+        _nchks++;
+        if( job_key != null ) Job.update(Math.min(_end,_start+_mem.length)-Math.max(off,_start),job_key);
+      }
+      @Override public int available() {
+        if( _pos >= _end ) return 0;
+        if( _pos >= _start+_mem.length ) enter();
+        return (int)(Math.min(_end,_start+_mem.length)-_pos);
+      }
+      @Override public void close() { _pos = _end; }
+      @Override public int read() throws IOException {
+        return available() == 0 ? -1 : 0xFF&_mem[(int)(_pos++-_start)];
+      }
+      @Override public int read(byte[] b, int boff, int blen) {
+        if( b==null ) return _nchks; // Back-channel read of Chunks entered
+        int sz = available();
+        if( sz == 0 )
+          return -1;
+        blen = Math.min(blen,sz);
+        System.arraycopy(_mem,(int)(_pos-_start),b,boff,blen);
+        _pos += blen;
+        return blen;
+      }
+    };
+  }
+
+  /** Number of Chunks holding bytes [off,off+len) */
+  public int chunksSpanned( long off, long len ) {
+    return len <= 0 ? 1 : elem2ChunkIdx(off+len-1)-elem2ChunkIdx(off)+1;
+  }
+  /** Key of the Chunk holding byte off */
+  public Key chunkKeyAt( long off ) { return chunkKey(elem2ChunkIdx(off)); }
 }
@@ -20,6 +20,14 @@ public class C0LChunk extends Chunk {
   @Override protected final long at8_impl( int i ) { return _con; }
   @Override protected final double atd_impl( int i ) {return _con; }
   @Override protected final boolean isNA_impl( int i ) { return false; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    Arrays.fill(vals,0,to-from,_con);
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    Arrays.fill(vals,0,to-from,_con);
+    return 0;
+  }
   @Override boolean set_impl(int idx, long l) { return l==_con; }
   @Override boolean set_impl(int i, double d) { return d==_con; }
   @Override boolean set_impl(int i, float f ) { return f==_con; }
@@ -1,6 +1,7 @@
 package water.fvec;
 
 import water.*;
+import water.util.UnsafeUtils;
 
 /**
  * The empty-compression function, if all elements fit directly on UNSIGNED bytes.
@@ -9,17 +10,37 @@ import water.*;
 public class C1Chunk extends Chunk {
   static protected final int _OFF = 0;
   static protected final long _NA = 0xFF;
-  C1Chunk(byte[] bs) { _mem=bs; _start = -1; _len = _mem.length; }
+  C1Chunk(byte[] bs) { setMem(bs); _start = -1; _len = _mem.length; }
   @Override protected final long at8_impl( int i ) {
-    long res = 0xFF&_mem[i+_OFF];
+    long res = 0xFF&UnsafeUtils.get1(_mbase,_moff+i+_OFF);
     if( res == _NA ) throw new IllegalArgumentException("at8 but value is missing");
     return res;
   }
   @Override protected final double atd_impl( int i ) {
-    long res = 0xFF&_mem[i+_OFF];
+    long res = 0xFF&UnsafeUtils.get1(_mbase,_moff+i+_OFF);
     return (res == _NA)?Double.NaN:res;
   }
-  @Override protected final boolean isNA_impl( int i ) { return (0xFF&_mem[i+_OFF]) == _NA; }
+  @Override protected final boolean isNA_impl( int i ) { return (0xFF&UnsafeUtils.get1(_mbase,_moff+i+_OFF)) == _NA; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff+_OFF;
+    for( int i=from; i<to; i++ ) {
+      int res = 0xFF&UnsafeUtils.get1(base,off+i);
+      vals[i-from] = res == _NA ? Double.NaN : res;
+    }
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff+_OFF;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      int res = 0xFF&UnsafeUtils.get1(base,off+i);
+      if( res == _NA ) { res = 0; markNA(nas,i-from); nacnt++; }
+      vals[i-from] = res;
+    }
+    return nacnt;
+  }
   @Override boolean set_impl(int i, long l) {
     if( !(0 <= l && l < 255) ) return false;
     _mem[i+_OFF] = (byte)l;
@@ -32,17 +53,21 @@ public class C1Chunk extends Chunk {
     nc._xs = MemoryManager.malloc4(_len);
     nc._ls = MemoryManager.malloc8(_len);
     for( int i=0; i<_len; i++ ) {
-      int res = 0xFF&_mem[i+_OFF];
+      int res = 0xFF&UnsafeUtils.get1(_mbase,_moff+i+_OFF);
       if( res == _NA ) nc._xs[i] = Integer.MIN_VALUE;
       else                     nc._ls[i] = res;
     }
     return nc;
   }
-  @Override final public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem,_mem.length); }
+  @Override public boolean supportsOffHeap() { return true; }
+  @Override final public AutoBuffer write_impl(AutoBuffer bb) { byte[] mem = getBytes(); return bb.putA1(mem,mem.length); }
   @Override final public C1Chunk read_impl(AutoBuffer bb) {
-    _mem = bb.bufClose();
+    setMem(bb.bufClose());
+    return initFromMem();
+  }
+  @Override C1Chunk initFromMem() {
     _start = -1;
-    _len = _mem.length;
+    _len = memLen();
     return this;
   }
 }
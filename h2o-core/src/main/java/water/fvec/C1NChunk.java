@@ -12,6 +12,16 @@ public class C1NChunk extends Chunk {
   @Override protected final long   at8_impl( int i ) { return 0xFF&_mem[i]; }
   @Override protected final double atd_impl( int i ) { return 0xFF&_mem[i]; }
   @Override protected final boolean isNA_impl( int i ) { return false; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final byte[] mem = _mem;
+    for( int i=from; i<to; i++ ) vals[i-from] = 0xFF&mem[i];
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final byte[] mem = _mem;
+    for( int i=from; i<to; i++ ) vals[i-from] = 0xFF&mem[i];
+    return 0;
+  }
   @Override boolean set_impl(int i, long l  ) { return false; }
   @Override boolean set_impl(int i, double d) { return false; }
   @Override boolean set_impl(int i, float f ) { return false; }
@@ -27,6 +27,28 @@ public class C1SChunk extends Chunk {
     return (res == C1Chunk._NA)?Double.NaN:(res+_bias)*_scale;
   }
   @Override protected final boolean isNA_impl( int i ) { return (0xFF&_mem[i+_OFF]) == C1Chunk._NA; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final byte[] mem = _mem;
+    final int bias = _bias;
+    final double scale = _scale;
+    for( int i=from; i<to; i++ ) {
+      int res = 0xFF&mem[i+_OFF];
+      vals[i-from] = res == C1Chunk._NA ? Double.NaN : (res+bias)*scale;
+    }
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final byte[] mem = _mem;
+    final int bias = _bias;
+    final double scale = _scale;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      int res = 0xFF&mem[i+_OFF];
+      if( res == C1Chunk._NA ) { vals[i-from] = 0; markNA(nas,i-from); nacnt++; }
+      else vals[i-from] = (long)((res+bias)*scale);
+    }
+    return nacnt;
+  }
   @Override boolean set_impl(int i, long l) {
     long res = (long)(l/_scale)-_bias; // Compressed value
     double d = (res+_bias)*_scale;     // Reverse it
@@ -9,17 +9,37 @@ import water.util.UnsafeUtils;
 public class C2Chunk extends Chunk {
   static protected final long _NA = Short.MIN_VALUE;
   static protected final int _OFF=0;
-  C2Chunk( byte[] bs ) { _mem=bs; _start = -1; _len = _mem.length>>1; }
+  C2Chunk( byte[] bs ) { setMem(bs); _start = -1; _len = _mem.length>>1; }
   @Override protected final long at8_impl( int i ) {
-    int res = UnsafeUtils.get2(_mem,(i<<1)+_OFF);
+    int res = UnsafeUtils.get2(_mbase,_moff+(i<<1)+_OFF);
     if( res == _NA ) throw new IllegalArgumentException("at8 but value is missing");
     return res;
   }
   @Override protected final double atd_impl( int i ) {
-    int res = UnsafeUtils.get2(_mem,(i<<1)+_OFF);
+    int res = UnsafeUtils.get2(_mbase,_moff+(i<<1)+_OFF);
     return res == _NA?Double.NaN:res;
   }
-  @Override protected final boolean isNA_impl( int i ) { return UnsafeUtils.get2(_mem,(i<<1)+_OFF) == _NA; }
+  @Override protected final boolean isNA_impl( int i ) { return UnsafeUtils.get2(_mbase,_moff+(i<<1)+_OFF) == _NA; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff+_OFF;
+    for( int i=from; i<to; i++ ) {
+      int res = UnsafeUtils.get2(base,off+(i<<1));
+      vals[i-from] = res == _NA ? Double.NaN : res;
+    }
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff+_OFF;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      int res = UnsafeUtils.get2(base,off+(i<<1));
+      if( res == _NA ) { res = 0; markNA(nas,i-from); nacnt++; }
+      vals[i-from] = res;
+    }
+    return nacnt;
+  }
   @Override boolean set_impl(int idx, long l) {
     if( !(Short.MIN_VALUE < l && l <= Short.MAX_VALUE) ) return false;
     UnsafeUtils.set2(_mem,(idx<<1)+_OFF,(short)l);
@@ -36,18 +56,22 @@ public class C2Chunk extends Chunk {
     nc._xs = MemoryManager.malloc4(_len);
     nc._ls = MemoryManager.malloc8(_len);
     for( int i=0; i<_len; i++ ) {
-      int res = UnsafeUtils.get2(_mem,(i<<1)+_OFF);
+      int res = UnsafeUtils.get2(_mbase,_moff+(i<<1)+_OFF);
       if( res == _NA ) nc._xs[i] = Integer.MIN_VALUE;
       else                     nc._ls[i] = res;
     }
     return nc;
   }
-  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem,_mem.length); }
+  @Override public boolean supportsOffHeap() { return true; }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { byte[] mem = getBytes(); return bb.putA1(mem,mem.length); }
   @Override public C2Chunk read_impl(AutoBuffer bb) {
-    _mem = bb.bufClose();
+    setMem(bb.bufClose());
+    return initFromMem();
+  }
+  @Override C2Chunk initFromMem() {
     _start = -1;
-    _len = _mem.length>>1;
-    assert _mem.length == _len<<1;
+    _len = memLen()>>1;
+    assert memLen() == _len<<1;
     return this;
   }
 }
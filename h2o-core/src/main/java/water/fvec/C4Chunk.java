@@ -8,17 +8,37 @@ import water.util.UnsafeUtils;
  */
 public class C4Chunk extends Chunk {
   static protected final long _NA = Integer.MIN_VALUE;
-  C4Chunk( byte[] bs ) { _mem=bs; _start = -1; _len = _mem.length>>2; }
+  C4Chunk( byte[] bs ) { setMem(bs); _start = -1; _len = _mem.length>>2; }
   @Override protected final long at8_impl( int i ) {
-    long res = UnsafeUtils.get4(_mem,i<<2);
+    long res = UnsafeUtils.get4(_mbase,_moff+(i<<2));
     if( res == _NA ) throw new IllegalArgumentException("at8 but value is missing");
     return res;
   }
   @Override protected final double atd_impl( int i ) {
-    long res = UnsafeUtils.get4(_mem, i << 2);
+    long res = UnsafeUtils.get4(_mbase,_moff+(i<<2));
     return res == _NA?Double.NaN:res;
   }
-  @Override protected final boolean isNA_impl( int i ) { return UnsafeUtils.get4(_mem,i<<2) == _NA; }
+  @Override protected final boolean isNA_impl( int i ) { return UnsafeUtils.get4(_mbase,_moff+(i<<2)) == _NA; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff;
+    for( int i=from; i<to; i++ ) {
+      int res = UnsafeUtils.get4(base,off+(i<<2));
+      vals[i-from] = res == _NA ? Double.NaN : res;
+    }
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      int res = UnsafeUtils.get4(base,off+(i<<2));
+      if( res == _NA ) { res = 0; markNA(nas,i-from); nacnt++; }
+      vals[i-from] = res;
+    }
+    return nacnt;
+  }
   @Override boolean set_impl(int idx, long l) {
     if( !(Integer.MIN_VALUE < l && l <= Integer.MAX_VALUE) ) return false;
     UnsafeUtils.set4(_mem,idx<<2,(int)l);
@@ -30,12 +50,16 @@ public class C4Chunk extends Chunk {
   @Override NewChunk inflate_impl(NewChunk nc) {
     throw H2O.unimpl();
   }
-  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem,_mem.length); }
+  @Override public boolean supportsOffHeap() { return true; }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { byte[] mem = getBytes(); return bb.putA1(mem,mem.length); }
   @Override public C4Chunk read_impl(AutoBuffer bb) {
-    _mem = bb.bufClose();
+    setMem(bb.bufClose());
+    return initFromMem();
+  }
+  @Override C4Chunk initFromMem() {
     _start = -1;
-    _len = _mem.length>>2;
-    assert _mem.length == _len<<2;
+    _len = memLen()>>2;
+    assert memLen() == _len<<2;
     return this;
   }
 }
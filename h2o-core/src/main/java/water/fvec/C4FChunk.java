@@ -18,6 +18,21 @@ public class C4FChunk extends Chunk {
     return Float.isNaN(res)?Double.NaN:res;
   }
   @Override protected final boolean isNA_impl( int i ) { return Float.isNaN(UnsafeUtils.get4f(_mem,i<<2)); }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final byte[] mem = _mem;
+    for( int i=from; i<to; i++ ) vals[i-from] = UnsafeUtils.get4f(mem,i<<2); // Float NaN widens to Double NaN
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final byte[] mem = _mem;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      double d = UnsafeUtils.get4f(mem,i<<2);
+      if( Double.isNaN(d) ) { vals[i-from] = 0; markNA(nas,i-from); nacnt++; }
+      else vals[i-from] = (long)d;
+    }
+    return nacnt;
+  }
   @Override boolean set_impl(int idx, long l) { return false; }
   @Override boolean set_impl(int i, double d) { return false; }
   @Override boolean set_impl(int i, float f ) {
@@ -28,6 +28,28 @@ public class C4SChunk extends Chunk {
     return (res == _NA)?Double.NaN:(res + _bias)*_scale;
   }
   @Override protected final boolean isNA_impl( int i ) { return UnsafeUtils.get4(_mem,(i<<2)+_OFF) == _NA; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final byte[] mem = _mem;
+    final int bias = _bias;
+    final double scale = _scale;
+    for( int i=from; i<to; i++ ) {
+      int res = UnsafeUtils.get4(mem,(i<<2)+_OFF);
+      vals[i-from] = res == _NA ? Double.NaN : (res+bias)*scale;
+    }
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final byte[] mem = _mem;
+    final int bias = _bias;
+    final double scale = _scale;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      int res = UnsafeUtils.get4(mem,(i<<2)+_OFF);
+      if( res == _NA ) { vals[i-from] = 0; markNA(nas,i-from); nacnt++; }
+      else vals[i-from] = (long)((res+bias)*scale);
+    }
+    return nacnt;
+  }
   @Override boolean set_impl(int idx, long l) {
     long res = (long)(l/_scale)-_bias; // Compressed value
     double d = (res+_bias)*_scale;     // Reverse it
@@ -8,17 +8,37 @@ import water.util.UnsafeUtils;
  */
 public class C8Chunk extends Chunk {
   protected static final long _NA = Long.MIN_VALUE;
-  C8Chunk( byte[] bs ) { _mem=bs; _start = -1; _len = _mem.length>>3; }
+  C8Chunk( byte[] bs ) { setMem(bs); _start = -1; _len = _mem.length>>3; }
   @Override protected final long at8_impl( int i ) {
-    long res = UnsafeUtils.get8(_mem,i<<3);
+    long res = UnsafeUtils.get8(_mbase,_moff+(i<<3));
     if( res == _NA ) throw new IllegalArgumentException("at8 but value is missing");
     return res;
   }
   @Override protected final double atd_impl( int i ) {
-    long res = UnsafeUtils.get8(_mem,i<<3);
+    long res = UnsafeUtils.get8(_mbase,_moff+(i<<3));
     return res == _NA?Double.NaN:res;
   }
-  @Override protected final boolean isNA_impl( int i ) { return UnsafeUtils.get8(_mem, i << 3)==_NA; }
+  @Override protected final boolean isNA_impl( int i ) { return UnsafeUtils.get8(_mbase,_moff+(i<<3))==_NA; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff;
+    for( int i=from; i<to; i++ ) {
+      long res = UnsafeUtils.get8(base,off+(i<<3));
+      vals[i-from] = res == _NA ? Double.NaN : res;
+    }
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      long res = UnsafeUtils.get8(base,off+(i<<3));
+      if( res == _NA ) { res = 0; markNA(nas,i-from); nacnt++; }
+      vals[i-from] = res;
+    }
+    return nacnt;
+  }
   @Override boolean set_impl(int idx, long l) { return false; }
   @Override boolean set_impl(int i, double d) { return false; }
   @Override boolean set_impl(int i, float f ) { return false; }
@@ -33,12 +53,16 @@ public class C8Chunk extends Chunk {
       else nc.addNum(at80(i),0);
     return nc;
   }
-  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem,_mem.length); }
+  @Override public boolean supportsOffHeap() { return true; }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { byte[] mem = getBytes(); return bb.putA1(mem,mem.length); }
   @Override public C8Chunk read_impl(AutoBuffer bb) {
-    _mem = bb.bufClose();
+    setMem(bb.bufClose());
+    return initFromMem();
+  }
+  @Override C8Chunk initFromMem() {
     _start = -1;
-    _len = _mem.length>>3;
-    assert _mem.length == _len<<3;
+    _len = memLen()>>3;
+    assert memLen() == _len<<3;
     return this;
   }
 }
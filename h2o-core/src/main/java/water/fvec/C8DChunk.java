@@ -16,6 +16,21 @@ public class C8DChunk extends Chunk {
   }
   @Override protected final double   atd_impl( int i ) { return              UnsafeUtils.get8d(_mem,i<<3) ; }
   @Override protected final boolean isNA_impl( int i ) { return Double.isNaN(UnsafeUtils.get8d(_mem,i<<3)); }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final byte[] mem = _mem;
+    for( int i=from; i<to; i++ ) vals[i-from] = UnsafeUtils.get8d(mem,i<<3);
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final byte[] mem = _mem;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      double d = UnsafeUtils.get8d(mem,i<<3);
+      if( Double.isNaN(d) ) { vals[i-from] = 0; markNA(nas,i-from); nacnt++; }
+      else vals[i-from] = (long)d;
+    }
+    return nacnt;
+  }
   @Override boolean set_impl(int idx, long l) { return false; }
   @Override boolean set_impl(int i, double d) {
     UnsafeUtils.set8d(_mem,i<<3,d);
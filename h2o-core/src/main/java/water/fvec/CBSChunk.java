@@ -3,6 +3,7 @@ package water.fvec;
 import water.AutoBuffer;
 import water.MemoryManager;
 import water.H2O;
+import water.util.UnsafeUtils;
 
 /** A simple chunk for boolean values. In fact simple bit vector.
  * Each boolean is represented by 2bits since we need to represent
@@ -17,7 +18,7 @@ public class CBSChunk extends Chunk {
   public byte gap() { return _gap; }
   public CBSChunk(byte[] bs, byte gap, byte bpv) {
     assert gap < 8; assert bpv == 1 || bpv == 2;
-    _mem = bs; _start = -1; _gap = gap; _bpv = bpv;
+    setMem(bs); _start = -1; _gap = gap; _bpv = bpv;
     _len = ((_mem.length - _OFF)*8 - _gap) / _bpv; // number of boolean items
   }
   @Override protected long at8_impl(int idx) {
@@ -34,7 +35,7 @@ public class CBSChunk extends Chunk {
     int vpb = 8 / _bpv;  // values per byte
     int bix = _OFF + idx / vpb; // byte index
     int off = _bpv * (idx % vpb);
-    byte b   = _mem[bix];
+    byte b   = (byte)UnsafeUtils.get1(_mbase,_moff+bix);
     switch( _bpv ) {
       case 1: return read1b(b, off);
       case 2: return read2b(b, off);
@@ -42,6 +43,35 @@ public class CBSChunk extends Chunk {
     }
     return -1;
   }
+  // Bulk readers split on bits-per-value once, not per row
+  @Override protected double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff+_OFF;
+    if( _bpv == 1 )
+      for( int i=from; i<to; i++ )
+        vals[i-from] = read1b((byte)UnsafeUtils.get1(base,off+(i>>3)),i&7);
+    else
+      for( int i=from; i<to; i++ ) {
+        byte b = read2b((byte)UnsafeUtils.get1(base,off+(i>>2)),(i&3)<<1);
+        vals[i-from] = b == _NA ? Double.NaN : b;
+      }
+    return vals;
+  }
+  @Override protected int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final Object base = _mbase;
+    final long off = _moff+_OFF;
+    int nacnt = 0;
+    if( _bpv == 1 )
+      for( int i=from; i<to; i++ )
+        vals[i-from] = read1b((byte)UnsafeUtils.get1(base,off+(i>>3)),i&7);
+    else
+      for( int i=from; i<to; i++ ) {
+        byte b = read2b((byte)UnsafeUtils.get1(base,off+(i>>2)),(i&3)<<1);
+        if( b == _NA ) { b = 0; markNA(nas,i-from); nacnt++; }
+        vals[i-from] = b;
+      }
+    return nacnt;
+  }
   @Override boolean set_impl(int idx, long l)   { return false; }
   @Override boolean set_impl(int idx, double d) { return false; }
   @Override boolean set_impl(int idx, float f ) { return false; }
@@ -81,13 +111,17 @@ public class CBSChunk extends Chunk {
     int len = (values*bpv) >> 3;
     return values*bpv % 8 == 0 ? len : len + 1;
   }
-  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem, _mem.length); }
+  @Override public boolean supportsOffHeap() { return true; }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { byte[] mem = getBytes(); return bb.putA1(mem, mem.length); }
   @Override public CBSChunk read_impl(AutoBuffer bb) {
-    _mem   = bb.bufClose();
+    setMem(bb.bufClose());
+    return initFromMem();
+  }
+  @Override CBSChunk initFromMem() {
     _start = -1;
-    _gap   = _mem[0];
-    _bpv   = _mem[1];
-    _len = ((_mem.length - _OFF)*8 - _gap) / _bpv;
+    _gap   = (byte)UnsafeUtils.get1(_mbase,_moff);
+    _bpv   = (byte)UnsafeUtils.get1(_mbase,_moff+1);
+    _len = ((memLen() - _OFF)*8 - _gap) / _bpv;
     return this;
   }
 }
@@ -0,0 +1,87 @@
+package water.fvec;
+
+import water.*;
+import water.util.UnsafeUtils;
+
+/**
+ * Dictionary compression for doubles: a sorted table of the distinct values,
+ * and a 1 or 2 byte code per row.  Suits measurements with few distinct
+ * values (prices, ratings, rounded sensor readings) which are not scaled
+ * integers and so would otherwise take 8 bytes per row.
+ *
+ * Layout: [0-4] dictionary size, [4] log2 of the code size, then the
+ * dictionary as 8-byte doubles, then the codes.  The all-ones code is the NA.
+ */
+public class CDDChunk extends Chunk {
+  static protected final int _OFF = 8;      // Start of the dictionary
+  private transient int _log;               // log2 of the code size
+  private transient int _coff;              // Start of the codes, past _moff
+  private transient int _na;                // The NA code
+
+  CDDChunk( byte[] bs ) { setMem(bs); initFromMem(); }
+
+  static int naCode( int log ) { return (1<<(8<<log))-1; }
+
+  private int code( Object base, long coff, int i ) {
+    return _log == 0 ? 0xFF&UnsafeUtils.get1(base,coff+i) : 0xFFFF&UnsafeUtils.get2(base,coff+(i<<1));
+  }
+  private double dict( int code ) { return UnsafeUtils.get8d(_mbase,_moff+_OFF+(code<<3)); }
+
+  @Override protected final long at8_impl( int i ) {
+    int c = code(_mbase,_moff+_coff,i);
+    if( c == _na ) throw new IllegalArgumentException("at8 but value is missing");
+    return (long)dict(c);
+  }
+  @Override protected final double atd_impl( int i ) {
+    int c = code(_mbase,_moff+_coff,i);
+    return c == _na ? Double.NaN : dict(c);
+  }
+  @Override protected final boolean isNA_impl( int i ) { return code(_mbase,_moff+_coff,i) == _na; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final Object base = _mbase;
+    final long coff = _moff+_coff;
+    final int na = _na;
+    for( int i=from; i<to; i++ ) {
+      int c = code(base,coff,i);
+      vals[i-from] = c == na ? Double.NaN : dict(c);
+    }
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final Object base = _mbase;
+    final long coff = _moff+_coff;
+    final int na = _na;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      int c = code(base,coff,i);
+      if( c == na ) { vals[i-from] = 0; markNA(nas,i-from); nacnt++; }
+      else vals[i-from] = (long)dict(c);
+    }
+    return nacnt;
+  }
+  // Writes always inflate; the dictionary is fixed
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int i, double d) { return false; }
+  @Override boolean set_impl(int i, float f ) { return false; }
+  @Override boolean setNA_impl(int idx) { return false; }
+  @Override NewChunk inflate_impl(NewChunk nc) {
+    nc._ds = getDoubles_impl(MemoryManager.malloc8d(_len),0,_len);
+    return nc;
+  }
+  @Override public boolean supportsOffHeap() { return true; }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { byte[] mem = getBytes(); return bb.putA1(mem,mem.length); }
+  @Override public CDDChunk read_impl(AutoBuffer bb) {
+    setMem(bb.bufClose());
+    return initFromMem();
+  }
+  @Override CDDChunk initFromMem() {
+    _start = -1;
+    int dsz = UnsafeUtils.get4(_mbase,_moff);
+    _log = UnsafeUtils.get1(_mbase,_moff+4);
+    _coff = _OFF+(dsz<<3);
+    _na = naCode(_log);
+    _len = (memLen()-_coff)>>_log;
+    assert memLen() == _coff+(_len<<_log);
+    return this;
+  }
+}
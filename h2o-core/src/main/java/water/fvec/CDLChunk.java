@@ -0,0 +1,102 @@
+package water.fvec;
+
+import water.*;
+import water.util.UnsafeUtils;
+
+/**
+ * Delta compression for longs: the rows are cut into blocks of 64, and each
+ * value is stored as an unsigned 1, 2 or 4 byte delta from its block's base
+ * (the block minimum).  Sorted or nearly-sorted columns such as time stamps
+ * and IDs have small spans within a block even when their values are huge,
+ * so they shrink from 8 bytes to 1 or 2 bytes per row.  Random access stays
+ * O(1): one base load plus one delta load.
+ *
+ * Layout: [0] log2 of the delta size, [4-8] row count, then one 8-byte base
+ * per block, then the deltas.  The all-ones delta is the NA.
+ */
+public class CDLChunk extends Chunk {
+  static final int LOG_BLK = 6;             // 64 rows per block
+  static protected final int _OFF = 8;      // Start of the block bases
+  private transient int _log;               // log2 of the delta size
+  private transient int _doff;              // Start of the deltas, past _moff
+  private transient long _na;               // The NA delta
+
+  CDLChunk( byte[] bs ) { setMem(bs); initFromMem(); }
+
+  static int nblocks( int len ) { return (len+(1<<LOG_BLK)-1)>>LOG_BLK; }
+  static long naDelta( int log ) { return (1L<<(8<<log))-1; }
+
+  // Unsigned delta for row i
+  private long delta( Object base, long doff, int i ) {
+    switch( _log ) {
+    case 0: return 0xFFL      &UnsafeUtils.get1(base,doff+i);
+    case 1: return 0xFFFFL    &UnsafeUtils.get2(base,doff+(i<<1));
+    default:return 0xFFFFFFFFL&UnsafeUtils.get4(base,doff+(i<<2));
+    }
+  }
+  private long base( int i ) { return UnsafeUtils.get8(_mbase,_moff+_OFF+((i>>LOG_BLK)<<3)); }
+
+  @Override protected final long at8_impl( int i ) {
+    long d = delta(_mbase,_moff+_doff,i);
+    if( d == _na ) throw new IllegalArgumentException("at8 but value is missing");
+    return base(i)+d;
+  }
+  @Override protected final double atd_impl( int i ) {
+    long d = delta(_mbase,_moff+_doff,i);
+    return d == _na ? Double.NaN : base(i)+d;
+  }
+  @Override protected final boolean isNA_impl( int i ) { return delta(_mbase,_moff+_doff,i) == _na; }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    final Object base = _mbase;
+    final long doff = _moff+_doff, na = _na;
+    long b = 0;
+    for( int i=from; i<to; i++ ) {
+      if( i==from || (i&((1<<LOG_BLK)-1))==0 ) b = base(i);
+      long d = delta(base,doff,i);
+      vals[i-from] = d == na ? Double.NaN : b+d;
+    }
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    final Object base = _mbase;
+    final long doff = _moff+_doff, na = _na;
+    long b = 0;
+    int nacnt = 0;
+    for( int i=from; i<to; i++ ) {
+      if( i==from || (i&((1<<LOG_BLK)-1))==0 ) b = base(i);
+      long d = delta(base,doff,i);
+      if( d == na ) { vals[i-from] = 0; markNA(nas,i-from); nacnt++; }
+      else vals[i-from] = b+d;
+    }
+    return nacnt;
+  }
+  // Writes always inflate; a new value rarely fits the block span
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int i, double d) { return false; }
+  @Override boolean set_impl(int i, float f ) { return false; }
+  @Override boolean setNA_impl(int idx) { return false; }
+  @Override NewChunk inflate_impl(NewChunk nc) {
+    nc._ds = null;
+    nc._ls = MemoryManager.malloc8(_len);
+    nc._xs = MemoryManager.malloc4(_len);
+    for( int i=0; i<_len; i++ )
+      if( isNA_impl(i) ) { nc._ls[i] = Long.MAX_VALUE; nc._xs[i] = Integer.MIN_VALUE; }
+      else                 nc._ls[i] = at8_impl(i);
+    return nc;
+  }
+  @Override public boolean supportsOffHeap() { return true; }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { byte[] mem = getBytes(); return bb.putA1(mem,mem.length); }
+  @Override public CDLChunk read_impl(AutoBuffer bb) {
+    setMem(bb.bufClose());
+    return initFromMem();
+  }
+  @Override CDLChunk initFromMem() {
+    _start = -1;
+    _log = UnsafeUtils.get1(_mbase,_moff);
+    _len = UnsafeUtils.get4(_mbase,_moff+4);
+    _doff = _OFF+(nblocks(_len)<<3);
+    _na = naDelta(_log);
+    assert memLen() == _OFF+(nblocks(_len)<<3)+(_len<<_log);
+    return this;
+  }
+}
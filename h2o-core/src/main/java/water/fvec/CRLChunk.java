@@ -0,0 +1,127 @@
+package water.fvec;
+
+import java.util.Arrays;
+import water.*;
+import water.util.UnsafeUtils;
+
+/**
+ * Run-length compression: one 8-byte value and one 4-byte end row per run of
+ * identical values.  Sorted or grouped columns (labels, partition ids, keys
+ * of a denormalized table) have few, long runs and shrink to a tiny fraction
+ * of a row-per-value layout.
+ *
+ * Random access binary-searches the run ends, O(log runs); a (racy) hint
+ * remembers the last run found, so a sequential scan is O(1) per row.  The
+ * bulk decoders expand whole runs at once.
+ *
+ * Values are longs (NA is Long.MIN_VALUE) or doubles (NA is NaN).
+ * Layout: [0-4] run count, [4-8] row count, [8] 1 if doubles, then the run
+ * values, then the run ends (exclusive).
+ */
+public class CRLChunk extends Chunk {
+  static protected final int _OFF = 16;
+  private transient int _nruns;
+  private transient boolean _isDbl;
+  private transient int _eoff;          // Start of the run ends, past _moff
+  private transient int _hint;          // Last run found; racy, only a hint
+
+  CRLChunk( byte[] bs ) { setMem(bs); initFromMem(); }
+
+  static int memSize( int nruns ) { return _OFF+nruns*12; }
+
+  private int end( int r ) { return UnsafeUtils.get4(_mbase,_moff+_eoff+(r<<2)); }
+  private int start( int r ) { return r == 0 ? 0 : end(r-1); }
+  private long bits( int r ) { return UnsafeUtils.get8(_mbase,_moff+_OFF+(r<<3)); }
+  private double dbl( int r ) {
+    long b = bits(r);
+    return _isDbl ? Double.longBitsToDouble(b) : (b == C8Chunk._NA ? Double.NaN : b);
+  }
+  private boolean isNA( int r ) {
+    long b = bits(r);
+    return _isDbl ? Double.isNaN(Double.longBitsToDouble(b)) : b == C8Chunk._NA;
+  }
+
+  // Run holding row i
+  private int run( int i ) {
+    int r = _hint;
+    if( start(r) <= i ) {
+      if( i < end(r) ) return r;
+      if( r+1 < _nruns && i < end(r+1) ) return _hint = r+1;
+    }
+    int lo = 0, hi = _nruns-1;  // First run ending past i
+    while( lo < hi ) {
+      int mid = (lo+hi)>>>1;
+      if( end(mid) <= i ) lo = mid+1; else hi = mid;
+    }
+    return _hint = lo;
+  }
+
+  @Override protected final long at8_impl( int i ) {
+    int r = run(i);
+    if( isNA(r) ) throw new IllegalArgumentException("at8 but value is missing");
+    return _isDbl ? (long)Double.longBitsToDouble(bits(r)) : bits(r);
+  }
+  @Override protected final double atd_impl( int i ) { return dbl(run(i)); }
+  @Override protected final boolean isNA_impl( int i ) { return isNA(run(i)); }
+  @Override protected final double[] getDoubles_impl( double[] vals, int from, int to ) {
+    for( int r = run(from), i = from; i < to; r++ ) {
+      int e = Math.min(end(r),to);
+      Arrays.fill(vals,i-from,e-from,dbl(r));
+      i = e;
+    }
+    return vals;
+  }
+  @Override protected final int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    int nacnt = 0;
+    for( int r = run(from), i = from; i < to; r++ ) {
+      int e = Math.min(end(r),to);
+      if( isNA(r) ) {
+        Arrays.fill(vals,i-from,e-from,0);
+        for( int j=i; j<e; j++ ) markNA(nas,j-from);
+        nacnt += e-i;
+      } else
+        Arrays.fill(vals,i-from,e-from,_isDbl ? (long)Double.longBitsToDouble(bits(r)) : bits(r));
+      i = e;
+    }
+    return nacnt;
+  }
+  // Writes always inflate; a write splits a run
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int i, double d) { return false; }
+  @Override boolean set_impl(int i, float f ) { return false; }
+  @Override boolean setNA_impl(int idx) { return false; }
+  @Override NewChunk inflate_impl(NewChunk nc) {
+    if( _isDbl ) {
+      nc._ds = getDoubles_impl(MemoryManager.malloc8d(_len),0,_len);
+      return nc;
+    }
+    nc._ds = null;
+    nc._ls = MemoryManager.malloc8(_len);
+    nc._xs = MemoryManager.malloc4(_len);
+    for( int r=0, i=0; r<_nruns; r++ ) {
+      boolean na = isNA(r);
+      long l = na ? Long.MAX_VALUE : bits(r);
+      for( int e = end(r); i < e; i++ ) {
+        nc._ls[i] = l;
+        if( na ) nc._xs[i] = Integer.MIN_VALUE;
+      }
+    }
+    return nc;
+  }
+  @Override public boolean supportsOffHeap() { return true; }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { byte[] mem = getBytes(); return bb.putA1(mem,mem.length); }
+  @Override public CRLChunk read_impl(AutoBuffer bb) {
+    setMem(bb.bufClose());
+    return initFromMem();
+  }
+  @Override CRLChunk initFromMem() {
+    _start = -1;
+    _nruns = UnsafeUtils.get4(_mbase,_moff);
+    _len = UnsafeUtils.get4(_mbase,_moff+4);
+    _isDbl = UnsafeUtils.get1(_mbase,_moff+8) != 0;
+    _eoff = _OFF+(_nruns<<3);
+    _hint = 0;
+    assert memLen() == memSize(_nruns) && _nruns > 0;
+    return this;
+  }
+}
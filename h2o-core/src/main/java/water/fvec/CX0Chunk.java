@@ -13,6 +13,26 @@ public final class CX0Chunk extends CXIChunk {
   @Override protected final double atd_impl(int idx) { return at8_impl(idx); }
   @Override protected final boolean isNA_impl( int i ) { return false; }
 
+  @Override protected double[] getDoubles_impl( double[] vals, int from, int to ) {
+    Arrays.fill(vals,0,to-from,0);
+    final int inc = ridsz(), end = memLen();
+    for( int off = offAtOrAfter(from); off < end; off += inc ) {
+      int id = getId(off);
+      if( id >= to ) break;
+      vals[id-from] = 1;
+    }
+    return vals;
+  }
+  @Override protected int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    Arrays.fill(vals,0,to-from,0);
+    final int inc = ridsz(), end = memLen();
+    for( int off = offAtOrAfter(from); off < end; off += inc ) {
+      int id = getId(off);
+      if( id >= to ) break;
+      vals[id-from] = 1;
+    }
+    return 0;
+  }
   @Override NewChunk inflate_impl(NewChunk nc) {
     final int len = sparseLen();
     nc._ls = MemoryManager.malloc8 (len);
@@ -1,5 +1,6 @@
 package water.fvec;
 
+import java.util.Arrays;
 import water.H2O;
 import water.MemoryManager;
 import water.UDP;
@@ -12,7 +13,8 @@ public class CXDChunk extends CXIChunk {
 
   // extract fp value from an (byte)offset
   protected final double getFValue(int off){
-    if(valsz() == 8) return UnsafeUtils.get8d(_mem, off + ridsz());
+    if(valsz() == 8) return UnsafeUtils.get8d(_mbase,_moff+off+ridsz());
+    if(valsz() == 4) return UnsafeUtils.get4f(_mbase,_moff+off+ridsz()); // Float NaN widens to Double NaN
     throw H2O.unimpl();
   }
 
@@ -35,6 +37,29 @@ public class CXDChunk extends CXIChunk {
     return Double.isNaN(getFValue(off));
   }
 
+  @Override protected double[] getDoubles_impl( double[] vals, int from, int to ) {
+    Arrays.fill(vals,0,to-from,0);
+    final int inc = ridsz() + valsz(), end = memLen();
+    for( int off = offAtOrAfter(from); off < end; off += inc ) {
+      int id = getId(off);
+      if( id >= to ) break;
+      vals[id-from] = getFValue(off);
+    }
+    return vals;
+  }
+  @Override protected int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    Arrays.fill(vals,0,to-from,0);
+    final int inc = ridsz() + valsz(), end = memLen();
+    int nacnt = 0;
+    for( int off = offAtOrAfter(from); off < end; off += inc ) {
+      int id = getId(off);
+      if( id >= to ) break;
+      double d = getFValue(off);
+      if( Double.isNaN(d) ) { markNA(nas,id-from); nacnt++; }
+      else vals[id-from] = (long)d;
+    }
+    return nacnt;
+  }
   @Override NewChunk inflate_impl(NewChunk nc) {
     final int len = sparseLen();
     nc._len2 = _len;
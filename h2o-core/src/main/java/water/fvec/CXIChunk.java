@@ -1,5 +1,6 @@
 package water.fvec;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import water.AutoBuffer;
 import water.H2O;
@@ -32,19 +33,46 @@ public class CXIChunk extends Chunk {
     byte b = (byte) _ridsz;
     buf[4] = b;
     buf[5] = (byte) _valsz;
-    _mem = buf;
+    setMem(buf);
   }
 
   @Override public final boolean isSparse() {return true;}
-  @Override public final int sparseLen(){return (_mem.length - _OFF) / (_valsz + _ridsz);}
+  @Override public final int sparseLen(){return (memLen() - _OFF) / (_valsz + _ridsz);}
   @Override public final int nonzeros(int [] arr){
     int len = sparseLen();
     int off = _OFF;
     final int inc = _valsz + 2;
-    for(int i = 0; i < len; ++i, off += inc) arr[i] = UnsafeUtils.get2(_mem, off)&0xFFFF;
+    for(int i = 0; i < len; ++i, off += inc) arr[i] = UnsafeUtils.get2(_mbase,_moff+off)&0xFFFF;
     return len;
   }
 
+  // Bulk readers: zero-fill, then scatter the stored values in range
+  @Override protected double[] getDoubles_impl( double[] vals, int from, int to ) {
+    Arrays.fill(vals,0,to-from,0);
+    final int inc = _ridsz + _valsz, end = memLen();
+    final long na = NAS[_valsz_log];
+    for( int off = offAtOrAfter(from); off < end; off += inc ) {
+      int id = getId(off);
+      if( id >= to ) break;
+      long v = getIValue(off);
+      vals[id-from] = v == na ? Double.NaN : v;
+    }
+    return vals;
+  }
+  @Override protected int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    Arrays.fill(vals,0,to-from,0);
+    final int inc = _ridsz + _valsz, end = memLen();
+    final long na = NAS[_valsz_log];
+    int nacnt = 0;
+    for( int off = offAtOrAfter(from); off < end; off += inc ) {
+      int id = getId(off);
+      if( id >= to ) break;
+      long v = getIValue(off);
+      if( v == na ) { markNA(nas,id-from); nacnt++; }
+      else vals[id-from] = v;
+    }
+    return nacnt;
+  }
   @Override boolean set_impl(int idx, long l)   { return false; }
   @Override boolean set_impl(int idx, double d) { return false; }
   @Override boolean set_impl(int idx, float f ) { return false; }
@@ -93,18 +121,18 @@ public class CXIChunk extends Chunk {
   // get id of nth (chunk-relative) stored element
   protected final int getId(int off){
     return _ridsz == 2
-      ?UnsafeUtils.get2(_mem,off)&0xFFFF
-      :UnsafeUtils.get4(_mem,off);
+      ?UnsafeUtils.get2(_mbase,_moff+off)&0xFFFF
+      :UnsafeUtils.get4(_mbase,_moff+off);
   }
   // get offset of nth (chunk-relative) stored element
   private int getOff(int n){return _OFF + (_ridsz + _valsz)*n;}
   // extract integer value from an (byte)offset
   protected final long getIValue(int off){
     switch(_valsz){
-      case 1: return _mem[off+ _ridsz]&0xFF;
-      case 2: return UnsafeUtils.get2(_mem, off + _ridsz);
-      case 4: return UnsafeUtils.get4(_mem, off + _ridsz);
-      case 8: return UnsafeUtils.get8(_mem, off + _ridsz);
+      case 1: return UnsafeUtils.get1(_mbase,_moff+off+_ridsz)&0xFF;
+      case 2: return UnsafeUtils.get2(_mbase,_moff+off+_ridsz);
+      case 4: return UnsafeUtils.get4(_mbase,_moff+off+_ridsz);
+      case 8: return UnsafeUtils.get8(_mbase,_moff+off+_ridsz);
       default: throw H2O.unimpl();
    } 
   }
@@ -112,7 +140,7 @@ public class CXIChunk extends Chunk {
   // find offset of the chunk-relative row id, or -1 if not stored (i.e. sparse zero)
   protected final int findOffset(int idx) {
     if(idx >= _len)throw new IndexOutOfBoundsException();
-    final byte [] mem = _mem;
+    final int memLen = memLen();
     int sparseLen = sparseLen();
     if(sparseLen == 0)return 0;
     final int off = _lastOff;
@@ -122,7 +150,7 @@ public class CXIChunk extends Chunk {
     if(idx > lastIdx){
       // check the next one
       final int nextOff = off + _ridsz + _valsz;
-      if(nextOff < mem.length){
+      if(nextOff < memLen){
         int nextId =  getId(nextOff);
         if(idx < nextId)return off;
         if(idx == nextId){
@@ -143,22 +171,39 @@ public class CXIChunk extends Chunk {
     return y;
   }
 
+  // offset of the first stored element at or after the chunk-relative row,
+  // or the end of the payload if there is none
+  protected final int offAtOrAfter(int row) {
+    int lo = 0, hi = sparseLen();
+    while( lo < hi ) {
+      int mid = (hi+lo)>>>1;
+      if( getId(getOff(mid)) < row ) lo = mid+1;
+      else hi = mid;
+    }
+    return getOff(lo);
+  }
+
   @Override public final int nextNZ(int rid){
     final int off = rid == -1?_OFF:findOffset(rid);
     int x = getId(off);
     if(x > rid)return x;
-    if(off < _mem.length - _ridsz - _valsz)
+    if(off < memLen() - _ridsz - _valsz)
       return getId(off + _ridsz + _valsz);
     return _len;
   }
 
-  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem, _mem.length); }
+  @Override public boolean supportsOffHeap() { return true; }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { byte[] mem = getBytes(); return bb.putA1(mem, mem.length); }
   @Override public CXIChunk read_impl(AutoBuffer bb) {
-    _mem   = bb.bufClose();
+    setMem(bb.bufClose());
+    return initFromMem();
+  }
+  @Override CXIChunk initFromMem() {
     _start = -1;
-    _len = UnsafeUtils.get4(_mem,0);
-    _ridsz = _mem[4];
-    _valsz = _mem[5];
+    _lastOff = _OFF;
+    _len = UnsafeUtils.get4(_mbase,_moff);
+    _ridsz = UnsafeUtils.get1(_mbase,_moff+4);
+    _valsz = UnsafeUtils.get1(_mbase,_moff+5);
     int x = _valsz;
     int log = 0;
     while(x > 1){
@@ -180,7 +225,7 @@ public class CXIChunk extends Chunk {
   public final class SparseIterator implements Iterator<Value> {
     final Value _val;
     public SparseIterator(Value v){_val = v;}
-    @Override public final boolean hasNext(){return _val._off < _mem.length - (_ridsz + _valsz);}
+    @Override public final boolean hasNext(){return _val._off < memLen() - (_ridsz + _valsz);}
     @Override public final Value next(){
       if(_val._off == 0)_val._off = _OFF;
       else _val._off += (_ridsz + _valsz);
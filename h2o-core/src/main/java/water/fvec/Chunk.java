@@ -1,6 +1,8 @@
 package water.fvec;
 
+import java.util.Arrays;
 import water.*;
+import water.util.UnsafeUtils;
 
 /** A compression scheme, over a chunk - a single array of bytes.  The *actual*
  *  vector header info is in the Vec struct - which contains info to find all
@@ -17,7 +19,53 @@ public abstract class Chunk extends Iced implements Cloneable {
   protected Vec _vec;            // Owning Vec; filled after AutoBuffer.read
   public final Vec vec() { return _vec; }   // Owning Vec; filled after AutoBuffer.read
   protected byte[] _mem; // Short-cut to the embedded memory; WARNING: holds onto a large array
-  public final byte[] getBytes() { return _mem; }
+  /** The payload bytes.  For an off-heap Chunk this is a fresh heap copy. */
+  public final byte[] getBytes() { OffHeap oh = _offheap; return oh == null ? _mem : oh.toHeap(); }
+
+  // Payload addressing for the Unsafe-based decoders: (_mem, byte[] base
+  // offset) while the bytes live on the heap, or (null, raw address) once the
+  // Cleaner has moved them off-heap.  Decoders supporting off-heap payloads
+  // read via UnsafeUtils.getX(_mbase,_moff+off) and never touch _mem directly.
+  transient Object _mbase;
+  transient long _moff;
+  private transient OffHeap _offheap; // Keeps the off-heap block reachable
+  /** Set the heap payload; used by decoders supporting off-heap payloads */
+  final void setMem( byte[] mem ) { _mem = mem; _mbase = mem; _moff = UnsafeUtils.BYTE_BASE; }
+  /** Payload length in bytes, on or off heap */
+  final int memLen() { OffHeap oh = _offheap; return oh == null ? _mem.length : oh._len; }
+  /** True if the payload lives off the Java heap */
+  public final boolean isOffHeap() { return _offheap != null; }
+  /** Chunk types whose decoders read via _mbase/_moff override this */
+  public boolean supportsOffHeap() { return false; }
+  /** Set the length and any header fields from the payload bytes, on or off
+   *  heap.  Required of Chunk types supporting off-heap payloads. */
+  Chunk initFromMem() { throw H2O.fail(); }
+
+  /** Read this (freshly made) Chunk directly over an off-heap block, such as
+   *  a view into a memory-mapped spill file. */
+  public final Chunk readOffHeap( OffHeap oh ) {
+    assert supportsOffHeap() && _chk2 == null;
+    _mem = null;
+    _mbase = null;
+    _moff = oh._addr;
+    _offheap = oh;
+    return initFromMem();
+  }
+
+  /** A clone of this Chunk with the payload copied off the Java heap, or null
+   *  if this Chunk type cannot decode off-heap or the off-heap tier is full.
+   *  The original Chunk is untouched, so racing readers holding it are safe. */
+  public final Chunk offHeapClone() {
+    if( _offheap != null || _chk2 != null || !supportsOffHeap() ) return null;
+    OffHeap oh = OffHeap.copyOf(_mem);
+    if( oh == null ) return null;
+    Chunk c = (Chunk)clone();
+    c._mem = null;
+    c._mbase = null;
+    c._moff = oh._addr;
+    c._offheap = oh;
+    return c;
+  }
 
   /** Load a long value.  Floating point values are silently rounded to an
     * integer.  Throws if the value is missing.
@@ -76,6 +124,35 @@ public abstract class Chunk extends Iced implements Cloneable {
   public final long   at16l0( int i ) { return _chk2 == null ? at16l_impl(i) : _chk2.at16l_impl(i); }
   public final long   at16h0( int i ) { return _chk2 == null ? at16h_impl(i) : _chk2.at16h_impl(i); }
 
+  /** Rows per block for tasks bulk decoding a Chunk a block at a time: big
+   *  enough to amortize the call, small enough to stay in cache.  */
+  public static final int ROW_BLOCK = 1024;
+
+  /** Bulk decode rows [from,to) as doubles into vals[0..to-from), with
+   *  missing values as Double.NaN.  One virtual call per batch instead of
+   *  per row, with each Chunk type decoding in its own tight loop; much
+   *  faster than at0 when a task wants every row of a Chunk.
+   *  @return vals */
+  public final double[] getDoubles( double[] vals, int from, int to ) {
+    assert 0 <= from && from <= to && to <= _len && to-from <= vals.length;
+    return _chk2 == null ? getDoubles_impl(vals,from,to) : _chk2.getDoubles_impl(vals,from,to);
+  }
+
+  /** Bulk decode rows [from,to) as longs into vals[0..to-from).  Missing
+   *  values decode as zero and set bit (row-from) in the 'nas' bitmap, which
+   *  must hold at least (to-from+63)/64 words; test it with {@link
+   *  #isNA(long[],int)}.  Floating point values are silently rounded as by
+   *  at80.
+   *  @return number of missing values */
+  public final int getLongs( long[] vals, long[] nas, int from, int to ) {
+    assert 0 <= from && from <= to && to <= _len && to-from <= vals.length;
+    Arrays.fill(nas,0,(to-from+63)>>6,0);
+    return _chk2 == null ? getLongs_impl(vals,nas,from,to) : _chk2.getLongs_impl(vals,nas,from,to);
+  }
+  /** Is bit i set in an NA bitmap filled by getLongs? */
+  public static boolean isNA( long[] nas, int i ) { return (nas[i>>6]&(1L<<i)) != 0; }
+  static void markNA( long[] nas, int i ) { nas[i>>6] |= 1L<<i; }
+
 
   /** Write element the slow way, as a long.  There is no way to write a
    *  missing value with this call.  Under rare circumstances this can throw:
@@ -98,6 +175,10 @@ public abstract class Chunk extends Iced implements Cloneable {
     _vec.preWriting();          // One-shot writing-init
     _chk2 = (Chunk)clone();     // Flag this chunk as having been written into
     assert _chk2._chk2 == null; // Clone has NOT been written into
+    if( _offheap != null ) {    // Writes always go to a heap copy
+      _chk2.setMem(_offheap.toHeap());
+      _chk2._offheap = null;
+    }
   }
 
   /**
@@ -146,6 +227,7 @@ public abstract class Chunk extends Iced implements Cloneable {
     if( this  instanceof NewChunk ) _chk2 = this;
     if( _chk2 == null ) return fs;          // No change?
     if( _chk2 instanceof NewChunk ) _chk2 = ((NewChunk)_chk2).new_close();
+    if( !(this instanceof NewChunk) ) ChunkRollups.written(_vec,cidx); // Rewritten, not a new Vec's Chunk
     DKV.put(_vec.chunkKey(cidx),_chk2,fs,true); // Write updated chunk back into K/V
     if( _vec._cache == this ) _vec._cache = null;
     return fs;
@@ -159,6 +241,20 @@ public abstract class Chunk extends Iced implements Cloneable {
   abstract protected boolean isNA_impl(int idx);
   protected long at16l_impl(int idx) { throw new IllegalArgumentException("Not a UUID"); }
   protected long at16h_impl(int idx) { throw new IllegalArgumentException("Not a UUID"); }
+
+  /** Chunk-specific bulk readers.  The defaults go row-at-a-time; Chunk types
+   *  override them with a loop over their own encoding. */
+  protected double[] getDoubles_impl( double[] vals, int from, int to ) {
+    for( int i=from; i<to; i++ ) vals[i-from] = atd_impl(i);
+    return vals;
+  }
+  protected int getLongs_impl( long[] vals, long[] nas, int from, int to ) {
+    int nacnt = 0;
+    for( int i=from; i<to; i++ )
+      if( isNA_impl(i) ) { vals[i-from] = 0; markNA(nas,i-from); nacnt++; }
+      else vals[i-from] = at8_impl(i);
+    return nacnt;
+  }
   
   /** Chunk-specific writer.  Returns false if the value does not fit in the
    *  current compression scheme.  */
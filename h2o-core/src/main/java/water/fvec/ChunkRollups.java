@@ -0,0 +1,120 @@
+package water.fvec;
+
+import java.util.Arrays;
+import water.*;
+import water.nbhm.NonBlockingHashMap;
+import water.nbhm.NonBlockingSetInt;
+
+/** The rollups of every Chunk of a Vec, kept in the K/V under
+ *  {@link Vec#chunkRollupsKey()} - which homes with the Vec's own rollups.
+ *  The Vec-level {@link RollupStats} are a merge of these, so after a write
+ *  only the Chunks written need rolling up again.
+ *
+ *  Chunks are noted as written on the Node closing them, and marked dirty
+ *  here with one atomic update per Node when the writer calls
+ *  {@link Vec#postWrite}.
+ */
+final class ChunkRollups extends Iced {
+  private static final int NMM = 5; // Mins & maxs per Chunk, as in RollupStats
+
+  // Chunks written on this Node and not yet marked dirty, by Vec Key
+  static final NonBlockingHashMap<Key,NonBlockingSetInt> WRITTEN = new NonBlockingHashMap<>();
+
+  long[] _rows, _naCnt, _nzCnt, _pinfs, _ninfs, _size;
+  double[] _mean, _m2, _mins, _maxs;
+  byte[] _isInt;
+  byte[] _dirty;                // Non-zero if the Chunk must be rolled up again
+
+  // All dirty: nothing rolled up yet
+  ChunkRollups( int nchunks ) {
+    _rows  = new long[nchunks];  _naCnt = new long[nchunks];  _nzCnt = new long[nchunks];
+    _pinfs = new long[nchunks];  _ninfs = new long[nchunks];  _size  = new long[nchunks];
+    _mean  = new double[nchunks];  _m2 = new double[nchunks];
+    _mins  = new double[nchunks*NMM];  _maxs = new double[nchunks*NMM];
+    _isInt = new byte[nchunks];
+    _dirty = new byte[nchunks];  Arrays.fill(_dirty,(byte)1);
+  }
+
+  int nChunks() { return _rows.length; }
+
+  /** Chunk indices needing a rollup, ascending */
+  int[] dirty() {
+    int n=0;
+    for( byte b : _dirty ) if( b != 0 ) n++;
+    int[] cidxs = new int[n];
+    for( int i=0, j=0; i<_dirty.length; i++ )
+      if( _dirty[i] != 0 ) cidxs[j++] = i;
+    return cidxs;
+  }
+
+  /** Record the rollups of one Chunk; its _sigma holds the sum of squared
+   *  deviations, not yet the standard deviation. */
+  void set( int cidx, RollupStats rs ) {
+    _rows [cidx] = rs._rows;   _naCnt[cidx] = rs._naCnt;  _nzCnt[cidx] = rs._nzCnt;
+    _pinfs[cidx] = rs._pinfs;  _ninfs[cidx] = rs._ninfs;  _size [cidx] = rs._size;
+    _mean [cidx] = rs._mean;   _m2   [cidx] = rs._sigma;
+    System.arraycopy(rs._mins,0,_mins,cidx*NMM,NMM);
+    System.arraycopy(rs._maxs,0,_maxs,cidx*NMM,NMM);
+    _isInt[cidx] = (byte)(rs._isInt ? 1 : 0);
+    _dirty[cidx] = 0;
+  }
+
+  /** Overwrite rs with the rollups of one Chunk; returns rs */
+  RollupStats get( int cidx, RollupStats rs ) {
+    rs._rows  = _rows [cidx];  rs._naCnt = _naCnt[cidx];  rs._nzCnt = _nzCnt[cidx];
+    rs._pinfs = _pinfs[cidx];  rs._ninfs = _ninfs[cidx];  rs._size  = _size [cidx];
+    rs._mean  = _mean [cidx];  rs._sigma = _m2   [cidx];
+    rs._mins = Arrays.copyOfRange(_mins,cidx*NMM,(cidx+1)*NMM);
+    rs._maxs = Arrays.copyOfRange(_maxs,cidx*NMM,(cidx+1)*NMM);
+    rs._isInt = _isInt[cidx] != 0;
+    return rs;
+  }
+
+  // ----------------------------
+  // Node-local write tracking
+
+  /** Note a written Chunk being closed on this Node */
+  static void written( Vec vec, int cidx ) {
+    while( true ) {
+      NonBlockingSetInt cidxs = WRITTEN.get(vec._key);
+      if( cidxs == null ) {
+        NonBlockingSetInt old = WRITTEN.putIfAbsent(vec._key,cidxs = new NonBlockingSetInt());
+        if( old != null ) cidxs = old;
+      }
+      cidxs.add(cidx);
+      // A racing flush may have taken the set before this add; then note it
+      // again (at worst the Chunk is marked twice)
+      if( WRITTEN.get(vec._key) == cidxs ) return;
+    }
+  }
+
+  /** Mark the Chunks of vec written on this Node dirty, blocking until done.
+   *  Returns false if there were none.  The set is taken out of WRITTEN, so a
+   *  Vec not written again leaves nothing behind. */
+  static boolean flush( Vec vec ) {
+    NonBlockingSetInt written = WRITTEN.remove(vec._key);
+    if( written == null ) return false;
+    int[] cidxs = new int[written.size()];
+    int n=0;
+    for( int cidx : written ) {
+      if( n == cidxs.length ) cidxs = Arrays.copyOf(cidxs,Math.max(1,n<<1));
+      cidxs[n++] = cidx;
+    }
+    if( n == 0 ) return false;
+    new MarkDirty(Arrays.copyOf(cidxs,n)).invoke(vec.chunkRollupsKey());
+    return true;
+  }
+
+  /** Drop this Node's write tracking for a deleted Vec */
+  static void forget( Key vecKey ) { WRITTEN.remove(vecKey); }
+
+  private static class MarkDirty extends TAtomic<ChunkRollups> {
+    final int[] _cidxs;
+    MarkDirty( int[] cidxs ) { _cidxs = cidxs; }
+    @Override protected ChunkRollups atomic( ChunkRollups cr ) {
+      if( cr == null ) return null; // Never rolled up, so all dirty already
+      for( int cidx : _cidxs ) cr._dirty[cidx] = 1;
+      return cr;
+    }
+  }
+}
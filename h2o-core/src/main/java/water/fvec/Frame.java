@@ -196,10 +196,10 @@ public class Frame extends Lockable {
   }
   // Compute vectors for caching
   private Vec[] vecs_impl() {
-    // Load all Vec headers; load them all in parallel by starting prefetches
-    for( Key key : _keys ) DKV.prefetch(key);
+    // Load all Vec headers; remote ones come in one fetch per home Node
+    Value[] vals = DKV.get(_keys);
     Vec [] vecs = new Vec[_keys.length];
-    for( int i=0; i<_keys.length; i++ ) vecs[i] = DKV.get(_keys[i]).get();
+    for( int i=0; i<_keys.length; i++ ) vecs[i] = vals[i].get();
     return vecs;
   }
 
@@ -0,0 +1,139 @@
+package water.fvec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import water.*;
+
+/**
+ * A native binary file format for Frames.
+ *
+ * The file holds every Chunk's bytes exactly as they sit in the K/V store,
+ * column by column, followed by a header with the column names, row layout,
+ * domains, per-Chunk offsets and types, and the finished rollups.  Loading a
+ * file does no parsing and reads no data: it makes a {@link FrameFileVec} per
+ * column whose Chunks are loaded (or memory-mapped) from the file on first
+ * touch, and pre-installs the rollups so summaries need no pass either.
+ *
+ * Layout:  MAGIC, chunk bytes..., header, header offset (8 bytes), MAGIC.
+ *
+ * The header uses only primitive AutoBuffer puts, never type ids, since those
+ * differ from cloud to cloud.  Chunk bytes are in native byte order, as in
+ * memory.  Like any NFS import, the file must be visible to every node.
+ */
+public class FrameFile {
+  static final long MAGIC = 0x48324F4652414D45L; // "H2OFRAME"
+  static final int VERSION = 1;
+
+  /** True if the file looks like a Frame file */
+  public static boolean isFrameFile( File f ) {
+    if( !f.isFile() || f.length() < 24 ) return false;
+    try( RandomAccessFile raf = new RandomAccessFile(f,"r") ) {
+      if( raf.readLong() != MAGIC ) return false;
+      raf.seek(f.length()-8);
+      return raf.readLong() == MAGIC;
+    } catch( IOException ignore ) {
+      return false;
+    }
+  }
+
+  /** Write a Frame to a file.  Rollups are computed first if needed. */
+  public static void export( Frame fr, File f ) throws IOException {
+    Vec[] vecs = fr.vecs();
+    if( vecs.length == 0 || vecs[0]._espc == null )
+      throw new IllegalArgumentException("Cannot export a Frame without a row layout: "+fr._key);
+    ArrayList<String> clzs = new ArrayList<>();
+    HashMap<String,Integer> clzIdx = new HashMap<>();
+    AutoBuffer ab = new AutoBuffer();
+    ab.put4(VERSION);
+    ab.putAStr(fr.names());
+    ab.putA8(vecs[0]._espc);
+    long[][] offs = new long[vecs.length][];
+    int [][] types= new int [vecs.length][];
+    try( RandomAccessFile raf = new RandomAccessFile(f,"rw") ) {
+      raf.setLength(0);
+      raf.writeLong(MAGIC);
+      long off = 8;
+      for( int v=0; v<vecs.length; v++ ) {
+        Vec vec = vecs[v];
+        int nchks = vec.nChunks();
+        offs [v] = new long[nchks+1];
+        types[v] = new int [nchks];
+        for( int i=0; i<nchks; i++ ) {
+          Value val = vec.chunkIdx(i);
+          byte[] mem = val.memOrLoad();
+          String clz = val.className();
+          Integer idx = clzIdx.get(clz);
+          if( idx == null ) { clzIdx.put(clz,idx=clzs.size()); clzs.add(clz); }
+          offs [v][i] = off;
+          types[v][i] = idx;
+          raf.write(mem);
+          off += mem.length;
+        }
+        offs[v][nchks] = off;
+      }
+      ab.putAStr(clzs.toArray(new String[clzs.size()]));
+      for( int v=0; v<vecs.length; v++ ) {
+        Vec vec = vecs[v];
+        ab.putAStr(vec._domain).put1(vec._time).putZ(vec._isUUID);
+        ab.putA8(offs[v]).putA4(types[v]);
+        RollupStats rs = vec.rollupStats();
+        ab.put8(rs._naCnt).put8d(rs._mean).put8d(rs._sigma);
+        ab.put8(rs._rows).put8(rs._nzCnt).put8(rs._size).put8(rs._pinfs).put8(rs._ninfs);
+        ab.putZ(rs._isInt).putA8d(rs._mins).putA8d(rs._maxs);
+      }
+      raf.write(ab.buf());
+      raf.writeLong(off);
+      raf.writeLong(MAGIC);
+    }
+  }
+
+  /** Make a Frame over a Frame file.  The Vecs and their rollups are put in
+   *  the K/V store (pending on 'fs'); the Frame itself is returned unpublished,
+   *  for the caller to lock and update. */
+  public static Frame load( File f, Key key, Futures fs ) throws IOException {
+    String[] names;
+    Vec[] vecs;
+    try( RandomAccessFile raf = new RandomAccessFile(f,"r") ) {
+      raf.seek(raf.length()-16);
+      long hoff = raf.readLong();
+      if( raf.readLong() != MAGIC ) throw new IOException("Not a Frame file: "+f);
+      FileChannel fc = raf.getChannel();
+      fc.position(hoff);
+      AutoBuffer ab = new AutoBuffer(fc,true,Value.NFS);
+      int version = ab.get4();
+      if( version != VERSION ) throw new IOException("Unsupported Frame file version "+version+": "+f);
+      names = ab.getAStr();
+      long[] espc = ab.getA8();
+      String[] clzs = ab.getAStr();
+      int[] typeIds = new int[clzs.length];
+      for( int i=0; i<clzs.length; i++ ) typeIds[i] = TypeMap.onIce(clzs[i]);
+      String path = f.getAbsolutePath();
+      Key[] keys = new Vec.VectorGroup().addVecs(names.length);
+      vecs = new Vec[names.length];
+      for( int v=0; v<vecs.length; v++ ) {
+        String[] domain = ab.getAStr();
+        byte time = ab.get1();
+        boolean isUUID = ab.getZ();
+        long[] offs = ab.getA8();
+        int[] types = ab.getA4();
+        for( int i=0; i<types.length; i++ ) types[i] = typeIds[types[i]];
+        FrameFileVec vec = new FrameFileVec(keys[v],espc,domain,isUUID,time,path,offs,types);
+        RollupStats rs = RollupStats.makeReady(vec.rollupStatsKey());
+        rs._naCnt = ab.get8();  rs._mean = ab.get8d();  rs._sigma = ab.get8d();
+        rs._rows = ab.get8();  rs._nzCnt = ab.get8();  rs._size = ab.get8();
+        rs._pinfs = ab.get8();  rs._ninfs = ab.get8();
+        rs._isInt = ab.getZ();  rs._mins = ab.getA8d();  rs._maxs = ab.getA8d();
+        DKV.put(vec._key,vec,fs);
+        DKV.put(rs._rskey,new Value(rs._rskey,rs),fs);
+        vecs[v] = vec;
+      }
+      ab.close();
+    }
+    return new Frame(key,names,vecs);
+  }
+}
@@ -0,0 +1,87 @@
+package water.fvec;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import water.*;
+
+/**
+ * A Vec whose Chunks live in a binary Frame file written by {@link FrameFile}.
+ *
+ * Like {@link FileVec}, Chunks are made lazily: the first touch of a Chunk
+ * inserts a Value which is marked as already on (NFS) disk, and the first
+ * read of the Value loads or maps the Chunk's bytes straight out of the file.
+ * The stored bytes are the Chunk's own compressed form, so reloading does no
+ * parsing; Chunk types which can decode off-heap are handed a mapped view of
+ * the file and never copy their payload onto the heap.
+ */
+public class FrameFileVec extends Vec {
+  final String _path;           // Frame file, visible to every node
+  final long[] _offs;           // File offset of every Chunk, plus the end
+  final int [] _types;          // TypeMap id of every Chunk
+
+  FrameFileVec( Key key, long[] espc, String[] domain, boolean hasUUID, byte time, String path, long[] offs, int[] types ) {
+    super(key,espc,domain,hasUUID,time);
+    _path = path;
+    _offs = offs;
+    _types = types;
+    assert offs.length == types.length+1 && types.length == nChunks();
+  }
+
+  @Override public boolean writable() { return false; }
+
+  // Lazily create the Value for a Chunk, already persisted in the file
+  @Override protected Value chunkIdx( int cidx ) {
+    assert 0 <= cidx && cidx < nChunks();
+    Key dkey = chunkKey(cidx);
+    Value val1 = DKV.get(dkey); // Check for an existing one
+    if( val1 != null ) return val1;
+    int len = (int)(_offs[cidx+1]-_offs[cidx]);
+    Value val2 = new Value(dkey,len,null,(short)_types[cidx],Value.NFS);
+    val2.setdsk();              // It is already on disk
+    Futures fs = dkey.home() ? null : new Futures();
+    Value val3 = DKV.DputIfMatch(dkey,val2,null,fs);
+    if( !dkey.home() && fs != null ) fs.blockForPending();
+    return val3 == null ? val2 : val3;
+  }
+
+  /** The FrameFileVec owning a chunk key, or null if the Vec is of some other
+   *  kind.  Used by the NFS persist layer to find the Chunk's bytes. */
+  public static FrameFileVec forChunk( Key ckey ) {
+    if( !ckey.isChunkKey() ) return null;
+    Value val = DKV.get(ckey.getVecKey());
+    if( val == null ) return null;
+    Iced vec = val.get();
+    return vec instanceof FrameFileVec ? (FrameFileVec)vec : null;
+  }
+
+  /** Read a Chunk's bytes onto the heap; null on failure */
+  public byte[] loadChunk( Key ckey ) {
+    int cidx = FileVec.chunkIdx(ckey);
+    int len = (int)(_offs[cidx+1]-_offs[cidx]);
+    byte[] b = MemoryManager.malloc1(len);
+    try( RandomAccessFile raf = new RandomAccessFile(_path,"r") ) {
+      raf.seek(_offs[cidx]);
+      raf.readFully(b);
+      return b;
+    } catch( IOException ignore ) {
+      return null;
+    }
+  }
+
+  /** Map a Chunk's bytes in place; null on failure */
+  public OffHeap mapChunk( Key ckey ) {
+    int cidx = FileVec.chunkIdx(ckey);
+    int len = (int)(_offs[cidx+1]-_offs[cidx]);
+    if( len == 0 ) return null;
+    try( RandomAccessFile raf = new RandomAccessFile(_path,"r") ) {
+      // The mapping outlives the channel; the view keeps it reachable
+      MappedByteBuffer buf = raf.getChannel().map(FileChannel.MapMode.READ_ONLY,_offs[cidx],len);
+      return OffHeap.view(OffHeap.address(buf),len,buf);
+    } catch( IOException ignore ) {
+      return null;
+    }
+  }
+}
@@ -30,6 +30,7 @@ public class NewChunk extends Chunk {
   int _uuidCnt;                 // Count of UUIDs
   public final int _timCnt[] = new int[ParseTime.TIME_PARSE.length]; // Count of successful time parses
   public static final int MIN_SPARSE_RATIO = 32;
+  public static final int MIN_RUN_LEN = 16; // Least average run length for run-length encoding
 
   public NewChunk( Vec vec, int cidx ) { _vec = vec; _cidx = cidx; }
 
@@ -434,6 +435,11 @@ public class NewChunk extends Chunk {
 
   Chunk compress() {
     Chunk res = compress2();
+    // Sorted or grouped data may have few enough runs to beat that
+    if( !(res instanceof C16Chunk) ) {
+      Chunk rle = chunkRL(res.memLen());
+      if( rle != null ) res = rle;
+    }
     // force everything to null after compress to free up the memory
     _id = null;
     _xs = null;
@@ -481,8 +487,12 @@ public class NewChunk extends Chunk {
       int i=0;
       for( ; i<_len; i++ ) // Attempt to inject all doubles into longs
         if( !Double.isNaN(_ds[i]) && (double)(long)_ds[i] != _ds[i] ) break;
-      if(i < _len)
-        return sparse ? new CXDChunk(_len2,_len,8,bufD(8)) : chunkD();
+      if(i < _len) {
+        if( !sparse ) return chunkD();
+        for( i=0; i<_len; i++ ) // Exact floats take half the space
+          if( (double)(float)_ds[i] != _ds[i] && !Double.isNaN(_ds[i]) ) break;
+        return i < _len ? new CXDChunk(_len2,_len,8,bufD(8)) : new CXDChunk(_len2,_len,4,bufD(4));
+      }
       _ls = new long[_ds.length]; // Else flip to longs
       _xs = new int [_ds.length];
       double [] ds = _ds;
@@ -613,24 +623,33 @@ public class NewChunk extends Chunk {
     // Compress column into a byte
     if(xmin == 0 &&  0<=lemin && lemax <= 255 && ((_naCnt + _strCnt)==0) )
       return new C1NChunk( bufX(0,0,C1NChunk._OFF,0));
-    if( lemin < Integer.MIN_VALUE ) return new C8Chunk( bufX(0,0,0,3));
+    if( lemin < Integer.MIN_VALUE ) {
+      Chunk cdl = chunkDL(3);
+      return cdl != null ? cdl : new C8Chunk( bufX(0,0,0,3));
+    }
+    // Biases are ints; huge values with a small span (e.g. IDs) are delta
+    // compressed below instead
     if( lemax-lemin < 255 ) {    // Span fits in a byte?
       if(0 <= min && max < 255 ) // Span fits in an unbiased byte?
         return new C1Chunk( bufX(0,0,C1Chunk._OFF,0));
-      return new C1SChunk( bufX(lemin,xmin,C1SChunk._OFF,0),(int)lemin,PrettyPrint.pow10i(xmin));
+      if( (int)lemin == lemin )
+        return new C1SChunk( bufX(lemin,xmin,C1SChunk._OFF,0),(int)lemin,PrettyPrint.pow10i(xmin));
     }
 
     // Compress column into a short
     if( lemax-lemin < 65535 ) {               // Span fits in a biased short?
       if( xmin == 0 && Short.MIN_VALUE < lemin && lemax <= Short.MAX_VALUE ) // Span fits in an unbiased short?
         return new C2Chunk( bufX(0,0,C2Chunk._OFF,1));
-      int bias = (int)(lemin-(Short.MIN_VALUE+1));
-      return new C2SChunk( bufX(bias,xmin,C2SChunk._OFF,1),bias,PrettyPrint.pow10i(xmin));
+      long bias = lemin-(Short.MIN_VALUE+1);
+      if( (int)bias == bias )
+        return new C2SChunk( bufX(bias,xmin,C2SChunk._OFF,1),(int)bias,PrettyPrint.pow10i(xmin));
     }
-    // Compress column into ints
-    if( Integer.MIN_VALUE < min && max <= Integer.MAX_VALUE )
-      return new C4Chunk( bufX(0,0,0,2));
-    return new C8Chunk( bufX(0,0,0,3));
+    // Compress column into ints, or longs; deltas from a per-block base may
+    // well be smaller, e.g. for sorted time stamps or IDs
+    int log = Integer.MIN_VALUE < min && max <= Integer.MAX_VALUE ? 2 : 3;
+    Chunk cdl = chunkDL(log);
+    if( cdl != null ) return cdl;
+    return log == 2 ? new C4Chunk( bufX(0,0,0,2)) : new C8Chunk( bufX(0,0,0,3));
   }
 
   private static long [] NAS = {C1Chunk._NA,C2Chunk._NA,C4Chunk._NA,C8Chunk._NA};
@@ -736,22 +755,177 @@ public class NewChunk extends Chunk {
     return bs;
   }
 
-  // Compute a compressed double buffer
+  // Compute a compressed double buffer.  Picks the smallest of: dictionary
+  // codes (few distinct values), floats (all values exactly floats), or
+  // plain doubles.
   private Chunk chunkD() {
-    final byte [] bs = MemoryManager.malloc1(_len2*8,true);
+    final double [] ds = MemoryManager.malloc8d(_len2);
     int j = 0;
+    boolean floats = true;
     for(int i = 0; i < _len2; ++i){
       double d = 0;
       if(_id == null || (j < _id.length && _id[j] == i)) {
         d = _ds != null?_ds[j]:(isNA2(j)||isEnum(j))?Double.NaN:_ls[j]*PrettyPrint.pow10(_xs[j]);
         ++j;
       }
-      UnsafeUtils.set8d(bs, 8*i, d);
+      if( floats && (double)(float)d != d && !Double.isNaN(d) ) floats = false;
+      ds[i] = d;
     }
     assert j == _len:"j = " + j + ", _len = " + _len;
+    long best = (long)_len2 << (floats ? 2 : 3);
+    // Only worth a dictionary if its table and codes cost less
+    double[] dict = distinct(ds, (int)Math.min(CDDChunk.naCode(1)-1, (best-_len2-CDDChunk._OFF)>>3));
+    if( dict != null ) {
+      int log = dict.length < CDDChunk.naCode(0) ? 0 : 1;
+      if( CDDChunk._OFF+(dict.length<<3)+((long)_len2<<log) < best )
+        return new CDDChunk(bufDict(ds,dict,log));
+    }
+    if( floats ) {
+      final byte [] bs = MemoryManager.malloc1(_len2*4,true);
+      for( int i = 0; i < _len2; ++i ) UnsafeUtils.set4f(bs, 4*i, (float)ds[i]);
+      return new C4FChunk(bs);
+    }
+    final byte [] bs = MemoryManager.malloc1(_len2*8,true);
+    for( int i = 0; i < _len2; ++i ) UnsafeUtils.set8d(bs, 8*i, ds[i]);
     return new C8DChunk(bs);
   }
 
+  // The distinct non-NA values, sorted; null if there are more than 'max'.
+  // Values are told apart by their bits, so -0.0 and 0.0 both keep.
+  private static double[] distinct( double[] ds, int max ) {
+    if( max <= 0 ) return null;
+    final long empty = Double.doubleToRawLongBits(Double.NaN); // NAs are skipped
+    final int cap = Integer.highestOneBit(Math.min(max,ds.length))<<2;
+    long[] tab = new long[cap];
+    Arrays.fill(tab,empty);
+    int k = 0;
+    for( double d : ds ) {
+      if( Double.isNaN(d) ) continue;
+      long bits = Double.doubleToRawLongBits(d);
+      int idx = (int)((bits^(bits>>>29))*0x9E3779B97F4A7C15L>>>40)&(cap-1);
+      while( tab[idx] != empty && tab[idx] != bits ) idx = (idx+1)&(cap-1);
+      if( tab[idx] == empty ) {
+        if( ++k > max ) return null;
+        tab[idx] = bits;
+      }
+    }
+    double[] dict = new double[k];
+    k = 0;
+    for( long bits : tab ) if( bits != empty ) dict[k++] = Double.longBitsToDouble(bits);
+    Arrays.sort(dict);
+    return dict;
+  }
+
+  // Compute a dictionary-coded double buffer
+  private static byte[] bufDict( double[] ds, double[] dict, int log ) {
+    final int off = CDDChunk._OFF+(dict.length<<3);
+    byte[] bs = MemoryManager.malloc1(off+(ds.length<<log));
+    UnsafeUtils.set4(bs,0,dict.length);
+    bs[4] = (byte)log;
+    for( int i=0; i<dict.length; i++ ) UnsafeUtils.set8d(bs,CDDChunk._OFF+(i<<3),dict[i]);
+    final int na = CDDChunk.naCode(log);
+    for( int i=0; i<ds.length; i++ ) {
+      int c = Double.isNaN(ds[i]) ? na : Arrays.binarySearch(dict,ds[i]);
+      if( log == 0 ) bs[off+i] = (byte)c;
+      else UnsafeUtils.set2(bs,off+(i<<1),(short)c);
+    }
+    return bs;
+  }
+
+  // Compute a block-delta long buffer, or null if it is no smaller than plain
+  // values of size 1<<plainLog.  Dense integer data only.
+  private Chunk chunkDL( int plainLog ) {
+    assert _ds == null;
+    if( _id != null ) { cancel_sparse(); _id = null; } // Zeros were elided while appending
+    final int nblk = CDLChunk.nblocks(_len);
+    final long[] bases = MemoryManager.malloc8(nblk);
+    long span = 0;                // Largest in-block span
+    for( int b=0; b<nblk; b++ ) {
+      long lo = Long.MAX_VALUE, hi = Long.MIN_VALUE;
+      for( int i=b<<CDLChunk.LOG_BLK; i<Math.min(_len,(b+1)<<CDLChunk.LOG_BLK); i++ ) {
+        if( isNA2(i) ) continue;
+        long l = longAt(i);
+        if( l < lo ) lo = l;
+        if( l > hi ) hi = l;
+      }
+      if( lo > hi ) continue;     // All NAs; base is 0
+      bases[b] = lo;
+      if( hi-lo < 0 ) return null; // Span overflows a long
+      span = Math.max(span,hi-lo);
+    }
+    int log = 0;                  // Smallest delta with room for the NA
+    while( log < 3 && span >= CDLChunk.naDelta(log) ) log++;
+    if( log >= plainLog ) return null;
+    final int doff = CDLChunk._OFF+(nblk<<3);
+    if( doff+((long)_len<<log) >= (long)_len<<plainLog ) return null;
+    byte[] bs = MemoryManager.malloc1(doff+(_len<<log));
+    bs[0] = (byte)log;
+    UnsafeUtils.set4(bs,4,_len);
+    for( int b=0; b<nblk; b++ ) UnsafeUtils.set8(bs,CDLChunk._OFF+(b<<3),bases[b]);
+    final long na = CDLChunk.naDelta(log);
+    for( int i=0; i<_len; i++ ) {
+      long d = isNA2(i) ? na : longAt(i)-bases[i>>CDLChunk.LOG_BLK];
+      switch( log ) {
+      case 0: bs[doff+i] = (byte)d; break;
+      case 1: UnsafeUtils.set2(bs,doff+(i<<1),(short)d); break;
+      case 2: UnsafeUtils.set4(bs,doff+(i<<2),(int)d); break;
+      default: throw H2O.fail();
+      }
+    }
+    return new CDLChunk(bs);
+  }
+  // Compute a run-length buffer, or null if not smaller than 'limit' bytes.
+  // Runs over the values as left by compress2, so enum and NA fix-ups apply.
+  private Chunk chunkRL( int limit ) {
+    if( _len2 == 0 || CRLChunk.memSize(1) >= limit ) return null;
+    boolean dbl = _ds != null;  // Any scaled decimals force doubles
+    for( int j=0; j<_len && !dbl; j++ )
+      if( !isNA2(j) && _xs[j] < 0 && !isEnum2(j) ) dbl = true;
+    // Random access pays a binary search, so also ask for long-ish runs
+    int nruns = runs(dbl,null,null,Math.min((limit-CRLChunk._OFF-1)/12,_len2/MIN_RUN_LEN));
+    if( nruns < 0 ) return null;
+    long[] vals = MemoryManager.malloc8(nruns);
+    int [] ends = MemoryManager.malloc4(nruns);
+    runs(dbl,vals,ends,nruns);
+    byte[] bs = MemoryManager.malloc1(CRLChunk.memSize(nruns));
+    UnsafeUtils.set4(bs,0,nruns);
+    UnsafeUtils.set4(bs,4,_len2);
+    bs[8] = (byte)(dbl ? 1 : 0);
+    for( int r=0; r<nruns; r++ ) {
+      UnsafeUtils.set8(bs,CRLChunk._OFF+(r<<3),vals[r]);
+      UnsafeUtils.set4(bs,CRLChunk._OFF+(nruns<<3)+(r<<2),ends[r]);
+    }
+    return new CRLChunk(bs);
+  }
+  // Count the runs, filling in their values and ends if asked.  Returns -1
+  // as soon as there are more than 'max' runs.
+  private int runs( boolean dbl, long[] vals, int[] ends, int max ) {
+    int nruns = 0;
+    long prev = 0;
+    for( int i=0, j=0; i<_len2; i++ ) {
+      int k = -1;               // Stored index, or -1 for an elided zero
+      if( _id == null ) k = i;
+      else if( j < _len && _id[j] == i ) k = j++;
+      long b;
+      if( k < 0 ) b = 0;        // Zero, as a long or as double bits
+      else if( dbl ) b = Double.doubleToLongBits(_ds != null ? _ds[k] : isNA2(k) ? Double.NaN : _ls[k]*PrettyPrint.pow10(_xs[k]));
+      else b = isNA2(k) ? C8Chunk._NA : longAt(k);
+      if( i > 0 && b == prev ) continue;
+      if( vals != null && nruns > 0 ) ends[nruns-1] = i;
+      if( ++nruns > max ) return -1;
+      if( vals != null ) vals[nruns-1] = b;
+      prev = b;
+    }
+    if( vals != null ) ends[nruns-1] = _len2;
+    return nruns;
+  }
+
+  // The unscaled integer value of a non-NA row
+  private long longAt( int i ) {
+    int x = _xs[i]==Integer.MIN_VALUE+1 ? 0 : _xs[i];
+    return _ls[i]*PrettyPrint.pow10i(x);
+  }
+
   // Compute a compressed double buffer
   private Chunk chunkUUID() {
     final byte [] bs = MemoryManager.malloc1(_len2*16,true);
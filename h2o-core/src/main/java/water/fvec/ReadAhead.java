@@ -0,0 +1,119 @@
+package water.fvec;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import water.*;
+
+/**
+ * Read-ahead of remote Chunks for sequential readers.
+ *
+ * Row-at-a-time readers - {@link Vec#chunkForRow}, {@link ByteVec#openStream}
+ * - pull one Chunk at a time and block on each remote fetch.  Each Vec keeps
+ * one of these to watch its chunk-index accesses on this Node; after a short
+ * run of ascending indices it starts fetching the next few Chunks in the
+ * background, in one bulk {@link DKV#prefetch(Key[])}.  The window starts
+ * small, doubles while prefetched Chunks arrive in time, and resets on any
+ * non-sequential access.
+ *
+ * Bytes in flight are reserved from {@link MemoryManager}'s task memory, and
+ * released when the fetch lands; read-ahead is skipped when none is left.
+ * Window size comes from -readahead_chunks (0 disables).
+ */
+public final class ReadAhead {
+  private static final int MIN_RUN = 2;   // Sequential accesses before reading ahead
+  private static final int MIN_WINDOW = 2;
+
+  // Node-wide metrics
+  private static final AtomicLong ISSUED = new AtomicLong(), HITS = new AtomicLong(),
+    LATE = new AtomicLong(), MISSES = new AtomicLong(), THROTTLED = new AtomicLong();
+
+  private final Vec _vec;
+  private int _last = -1;       // Last chunk index read
+  private int _run;             // Length of the current ascending run
+  private int _window = MIN_WINDOW;
+  private int _lo, _hi;         // Chunks [_lo,_hi) were read ahead
+  private int _bytesPerRow = 8; // Estimate for reserving memory; learned from Chunks read
+
+  ReadAhead( Vec vec ) { _vec = vec; }
+
+  /** Note a read of chunk cidx, and start reading ahead if this looks
+   *  sequential.  Reads of Chunks homed here extend a run but never start a
+   *  read-ahead, so MRTasks mapping over their local Chunks fetch nothing. */
+  void access( int cidx, Key ckey ) {
+    boolean home = ckey.home();
+    boolean cached = home || H2O.get(ckey) != null;
+    int lo, hi, bpr;
+    synchronized( this ) {
+      if( cidx == _last ) return;  // Rows of the same Chunk
+      boolean seq = cidx == _last+1;
+      boolean ahead = _lo <= cidx && cidx < _hi;
+      _last = cidx;
+      if( ahead && !home ) {
+        if( cached ) { HITS.incrementAndGet(); _window = Math.min(_window*2,maxWindow()); }
+        else LATE.incrementAndGet();
+      } else if( seq && !cached && _run >= MIN_RUN )
+        MISSES.incrementAndGet();
+      if( !seq ) {              // Random access: start over
+        _run = 0;
+        _window = MIN_WINDOW;
+        _lo = _hi = 0;
+        return;
+      }
+      if( ++_run < MIN_RUN || home ) return;
+      lo = Math.max(_hi,cidx+1);
+      hi = Math.min(_vec.nChunks(),cidx+1+Math.min(_window,maxWindow()));
+      if( lo >= hi ) return;
+      if( !ahead ) _lo = lo;
+      _hi = hi;
+      bpr = _bytesPerRow;
+    }
+    fetch(lo,hi,bpr);
+  }
+
+  // Learn the typical Chunk density from one just read
+  void sized( Chunk c ) {
+    if( c._len > 0 ) _bytesPerRow = Math.max(1,(int)(c.byteSize()/c._len));
+  }
+
+  private void fetch( int lo, int hi, int bpr ) {
+    final ArrayList<Key> keys = new ArrayList<>();
+    long bytes = 0;
+    for( int c=lo; c<hi; c++ ) {
+      Key k = _vec.chunkKey(c);
+      if( k.home() || H2O.get(k) != null ) continue; // Nothing to fetch
+      keys.add(k);
+      long rows = (c+1 < _vec.nChunks() ? _vec.chunk2StartElem(c+1) : _vec.length())-_vec.chunk2StartElem(c);
+      bytes += rows*bpr;
+    }
+    if( keys.isEmpty() ) return;
+    if( !MemoryManager.tryReserveTaskMem(bytes) ) { THROTTLED.incrementAndGet(); return; }
+    ISSUED.addAndGet(keys.size());
+    final long reserved = bytes;
+    H2O.submitTask(new H2O.H2OCountedCompleter() {
+        @Override protected void compute2() {
+          try { DKV.get(keys.toArray(new Key[keys.size()])); }
+          finally { MemoryManager.freeTaskMem(reserved); }
+          tryComplete();
+        }
+      });
+  }
+
+  private static int maxWindow() { return H2O.ARGS.readahead_chunks; }
+
+  /** Node-wide read-ahead counts */
+  public static final class Stats extends Iced {
+    public final long _issued;    // Chunks fetched ahead
+    public final long _hits;      // Read after their fetch landed
+    public final long _late;      // Read while still in flight
+    public final long _misses;    // Sequential reads of remote Chunks not fetched ahead
+    public final long _throttled; // Read-aheads skipped for lack of memory
+    Stats() {
+      _issued = ISSUED.get(); _hits = HITS.get(); _late = LATE.get();
+      _misses = MISSES.get(); _throttled = THROTTLED.get();
+    }
+    @Override public String toString() {
+      return "read-ahead: "+_issued+" issued, "+_hits+" hits, "+_late+" late, "+_misses+" misses, "+_throttled+" throttled";
+    }
+  }
+  public static Stats stats() { return new Stats(); }
+}
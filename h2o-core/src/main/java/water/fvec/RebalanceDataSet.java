@@ -1,8 +1,10 @@
 package water.fvec;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import jsr166y.CountedCompleter;
+import water.DKV;
 import water.Futures;
 import water.H2O;
 import water.Key;
@@ -117,6 +119,16 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
       dst.close(dst.cidx(),_fs);
     }
     @Override public void map(Chunk [] chks){
+      // Fetch all the source chunks overlapping ours up front, one request
+      // per home node, instead of one round-trip per chunk as we walk them
+      ArrayList<Key> srcs = new ArrayList<>();
+      for(int i = 0; i < chks.length; ++i) {
+        Chunk chk = chks[i];
+        if(chk._len == 0) continue;
+        int lo = _srcVecs[i].elem2ChunkIdx(chk._start), hi = _srcVecs[i].elem2ChunkIdx(chk._start+chk._len-1);
+        for(int c = lo; c <= hi; ++c) srcs.add(_srcVecs[i].chunkKey(c));
+      }
+      DKV.prefetch(srcs.toArray(new Key[srcs.size()]));
       for(int i = 0; i < chks.length; ++i)
         rebalanceChunk(_srcVecs[i],chks[i]);
     }
@@ -2,7 +2,9 @@ package water.fvec;
 
 import java.util.Arrays;
 import water.*;
-import water.util.ArrayUtils;
+import water.util.AccLongs;
+import water.util.LocalReducer;
+import water.util.MeanVar;
 
 /** A class to compute the rollup stats.  These are computed lazily, thrown
  *  away if the Vec is written into, and then recomputed lazily.  Error to ask
@@ -10,6 +12,10 @@ import water.util.ArrayUtils;
  *  cores to ask for the same Vec rollup at once, so it is crucial that it be
  *  computed once across the cluster.  
  *
+ *  The rollups of each Chunk are kept too (see {@link ChunkRollups}), and the
+ *  Vec's rollups are their merge; recomputing after a write only rolls up the
+ *  Chunks written.
+ *
  *  Rollups are kept in the K/V store, which also controls who manages the
  *  rollup work and final results.  Winner of a DKV CAS/PutIfMatch race gets to
  *  manage the M/R job computing the rollups.  Losers block for the same
@@ -43,56 +49,51 @@ public class RollupStats extends DTask<RollupStats> {
   // Check for: Rollups currently being computed
   private boolean isComputing() { return _naCnt==-1; }
   // Check for: Rollups available
-  private boolean isReady() { return _naCnt>=0; }
+  boolean isReady() { return _naCnt>=0; }
 
   private RollupStats( Key rskey, int mode ) { _rskey = rskey; _naCnt = mode; _priority = nextThrPriority(); }
   @Override public byte priority() { return _priority; }
   private static RollupStats makeComputing(Key rskey) { return new RollupStats(rskey,-1); }
   static RollupStats makeMutating (Key rskey) { return new RollupStats(rskey,-2); }
+  // Rollups read back from a FrameFile; the caller fills in the fields
+  static RollupStats makeReady    (Key rskey) { return new RollupStats(rskey, 0); }
 
   private RollupStats map( Chunk c ) {
     _size = c.byteSize();
     _mins = new double[5];  Arrays.fill(_mins, Double.MAX_VALUE);
     _maxs = new double[5];  Arrays.fill(_maxs,-Double.MAX_VALUE);
-    boolean isUUID = c._vec._isUUID;
-    // Walk the non-zeros
-    for( int i=c.nextNZ(-1); i<c._len; i=c.nextNZ(i) ) {
-      if( c.isNA0(i) ) {
-        _naCnt++;  _nzCnt++;
-
-      } else if( isUUID ) {   // UUID columns do not compute min/max/mean/sigma
-        if( c.at16l0(i)!=0 || c.at16h0(i)!=0 ) _nzCnt++;
-
-      } else {                  // All other columns have useful rollups
-
-        double d = c.at0(i);
-        if( d == Double.POSITIVE_INFINITY) _pinfs++;
-        else if( d == Double.NEGATIVE_INFINITY) _ninfs++;
-        else {
-          if( d != 0 ) _nzCnt++;
-          min(d);  max(d);
-          _mean += d;
-          _rows++;
-          if( _isInt && ((long)d) != d ) _isInt = false;
-        }
+    // UUID columns do not compute min/max/mean/sigma
+    if( c._vec._isUUID ) {
+      for( int i=0; i<c._len; i++ ) {
+        if( c.isNA0(i) ) { _naCnt++;  _nzCnt++; }
+        else if( c.at16l0(i)!=0 || c.at16h0(i)!=0 ) _nzCnt++;
       }
+      _mean = _sigma = Double.NaN;
+      return this;
     }
 
-    // Sparse?  We skipped all the zeros; do them now
-    if( c.isSparse() ) {
-      int zeros = c._len - c.sparseLen();
-      for( int i=0; i<Math.min(_mins.length,zeros); i++ ) { min(0); max(0); }
-      _rows += zeros;
+    // All other columns have useful rollups.  Bulk-decode the chunk once (a
+    // sparse chunk decodes its zeros too) and make both passes over it.
+    double[] ds = c.getDoubles(MemoryManager.malloc8d(c._len),0,c._len);
+    for( double d : ds ) {
+      if( Double.isNaN(d) ) {
+        _naCnt++;  _nzCnt++;
+      } else if( d == Double.POSITIVE_INFINITY) _pinfs++;
+      else if( d == Double.NEGATIVE_INFINITY) _ninfs++;
+      else {
+        if( d != 0 ) _nzCnt++;
+        min(d);  max(d);
+        _mean += d;
+        _rows++;
+        if( _isInt && ((long)d) != d ) _isInt = false;
+      }
     }
 
-    // UUID columns do not compute min/max/mean/sigma
-    if( isUUID ) {
-      _mean = _sigma = Double.NaN;
-    } else if( !Double.isNaN(_mean) && _rows > 0 ) {
+    if( !Double.isNaN(_mean) && _rows > 0 ) {
       _mean = _mean / _rows;
-      for( int i=0; i<c._len; i++ ) {
-        if( !c.isNA0(i) ) {
-          double d = c.at0(i)-_mean;
+      for( double d : ds ) {
+        if( !Double.isNaN(d) ) {
+          d -= _mean;
           _sigma += d*d;
         }
       }
@@ -107,12 +108,9 @@ public class RollupStats extends DTask<RollupStats> {
     _nzCnt += rs._nzCnt;
     _pinfs += rs._pinfs;
     _ninfs += rs._ninfs;
-    double delta = _mean - rs._mean;
-    if (_rows == 0) { _mean = rs._mean;  _sigma = rs._sigma; }
-    else {
-      _mean = (_mean*_rows + rs._mean*rs._rows)/(_rows + rs._rows);
-      _sigma = _sigma + rs._sigma + delta*delta * _rows*rs._rows / (_rows+rs._rows);
-    }
+    // _sigma holds the sum of squared deviations until postGlobal
+    _sigma = MeanVar.m2(_rows,_mean,_sigma,rs._rows,rs._mean,rs._sigma);
+    _mean  = MeanVar.mean(_rows,_mean,rs._rows,rs._mean);
     _rows += rs._rows;
     _size += rs._size;
     _isInt &= rs._isInt;
@@ -131,17 +129,58 @@ public class RollupStats extends DTask<RollupStats> {
         { double tmp = _maxs[i];  _maxs[i] = d;  d = tmp; }
   }
 
+  // Rollups of single Chunks, for the Chunk Keys given.  The Chunk index
+  // comes from the Key: Chunk.cidx() goes by starting row, which an empty
+  // Chunk shares with the next one.
   private static class Roll extends MRTask<Roll> {
     final Key _rskey;
-    RollupStats _rs;
+    int[] _cidxs;               // Chunks rolled up
+    RollupStats[] _rss;         // Their unmerged rollups
     Roll( Key rskey ) { _rskey=rskey; }
-    @Override public void map( Chunk c ) { _rs = new RollupStats(_rskey,0).map(c); }
-    @Override public void reduce( Roll roll ) { _rs.reduce(roll._rs); }
-    @Override public void postGlobal() { _rs._sigma = Math.sqrt(_rs._sigma/(_rs._rows-1)); }
+    @Override public void map( Key ckey ) {
+      Vec vec = DKV.get(Vec.getVecKey(ckey)).get();
+      int cidx = FileVec.chunkIdx(ckey);
+      _cidxs = new int[]{cidx};
+      _rss = new RollupStats[]{new RollupStats(_rskey,0).map(vec.chunkForChunkIdx(cidx))};
+    }
+    @Override public void reduce( Roll roll ) {
+      if( roll._cidxs == null ) return;
+      if( _cidxs == null ) { _cidxs = roll._cidxs;  _rss = roll._rss;  return; }
+      int n = _cidxs.length;
+      _cidxs = Arrays.copyOf(_cidxs,n+roll._cidxs.length);
+      System.arraycopy(roll._cidxs,0,_cidxs,n,roll._cidxs.length);
+      _rss = Arrays.copyOf(_rss,n+roll._rss.length);
+      System.arraycopy(roll._rss,0,_rss,n,roll._rss.length);
+    }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
     @Override public boolean logVerbose() { return false; }
   }
 
+  // Roll up the dirty Chunks - all of them the first time - and merge every
+  // Chunk's rollups into the Vec's.  The per-Chunk rollups are saved unless a
+  // writer marked more Chunks dirty meanwhile; those stay dirty for next time.
+  private RollupStats roll( Vec vec, Futures fs ) {
+    final Key crkey = vec.chunkRollupsKey();
+    Value crv = DKV.get(crkey);
+    ChunkRollups cr = crv == null ? null : crv.get(ChunkRollups.class);
+    if( cr == null || cr.nChunks() != vec.nChunks() ) cr = new ChunkRollups(vec.nChunks());
+    int[] dirty = cr.dirty();
+    if( dirty.length > 0 ) {
+      Key[] ckeys = new Key[dirty.length];
+      for( int i=0; i<dirty.length; i++ ) ckeys[i] = vec.chunkKey(dirty[i]);
+      Roll roll = new Roll(_rskey).doAll(ckeys);
+      for( int i=0; i<roll._cidxs.length; i++ )
+        cr.set(roll._cidxs[i],roll._rss[i]);
+      DKV.DputIfMatch(crkey,new Value(crkey,cr),crv,fs);
+    }
+    RollupStats rs = cr.get(0,new RollupStats(_rskey,0));
+    RollupStats tmp = new RollupStats(_rskey,0);
+    for( int i=1; i<cr.nChunks(); i++ )
+      rs.reduce(cr.get(i,tmp));
+    rs._sigma = Math.sqrt(rs._sigma/(rs._rows-1));
+    return rs;
+  }
+
   private static RollupStats check( Key rskey, RollupStats rs, Value val ) {
     if( val == null ) return rs==null ? makeComputing(rskey) : rs;
     rs = val.get(RollupStats.class);
@@ -205,7 +244,7 @@ public class RollupStats extends DTask<RollupStats> {
     // This call to DKV "get the lock" on making the Rollups.  
     // Do them Right Here, Right Now.
     Vec vec = DKV.get(Vec.getVecKey(_rskey)).get();
-    rs = new Roll(_rskey).doAll(vec)._rs;
+    rs = roll(vec,fs);
     copyOver(rs);               // Copy over from rs into self
     assert isReady();           // We're Ready!!!
     Value old2 = DKV.DputIfMatch(_rskey,new Value(_rskey,this),nnn,fs);
@@ -248,7 +287,7 @@ public class RollupStats extends DTask<RollupStats> {
       int lim = vec.isEnum() ? MAX_ENUM_SIZE : MAX_SIZE; 
       nbins = Math.min(lim,nbins); // Cap nbins at sane levels
     }
-    _bins = new Histo(this,nbins).doAll(vec)._bins;
+    _bins = new Histo(this,nbins).doAll(vec)._bins.vals();
 
     // Compute percentiles from histogram
     _pctiles = new double[PERCENTILES.length];
@@ -273,26 +312,35 @@ public class RollupStats extends DTask<RollupStats> {
   public double h_stride() { return h_stride(_bins.length); }
   private double h_stride(int nbins) { return (_maxs[0]-_mins[0]+(_isInt?1:0))/nbins; }
 
-  // Compute expensive histogram
+  // Compute expensive histogram.  Enum histograms run to a million bins, so
+  // map calls count into per-thread bins shared by all Chunks on the Node, and
+  // only one (usually sparse) histogram per Node goes over the wire.
   private static class Histo extends MRTask<Histo> {
     final double _base, _stride; // Inputs
     final int _nbins;            // Inputs
-    long[] _bins;                // Outputs
+    AccLongs _bins;              // Outputs
+    transient LocalReducer<AccLongs> _local;
     Histo( RollupStats rs, int nbins ) { _base = rs.h_base(); _stride = rs.h_stride(nbins); _nbins = nbins; }
+    @Override protected void setupLocal() { _local = AccLongs.localReducer(_nbins); }
     @Override public void map( Chunk c ) {
-      _bins = new long[_nbins];
-      for( int i=c.nextNZ(-1); i<c._len; i=c.nextNZ(i) ) {
-        double d = c.at0(i);
-        if( Double.isNaN(d) ) continue;
-        _bins[idx(d)]++;
+      long[] bins = _local.get().vals();
+      // Sparse?  Walk just the non-zeros, then do all the zeros at once
+      if( c.isSparse() ) {
+        for( int i=c.nextNZ(-1); i<c._len; i=c.nextNZ(i) ) {
+          double d = c.at0(i);
+          if( Double.isNaN(d) ) continue;
+          bins[idx(d)]++;
+        }
+        bins[idx(0.0)] += (c._len - c.sparseLen());
+        return;
       }
-      // Sparse?  We skipped all the zeros; do them now
-      if( c.isSparse() )
-        _bins[idx(0.0)] += (c._len - c.sparseLen());
+      for( double d : c.getDoubles(MemoryManager.malloc8d(c._len),0,c._len) )
+        if( !Double.isNaN(d) ) bins[idx(d)]++;
     }
-    private int idx( double d ) { int idx = (int)((d-_base)/_stride); return Math.min(idx,_bins.length-1); }
+    private int idx( double d ) { int idx = (int)((d-_base)/_stride); return Math.min(idx,_nbins-1); }
 
-    @Override public void reduce( Histo h ) { ArrayUtils.add(_bins,h._bins); }
+    @Override public void reduce( Histo h ) { _bins = AccLongs.add(_bins,h._bins); }
+    @Override protected void closeLocal() { _bins = AccLongs.add(_bins,_local.fold()); }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
     @Override public boolean logVerbose() { return false; }
   }
@@ -289,12 +289,16 @@ public class Vec extends Keyed {
 
   /** Stop writing into this Vec.  Rollup stats will again (lazily) be computed. */
   public Futures postWrite( Futures fs ) {
+    // Mark Chunks written on this Node as needing new rollups
+    boolean written = ChunkRollups.flush(this);
     // Get the latest rollups *directly* (do not compute them!).
     final Key rskey = rollupStatsKey();
     Value val = DKV.get(rollupStatsKey());
     if( val != null ) {
       RollupStats rs = val.get(RollupStats.class);
-      if( rs.isMutating() )  // Vector was mutating, is now allowed for rollups
+      // Vector was mutating, is now allowed for rollups.  Rollups made while
+      // this Node's writes were unmarked are stale too.
+      if( rs.isMutating() || (written && rs.isReady()) )
         DKV.remove(rskey,fs);// Removing will cause them to be rebuilt, on demand
     }
     return fs;                  // Flow-coding
@@ -334,6 +338,8 @@ public class Vec extends Keyed {
     return Key.make(bits);
   }
   public Key rollupStatsKey() { return chunkKey(-2); }
+  /** Key of the per-Chunk rollups; homes with the rollups Key */
+  Key chunkRollupsKey() { return chunkKey(-3); }
 
   /** Get a Chunk's Value by index.  Basically the index-to-key map,
    *  plus the {@code DKV.get()}.  Warning: this pulls the data locally;
@@ -400,8 +406,11 @@ public class Vec extends Keyed {
   /** The Chunk for a chunk#.  Warning: this loads the data locally!  */
   public Chunk chunkForChunkIdx(int cidx) {
     long start = chunk2StartElem(cidx); // Chunk# to chunk starting element#
+    ReadAhead ra = readAhead();
+    if( ra != null ) ra.access(cidx,chunkKey(cidx));
     Value dvec = chunkIdx(cidx);        // Chunk# to chunk data
     Chunk c = dvec.get();               // Chunk data to compression wrapper
+    if( ra != null ) ra.sized(c);
     long cstart = c._start;             // Read once, since racily filled in
     Vec v = c._vec;
     if( cstart == start && v != null) return c;     // Already filled-in
@@ -415,6 +424,14 @@ public class Vec extends Keyed {
 
   // Cache of last Chunk accessed via at/set api
   transient Chunk _cache;
+
+  // Sequential-read detection for remote Chunks; only in multi-node clouds
+  private transient ReadAhead _readAhead;
+  private ReadAhead readAhead() {
+    if( H2O.CLOUD.size() == 1 || H2O.ARGS.readahead_chunks <= 0 ) return null;
+    ReadAhead ra = _readAhead;
+    return ra != null ? ra : (_readAhead = new ReadAhead(this));
+  }
   /** The Chunk for a row#.  Warning: this loads the data locally!  */
   public final Chunk chunkForRow(long i) {
     Chunk c = _cache;
@@ -526,6 +543,8 @@ public class Vec extends Keyed {
     for( int i=0; i<nChunks(); i++ )
       DKV.remove(chunkKey(i),fs);
     DKV.remove(rollupStatsKey(),fs);
+    DKV.remove(chunkRollupsKey(),fs);
+    ChunkRollups.forget(_key);
     return fs;
   }
   @Override public boolean equals( Object o ) {
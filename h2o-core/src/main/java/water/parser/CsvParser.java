@@ -429,7 +429,7 @@ MAIN_LOOP:
   /** Determines the tokens that are inside a line and returns them as strings
    *  in an array.  Assumes the given separator.
    */
-  private static String[] determineTokens(String from, byte separator, int single_quote) {
+  static String[] determineTokens(String from, byte separator, int single_quote) {
     ArrayList<String> tokens = new ArrayList<>();
     byte[] bits = from.getBytes();
     int offset = 0;
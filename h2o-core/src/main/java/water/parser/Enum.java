@@ -1,117 +1,321 @@
 package water.parser;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import water.AutoBuffer;
 import water.H2O;
 import water.Iced;
-import water.nbhm.NonBlockingHashMap;
+import water.MemoryManager;
 import water.util.DocGen.HTML;
+import water.util.UnsafeUtils;
 
 /** Class for tracking enum columns.
- *  
- *  Basically a wrapper around non blocking hash map.
+ *
+ *  A string-to-int dictionary specialized for parsing.
  *  In the first pass, we just collect set of unique strings per column
  *  (if there are less than MAX_ENUM_SIZE unique elements).
- *  
+ *
  *  After pass1, the keys are sorted and indexed alphabetically.
  *  In the second pass, map is used only for lookup and never updated.
- *  
+ *
  *  Enum objects are shared among threads on the local nodes!
  *
+ *  The strings live in flat byte arenas as records of [id:4][len:2][bytes];
+ *  no per-level objects are made.  The index is an open-addressing table of
+ *  longs packing the string hash (computed straight from the parse buffer)
+ *  above the arena offset of the record.  Lookups never block.  Inserts
+ *  append a record and CAS its slot from empty; slots are never changed
+ *  after that.  Growing the table freezes the empty slots of the old table,
+ *  so racing inserts retry in the new table once it is published.
+ *
  * @author tomasnykodym
  *
  */
 final class Enum extends Iced {
   static final int MAX_ENUM_SIZE = 1000000;
-  AtomicInteger _id = new AtomicInteger();
-  int _maxId = -1;
-  volatile NonBlockingHashMap<ValueString, Integer> _map;
-  Enum() { _map = new NonBlockingHashMap<>(); }
 
-  private Enum(int id, NonBlockingHashMap<ValueString,Integer>map) {
-    _id = new AtomicInteger(id);
-    _map = map;
+  // Arena pages double from 1K up to 1M bytes; offsets are page<<20|offset
+  private static final int PAGE_SHIFT = 20;
+  private static final int MAX_PAGES = 1<<11; // Keeps offsets in 31 bits
+  private static int pageSize( int page ) { return 1<<Math.min(10+page,PAGE_SHIFT); }
+  private static final long FROZEN = -1L; // Empty slot of a table being copied
+
+  // The open-addressing index; 0 is an empty slot
+  private static final class Table {
+    final AtomicLongArray _slots;
+    final AtomicInteger _size = new AtomicInteger();
+    final AtomicBoolean _resizing = new AtomicBoolean();
+    Table( int len ) { _slots = new AtomicLongArray(len); }
+  }
+
+  private transient volatile Table _tab;
+  private transient AtomicReferenceArray<byte[]> _pages;
+  private transient AtomicLong _end;    // Arena allocation point
+  private transient AtomicInteger _id;  // Last id handed out
+  private transient int _maxId = -1;
+  private transient volatile boolean _killed;
+
+  Enum() {
+    _tab = new Table(16);
+    _pages = new AtomicReferenceArray<>(MAX_PAGES);
+    _end = new AtomicLong();
+    _id = new AtomicInteger();
   }
   Enum deepCopy() {
-    return new Enum(_id.get(), _map==null ? null : (NonBlockingHashMap<ValueString,Integer>)_map.clone());
+    Enum e = new Enum();
+    if( isKilled() ) { e.kill(); return e; }
+    Table t = _tab;
+    AtomicLongArray slots = t._slots;
+    long[] ls = new long[slots.length()];
+    for( int i=0; i<ls.length; i++ ) ls[i] = slots.get(i);
+    e._tab = new Table(ls.length);
+    for( int i=0; i<ls.length; i++ ) e._tab._slots.set(i,ls[i]);
+    e._tab._size.set(t._size.get());
+    // Records are renumbered in place, so copy the pages
+    for( int i=0; i<MAX_PAGES; i++ ) {
+      byte[] p = _pages.get(i);
+      if( p == null ) break;
+      e._pages.set(i,p.clone());
+    }
+    e._end.set(_end.get());
+    e._id.set(_id.get());
+    e._maxId = _maxId;
+    return e;
+  }
+
+  private static int hash( byte[] buf, int off, int len ) {
+    int h = 0;
+    for( int i=off; i<off+len; i++ ) h = 31*h + buf[i];
+    return h;
+  }
+  private static int slotHash( long slot ) { return (int)(slot>>>32); }
+  private static int slotOff ( long slot ) { return (int)slot-1; }
+  private static long slot( int hash, int off ) { return ((long)hash<<32) | (0xFFFFFFFFL&(off+1)); }
+  private static int probe( int hash, int mask ) { return (hash ^ (hash>>>16)) & mask; }
+  private byte[] page( int off ) { return _pages.get(off>>>PAGE_SHIFT); }
+  private static int poff( int off ) { return off & ((1<<PAGE_SHIFT)-1); }
+
+  // Does the record at 'off' hold these bytes?
+  private boolean matches( int off, byte[] buf, int boff, int len ) {
+    byte[] p = page(off);
+    int o = poff(off);
+    if( (UnsafeUtils.get2(p,o+4)&0xFFFF) != len ) return false;
+    o += 6;
+    for( int i=0; i<len; i++ )
+      if( p[o+i] != buf[boff+i] ) return false;
+    return true;
+  }
+  private int recId( int off ) { return UnsafeUtils.get4(page(off),poff(off)); }
+  private int recLen( int off ) { return UnsafeUtils.get2(page(off),poff(off)+4)&0xFFFF; }
+
+  // Reserve 'sz' arena bytes, never spanning pages.  Returns -1 if the
+  // arena is full.
+  private int alloc( int sz ) {
+    while( true ) {
+      long end = _end.get();
+      int page = (int)(end>>>PAGE_SHIFT), o = poff((int)end);
+      if( o+sz > pageSize(page) ) { page++; o = 0; }
+      while( page < MAX_PAGES && sz > pageSize(page) ) page++;
+      if( page >= MAX_PAGES ) return -1;
+      long off = ((long)page<<PAGE_SHIFT)|o;
+      if( !_end.compareAndSet(end,off+sz) ) continue;
+      if( _pages.get(page) == null )
+        _pages.compareAndSet(page,null,MemoryManager.malloc1(pageSize(page)));
+      return (int)off;
+    }
+  }
+
+  // Slot of the string, or 0 if absent
+  private long find( byte[] buf, int off, int len, int hash ) {
+    AtomicLongArray slots = _tab._slots;
+    int mask = slots.length()-1;
+    for( int i = probe(hash,mask), n = 0; n <= mask; i = (i+1)&mask, n++ ) {
+      long s = slots.get(i);
+      if( s == 0 || s == FROZEN ) return 0;
+      if( slotHash(s) == hash && matches(slotOff(s),buf,off,len) ) return s;
+    }
+    return 0;                   // Full table, about to be copied
   }
+
+  // Insert the string unless present; returns its slot, or 0 if the arena
+  // is full.
+  private long put( byte[] buf, int off, int len, int hash ) {
+    int rec = -1;
+    while( true ) {
+      Table t = _tab;
+      AtomicLongArray slots = t._slots;
+      int mask = slots.length()-1;
+      for( int i = probe(hash,mask), n = 0; n <= mask; i = (i+1)&mask, n++ ) {
+        long s = slots.get(i);
+        if( s == FROZEN ) break; // Table is being copied; retry in the new one
+        if( s == 0 ) {
+          if( rec == -1 ) {     // Append the record before publishing it
+            if( (rec = alloc(6+len)) == -1 ) return 0;
+            byte[] p = page(rec);
+            int o = poff(rec);
+            UnsafeUtils.set4(p,o,_id.incrementAndGet());
+            UnsafeUtils.set2(p,o+4,(short)len);
+            System.arraycopy(buf,off,p,o+6,len);
+          }
+          long x = slot(hash,rec);
+          if( slots.compareAndSet(i,0,x) ) {
+            if( t._size.incrementAndGet() > (mask+1)>>1 ) resize(t);
+            return x;
+          }
+          s = slots.get(i);     // Lost the race; recheck this slot
+          if( s == FROZEN ) break;
+        }
+        if( slotHash(s) == hash && matches(slotOff(s),buf,off,len) )
+          return s;             // Recorded already; our record, if any, is dead
+      }
+      while( _tab == t ) Thread.yield(); // Wait for the copy to be published
+    }
+  }
+
+  // Freeze the empty slots of a full table, copy its slots into a twice as
+  // large table, and publish that.  Inserts racing with the copy either
+  // land before the freeze reaches their slot (and get copied), or hit a
+  // frozen slot and retry in the new table.
+  private void resize( Table t ) {
+    if( !t._resizing.compareAndSet(false,true) ) return;
+    AtomicLongArray slots = t._slots;
+    Table nt = new Table(slots.length()<<1);
+    int mask = nt._slots.length()-1, n = 0;
+    for( int i=0; i<slots.length(); i++ ) {
+      long s = slots.get(i);
+      if( s == 0 && slots.compareAndSet(i,0,FROZEN) ) continue;
+      s = slots.get(i);
+      int j = probe(slotHash(s),mask);
+      while( nt._slots.get(j) != 0 ) j = (j+1)&mask;
+      nt._slots.set(j,s);
+      n++;
+    }
+    nt._size.set(n);
+    _tab = nt;
+  }
+
   /** Add key to this map (treated as hash set in this case). */
   int addKey(ValueString str) {
-    // _map is shared and be cast to null (if enum is killed) -> grab local copy
-    NonBlockingHashMap<ValueString, Integer> m = _map;
-    if( m == null ) return Integer.MAX_VALUE;     // Nuked already
-    Integer res = m.get(str);
-    if( res != null ) return res; // Recorded already
-    assert str.get_length() < 65535; // Length limit so 65535 can be used as a sentinel
-    int newVal = _id.incrementAndGet();
-    res = m.putIfAbsent(new ValueString(str), newVal);
-    if( res != null ) return res;
-    if( m.size() > MAX_ENUM_SIZE ) {
+    if( _killed ) return Integer.MAX_VALUE;     // Nuked already
+    byte[] buf = str.get_buf();
+    int off = str.get_off(), len = str.get_length();
+    assert len < 65535; // Length limit of the 2-byte record header
+    int hash = hash(buf,off,len);
+    long s = find(buf,off,len,hash);
+    if( s != 0 ) return recId(slotOff(s)); // Recorded already
+    s = put(buf,off,len,hash);
+    if( s == 0 || size() > MAX_ENUM_SIZE ) {
       kill();
       return Integer.MAX_VALUE;
     }
-    return newVal;
+    return recId(slotOff(s));
   }
-  final boolean containsKey(ValueString key){ return _map.containsKey(key); }
+  final boolean containsKey(ValueString key){ return getTokenId(key) != -1; }
   @Override public String toString() {
-    return "{"+_map+" }";
+    if( isKilled() ) return "{killed}";
+    StringBuilder sb = new StringBuilder("{");
+    for( int off : recs() ) sb.append(key(off)).append('=').append(recId(off)).append(' ');
+    return sb.append('}').toString();
+  }
+
+  /** Id of the key, or -1 if absent */
+  int getTokenId( ValueString str ) {
+    byte[] buf = str.get_buf();
+    int off = str.get_off(), len = str.get_length();
+    long s = find(buf,off,len,hash(buf,off,len));
+    return s == 0 ? -1 : recId(slotOff(s));
+  }
+
+  // Arena offsets of all live records
+  private int[] recs() {
+    AtomicLongArray slots = _tab._slots;
+    int[] offs = new int[slots.length()];
+    int n = 0;
+    for( int i=0; i<slots.length(); i++ ) {
+      long s = slots.get(i);
+      if( s != 0 && s != FROZEN ) offs[n++] = slotOff(s);
+    }
+    return Arrays.copyOf(offs,n);
+  }
+  // Fresh heap copy of the record's bytes
+  private ValueString key( int off ) {
+    return new ValueString(Arrays.copyOfRange(page(off),poff(off)+6,poff(off)+6+recLen(off)));
   }
 
-  int getTokenId( ValueString str ) { return _map.get(str); }
-  
   void merge(Enum other){
     if( this == other ) return;
     if( isKilled() ) return;
     if( !other.isKilled() ) {   // do the merge
-      Map<ValueString, Integer> myMap = _map;
-      Map<ValueString, Integer> otMap = other._map;
-      if( myMap == otMap ) return;
-      for( ValueString str : otMap.keySet() )
-        myMap.put(str, 1);
-      if( myMap.size() <= MAX_ENUM_SIZE ) return;
+      for( int off : other.recs() ) {
+        byte[] p = other.page(off);
+        int o = poff(off)+6, len = other.recLen(off);
+        if( put(p,o,len,hash(p,o,len)) == 0 ) { kill(); return; }
+      }
+      if( size() <= MAX_ENUM_SIZE ) return;
     }
     kill(); // too many values, enum should be killed!
   }
   int maxId() { return _maxId == -1 ? _id.get() : _maxId; }
-  int size() { return _map.size(); }
-  boolean isKilled() { return _map == null; }
-  private void kill() { _map = null; }
+  int size() { return _tab._size.get(); }
+  boolean isKilled() { return _killed; }
+  private void kill() { _killed = true; }
 
   // assuming single threaded
   ValueString [] computeColumnDomain() {
     if( isKilled() ) return null;
-    ValueString vs[] = _map.keySet().toArray(new ValueString[_map.size()]);
+    int[] offs = recs();
+    ValueString vs[] = new ValueString[offs.length];
+    for( int j = 0; j < vs.length; ++j ) vs[j] = key(offs[j]);
     Arrays.sort(vs);            // Alpha sort to be nice
-    for( int j = 0; j < vs.length; ++j )
-      _map.put(vs[j], j);       // Renumber in the map
+    for( int j = 0; j < vs.length; ++j ) { // Renumber the records in place
+      byte[] buf = vs[j].get_buf();
+      int off = slotOff(find(buf,0,buf.length,hash(buf,0,buf.length)));
+      UnsafeUtils.set4(page(off),poff(off),j);
+    }
     return vs;
   }
 
-  // Since this is a *concurrent* hashtable, writing it whilst its being
-  // updated is tricky.  If the table is NOT being updated, then all is written
-  // as expected.  If the table IS being updated we only promise to write the
-  // Keys that existed at the time the table write began.  If elements are
-  // being deleted, they may be written anyways.  If the Values are changing, a
-  // random Value is written.
+  // Compact wire format: the live records packed back-to-back in one array,
+  // with no table and no dead or padding arena bytes.  If the table IS being
+  // updated we only promise to write the Keys that existed at the time the
+  // table write began.
   @Override public AutoBuffer write_impl( AutoBuffer ab ) {
-    if( _map == null ) return ab.put1(1); // Killed map marker
-    ab.put1(0);                           // Not killed
+    if( isKilled() ) return ab.put1(1); // Killed map marker
+    ab.put1(0);                         // Not killed
     ab.put4(maxId());
-    for( ValueString key : _map.keySet() )
-      ab.put2((char)key.get_length()).putA1(key.get_buf(),key.get_length()).put4(_map.get(key));
-    return ab.put2((char)65535); // End of map marker
+    int[] offs = recs();
+    int sz = 0;
+    for( int off : offs ) sz += 6+recLen(off);
+    byte[] packed = MemoryManager.malloc1(sz);
+    int x = 0;
+    for( int off : offs ) {
+      int rsz = 6+recLen(off);
+      System.arraycopy(page(off),poff(off),packed,x,rsz);
+      x += rsz;
+    }
+    return ab.put4(offs.length).putA1(packed);
   }
-  
+
   @Override public Enum read_impl( AutoBuffer ab ) {
-    assert _map == null || _map.size()==0;
-    _map = null;
-    if( ab.get1() == 1 ) return this; // Killed?
+    _pages = new AtomicReferenceArray<>(MAX_PAGES);
+    _end = new AtomicLong();
+    _id = new AtomicInteger();
+    _killed = ab.get1() == 1;
+    if( _killed ) { _tab = new Table(16); return this; }
     _maxId = ab.get4();
-    _map = new NonBlockingHashMap<>();
-    int len;
-    while( (len = ab.get2()) != 65535 ) // Read until end-of-map marker
-      _map.put(new ValueString(ab.getA1(len)),ab.get4());
+    int n = ab.get4();
+    _tab = new Table(Math.max(16,Integer.highestOneBit(Math.max(n,1))<<2));
+    byte[] packed = ab.getA1();
+    for( int x=0; x<packed.length; ) {
+      int id = UnsafeUtils.get4(packed,x), len = UnsafeUtils.get2(packed,x+4)&0xFFFF;
+      int off = slotOff(put(packed,x+6,len,hash(packed,x+6,len)));
+      UnsafeUtils.set4(page(off),poff(off),id); // Keep the sender's numbering
+      x += 6+len;
+    }
     return this;
   }
   @Override public AutoBuffer writeJSON_impl( AutoBuffer ab ) { throw H2O.unimpl(); }
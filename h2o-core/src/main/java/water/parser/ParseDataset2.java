@@ -1,5 +1,6 @@
 package water.parser;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -35,6 +36,10 @@ public class ParseDataset2 extends Job<Frame> {
   public static ParseDataset2 startParse2(Key okey, Key[] keys, boolean delete_on_done, ParseSetup globalSetup) {
     return forkParseDataset(okey,keys, globalSetup,delete_on_done); 
   }
+  // Parse, then also save the result as a binary FrameFile at 'saveTo'
+  public static ParseDataset2 startParse2(Key okey, Key[] keys, boolean delete_on_done, ParseSetup globalSetup, String saveTo) {
+    return forkParseDataset(okey,keys, globalSetup,delete_on_done,saveTo);
+  }
 
   private static ParseSetup setup(Key k, boolean singleQuote, int checkHeader) {
     byte[] bits = ZipUtil.getFirstUnzippedBytes(getByteVec(k));
@@ -43,6 +48,12 @@ public class ParseDataset2 extends Job<Frame> {
     return globalSetup;
   }
 
+  /** The column names in a source's header as its parse will guess them, or
+   *  null if the guess finds no header. */
+  public static String[] guessColumnNames(Key k, boolean singleQuote, int checkHeader) {
+    return setup(k,singleQuote,checkHeader)._columnNames;
+  }
+
   // Allow both ByteVec keys and Frame-of-1-ByteVec
   static ByteVec getByteVec(Key key) {
     Iced ice = DKV.get(key).get();
@@ -56,10 +67,15 @@ public class ParseDataset2 extends Job<Frame> {
 
   // Same parse, as a backgroundable Job
   public static ParseDataset2 forkParseDataset(final Key dest, final Key[] keys, final ParseSetup setup, boolean delete_on_done) {
+    return forkParseDataset(dest,keys,setup,delete_on_done,null);
+  }
+  public static ParseDataset2 forkParseDataset(final Key dest, final Key[] keys, final ParseSetup setup, boolean delete_on_done, String saveTo) {
     // Some quick sanity checks: no overwriting your input key, and a resource check.
     HashSet<String> conflictingNames = setup.checkDupColumnNames();
     for( String x : conflictingNames )
       throw new IllegalArgumentException("Found duplicate column name "+x);
+    String badProjection = setup.checkProjection();
+    if( badProjection != null ) throw new IllegalArgumentException(badProjection);
     long sum=0;
     for( Key k : keys ) {
       if( dest.equals(k) )
@@ -74,7 +90,7 @@ public class ParseDataset2 extends Job<Frame> {
     ParseDataset2 job = new ParseDataset2(dest, sum);
     new Frame(job.dest(),new String[0],new Vec[0]).delete_and_lock(job._key); // Write-Lock BEFORE returning
     for( Key k : keys ) Lockable.read_lock(k,job._key); // Read-Lock BEFORE returning
-    ParserFJTask fjt = new ParserFJTask(job, keys, setup, delete_on_done); // Fire off background parse
+    ParserFJTask fjt = new ParserFJTask(job, keys, setup, delete_on_done, saveTo); // Fire off background parse
     job.start(fjt);
     return job;
   }
@@ -90,15 +106,20 @@ public class ParseDataset2 extends Job<Frame> {
     final Key[] _keys;
     final ParseSetup _setup;
     final boolean _delete_on_done;
+    final String _saveTo;       // Optional FrameFile to write after parsing
 
     public ParserFJTask( ParseDataset2 job, Key[] keys, ParseSetup setup, boolean delete_on_done) {
+      this(job, keys, setup, delete_on_done, null);
+    }
+    public ParserFJTask( ParseDataset2 job, Key[] keys, ParseSetup setup, boolean delete_on_done, String saveTo) {
       _job = job;
       _keys = keys;
       _setup = setup;
       _delete_on_done = delete_on_done;
+      _saveTo = saveTo;
     }
     @Override public void compute2() {
-      parse_impl(_job, _keys, _setup, _delete_on_done);
+      parse_impl(_job, _keys, _setup, _delete_on_done, _saveTo);
       tryComplete();
     }
 
@@ -115,12 +136,13 @@ public class ParseDataset2 extends Job<Frame> {
 
   // --------------------------------------------------------------------------
   // Top-level parser driver
-  private static void parse_impl(ParseDataset2 job, Key[] fkeys, ParseSetup setup, boolean delete_on_done) {
+  private static void parse_impl(ParseDataset2 job, Key[] fkeys, ParseSetup setup, boolean delete_on_done, String saveTo) {
     assert setup._ncols > 0;
     if( fkeys.length == 0) { job.cancel();  return;  }
 
     VectorGroup vg = getByteVec(fkeys[0]).group();
-    MultiFileParseTask uzpt = new MultiFileParseTask(vg,setup,job._key,fkeys,delete_on_done).doAll(fkeys);
+    ZipUtil.Unit[][] units = new FindUnitsTask().doAll(fkeys)._units;
+    MultiFileParseTask uzpt = new MultiFileParseTask(vg,setup,job._key,fkeys,units,delete_on_done).doAll(fkeys);
     EnumUpdateTask eut = null;
     // Calculate enum domain
     int n = 0;
@@ -137,7 +159,7 @@ public class ParseDataset2 extends Job<Frame> {
       for( int i : ecols ) uzpt._dout._vecs[i].setDomain(ValueString.toString(ds[j++] = enums[i].computeColumnDomain()));
       eut = new EnumUpdateTask(ds, eft._lEnums, uzpt._chunk2Enum, ecols);
     }
-    Frame fr = new Frame(job.dest(),setup._columnNames != null?setup._columnNames:genericColumnNames(uzpt._dout._nCols),uzpt._dout.closeVecs());
+    Frame fr = new Frame(job.dest(),setup.outColumnNames(uzpt._dout._nCols),uzpt._dout.closeVecs());
     // SVMLight is sparse format, there may be missing chunks with all 0s, fill them in
     new SVFTask(fr).doAllNodes();
     // Update enums to the globally agreed numbering
@@ -152,6 +174,12 @@ public class ParseDataset2 extends Job<Frame> {
       for( String err : uzpt._errors )
         Log.warn(err);
     logParseResults(job, fr);
+
+    // Save the native binary form, for fast reloading via ImportFiles
+    if( saveTo != null ) {
+      try { FrameFile.export(fr, new File(saveTo)); }
+      catch( IOException ioe ) { throw new RuntimeException(ioe); }
+    }
     
     // Release the frame for overwriting
     fr.unlock(job._key);
@@ -201,6 +229,9 @@ public class ParseDataset2 extends Job<Frame> {
     }
 
     @Override public void map(Chunk [] chks){
+      // Nothing to renumber in a Chunk the row filter emptied, and its cidx()
+      // would name the next Chunk
+      if( chks[0].len() == 0 ) return;
       int[][] emap = emap(_chunk2Enum[chks[0].cidx()]);
       final int cidx = chks[0].cidx();
       for(int i = 0; i < chks.length; ++i) {
@@ -267,7 +298,8 @@ public class ParseDataset2 extends Job<Frame> {
   private static class SVFTask extends MRTask<SVFTask> {
     private final Frame _f;
     private SVFTask( Frame f ) { _f = f; }
-    @Override public void map(Key key) {
+    // Once per Node: doAllNodes() runs setupLocal, not map(Key)
+    @Override public void setupLocal() {
       Vec v0 = _f.anyVec();
       for( int i = 0; i < v0.nChunks(); ++i ) {
         if( !v0.chunkKey(i).home() ) continue;
@@ -294,6 +326,23 @@ public class ParseDataset2 extends Job<Frame> {
     }
   }
 
+  // --------------------------------------------------------------------------
+  // Split multi-entry ZIP and multi-member GZIP files into units, each file on
+  // its home Node.  Files parsed whole get a null entry.
+  private static class FindUnitsTask extends MRTask<FindUnitsTask> {
+    ZipUtil.Unit[][] _units;
+    @Override public void map( Key key ) {
+      _units = new ZipUtil.Unit[_keys.length][];
+      _units[ArrayUtils.find(_keys,key)] = ZipUtil.units(getByteVec(key));
+    }
+    @Override public void reduce( FindUnitsTask fut ) {
+      if( _units == null ) _units = fut._units;
+      else if( fut._units != null )
+        for( int i = 0; i < _units.length; ++i )
+          if( _units[i] == null ) _units[i] = fut._units[i];
+    }
+  }
+
   // --------------------------------------------------------------------------
   // We want to do a standard MRTask with a collection of file-keys (so the
   // files are parsed in parallel across the cluster), but we want to throttle
@@ -316,24 +365,30 @@ public class ParseDataset2 extends Job<Frame> {
     private final Key _job_key;
     // A mapping of Key+ByteVec to rolling total Chunk counts.
     private final int[]  _fileChunkOffsets;
+    // Per file, the units parsed separately; null to parse the file whole
+    private final ZipUtil.Unit[][] _units;
 
     // OUTPUT fields:
     FVecDataOut _dout;
     String[] _errors;
 
-    MultiFileParseTask(VectorGroup vg,  ParseSetup setup, Key job_key, Key[] fkeys, boolean delete_on_done ) {
+    MultiFileParseTask(VectorGroup vg,  ParseSetup setup, Key job_key, Key[] fkeys, ZipUtil.Unit[][] units, boolean delete_on_done ) {
       _setup = setup; 
       _vg = vg; 
       _vecIdStart = _vg.reserveKeys(_setup._pType == ParserType.SVMLight ? 100000000 : setup._ncols);
       _delete_on_done = delete_on_done;
       _job_key = job_key;
 
-      // A mapping of Key+ByteVec to rolling total Chunk counts.
+      // A mapping of Key+ByteVec to rolling total Chunk counts.  A split
+      // file needs Chunks for each unit: each unit starts a new Chunk.
+      _units = units;
       _fileChunkOffsets = new int[fkeys.length];
       int len = 0;
       for( int i = 0; i < fkeys.length; ++i ) {
         _fileChunkOffsets[i] = len;
-        len += getByteVec(fkeys[i]).nChunks();
+        ByteVec vec = getByteVec(fkeys[i]);
+        if( units[i] == null ) len += vec.nChunks();
+        else for( ZipUtil.Unit u : units[i] ) len += u.nChunks(vec);
       }
 
       // Mapping from Chunk# to cluster-node-number
@@ -355,6 +410,10 @@ public class ParseDataset2 extends Job<Frame> {
     private void chunksAreLocal( Vec vec, int chunkStartIdx, Key key ) {
       for(int i = 0; i < vec.nChunks(); ++i)  
         _chunk2Enum[chunkStartIdx + i] = H2O.SELF.index();
+      releaseInput(vec,key);
+    }
+
+    private void releaseInput( Vec vec, Key key ) {
       // For Big Data, must delete data as eagerly as possible.
       Iced ice = DKV.get(key).get();
       if( ice==vec ) {
@@ -370,7 +429,12 @@ public class ParseDataset2 extends Job<Frame> {
     @Override public void map( Key key ) {
       // Get parser setup info for this chunk
       ByteVec vec = getByteVec(key);
-      final int chunkStartIdx = _fileChunkOffsets[ArrayUtils.find(_keys,key)];
+      final int fidx = ArrayUtils.find(_keys,key);
+      final int chunkStartIdx = _fileChunkOffsets[fidx];
+      if( _units[fidx] != null ) {
+        parseUnits(vec,key,_units[fidx],chunkStartIdx);
+        return;
+      }
       byte[] zips = vec.getFirstBytes();
       ZipUtil.Compression cpr = ZipUtil.guessCompressionMethod(zips);
       byte[] bits = ZipUtil.unzipBytes(zips,cpr);
@@ -399,7 +463,7 @@ public class ParseDataset2 extends Job<Frame> {
           }
           break;
         case ZIP: {
-          // Zipped file; no parallel decompression;
+          // Zipped file; serial decompression, parallel parse
           InputStream bvs = vec.openStream(_job_key);
           ZipInputStream zis = new ZipInputStream(bvs);
           ZipEntry ze = zis.getNextEntry(); // Get the *FIRST* entry
@@ -412,7 +476,7 @@ public class ParseDataset2 extends Job<Frame> {
         }
         case GZIP: {
           InputStream bvs = vec.openStream(_job_key);
-          // Zipped file; no parallel decompression;
+          // Zipped file; serial decompression, parallel parse
           _dout = streamParse(new GZIPInputStream(bvs),localSetup,_vecIdStart, chunkStartIdx,bvs);
           // set this node as the one which processed all the chunks
           chunksAreLocal(vec,chunkStartIdx,key);
@@ -441,22 +505,102 @@ public class ParseDataset2 extends Job<Frame> {
       _errors = ArrayUtils.append(_errors,uzpt._errors);
     }
 
-    // Zipped file; no parallel decompression; decompress into local chunks,
-    // parse local chunks; distribute chunks later.
+    // Zipped file; serial decompression into local chunks, parsed in
+    // parallel; distribute chunks later.
     private FVecDataOut streamParse( final InputStream is, final ParseSetup localSetup, int vecIdStart, int chunkStartIdx, InputStream bvs) throws IOException {
+      return streamParse(_vg,_eKey,_setup.nOutCols(),is,localSetup,vecIdStart,chunkStartIdx,bvs,_fs);
+    }
+    private static FVecDataOut streamParse( VectorGroup vg, Key eKey, int ncols, final InputStream is, final ParseSetup localSetup, int vecIdStart, int chunkStartIdx, InputStream bvs, Futures fs) throws IOException {
       // All output into a fresh pile of NewChunks, one per column
-      FVecDataOut dout = new FVecDataOut(_vg, chunkStartIdx, localSetup._ncols, vecIdStart, enums(_eKey,_setup._ncols));
+      FVecDataOut dout = new FVecDataOut(vg, chunkStartIdx, localSetup, vecIdStart, enums(eKey,ncols));
       Parser p = localSetup.parser();
       // assume 2x inflation rate
       if( localSetup._pType._parallelParseSupported ) p.streamParseZip(is, dout, bvs);
       else                                            p.streamParse   (is, dout);
-      // Parse all internal "chunks", until we drain the zip-stream dry.  Not
-      // real chunks, just flipping between 32K buffers.  Fills up the single
-      // very large NewChunk.
-      dout.close(_fs);
+      // Parse all inflated blocks, until we drain the zip-stream dry.  One
+      // output chunk per chunk of the zipped file.
+      dout.close(fs);
       return dout;
     }
 
+    // Parse the units of a split file in parallel across the cloud.  Each
+    // unit's output starts at its own Chunk, in file order.  Units of at least
+    // a Chunk go to the Node homing their first bytes; smaller ones are dealt
+    // round-robin, since hundreds may share one Chunk.
+    private void parseUnits( ByteVec vec, Key key, ZipUtil.Unit[] units, int chunkStartIdx ) {
+      final int window = 2*H2O.CLOUD.size(); // Units in flight
+      RPC<UnitParse>[] rpcs = new RPC[units.length];
+      int cidx = chunkStartIdx, done = 0;
+      for( int i = 0; i < units.length; ++i ) {
+        ZipUtil.Unit u = units[i];
+        H2ONode node = u._len >= Vec.CHUNK_SZ
+          ? vec.chunkKeyAt(u._off).home_node()
+          : H2O.CLOUD._memary[(H2O.SELF.index()+i)%H2O.CLOUD.size()];
+        rpcs[i] = RPC.call(node,new UnitParse(this,key,u,cidx,u.nChunks(vec)));
+        cidx += u.nChunks(vec);
+        while( i+1-done >= window ) unitDone(rpcs[done++].get());
+      }
+      while( done < units.length ) unitDone(rpcs[done++].get());
+      releaseInput(vec,key);
+    }
+    private void unitDone( UnitParse up ) {
+      for( int i = 0; i < up._nchks; ++i )
+        _chunk2Enum[up._cidx + i] = up._node;
+      if( _dout == null ) _dout = up._dout;
+      else _dout.reduce(up._dout);
+      _errors = ArrayUtils.append(_errors,up._errors);
+    }
+
+    // ------------------------------------------------------------------------
+    // Parse one unit of a split file, on the Node it was sent to, into enums
+    // local to that Node.
+    private static class UnitParse extends DTask<UnitParse> {
+      private final ParseSetup _setup;
+      private final VectorGroup _vg;
+      private final int _vecIdStart;
+      private final Key _eKey;  // Parse-local-Enums key
+      private final Key _job_key;
+      private final Key _srckey;
+      private final ZipUtil.Unit _unit;
+      final int _cidx, _nchks;  // Output Chunks reserved for this unit
+      // OUTPUT fields:
+      FVecDataOut _dout;
+      String[] _errors;
+      int _node;                // Where the unit was parsed, for its enums
+      final private byte _priority; // Above the map() blocking on it
+
+      UnitParse( MultiFileParseTask mfpt, Key srckey, ZipUtil.Unit unit, int cidx, int nchks ) {
+        _setup = mfpt._setup;
+        _vg = mfpt._vg;
+        _vecIdStart = mfpt._vecIdStart;
+        _eKey = mfpt._eKey;
+        _job_key = mfpt._job_key;
+        _srckey = srckey;
+        _unit = unit;
+        _cidx = cidx;
+        _nchks = nchks;
+        _priority = nextThrPriority();
+      }
+      @Override public byte priority() { return _priority; }
+      @Override protected void compute2() {
+        _node = H2O.SELF.index();
+        ByteVec vec = getByteVec(_srckey);
+        // Each ZIP entry has its own header line, or not.  A GZIP member
+        // after the first starts past a line finished by the member before,
+        // and may hold no whole line to guess from.
+        ParseSetup localSetup = _unit.midStream() ? _setup.noHeader() : _setup.guessSetup(_unit.head(vec));
+        if( !localSetup._isValid ) _errors = localSetup._errors;
+        else {
+          Futures fs = new Futures();
+          InputStream bvs = _unit.openRaw(vec,_job_key);
+          try { _dout = streamParse(_vg,_eKey,_setup.nOutCols(),_unit.inflate(vec,bvs,_setup),localSetup,_vecIdStart,_cidx,bvs,fs); }
+          catch( IOException ioe ) { throw new RuntimeException(ioe); }
+          fs.blockForPending();
+        }
+        tryComplete();
+      }
+    }
+
     // ------------------------------------------------------------------------
     private static class DParse extends MRTask<DParse> {
       private final ParseSetup _setup;
@@ -481,7 +625,7 @@ public class ParseDataset2 extends Job<Frame> {
         _srckey = srckey;
       }
       @Override public void map( Chunk in ) {
-        Enum [] enums = enums(_eKey,_setup._ncols);
+        Enum [] enums = enums(_eKey,_setup.nOutCols());
         // Break out the input & output vectors before the parse loop
         FVecDataIn din = new FVecDataIn(in);
         FVecDataOut dout;
@@ -489,7 +633,7 @@ public class ParseDataset2 extends Job<Frame> {
         switch(_setup._pType) {
         case CSV:
           p = new CsvParser(_setup);
-          dout = new FVecDataOut(_vg,_startChunkIdx + in.cidx(),_setup._ncols,_vecIdStart,enums);
+          dout = new FVecDataOut(_vg,_startChunkIdx + in.cidx(),_setup,_vecIdStart,enums);
           break;
         case SVMLight:
           p = new SVMLightParser(_setup);
@@ -536,6 +680,12 @@ public class ParseDataset2 extends Job<Frame> {
     final int _vecIdStart;
     boolean _closedVecs = false;
     private final VectorGroup _vg;
+    // Source column to output column, -1 if skipped; null keeps all
+    private final int[] _colMap;
+    // Rows must pass this to be kept; null keeps all.  Each row is buffered
+    // until its end, then kept or dropped.
+    private final RowFilter _filter;
+    private transient Row _row;
 
     static final private byte UCOL = 0; // unknown col type
     static final private byte NCOL = 1; // numeric col type
@@ -544,6 +694,16 @@ public class ParseDataset2 extends Job<Frame> {
     static final private byte ICOL = 4; // UUID    col typ
 
     private FVecDataOut(VectorGroup vg, int cidx, int ncols, int vecIdStart, Enum [] enums){
+      this(vg,cidx,ncols,vecIdStart,enums,null,null);
+    }
+    // Output for the setup's parsed columns and rows
+    private FVecDataOut(VectorGroup vg, int cidx, ParseSetup setup, int vecIdStart, Enum [] enums){
+      this(vg,cidx,setup.nOutCols(),vecIdStart,enums,setup.colMap(),setup._rowFilter);
+    }
+    private FVecDataOut(VectorGroup vg, int cidx, int ncols, int vecIdStart, Enum [] enums, int[] colMap, RowFilter filter){
+      _colMap = colMap;
+      _filter = filter;
+      if( filter != null ) _row = new Row(ncols);
       _vecs = new AppendableVec[ncols];
       _nvs = new NewChunk[ncols];
       _enums = enums;
@@ -582,7 +742,7 @@ public class ParseDataset2 extends Job<Frame> {
       return this;
     }
     @Override public FVecDataOut nextChunk(){
-      return  new FVecDataOut(_vg, _cidx+1, _nCols, _vecIdStart, _enums);
+      return  new FVecDataOut(_vg, _cidx+1, _nCols, _vecIdStart, _enums, _colMap, _filter);
     }
 
     private Vec [] closeVecs(){
@@ -606,30 +766,67 @@ public class ParseDataset2 extends Job<Frame> {
       return res;
     }
 
+    // Parsed column of a source column, or -1 if skipped
+    private int outCol( int colIdx ) {
+      return _colMap == null ? colIdx : (colIdx < _colMap.length ? _colMap[colIdx] : -1);
+    }
+
+    // The parser's calls take source columns, and go through the projection
+    // and row buffer; the *0 calls write parsed columns directly.
     @Override public void newLine() {
+      if( _row != null ) _row.end(this);
+      else newLine0();
+    }
+    @Override public void addNumCol(int colIdx, long number, int exp) {
+      if( _row != null ) {
+        if( colIdx == _filter._col ) _row._ok = _filter.test(number*PrettyPrint.pow10(exp));
+        int oc = outCol(colIdx);
+        if( oc >= 0 && oc < _nCols ) _row.num(oc,number,exp);
+      } else {
+        int oc = outCol(colIdx);
+        if( oc >= 0 ) addNumCol0(oc,number,exp);
+      }
+    }
+    @Override public final void addInvalidCol(int colIdx) {
+      int oc = outCol(colIdx);
+      if( _row != null ) { if( oc >= 0 && oc < _nCols ) _row.na(oc); }
+      else if( oc >= 0 ) addInvalidCol0(oc);
+    }
+    @Override public final void addStrCol(int colIdx, ValueString str) {
+      if( _row != null ) {
+        if( colIdx == _filter._col ) _row._ok = _filter.test(str);
+        int oc = outCol(colIdx);
+        if( oc >= 0 && oc < _nCols ) _row.str(oc,str);
+      } else {
+        int oc = outCol(colIdx);
+        if( oc >= 0 ) addStrCol0(oc,str);
+      }
+    }
+
+    private void newLine0() {
       if(_col >= 0){
         ++_nLines;
         for(int i = _col+1; i < _nCols; ++i)
-          addInvalidCol(i);
+          addInvalidCol0(i);
       }
       _col = -1;
     }
-    @Override public void addNumCol(int colIdx, long number, int exp) {
+    private void addNumCol0(int colIdx, long number, int exp) {
       if( colIdx < _nCols ) {
         _nvs[_col = colIdx].addNum(number, exp);
         if(_ctypes[colIdx] == UCOL ) _ctypes[colIdx] = NCOL;
       }
     }
 
-    @Override public final void addInvalidCol(int colIdx) {
+    private void addInvalidCol0(int colIdx) {
       if(colIdx < _nCols) _nvs[_col = colIdx].addNA();
     }
     @Override public final boolean isString(int colIdx) { return false; }
 
-    @Override public final void addStrCol(int colIdx, ValueString str) {
+    private void addStrCol0(int colIdx, ValueString str) {
       if(colIdx < _nvs.length){
         if(_ctypes[colIdx] == NCOL){ // support enforced types
-          addInvalidCol(colIdx);
+          addInvalidCol0(colIdx);
           return;
         }
         if(_ctypes[colIdx] == UCOL && ParseTime.attemptTimeParse(str) > 0)
@@ -644,11 +841,11 @@ public class ParseDataset2 extends Job<Frame> {
 
         if( _ctypes[colIdx] == TCOL ) {
           long l = ParseTime.attemptTimeParse(str);
-          if( l == Long.MIN_VALUE ) addInvalidCol(colIdx);
+          if( l == Long.MIN_VALUE ) addInvalidCol0(colIdx);
           else {
             int time_pat = ParseTime.decodePat(l); // Get time pattern
             l = ParseTime.decodeTime(l);           // Get time
-            addNumCol(colIdx, l, 0);               // Record time in msec
+            addNumCol0(colIdx, l, 0);               // Record time in msec
             _nvs[_col]._timCnt[time_pat]++; // Count histo of time parse patterns
           }
         } else if( _ctypes[colIdx] == ICOL ) { // UUID column?  Only allow UUID parses
@@ -666,6 +863,43 @@ public class ParseDataset2 extends Job<Frame> {
       }
     }
 
+    // One row's parsed values, held until its end decides if it is kept
+    private static final class Row {
+      static final byte NA=0, NUM=1, STR=2;
+      final byte[] _kind;
+      final long[] _num;
+      final int[] _exp, _len;
+      final byte[][] _bits;     // String bytes, copied out of the parse buffer
+      final ValueString _str = new ValueString();
+      boolean _any, _ok;        // Row has values; row passed the filter
+      Row( int ncols ) {
+        _kind = new byte[ncols];  _num = new long[ncols];
+        _exp = new int[ncols];  _len = new int[ncols];  _bits = new byte[ncols][];
+      }
+      void num( int oc, long number, int exp ) { _kind[oc] = NUM;  _num[oc] = number;  _exp[oc] = exp;  _any = true; }
+      void na( int oc ) { _kind[oc] = NA;  _any = true; }
+      void str( int oc, ValueString str ) {
+        int len = str.get_length();
+        if( _bits[oc] == null || _bits[oc].length < len ) _bits[oc] = new byte[Math.max(len,16)];
+        System.arraycopy(str.get_buf(),str.get_off(),_bits[oc],0,len);
+        _kind[oc] = STR;  _len[oc] = len;  _any = true;
+      }
+      // Write out the row if it passed, and start the next
+      void end( FVecDataOut dout ) {
+        if( _any && _ok ) {
+          for( int oc = 0; oc < _kind.length; ++oc )
+            switch( _kind[oc] ) {
+            case NUM: dout.addNumCol0(oc,_num[oc],_exp[oc]); break;
+            case STR: _str.set(_bits[oc],0,_len[oc]);  dout.addStrCol0(oc,_str); break;
+            default:  dout.addInvalidCol0(oc);
+            }
+          dout.newLine0();
+        }
+        Arrays.fill(_kind,NA);
+        _any = _ok = false;
+      }
+    }
+
     /** Adds double value to the column. */
     @Override public void addNumCol(int colIdx, double value) {
       if (Double.isNaN(value)) {
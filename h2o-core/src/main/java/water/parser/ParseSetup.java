@@ -29,6 +29,10 @@ public final class ParseSetup extends Iced {
   boolean _isValid;           // The initial parse is sane
   String[] _errors;           // Errors in this parse setup
   long _invalidLines; // Number of broken/invalid lines found
+  // Projection: columns tokenized but not kept (no chunks, vecs or enums made
+  // for them), and a predicate rows must pass to be kept.  Null for all.
+  int[] _skipCols;
+  RowFilter _rowFilter;
 
   public ParseSetup(boolean isValid, long invalidLines, String[] errors, ParserType t, byte sep, int ncols, boolean singleQuotes, String[] columnNames, String[][] data, int checkHeader) {
     _isValid = isValid;
@@ -54,6 +58,53 @@ public final class ParseSetup extends Iced {
 
   final boolean hasHeaders() { return _columnNames != null; }
 
+  /** Skip these source columns, and keep only rows passing the filter; either
+   *  may be null.  Returns this. */
+  public ParseSetup withProjection( int[] skipCols, RowFilter rowFilter ) {
+    _skipCols = skipCols == null || skipCols.length == 0 ? null : skipCols.clone();
+    _rowFilter = rowFilter;
+    return this;
+  }
+
+  // Source column to parsed column, or -1 for a skipped column.  Null if no
+  // columns are skipped.
+  int[] colMap() {
+    if( _skipCols == null ) return null;
+    int[] map = new int[_ncols];
+    for( int c : _skipCols ) if( c >= 0 && c < _ncols ) map[c] = -1;
+    for( int c=0, oc=0; c<_ncols; c++ )
+      if( map[c] == 0 ) map[c] = oc++;
+    return map;
+  }
+  // Number of parsed (not skipped) columns
+  int nOutCols() {
+    int[] map = colMap();
+    if( map == null ) return _ncols;
+    int n=0;
+    for( int oc : map ) if( oc >= 0 ) n++;
+    return n;
+  }
+  // Names of the parsed columns; ncols is the parsed width, for generic names
+  String[] outColumnNames( int ncols ) {
+    int[] map = colMap();
+    if( map == null ) return _columnNames != null ? _columnNames : ParseDataset2.genericColumnNames(ncols);
+    String[] names = new String[ncols];
+    for( int c=0; c<map.length; c++ )
+      if( map[c] >= 0 ) names[map[c]] = _columnNames != null ? _columnNames[c] : "C"+(c+1);
+    return names;
+  }
+  // Projections this parser can apply, or null if fine
+  String checkProjection() {
+    if( _skipCols == null && _rowFilter == null ) return null;
+    if( _pType == ParserType.SVMLight ) return "Column skipping and row filters are not supported for SVMLight";
+    for( int c : _skipCols == null ? new int[0] : _skipCols )
+      if( c < 0 || c >= _ncols ) return "Skipped column "+c+" out of range, "+_ncols+" columns";
+    if( nOutCols() == 0 ) return "All columns skipped";
+    if( _rowFilter != null && (_rowFilter._col < 0 || _rowFilter._col >= _ncols) )
+      return "Row filter column "+_rowFilter+" out of range, "+_ncols+" columns";
+    return null;
+  }
+
   public Parser parser() {
     switch( _pType ) {
       case CSV:      return new      CsvParser(this);
@@ -126,9 +177,17 @@ public final class ParseSetup extends Iced {
     if( _pType != ps._pType ||
             (_pType == ParserType.CSV && (_sep != ps._sep || _ncols != ps._ncols)) )
       return new ParseSetup(ps,"Conflicting file layouts, expecting: "+this+" but found "+ps+"\n");
+    ps._skipCols = _skipCols;   // Same projection for every file
+    ps._rowFilter = _rowFilter;
     return ps;
   }
 
+  // This setup, for bytes starting past any header line
+  ParseSetup noHeader() {
+    ParseSetup ps = new ParseSetup(_isValid, _invalidLines, _errors, _pType, _sep, _ncols, _singleQuotes, null, _data, -1);
+    return ps.withProjection(_skipCols, _rowFilter);
+  }
+
   protected static String hex( String n ) {
     // blahblahblah/myName.ext ==> myName
     // blahblahblah/myName.csv.ext ==> myName
@@ -3,6 +3,7 @@ package water.parser;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import water.*;
 
@@ -75,32 +76,122 @@ public abstract class Parser extends Iced {
   }
 
   // ------------------------------------------------------------------------
-  // Zipped file; no parallel decompression; decompress into local chunks,
-  // parse local chunks; distribute chunks later.
+  // Zipped file.  Decompression is inherently serial, but parsing is not: this
+  // thread inflates the stream into blocks of at most ZIP_BLOCK bytes, parsed
+  // by F/J tasks while it inflates more.  A block also ends where the
+  // underlying (compressed) ByteVec chunk does, and the blocks of one chunk
+  // are parsed in order into one output chunk - so output chunks still match
+  // the input zipfile chunks, while different chunks parse in parallel.  Like
+  // the parallel parse of raw bytes, a block's parse skips its leading
+  // partial line and finishes its last line from the next block; blocks are
+  // the size of raw Chunks, so lines parse the same as uncompressed.  At
+  // most PARSE_AHEAD blocks are inflated ahead of the parsers, so the
+  // inflated bytes held stay bounded whatever the compression ratio.
+  static final int PARSE_AHEAD = Math.min(H2O.NUMCPUS,8)+1;
+  static final int ZIP_BLOCK = water.fvec.Vec.CHUNK_SZ;
   DataOut streamParseZip( final InputStream is, final StreamDataOut dout, InputStream bvs ) throws IOException {
     // All output into a fresh pile of NewChunks, one per column
     if( !_setup._pType._parallelParseSupported ) throw H2O.unimpl();
-    StreamData din = new StreamData(is);
-    int cidx=0;
-    StreamDataOut nextChunk = dout;
-    int zidx = bvs.read(null,0,0); // Back-channel read of chunk index
-    assert zidx==1;
-    while( is.available() > 0 ) {
-      int xidx = bvs.read(null,0,0); // Back-channel read of chunk index
-      if( xidx > zidx ) {  // Advanced chunk index of underlying ByteVec stream?
-        zidx = xidx;       // Record advancing of chunk
-        nextChunk.close(); // Match output chunks to input zipfile chunks
-        if( dout != nextChunk ) dout.reduce(nextChunk);
-        nextChunk = nextChunk.nextChunk();
-      }
-      parallelParse(cidx++,din,nextChunk);
+    // Back-channel read of chunk index.  Reading a GZIP member's header may
+    // already have crossed into the next chunk; its output chunk stays empty.
+    int zidx = bvs.read(null,0,0);
+    assert zidx>=1;
+    ArrayList<ZipChunk> chunks = new ArrayList<>();
+    ArrayList<ZipChunkTask> tasks = new ArrayList<>();
+    AtomicInteger ahead = new AtomicInteger(); // Blocks not parsed yet
+    int done=0;                 // Tasks joined so far
+    ZipChunk chunk = new ZipChunk(dout);
+    chunks.add(chunk);
+    byte[] bits0 = readBlock(is,bvs,zidx), bits1;
+    for( int bidx=0; bits0 != null; bidx++, bits0 = bits1 ) {
+      int xidx = bvs.read(null,0,0);
+      bits1 = readBlock(is,bvs,xidx);
+      boolean last = bits1 == null || xidx != zidx; // bits0 ends its chunk?
+      ahead.incrementAndGet();
+      if( chunk.offer(new ZipBlock(bidx,bits0,bits1,last)) )
+        tasks.add((ZipChunkTask)H2O.submitTask(new ZipChunkTask(this,chunk,ahead)));
+      if( last && bits1 != null ) chunks.add(chunk = new ZipChunk(chunk._dout.nextChunk()));
+      zidx = xidx;
+      // Unparsed blocks are queued on a task not joined yet
+      while( ahead.get() >= PARSE_AHEAD ) tasks.get(done++).join();
     }
-    parallelParse(cidx,din,nextChunk);     // Parse the remaining partial 32K buffer
-    nextChunk.close();
-    if( dout != nextChunk ) dout.reduce(nextChunk);
+    for( ZipChunkTask t : tasks ) t.join();
+    for( ZipChunk c : chunks )
+      if( c._dout != dout ) dout.reduce(c._dout);
     return dout;
   }
 
+  // Inflate up to ZIP_BLOCK bytes, stopping early when the underlying ByteVec
+  // stream moves past chunk 'zidx' or the stream ends.  Returns null if
+  // nothing was left to inflate.
+  private static byte[] readBlock( InputStream is, InputStream bvs, int zidx ) throws IOException {
+    byte[] bits = MemoryManager.malloc1(ZIP_BLOCK);
+    int off=0;
+    while( off < bits.length && bvs.read(null,0,0) == zidx ) {
+      int len = is.read(bits,off,Math.min(bits.length-off,64*1024));
+      if( len == -1 ) break;
+      off += len;
+    }
+    return off == 0 ? null : (off == bits.length ? bits : MemoryManager.arrayCopyOf(bits,off));
+  }
+
+  // One inflated block, with the next one to finish its last line from
+  private static final class ZipBlock {
+    final int _bidx;
+    final byte[] _bits0, _bits1;
+    final boolean _last;        // Last block of its output chunk
+    ZipBlock( int bidx, byte[] bits0, byte[] bits1, boolean last ) {
+      _bidx = bidx; _bits0 = bits0; _bits1 = bits1; _last = last;
+    }
+  }
+
+  // The blocks of one output chunk, queued until parsed.  At most one task at
+  // a time drains the queue, keeping the rows in order.
+  private static final class ZipChunk {
+    final StreamDataOut _dout;
+    private final ArrayDeque<ZipBlock> _blocks = new ArrayDeque<>();
+    private boolean _draining;
+    ZipChunk( StreamDataOut dout ) { _dout = dout; }
+    // Queue a block; true if a new task must drain the queue
+    synchronized boolean offer( ZipBlock b ) {
+      _blocks.add(b);
+      if( _draining ) return false;
+      return _draining = true;
+    }
+    // Next block to parse, or null once drained
+    synchronized ZipBlock poll() {
+      ZipBlock b = _blocks.poll();
+      if( b == null ) _draining = false;
+      return b;
+    }
+  }
+
+  // Parse the queued blocks of one output chunk, closing it after its last
+  private static class ZipChunkTask extends H2O.H2OCountedCompleter {
+    final transient Parser _p;
+    final transient ZipChunk _chunk;
+    final transient AtomicInteger _ahead;
+    ZipChunkTask( Parser p, ZipChunk chunk, AtomicInteger ahead ) { _p = p; _chunk = chunk; _ahead = ahead; }
+    @Override protected void compute2() {
+      for( ZipBlock b; (b = _chunk.poll()) != null; ) {
+        final ZipBlock blk = b;
+        try {
+          _p.parallelParse(blk._bidx, new DataIn() {
+              @Override public byte[] getChunkData( int cidx ) {
+                return cidx == blk._bidx ? blk._bits0 : (cidx == blk._bidx+1 ? blk._bits1 : null);
+              }
+              @Override public int getChunkDataStart( int cidx ) { return -1; }
+              @Override public void setChunkDataStart( int cidx, int offset ) { }
+            }, _chunk._dout);
+          if( blk._last ) _chunk._dout.close();
+        } finally {
+          _ahead.decrementAndGet();
+        }
+      }
+      tryComplete();
+    }
+  }
+
   /** Manage bulk streaming input data to the parser.  Sometimes the data comes
    *  from parallel raw byte file reads, with speculative line starts.
    *  Sometimes the data comes from an InputStream - probably a GZIP stream.  */
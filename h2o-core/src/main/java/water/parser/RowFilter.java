@@ -0,0 +1,79 @@
+package water.parser;
+
+import water.Iced;
+
+/**
+ * A simple row predicate applied while parsing: one source column compared
+ * with a constant, e.g. {@code "age >= 21"} or {@code "state == CA"}.
+ *
+ * Numbers compare numerically; string tokens compare with the constant's
+ * text.  A number never equals a text constant.  Rows where the column is
+ * missing never pass.
+ */
+public final class RowFilter extends Iced {
+  static final byte LT=0, LE=1, GT=2, GE=3, EQ=4, NE=5;
+  // Two-char operators first, so "<=" is not read as "<"
+  private static final String[] OPS = {"<=",">=","==","!=","<",">"};
+  private static final byte[] OPCODES = {LE,GE,EQ,NE,LT,GT};
+
+  final int _col;               // Source column
+  final byte _op;
+  final double _num;            // The constant, or NaN if not a number
+  final String _str;            // The constant's text
+
+  RowFilter( int col, byte op, String val ) {
+    _col = col;  _op = op;  _str = val;
+    double d;
+    try { d = Double.parseDouble(val); } catch( NumberFormatException e ) { d = Double.NaN; }
+    _num = d;
+  }
+
+  /** Parse {@code "<column> <op> <value>"}, where column is one of names or
+   *  a generic name C1, C2, ... and op is one of {@code < <= > >= == !=}. */
+  public static RowFilter parse( String expr, String[] names ) {
+    for( int i=0; i<OPS.length; i++ ) {
+      int x = expr.indexOf(OPS[i]);
+      if( x <= 0 ) continue;
+      String col = expr.substring(0,x).trim(), val = expr.substring(x+OPS[i].length()).trim();
+      if( val.isEmpty() ) break;
+      return new RowFilter(column(col,names),OPCODES[i],val);
+    }
+    throw new IllegalArgumentException("Row filter must look like '<column> <op> <value>', found: "+expr);
+  }
+
+  private static int column( String col, String[] names ) {
+    if( names != null )
+      for( int i=0; i<names.length; i++ )
+        if( col.equals(names[i]) ) return i;
+    if( col.length() > 1 && col.charAt(0) == 'C' ) {
+      try { return Integer.parseInt(col.substring(1))-1; }
+      catch( NumberFormatException ignore ) { }
+    }
+    throw new IllegalArgumentException("Unknown column in row filter: "+col);
+  }
+
+  boolean test( double d ) {
+    if( Double.isNaN(d) ) return false;
+    if( Double.isNaN(_num) ) return _op == NE;
+    return cmp(Double.compare(d,_num));
+  }
+
+  boolean test( ValueString str ) { return cmp(str.toString().compareTo(_str)); }
+
+  private boolean cmp( int c ) {
+    switch( _op ) {
+    case LT: return c <  0;
+    case LE: return c <= 0;
+    case GT: return c >  0;
+    case GE: return c >= 0;
+    case EQ: return c == 0;
+    default: return c != 0;
+    }
+  }
+
+  @Override public String toString() {
+    int i=0;
+    while( OPCODES[i] != _op ) i++;
+    return "C"+(_col+1)+" "+OPS[i]+" "+_str;
+  }
+}
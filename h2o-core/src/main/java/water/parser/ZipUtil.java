@@ -1,11 +1,17 @@
 package water.parser;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.zip.*;
+import water.Iced;
+import water.Key;
+import water.MRTask;
 import water.UDP;
 import water.fvec.ByteVec;
+import water.fvec.Chunk;
 import water.fvec.Vec;
+import water.util.ArrayUtils;
 import water.util.Log;
 import water.util.UnsafeUtils;
 
@@ -37,9 +43,10 @@ abstract class ZipUtil {
     try {
       if( cmp == Compression.ZIP ) {
         ZipInputStream zis = new ZipInputStream(bais);
-        ZipEntry ze = zis.getNextEntry(); // Get the *FIRST* entry
-        // There is at least one entry in zip file and it is not a directory.
-        if( ze == null || ze.isDirectory() ) return bs; // Don't crash, ignore file if cannot unzip
+        ZipEntry ze = zis.getNextEntry(); // Get the *FIRST* file entry
+        while( ze != null && ze.isDirectory() ) ze = zis.getNextEntry();
+        // There is at least one file entry in zip file.
+        if( ze == null ) return bs; // Don't crash, ignore file if cannot unzip
         is = zis;
       } else {
         assert cmp == Compression.GZIP;
@@ -51,7 +58,11 @@ abstract class ZipUtil {
       // Now read from the compressed stream
       int off = 0;
       while( off < bs.length ) {
-        int len = is.read(bs, off, bs.length - off);
+        int len;
+        // The first chunk of a multi-chunk file is a truncated stream: keep
+        // what inflated before the end of the chunk
+        try { len = is.read(bs, off, bs.length - off); }
+        catch( EOFException eof ) { break; }
         if( len < 0 )
           break;
         off += len;
@@ -61,6 +72,7 @@ abstract class ZipUtil {
           bs = Arrays.copyOf(bs, bs.length * 2);
         }
       } 
+      if( off < bs.length ) bs = Arrays.copyOf(bs, off);
     } catch( IOException ioe ) { 
       throw Log.throwErr(ioe); 
     } finally { 
@@ -69,4 +81,309 @@ abstract class ZipUtil {
 
     return bs;
   }
+
+  // --------------------------------------------------------------------------
+  /** A separately parseable piece of a compressed file: one ZIP entry, or one
+   *  member of a concatenated GZIP file, stitched to its neighbours at line
+   *  ends. */
+  static final class Unit extends Iced {
+    static final byte STORED=0, DEFLATED=1, GZIP=2;
+    final long _off, _len;      // The compressed bytes
+    final byte _kind;
+    Unit( long off, long len, byte kind ) { _off = off; _len = len; _kind = kind; }
+
+    // A raw-deflate Inflater may want one byte past the data; some ZIP
+    // structure always follows an entry, so include it.
+    private long rawLen( ByteVec bv ) { return _kind == DEFLATED ? Math.min(_len+1,bv.length()-_off) : _len; }
+    /** Chunks of the file holding this unit; at most this many parse blocks */
+    int nChunks( ByteVec bv ) { return bv.chunksSpanned(_off,rawLen(bv)); }
+    /** The raw bytes, with the chunk-count back-channel of a ByteVec stream */
+    InputStream openRaw( ByteVec bv, Key job_key ) { return bv.openStream(_off,rawLen(bv),job_key); }
+    /** A GZIP member after the first: it may start mid-line */
+    boolean midStream() { return _kind == GZIP && _off > 0; }
+    /** Decompress the raw bytes.  GZIP members are stitched into whole lines,
+     *  see {@link MemberLines}; a repeat of the setup's header line starting a
+     *  member is dropped. */
+    InputStream inflate( ByteVec bv, InputStream raw, ParseSetup setup ) throws IOException {
+      switch( _kind ) {
+      case STORED:   return raw;
+      case DEFLATED: return new InflaterInputStream(raw,new Inflater(true));
+      default:       return new MemberLines(bv,this,new GZIPInputStream(raw),setup);
+      }
+    }
+    /** Leading inflated bytes, for guessing this unit's setup */
+    byte[] head( ByteVec bv ) {
+      byte[] bs = new byte[1<<18];
+      int off = 0;
+      try( InputStream is = inflate(bv,openRaw(bv,null),null) ) {
+        int len;
+        while( off < bs.length && (len = is.read(bs,off,bs.length-off)) != -1 ) off += len;
+      } catch( IOException ioe ) {
+        throw Log.throwErr(ioe);
+      }
+      return Arrays.copyOf(bs,off);
+    }
+  }
+
+  /** The lines of one member of a concatenated GZIP file.  Members are
+   *  usually cut by size, not at line ends, so they are stitched like the
+   *  Chunks of a parallel parse: a member after the first skips its leading
+   *  partial line, and a member before the last finishes its last line from
+   *  the members after it.  A line starting exactly at a member boundary
+   *  belongs to the member before; one with no line end at all yields nothing,
+   *  its bytes being part of a line finished by an earlier member. */
+  private static final class MemberLines extends InputStream {
+    private final ByteVec _bv;
+    private final Unit _u;
+    private final PushbackInputStream _is;
+    private final ParseSetup _setup;
+    private int _last;          // Last byte handed out, or the skipped line end
+    private byte[] _tail;       // The finished last line, once reached
+    private int _tpos;
+    MemberLines( ByteVec bv, Unit u, InputStream is, ParseSetup setup ) throws IOException {
+      _bv = bv;  _u = u;  _is = new PushbackInputStream(is);  _setup = setup;
+      _last = Parser.CHAR_LF;
+      if( u.midStream() && (_last = skipLine(_is,null)) == -1 )
+        _tail = new byte[0];    // No line starts here
+    }
+    @Override public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b,0,1) == -1 ? -1 : b[0]&0xFF;
+    }
+    @Override public int read( byte[] b, int off, int len ) throws IOException {
+      if( len == 0 ) return 0;
+      if( _tail == null ) {
+        int n = _is.read(b,off,len);
+        if( n > 0 ) { _last = b[off+n-1]; return n; }
+        _tail = tail();
+      }
+      if( _tpos == _tail.length ) return -1;
+      int n = Math.min(len,_tail.length-_tpos);
+      System.arraycopy(_tail,_tpos,b,off,n);
+      _tpos += n;
+      return n;
+    }
+    @Override public void close() throws IOException { _is.close(); }
+
+    // The first line of the following members, through its line end
+    private byte[] tail() throws IOException {
+      long end = _u._off+_u._len;
+      if( end == _bv.length() ) return new byte[0];
+      ByteArrayOutputStream line = new ByteArrayOutputStream();
+      try( InputStream is = new PushbackInputStream(new GZIPInputStream(_bv.openStream(end,_bv.length()-end,null))) ) {
+        skipLine((PushbackInputStream)is,line);
+      }
+      byte[] bs = line.toByteArray();
+      return Parser.isEOL((byte)_last) && isHeader(bs) ? new byte[0] : bs;
+    }
+
+    // A whole line repeating the header, as starts each of several CSV files
+    // gzipped and concatenated
+    private boolean isHeader( byte[] bs ) {
+      if( _setup == null || _setup._checkHeader != 1 || _setup._columnNames == null ) return false;
+      String line = new String(bs).trim();
+      if( line.isEmpty() ) return false;
+      String[] toks = CsvParser.determineTokens(line,_setup._sep,_setup._singleQuotes ? Parser.CHAR_SINGLE_QUOTE : -1);
+      if( toks.length != _setup._columnNames.length ) return false;
+      for( int i = 0; i < toks.length; ++i )
+        if( !toks[i].equalsIgnoreCase(_setup._columnNames[i]) ) return false;
+      return true;
+    }
+
+    // Read through the next line end, a CR LF pair included, into 'line' if
+    // not null.  Returns the last byte read, or -1 if no line end was found.
+    private static int skipLine( PushbackInputStream is, ByteArrayOutputStream line ) throws IOException {
+      int c;
+      while( (c = is.read()) != -1 ) {
+        if( line != null ) line.write(c);
+        if( c == Parser.CHAR_CR ) {
+          int lf = is.read();
+          if( lf == Parser.CHAR_LF ) { if( line != null ) line.write(lf); return lf; }
+          if( lf != -1 ) is.unread(lf);
+          return c;
+        }
+        if( c == Parser.CHAR_LF ) return c;
+      }
+      return -1;
+    }
+  }
+
+  /** The units of a ZIP file with several entries, or a GZIP file with several
+   *  members, in file order.  Null for a single stream, or for files that
+   *  cannot be split (Zip64, encrypted or unusual entries, corrupt headers) -
+   *  those parse serially as before. */
+  static Unit[] units( ByteVec bv ) {
+    try {
+      Unit[] units;
+      switch( guessCompressionMethod(bv.getFirstBytes()) ) {
+      case ZIP:  units = zipEntries (bv); break;
+      case GZIP: units = gzipMembers(bv); break;
+      default:   return null;
+      }
+      return units == null || units.length < 2 ? null : units;
+    } catch( IOException ioe ) {
+      return null;              // The serial parse reports any trouble
+    }
+  }
+
+  // Entries from the central directory at the end of the file, each checked
+  // against its local header for where the data starts.
+  private static Unit[] zipEntries( ByteVec bv ) throws IOException {
+    final long len = bv.length();
+    // End record: fixed part plus a comment of up to 64K
+    int tail = (int)Math.min(len,ZipFile.ENDHDR+0xFFFF);
+    byte[] bs = read(bv,len-tail,tail);
+    int e = tail-ZipFile.ENDHDR;
+    while( e >= 0 && UnsafeUtils.get4(bs,e) != (int)ZipFile.ENDSIG ) e--;
+    if( e < 0 ) return null;
+    int nents = UnsafeUtils.get2(bs,e+ZipFile.ENDTOT)&0xFFFF;
+    long cdlen = UnsafeUtils.get4(bs,e+ZipFile.ENDSIZ)&0xFFFFFFFFL;
+    long cdoff = UnsafeUtils.get4(bs,e+ZipFile.ENDOFF)&0xFFFFFFFFL;
+    if( nents == 0xFFFF || cdoff == 0xFFFFFFFFL || cdoff+cdlen > len ) return null; // Zip64 or corrupt
+    byte[] cd = read(bv,cdoff,(int)cdlen);
+    ArrayList<Unit> units = new ArrayList<>();
+    for( int i=0, p=0; i<nents; i++ ) {
+      if( p+ZipFile.CENHDR > cd.length || UnsafeUtils.get4(cd,p) != (int)ZipFile.CENSIG ) return null;
+      int flag   = UnsafeUtils.get2(cd,p+ZipFile.CENFLG)&0xFFFF;
+      int method = UnsafeUtils.get2(cd,p+ZipFile.CENHOW)&0xFFFF;
+      long csize = UnsafeUtils.get4(cd,p+ZipFile.CENSIZ)&0xFFFFFFFFL;
+      long lhoff = UnsafeUtils.get4(cd,p+ZipFile.CENOFF)&0xFFFFFFFFL;
+      int nlen = UnsafeUtils.get2(cd,p+ZipFile.CENNAM)&0xFFFF;
+      int xlen = UnsafeUtils.get2(cd,p+ZipFile.CENEXT)&0xFFFF;
+      int clen = UnsafeUtils.get2(cd,p+ZipFile.CENCOM)&0xFFFF;
+      if( p+ZipFile.CENHDR+nlen > cd.length ) return null;
+      String name = new String(cd,p+ZipFile.CENHDR,nlen,"UTF-8");
+      p += ZipFile.CENHDR+nlen+xlen+clen;
+      // Skip directories, empty files and Mac resource forks
+      if( name.endsWith("/") || name.startsWith("__MACOSX/") || csize == 0 ) continue;
+      if( (flag&1) != 0 || csize == 0xFFFFFFFFL || lhoff+ZipFile.LOCHDR > len ) return null;
+      if( method != ZipEntry.STORED && method != ZipEntry.DEFLATED ) return null;
+      byte[] loc = read(bv,lhoff,ZipFile.LOCHDR);
+      if( UnsafeUtils.get4(loc,0) != (int)ZipFile.LOCSIG ) return null;
+      long data = lhoff+ZipFile.LOCHDR+(UnsafeUtils.get2(loc,ZipFile.LOCNAM)&0xFFFF)+(UnsafeUtils.get2(loc,ZipFile.LOCEXT)&0xFFFF);
+      if( data+csize > len ) return null;
+      units.add(new Unit(data,csize,method == ZipEntry.STORED ? Unit.STORED : Unit.DEFLATED));
+    }
+    return units.toArray(new Unit[units.size()]);
+  }
+
+  // Member boundaries are not recorded anywhere, and inflating every member
+  // to find its end would cost a whole extra serial inflate - doubling the
+  // work for the common single-member file.  Instead scan the raw bytes, in
+  // parallel where they live, for member headers; a single-member file costs
+  // one pass over the compressed bytes.  Each unit runs from one header to
+  // the next and GZIPInputStream reads any members in between, so a missed
+  // header just makes a bigger unit.
+  private static Unit[] gzipMembers( ByteVec bv ) throws IOException {
+    long[] offs = new GzipScan().doAll(bv)._offs;
+    if( offs == null ) return null;
+    Arrays.sort(offs);
+    final long len = bv.length();
+    Unit[] units = new Unit[offs.length+1];
+    long off = 0;
+    for( int i = 0; i < offs.length; ++i ) {
+      units[i] = new Unit(off,offs[i]-off,Unit.GZIP);
+      off = offs[i];
+    }
+    units[offs.length] = new Unit(off,len-off,Unit.GZIP);
+    return units;
+  }
+
+  // Offsets of member headers after the first, found in each Chunk.
+  private static class GzipScan extends MRTask<GzipScan> {
+    long[] _offs;
+    @Override public void map( Chunk c ) {
+      ByteVec bv = (ByteVec)c.vec();
+      byte[] mem = c.getBytes();
+      long start = c.start();
+      for( int i = 0; i < mem.length; ++i ) {
+        if( mem[i] != 0x1f || start+i == 0 ) continue;
+        // The magic, method and flags may run into the next Chunk
+        byte[] sig = i+4 <= mem.length ? mem : null;
+        int p = i;
+        if( sig == null ) {
+          if( start+i+4 > bv.length() ) break;
+          try { sig = ZipUtil.read(bv,start+i,4); } catch( IOException ioe ) { throw Log.throwErr(ioe); }
+          p = 0;
+        }
+        if( (sig[p+1]&0xFF) != 0x8b || sig[p+2] != 8 || (sig[p+3]&0xE0) != 0 ) continue;
+        try {
+          if( isMember(bv,start+i) )
+            _offs = ArrayUtils.append(_offs,start+i);
+        } catch( IOException ioe ) { throw Log.throwErr(ioe); }
+      }
+    }
+    @Override public void reduce( GzipScan gs ) {
+      _offs = ArrayUtils.append(_offs,gs._offs);
+    }
+  }
+
+  // The magic bytes can turn up inside compressed data too, so a candidate
+  // header must be followed by good deflate data: a whole member whose CRC
+  // and size check, or PROBE bytes inflated without error.  Random bytes
+  // fail long before that.
+  private static final int PROBE = 64*1024;
+  private static boolean isMember( ByteVec bv, long off ) throws IOException {
+    final long len = bv.length();
+    int hlen = gzipHeader(read(bv,off,(int)Math.min(len-off,64*1024)));
+    if( hlen < 0 || off+hlen >= len ) return false;
+    InputStream is = bv.openStream(off+hlen,len-off-hlen,null);
+    byte[] in = new byte[8*1024], out = new byte[PROBE];
+    Inflater inf = new Inflater(true);
+    CRC32 crc = new CRC32();
+    try {
+      long fed = 0;
+      int outlen = 0;
+      while( !inf.finished() ) {
+        if( outlen == out.length ) return true; // Long enough to trust
+        if( inf.needsInput() ) {
+          int n = is.read(in,0,in.length);
+          if( n < 0 ) return false;   // Truncated
+          inf.setInput(in,0,n);
+          fed += n;
+        }
+        int n;
+        try { n = inf.inflate(out,outlen,out.length-outlen); }
+        catch( DataFormatException dfe ) { return false; }
+        if( inf.needsDictionary() ) return false;
+        crc.update(out,outlen,n);
+        outlen += n;
+      }
+      long end = off+hlen+fed-inf.getRemaining();
+      if( end+8 > len ) return false;
+      byte[] trailer = read(bv,end,8);
+      return UnsafeUtils.get4(trailer,0) == (int)crc.getValue() && UnsafeUtils.get4(trailer,4) == outlen;
+    } finally {
+      inf.end();
+    }
+  }
+
+  // Length of the GZIP member header at the start of bs, or -1 if none
+  private static int gzipHeader( byte[] bs ) {
+    if( bs.length < 10 || (UnsafeUtils.get2(bs,0)&0xffff) != GZIPInputStream.GZIP_MAGIC || bs[2] != 8 ) return -1;
+    int flg = bs[3]&0xFF, p = 10;
+    if( (flg&0xE0) != 0 ) return -1; // Reserved flags
+    if( (flg&4) != 0 ) {                 // FEXTRA
+      if( p+2 > bs.length ) return -1;
+      p += 2+(UnsafeUtils.get2(bs,p)&0xFFFF);
+    }
+    for( int f=8; f<=16; f<<=1 )         // FNAME, FCOMMENT: zero-terminated
+      if( (flg&f) != 0 ) {
+        while( p < bs.length && bs[p] != 0 ) p++;
+        p++;
+      }
+    if( (flg&2) != 0 ) p += 2;           // FHCRC
+    return p <= bs.length ? p : -1;
+  }
+
+  private static byte[] read( ByteVec bv, long off, int len ) throws IOException {
+    byte[] bs = new byte[len];
+    InputStream is = bv.openStream(off,len,null);
+    for( int p=0; p<len; ) {
+      int n = is.read(bs,p,len-p);
+      if( n < 0 ) throw new EOFException();
+      p += n;
+    }
+    return bs;
+  }
 }
@@ -0,0 +1,183 @@
+package water.persist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import water.*;
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+
+/**
+ * Spill storage for Chunk Values in large append-only segment files.
+ *
+ * Every segment file is memory-mapped once, read-write, at its full size;
+ * stores copy bytes into the mapping at the append point and reloads hand out
+ * {@link OffHeap} views straight into the mapping, so reloading a cold Chunk
+ * allocates no payload array.  Deletes only drop the index entry and lower the
+ * segment's live-byte count: bytes are never overwritten in place, so a
+ * Chunk still reading a deleted (or moved) entry sees stable data.
+ *
+ * A Value larger than a segment gets a segment of its own, mapped at its
+ * exact size and sealed at once.
+ *
+ * A background compactor copies the live entries out of sealed segments
+ * which are mostly dead, then drops the segment.  Each segment indexes its
+ * own entries, so a pass costs the live entries of the segments compacted.
+ * The file is deleted right away; the mapping goes away when the last Chunk
+ * viewing it is collected.
+ */
+final class IceSegments {
+  static final int SEG_SIZE = 64<<20; // Larger than nearly all Values
+  static final double COMPACT_LIVE_RATIO = 0.5; // Compact sealed segments below this
+
+  private final File _dir;
+  private final NonBlockingHashMap<Key,Loc> _locs = new NonBlockingHashMap<>();
+  private final NonBlockingHashMap<Integer,Segment> _segs = new NonBlockingHashMap<>();
+  private Segment _cur;         // Current append segment; guarded by 'this'
+  private int _nextIdx;         // Next segment number; guarded by 'this'
+
+  // One mapped segment file
+  static final class Segment {
+    final int _idx;
+    final File _file;
+    final MappedByteBuffer _buf; // Holding the buffer keeps the mapping alive
+    final long _addr;
+    int _end;                    // Append point; guarded by IceSegments.this
+    final AtomicLong _live = new AtomicLong(); // Bytes still indexed
+    final NonBlockingHashMap<Loc,Key> _entries = new NonBlockingHashMap<>(); // Locs in this segment, by identity
+    Segment( int idx, File file, MappedByteBuffer buf ) {
+      _idx = idx; _file = file; _buf = buf; _addr = OffHeap.address(buf);
+    }
+  }
+  // Where a Value's bytes live
+  static final class Loc {
+    final Segment _seg;
+    final int _off, _len;
+    Loc( Segment seg, int off, int len ) { _seg = seg; _off = off; _len = len; }
+  }
+
+  IceSegments( File dir ) { _dir = dir; }
+
+  private Segment newSegment( int size ) throws IOException {
+    _dir.mkdirs();
+    int idx = _nextIdx++;
+    File f = new File(_dir, "seg" + idx);
+    try( RandomAccessFile raf = new RandomAccessFile(f, "rw") ) {
+      MappedByteBuffer buf = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+      Segment seg = new Segment(idx, f, buf);
+      _segs.put(idx, seg);
+      return seg;
+    }
+  }
+
+  // Append bytes for a Key, returning their location.  Seals the current
+  // segment and starts a new one as needed; a Value too big for any segment
+  // gets its own, leaving the current one open.
+  private synchronized Loc append( Key k, byte[] m, long addr, int len ) throws IOException {
+    Segment seg;
+    if( len > SEG_SIZE ) seg = newSegment(len);
+    else {
+      if( _cur == null || _cur._end + len > SEG_SIZE ) _cur = newSegment(SEG_SIZE);
+      seg = _cur;
+    }
+    int off = seg._end;
+    if( m != null ) OffHeap.copy(m, seg._addr + off, len);
+    else            OffHeap.copy(addr, seg._addr + off, len);
+    seg._end = off + len;
+    seg._live.addAndGet(len);
+    Loc loc = new Loc(seg, off, len);
+    seg._entries.put(loc, k);
+    return loc;
+  }
+
+  private void kill( Loc loc ) {
+    if( loc == null ) return;
+    loc._seg._live.addAndGet(-loc._len);
+    loc._seg._entries.remove(loc);
+  }
+
+  /** Spill the bytes for a Key */
+  void store( Key k, byte[] m ) throws IOException {
+    kill(_locs.put(k, append(k, m, 0, m.length)));
+  }
+
+  /** True if the Key was spilled here */
+  boolean contains( Key k ) { return _locs.containsKey(k); }
+
+  /** Reload the bytes onto the heap; null if not here */
+  byte[] load( Key k ) {
+    Loc loc = _locs.get(k);
+    if( loc == null ) return null;
+    byte[] b = MemoryManager.malloc1(loc._len);
+    OffHeap.copy(loc._seg._addr + loc._off, b, loc._len);
+    return b;
+  }
+
+  /** View the spilled bytes in place, without allocating; null if not here */
+  OffHeap map( Key k ) {
+    Loc loc = _locs.get(k);
+    return loc == null ? null : OffHeap.view(loc._seg._addr + loc._off, loc._len, loc._seg._buf);
+  }
+
+  /** Forget the bytes for a Key; returns false if not here */
+  boolean delete( Key k ) {
+    Loc loc = _locs.remove(k);
+    kill(loc);
+    return loc != null;
+  }
+
+  /** Bytes referenced by live entries */
+  long liveBytes() { long s=0; for( Segment seg : _segs.values() ) s += seg._live.get(); return s; }
+  int numSegments() { return _segs.size(); }
+
+  /** Copy live entries out of mostly-dead sealed segments, and drop those
+   *  segments.  Returns the number of segments dropped. */
+  int compact() {
+    int dropped = 0;
+    for( Segment seg : _segs.values() ) {
+      synchronized( this ) { if( seg == _cur ) continue; } // Never compact the append segment
+      if( seg._live.get() > seg._end * COMPACT_LIVE_RATIO ) continue;
+      try {
+        for( Map.Entry<Loc,Key> e : seg._entries.entrySet() ) {
+          Loc old = e.getKey();
+          Key k = e.getValue();
+          Loc nnn = append(k, null, seg._addr + old._off, old._len);
+          // Racing delete or re-store wins; the copy is then dead
+          if( _locs.replace(k, old, nnn) ) kill(old);
+          else kill(nnn);
+        }
+      } catch( IOException ioe ) {
+        Log.warn("ICE segment compaction failed: " + ioe);
+        break;
+      }
+      // A store racing with sealing can land its index entry late; leave
+      // the segment for the next pass.  (Its mapping stays valid regardless.)
+      if( seg._live.get() != 0 ) continue;
+      _segs.remove(seg._idx);
+      seg._file.delete();       // Mapping lives on while Chunks view it
+      dropped++;
+    }
+    return dropped;
+  }
+
+  /** Daemon thread compacting segments every few seconds */
+  static final class Compactor extends Thread {
+    final IceSegments _segs;
+    Compactor( IceSegments segs ) {
+      super("IceCompactor");
+      setDaemon(true);
+      _segs = segs;
+    }
+    @Override public void run() {
+      while( true ) {
+        try { Thread.sleep(5000); } catch( InterruptedException ignore ) { }
+        int n = _segs.compact();
+        if( n > 0 ) Log.debug("ICE compaction dropped " + n + " segments");
+      }
+    }
+  }
+}
@@ -55,6 +55,10 @@ abstract public class Persist {
 
   abstract public void store(Value v);
 
+  /** View a persisted Value's bytes in place without copying them onto the
+   *  heap, or null if this backend cannot (the default). */
+  public OffHeap map(Value v) { return null; }
+
   abstract public void delete(Value v);
 
   public long getUsableSpace() { return UNKNOWN; }
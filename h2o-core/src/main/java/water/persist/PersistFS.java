@@ -7,18 +7,28 @@ import water.util.Log;
 
 /**
  * Persistence backend using local file system.
+ *
+ * By default every Value spills to its own file.  With {@code -ice_segments},
+ * Chunk Values instead go to large memory-mapped segment files (see {@link
+ * IceSegments}) and reload as views into the mapping.
  */
 final class PersistFS extends Persist {
   final File _root;
   final File _dir;
+  final IceSegments _segs;      // Segment store for Chunks, or null
 
-  PersistFS(File root) {
+  PersistFS(File root) { this(root, H2O.ARGS.ice_segments); }
+  PersistFS(File root, boolean segments) {
     _root = root;
     _dir = new File(root, "ice" + H2O.API_PORT);
     // Make the directory as-needed
     root.mkdirs();
     if( !(root.isDirectory() && root.canRead() && root.canWrite()) )
       H2O.die("ice_root not a read/writable directory");
+    if( segments ) {
+      _segs = new IceSegments(new File(_dir, "segments"));
+      new IceSegments.Compactor(_segs).start();
+    } else _segs = null;
   }
 
   @Override public String getPath() { return _dir.toString(); }
@@ -38,6 +48,10 @@ final class PersistFS extends Persist {
   }
 
   @Override public byte[] load(Value v) {
+    if( _segs != null ) {
+      byte[] b = _segs.load(v._key);
+      if( b != null ) return b;
+    }
     File f = getFile(v);
     if( f.length() < v._max ) { // Should be fully on disk...
       // or it's a racey delete of a spilled value
@@ -56,9 +70,22 @@ final class PersistFS extends Persist {
     }
   }
 
+  // Reload a spilled Chunk as a view into its mapped segment
+  @Override public OffHeap map(Value v) {
+    return _segs == null ? null : _segs.map(v._key);
+  }
+
   // Store Value v to disk.
   @Override public void store(Value v) {
     assert !v.isPersisted();
+    if( _segs != null && v._key.isChunkKey() ) {
+      byte[] m = v.memOrLoad();
+      assert m != null && m.length == v._max : " " + v._key + " " + m;
+      try { _segs.store(v._key, m); }
+      catch( IOException e ) { throw Log.throwErr(e); }
+      v.setdsk();
+      return;
+    }
     new File(_dir, getIceDirectory(v._key)).mkdirs();
     // Nuke any prior file.
     FileOutputStream s = null;
@@ -79,6 +106,7 @@ final class PersistFS extends Persist {
 
   @Override public void delete(Value v) {
     assert !v.isPersisted();   // Upper layers already cleared out
+    if( _segs != null && _segs.delete(v._key) ) return;
     File f = getFile(v);
     f.delete();
     if( v.isVec() ) { // Also nuke directory if the top-level Vec dies
@@ -42,6 +42,9 @@ public final class PersistNFS extends Persist {
     assert v.isPersisted();
     // Convert a file chunk into a long-offset from the base file.
     Key k = v._key;
+    // Chunks of a binary Frame file live at their own offsets
+    water.fvec.FrameFileVec ffv = water.fvec.FrameFileVec.forChunk(k);
+    if( ffv != null ) return ffv.loadChunk(k);
     long skip = k.isChunkKey() ? water.fvec.NFSFileVec.chunkOffset(k) : 0;
     try {
       FileInputStream s = null;
@@ -61,6 +64,13 @@ public final class PersistNFS extends Persist {
     }
   }
 
+  // Chunks of a binary Frame file are mapped in place; raw file data is
+  // always loaded, since C1NChunks are parsed and dropped right away.
+  @Override public OffHeap map(Value v) {
+    water.fvec.FrameFileVec ffv = water.fvec.FrameFileVec.forChunk(v._key);
+    return ffv == null ? null : ffv.mapChunk(v._key);
+  }
+
   // Store Value v to disk.
   @Override public void store(Value v) {
     // Only the home node does persistence on NFS
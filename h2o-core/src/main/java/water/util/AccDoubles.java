@@ -0,0 +1,60 @@
+package water.util;
+
+import water.AutoBuffer;
+import water.Iced;
+import water.MemoryManager;
+
+/**
+ * A fixed-length array of double sums for MRTask results.  Same wire format
+ * choice as {@link AccLongs}: dense, or (index,value) pairs when that ships
+ * fewer bytes.
+ */
+public final class AccDoubles extends Iced {
+  private double[] _vals;
+  public AccDoubles( int len ) { _vals = MemoryManager.malloc8d(len); }
+
+  public int len() { return _vals.length; }
+  public double get( int i ) { return _vals[i]; }
+  public void add( int i, double v ) { _vals[i] += v; }
+  /** The sums; live, not a copy */
+  public double[] vals() { return _vals; }
+
+  /** Add all of acc into this; returns this */
+  public AccDoubles add( AccDoubles acc ) {
+    if( acc == null ) return this;
+    assert acc._vals.length == _vals.length;
+    ArrayUtils.add(_vals,acc._vals);
+    return this;
+  }
+  public static AccDoubles add( AccDoubles a, AccDoubles b ) { return a == null ? b : a.add(b); }
+
+  /** Per-thread node-local accumulators of the given length */
+  public static LocalReducer<AccDoubles> localReducer( final int len ) {
+    return new LocalReducer<AccDoubles>() {
+      @Override protected AccDoubles make() { return new AccDoubles(len); }
+      @Override protected AccDoubles reduce( AccDoubles a, AccDoubles b ) { return a.add(b); }
+    };
+  }
+
+  // Sparse when it ships fewer bytes: doubles are never packed, so a pair
+  // (4-byte index, 8-byte value) costs 12 against 8 per dense sum.  Longs
+  // pack, so AccLongs weighs the packed width instead.
+  @Override public AutoBuffer write_impl( AutoBuffer ab ) {
+    int nnz = 0;
+    for( double v : _vals ) if( v != 0 ) nnz++;
+    if( nnz*3 >= _vals.length*2 ) return ab.put1(0).putA8d(_vals);
+    int[] idx = new int[nnz];
+    double[] vals = new double[nnz];
+    for( int i=0, j=0; i<_vals.length; i++ )
+      if( _vals[i] != 0 ) { idx[j] = i; vals[j++] = _vals[i]; }
+    return ab.put1(1).put4(_vals.length).putA4(idx).putA8d(vals);
+  }
+  @Override public AccDoubles read_impl( AutoBuffer ab ) {
+    if( ab.get1() == 0 ) { _vals = ab.getA8d(); return this; }
+    _vals = MemoryManager.malloc8d(ab.get4());
+    int[] idx = ab.getA4();
+    double[] vals = ab.getA8d();
+    for( int j=0; j<idx.length; j++ ) _vals[idx[j]] = vals[j];
+    return this;
+  }
+}
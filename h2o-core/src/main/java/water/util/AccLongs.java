@@ -0,0 +1,67 @@
+package water.util;
+
+import water.AutoBuffer;
+import water.Iced;
+import water.MemoryManager;
+
+/**
+ * A fixed-length array of long counters for MRTask results, e.g. histograms.
+ *
+ * Counters are kept dense in memory, but go over the wire as (index,value)
+ * pairs when that ships fewer bytes.  Reduce with {@link #add(AccLongs)}; a
+ * null accumulator is treated as all zeros.
+ */
+public final class AccLongs extends Iced {
+  private long[] _vals;
+  public AccLongs( int len ) { _vals = MemoryManager.malloc8(len); }
+
+  public int len() { return _vals.length; }
+  public long get( int i ) { return _vals[i]; }
+  public void add( int i, long v ) { _vals[i] += v; }
+  /** The counters; live, not a copy */
+  public long[] vals() { return _vals; }
+
+  /** Add all of acc into this; returns this */
+  public AccLongs add( AccLongs acc ) {
+    if( acc == null ) return this;
+    assert acc._vals.length == _vals.length;
+    ArrayUtils.add(_vals,acc._vals);
+    return this;
+  }
+  public static AccLongs add( AccLongs a, AccLongs b ) { return a == null ? b : a.add(b); }
+
+  /** Per-thread node-local accumulators of the given length */
+  public static LocalReducer<AccLongs> localReducer( final int len ) {
+    return new LocalReducer<AccLongs>() {
+      @Override protected AccLongs make() { return new AccLongs(len); }
+      @Override protected AccLongs reduce( AccLongs a, AccLongs b ) { return a.add(b); }
+    };
+  }
+
+  // Sparse when it ships fewer bytes.  putA8 packs values into the fewest of
+  // 1, 2, 4 or 8 bytes holding their range, so a dense counter costs that
+  // width w and a sparse one w plus a 4-byte index.
+  @Override public AutoBuffer write_impl( AutoBuffer ab ) {
+    int nnz = 0;
+    long min = 0, max = 0;
+    for( long v : _vals )
+      if( v != 0 ) { nnz++; if( v < min ) min = v; if( v > max ) max = v; }
+    int w = 0 <= min && max < 256 ? 1
+      : Short.MIN_VALUE <= min && max < Short.MAX_VALUE ? 2
+      : Integer.MIN_VALUE <= min && max < Integer.MAX_VALUE ? 4 : 8;
+    if( (long)(4+w)*nnz >= (long)w*_vals.length ) return ab.put1(0).putA8(_vals);
+    int[] idx = new int[nnz];
+    long[] vals = new long[nnz];
+    for( int i=0, j=0; i<_vals.length; i++ )
+      if( _vals[i] != 0 ) { idx[j] = i; vals[j++] = _vals[i]; }
+    return ab.put1(1).put4(_vals.length).putA4(idx).putA8(vals);
+  }
+  @Override public AccLongs read_impl( AutoBuffer ab ) {
+    if( ab.get1() == 0 ) { _vals = ab.getA8(); return this; }
+    _vals = MemoryManager.malloc8(ab.get4());
+    int[] idx = ab.getA4();
+    long[] vals = ab.getA8();
+    for( int j=0; j<idx.length; j++ ) _vals[idx[j]] = vals[j];
+    return this;
+  }
+}
@@ -399,6 +399,16 @@ public class ArrayUtils {
     return c;
   }
 
+  static public long[] append( long[] a, long... b ) {
+    if( a==null ) return b;
+    if( b==null ) return a;
+    if( a.length==0 ) return b;
+    if( b.length==0 ) return a;
+    long[] c = Arrays.copyOf(a,a.length+b.length);
+    System.arraycopy(b,0,c,a.length,b.length);
+    return c;
+  }
+
   static public String[] append( String[] a, String[] b ) {
     if( a==null ) return b;
     if( b==null ) return a;
@@ -83,6 +83,10 @@ public class FileIntegrityChecker extends MRTask<FileIntegrityChecker> {
         if( keys  != null ) keys .add(k.toString());
         if( DKV.get(k) != null ) dels.add(k.toString());
         new Frame(k).delete_and_lock(null); // Lock before making the NFS; avoids racing ImportFiles creating same Frame
+        if( FrameFile.isFrameFile(f) ) { // Binary Frame files come back as the Frame, unparsed
+          try { FrameFile.load(f, k, fs).update(null).unlock(null); continue; }
+          catch( IOException ioe ) { Log.warn("Importing "+f+" as a raw file: "+ioe); }
+        }
         NFSFileVec nfs = NFSFileVec.make(f, fs);
         new Frame(k,new String[]{"C1"}, new Vec[]{nfs}).update(null).unlock(null);
       }
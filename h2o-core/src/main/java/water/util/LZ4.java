@@ -0,0 +1,90 @@
+package water.util;
+
+/**
+ * A small pure-Java compressor for the LZ4 block format.
+ *
+ * Greedy matching through a 4K-entry hash of 4-byte sequences: fast, and
+ * good on the repetitive payloads H2O ships between Nodes (mostly-zero
+ * arrays, small-range ints, repeated enum columns).  A block is a series of
+ * sequences of [token][literal length+][literals][offset:2][match length+];
+ * the last sequence is literals only.  Blocks are not framed: callers must
+ * know the compressed length, and should know the raw length.
+ */
+public class LZ4 {
+  private static final int MINMATCH = 4;
+  private static final int HASH_LOG = 12;
+  private static final int MFLIMIT = 12;      // No match may start this close to the end
+  private static final int LAST_LITERALS = 5; // ...nor reach this close to the end
+  private static final int MAX_OFF = 65535;
+
+  private static int hash( int seq ) { return (seq*-1640531535) >>> (32-HASH_LOG); }
+
+  /** Compress src[soff,soff+slen) into dst[doff,dlimit).
+   *  @return the compressed length, or -1 if it does not fit before dlimit */
+  public static int compress( byte[] src, int soff, int slen, byte[] dst, int doff, int dlimit ) {
+    final int end = soff+slen, mflimit = end-MFLIMIT, matchlimit = end-LAST_LITERALS;
+    final int[] table = new int[1<<HASH_LOG]; // Position+1 of the last sequence seen; 0 is empty
+    int ip = soff, anchor = soff, op = doff;
+    while( ip < mflimit ) {
+      int seq = UnsafeUtils.get4(src,ip);
+      int h = hash(seq);
+      int ref = table[h]-1+soff;
+      table[h] = ip-soff+1;
+      if( ref < soff || ip-ref > MAX_OFF || UnsafeUtils.get4(src,ref) != seq ) { ip++; continue; }
+      while( ip > anchor && ref > soff && src[ip-1] == src[ref-1] ) { ip--; ref--; } // Extend backwards
+      int mlen = MINMATCH;
+      while( ip+mlen < matchlimit && src[ip+mlen] == src[ref+mlen] ) mlen++;
+      int lits = ip-anchor;
+      if( op+1+lits+lits/255+1+2+(mlen-MINMATCH)/255+1 > dlimit ) return -1;
+      op = literals(src,anchor,lits,mlen-MINMATCH,dst,op);
+      dst[op++] = (byte)(ip-ref);
+      dst[op++] = (byte)((ip-ref)>>>8);
+      if( mlen-MINMATCH >= 15 ) op = length(dst,op,mlen-MINMATCH-15);
+      anchor = ip += mlen;
+    }
+    int lits = end-anchor;
+    if( op+1+lits+lits/255+1 > dlimit ) return -1;
+    op = literals(src,anchor,lits,0,dst,op);
+    return op-doff;
+  }
+
+  // Token, extended literal length and the literals themselves
+  private static int literals( byte[] src, int lit, int lits, int ml, byte[] dst, int op ) {
+    dst[op++] = (byte)((Math.min(lits,15)<<4) | Math.min(ml,15));
+    if( lits >= 15 ) op = length(dst,op,lits-15);
+    System.arraycopy(src,lit,dst,op,lits);
+    return op+lits;
+  }
+
+  private static int length( byte[] dst, int op, int n ) {
+    for( ; n >= 255; n -= 255 ) dst[op++] = (byte)255;
+    dst[op++] = (byte)n;
+    return op;
+  }
+
+  /** Decompress the block src[soff,soff+slen) into dst at doff.  Corrupt
+   *  input fails with an array bounds exception.
+   *  @return the raw length */
+  public static int decompress( byte[] src, int soff, int slen, byte[] dst, int doff ) {
+    final int end = soff+slen;
+    int ip = soff, op = doff;
+    while( true ) {
+      int tok = src[ip++]&0xFF;
+      int lits = tok>>>4;
+      if( lits == 15 ) { int b; do { lits += b = src[ip++]&0xFF; } while( b == 255 ); }
+      System.arraycopy(src,ip,dst,op,lits);
+      ip += lits;
+      op += lits;
+      if( ip >= end ) return op-doff; // The last sequence has no match
+      int off = (src[ip++]&0xFF) | (src[ip++]&0xFF)<<8;
+      int mlen = tok&15;
+      if( mlen == 15 ) { int b; do { mlen += b = src[ip++]&0xFF; } while( b == 255 ); }
+      mlen += MINMATCH;
+      int ref = op-off;
+      if( off == 0 || ref < doff ) throw new ArrayIndexOutOfBoundsException("bad LZ4 offset "+off);
+      if( off >= mlen ) System.arraycopy(dst,ref,dst,op,mlen);
+      else for( int i=0; i<mlen; i++ ) dst[op+i] = dst[ref+i]; // Overlapping copy
+      op += mlen;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package water.util;
+
+import water.nbhm.NonBlockingHashMap;
+
+/**
+ * Node-local pre-reduction for MRTask results.
+ *
+ * Normally every map call allocates its own result, and the local execution
+ * tree reduces them pairwise before the one remote reduce.  For big,
+ * fixed-shape results (histograms, per-cluster sums) that is one allocation
+ * and one full-size reduce per Chunk.  Instead, a task can make one of these
+ * in {@code setupLocal()} (the field must be transient; local clones share
+ * it), have map() add into {@link #get()} - one accumulator per worker thread,
+ * reused across Chunks - and in {@code closeLocal()} fold the lot into its
+ * result with {@link #fold()}.  map() then leaves the result field null and
+ * reduce() must accept nulls.
+ *
+ * Accumulators are kept here by thread, not in ThreadLocals: only the owning
+ * thread could remove a ThreadLocal, so pooled F/J threads would hold on to
+ * big accumulators long after the task.  fold() empties the table, so no
+ * thread keeps an accumulator - nor the result - afterwards.
+ */
+public abstract class LocalReducer<A> {
+  private final NonBlockingHashMap<Thread,A> _mine = new NonBlockingHashMap<>();
+
+  /** A new, empty accumulator */
+  protected abstract A make();
+  /** Add b into a, and return a */
+  protected abstract A reduce( A a, A b );
+
+  /** This thread's accumulator */
+  public final A get() {
+    Thread t = Thread.currentThread();
+    A a = _mine.get(t);
+    if( a == null ) _mine.put(t, a = make()); // Only this thread sets its slot
+    return a;
+  }
+
+  /** All accumulators reduced into one, or null if none was used.  Call once
+   *  all local map calls are done; the accumulators are dropped from here. */
+  public final A fold() {
+    A res = null;
+    for( Thread t : _mine.keySet() ) {
+      A a = _mine.remove(t);
+      if( a != null ) res = res == null ? a : reduce(res,a);
+    }
+    return res;
+  }
+}
@@ -0,0 +1,131 @@
+package water.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import water.H2O;
+import water.Iced;
+import water.MRTask;
+import water.nbhm.NonBlockingHashMap;
+
+/**
+ * Per-node registry of MRTask costs, keyed by task class.  Every top-level
+ * local pass of an MRTask records its summed map and reduce time, the bytes
+ * it shipped to and from its RPC children, the latency of each of those RPCs,
+ * and the number of chunks (or keys) it mapped on this node.  Each is kept as
+ * a log2 histogram, so a few unusual calls stand out from the common case.
+ *
+ * A task whose RPC latency dwarfs its map time is network-bound; one whose map
+ * time dominates is CPU-bound.  {@link #collect} gathers the registries of the
+ * whole cloud and merges them by class.
+ */
+public class MRMetrics {
+  /** Number of histogram buckets: 0, then one per power of 2 */
+  public static final int NBUCKETS = 40;
+
+  /** A log2 histogram: bucket 0 counts zeros, bucket i counts [2^(i-1),2^i),
+   *  and the last bucket also counts everything larger. */
+  public static class Histo extends Iced {
+    public long[] _bins = new long[NBUCKETS];
+    public long _cnt, _sum, _max;
+
+    static int bucket( long x ) { return Math.min(64-Long.numberOfLeadingZeros(Math.max(x,0)),NBUCKETS-1); }
+    public void add( long x ) { _bins[bucket(x)]++; _cnt++; _sum += x; _max = Math.max(_max,x); }
+    public void add( Histo h ) {
+      for( int i=0; i<NBUCKETS; i++ ) _bins[i] += h._bins[i];
+      _cnt += h._cnt;  _sum += h._sum;  _max = Math.max(_max,h._max);
+    }
+    public double mean() { return _cnt == 0 ? 0 : (double)_sum/_cnt; }
+  }
+
+  /** All the histograms for one MRTask class */
+  public static class TaskStats extends Iced {
+    public String _clz;
+    public long _calls;         // Top-level local passes
+    public Histo _mapUs    = new Histo(); // Summed user map() time, usec
+    public Histo _reduceUs = new Histo(); // Summed user reduce() time, usec
+    public Histo _bytes    = new Histo(); // Bytes sent and received over RPC
+    public Histo _rpcMs    = new Histo(); // Per-RPC launch-to-answer latency, msec
+    public Histo _chunks   = new Histo(); // Chunks or keys mapped on this node
+    TaskStats( String clz ) { _clz = clz; }
+    synchronized TaskStats copy() {
+      TaskStats ts = new TaskStats(_clz);
+      ts.add(this);
+      return ts;
+    }
+    void add( TaskStats ts ) {
+      _calls += ts._calls;
+      _mapUs.add(ts._mapUs);  _reduceUs.add(ts._reduceUs);
+      _bytes.add(ts._bytes);  _rpcMs.add(ts._rpcMs);  _chunks.add(ts._chunks);
+    }
+  }
+
+  private static final NonBlockingHashMap<String,TaskStats> STATS = new NonBlockingHashMap<>();
+
+  private static TaskStats stats( Class clz ) {
+    String name = clz.getName();
+    TaskStats ts = STATS.get(name);
+    if( ts != null ) return ts;
+    TaskStats ts2 = STATS.putIfAbsent(name,ts = new TaskStats(name));
+    return ts2 == null ? ts : ts2;
+  }
+
+  /** Record one top-level local pass of a task */
+  public static void record( Class clz, long mapNs, long reduceNs, long bytes, int chunks ) {
+    TaskStats ts = stats(clz);
+    synchronized( ts ) {
+      ts._calls++;
+      ts._mapUs.add(mapNs/1000);
+      ts._reduceUs.add(reduceNs/1000);
+      ts._bytes.add(bytes);
+      ts._chunks.add(chunks);
+    }
+  }
+
+  /** Record the latency of one RPC fanned out by a task */
+  public static void recordRPC( Class clz, long ms ) {
+    TaskStats ts = stats(clz);
+    synchronized( ts ) { ts._rpcMs.add(ms); }
+  }
+
+  /** This node's registry, sorted by class name */
+  public static TaskStats[] snapshot() {
+    TaskStats[] tss = new TaskStats[STATS.size()];
+    int i=0;
+    for( TaskStats ts : STATS.values() ) {
+      if( i == tss.length ) tss = Arrays.copyOf(tss,i<<1); // Raced with a new class
+      tss[i++] = ts.copy();
+    }
+    return sort(Arrays.copyOf(tss,i));
+  }
+
+  /** Forget everything recorded on this node */
+  public static void clear() { STATS.clear(); }
+
+  /** The registries of the whole cloud, merged by class name and sorted */
+  public static TaskStats[] collect() { return new Collector().doAllNodes()._stats; }
+
+  private static TaskStats[] sort( TaskStats[] tss ) {
+    Arrays.sort(tss,new Comparator<TaskStats>() {
+        @Override public int compare( TaskStats a, TaskStats b ) { return a._clz.compareTo(b._clz); }
+      });
+    return tss;
+  }
+
+  private static class Collector extends MRTask<Collector> {
+    TaskStats[] _stats;
+    @Override public void setupLocal() { _stats = snapshot(); }
+    @Override public void reduce( Collector that ) {
+      // Merge two sorted lists
+      TaskStats[] a = _stats, b = that._stats, res = new TaskStats[a.length+b.length];
+      int i=0, j=0, k=0;
+      while( i < a.length || j < b.length ) {
+        int c = i == a.length ? 1 : (j == b.length ? -1 : a[i]._clz.compareTo(b[j]._clz));
+        if( c < 0 ) res[k++] = a[i++];
+        else if( c > 0 ) res[k++] = b[j++];
+        else { a[i].add(b[j++]); res[k++] = a[i++]; }
+      }
+      _stats = Arrays.copyOf(res,k);
+    }
+    @Override public byte priority() { return H2O.GUI_PRIORITY; }
+  }
+}
@@ -0,0 +1,45 @@
+package water.util;
+
+import water.Iced;
+
+/**
+ * Count, mean and sum of squared deviations (M2) of a stream of doubles,
+ * mergeable pairwise in any order (Chan et al.).  Variance is M2/(n-1).
+ * The static helpers merge the same quantities kept in other fields.
+ */
+public final class MeanVar extends Iced {
+  public long _n;
+  public double _mean, _m2;
+
+  public void add( double d ) {
+    double delta = d - _mean;
+    _mean += delta/++_n;
+    _m2 += delta*(d - _mean);
+  }
+
+  /** Merge mv into this; returns this */
+  public MeanVar add( MeanVar mv ) {
+    if( mv == null || mv._n == 0 ) return this;
+    _m2 = m2(_n,_mean,_m2,mv._n,mv._mean,mv._m2);
+    _mean = mean(_n,_mean,mv._n,mv._mean);
+    _n += mv._n;
+    return this;
+  }
+
+  public double var() { return _n > 1 ? _m2/(_n-1) : 0; }
+  public double sigma() { return Math.sqrt(var()); }
+
+  /** Mean of two merged sets */
+  public static double mean( long n1, double mean1, long n2, double mean2 ) {
+    if( n1 == 0 ) return mean2;
+    if( n2 == 0 ) return mean1;
+    return (mean1*n1 + mean2*n2)/(n1+n2);
+  }
+  /** Sum of squared deviations of two merged sets */
+  public static double m2( long n1, double mean1, double m21, long n2, double mean2, double m22 ) {
+    if( n1 == 0 ) return m22;
+    if( n2 == 0 ) return m21;
+    double delta = mean1 - mean2;
+    return m21 + m22 + delta*delta*n1*n2/(n1+n2);
+  }
+}
@@ -204,6 +204,7 @@ public final class TimelineSnapshot implements
             return false;
           break;
         case i_o:                 // Shows up as I/O-completing recorded packets
+        case lz4:                 // Compression stats, one per side
           return false;
         default:
           throw new RuntimeException("unexpected udp packet type " + e.toString());
@@ -6,12 +6,24 @@ import water.nbhm.UtilUnsafe;
 public class UnsafeUtils {
   private static final Unsafe _unsafe = UtilUnsafe.getUnsafe();
   private static final long _Bbase  = _unsafe.arrayBaseOffset(byte[].class);
+  /** Offset of element zero in a byte[], for the base/offset accessors */
+  public static final long BYTE_BASE = _Bbase;
   public static int    get2 ( byte[] buf, int off ) { return _unsafe.getShort (buf, _Bbase+off); }
   public static int    get4 ( byte[] buf, int off ) { return _unsafe.getInt   (buf, _Bbase+off); }
   public static long   get8 ( byte[] buf, int off ) { return _unsafe.getLong  (buf, _Bbase+off); }
   public static float  get4f( byte[] buf, int off ) { return _unsafe.getFloat (buf, _Bbase+off); }
   public static double get8d( byte[] buf, int off ) { return _unsafe.getDouble(buf, _Bbase+off); }
 
+
+  // Base/offset accessors: base is a byte[] and off includes BYTE_BASE for
+  // heap memory, or base is null and off is a raw address for off-heap memory.
+  public static int    get1 ( Object base, long off ) { return _unsafe.getByte  (base, off); }
+  public static int    get2 ( Object base, long off ) { return _unsafe.getShort (base, off); }
+  public static int    get4 ( Object base, long off ) { return _unsafe.getInt   (base, off); }
+  public static long   get8 ( Object base, long off ) { return _unsafe.getLong  (base, off); }
+  public static float  get4f( Object base, long off ) { return _unsafe.getFloat (base, off); }
+  public static double get8d( Object base, long off ) { return _unsafe.getDouble(base, off); }
+
   public static int set2 (byte[] buf, int off, short x ) {_unsafe.putShort (buf, _Bbase+off, x); return 2;}
   public static int set4 (byte[] buf, int off, int x   ) {_unsafe.putInt   (buf, _Bbase+off, x); return 4;}
   public static int set4f(byte[] buf, int off, float f ) {_unsafe.putFloat (buf, _Bbase+off, f); return 4;}
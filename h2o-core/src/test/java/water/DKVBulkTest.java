@@ -0,0 +1,56 @@
+package water;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+public class DKVBulkTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  private static Value val( Key k, int i ) { return new Value(k,"bulk "+i); }
+
+  @Test public void testBulkPutGet() {
+    Key[] keys = new Key[200];
+    Value[] vals = new Value[keys.length];
+    for( int i=0; i<keys.length; i++ ) vals[i] = val(keys[i] = Key.make("bulk"+i),i);
+    try {
+      Futures fs = new Futures();
+      DKV.put(keys,vals,fs);
+      fs.blockForPending();
+
+      Value[] got = DKV.get(keys);
+      assertEquals(keys.length,got.length);
+      for( int i=0; i<keys.length; i++ ) {
+        assertEquals(keys[i],got[i]._key);
+        assertArrayEquals(vals[i].memOrLoad(),got[i].memOrLoad());
+        assertEquals(got[i],DKV.get(keys[i]));
+      }
+
+      // Missing keys come back null, in place
+      Key[] mixed = new Key[]{keys[0],Key.make("bulk_missing"),keys[1]};
+      DKV.prefetch(mixed);
+      got = DKV.get(mixed);
+      assertNotNull(got[0]);
+      assertNull(got[1]);
+      assertNotNull(got[2]);
+    } finally {
+      Futures fs = new Futures();
+      DKV.put(keys,new Value[keys.length],fs);
+      fs.blockForPending();
+    }
+    for( Value v : DKV.get(keys) ) assertNull(v);
+  }
+
+  // Repeated keys in one bulk put land in order
+  @Test public void testRepeatedKeys() {
+    Key k = Key.make("bulk_repeat");
+    Key[] keys = new Key[]{k,k,k};
+    Value[] vals = new Value[]{val(k,1),val(k,2),val(k,3)};
+    Futures fs = new Futures();
+    DKV.put(keys,vals,fs);
+    fs.blockForPending();
+    assertArrayEquals(vals[2].memOrLoad(),DKV.get(k).memOrLoad());
+    Value[] got = DKV.get(keys);
+    for( Value v : got ) assertArrayEquals(vals[2].memOrLoad(),v.memOrLoad());
+    DKV.remove(k);
+  }
+}
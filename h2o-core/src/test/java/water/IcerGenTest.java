@@ -0,0 +1,111 @@
+package water;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class IcerGenTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  // Each type is used by one test only, so no Icer is cached for it yet.
+  // Public, so an Icer loaded by another class loader can reach the fields.
+  public static class Prebuilt extends Iced { public int _x; public String _s; }
+  public static class Woven    extends Iced { public int _x; public String _s; }
+  public static class Known    extends Iced { public long _l; }
+  public static class Fresh    extends Iced { public double _d; }
+
+  // An Icer generated at build time for the runtime type ID is the one used
+  @Test public void testPrebuiltIcer() throws Exception {
+    int id = TypeMap.onIce(Prebuilt.class.getName());
+    Assert.assertNull(TypeMap.prebuiltIcerClass(Prebuilt.class,id));
+    // Write it next to the class, as IcerGen does at build time
+    File dir = new File(Prebuilt.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    String name = TypeMap.prebuiltIcerName(Prebuilt.class.getName(),id);
+    File icer = new File(dir,name.replace('.','/')+".class");
+    try {
+      Weaver.writeIcer(id,Prebuilt.class,TypeMap.onIce(Iced.class.getName()),dir.getPath());
+      Assert.assertNotNull(TypeMap.prebuiltIcerClass(Prebuilt.class,id));
+      Icer f = TypeMap.getIcer(id,Prebuilt.class);
+      Assert.assertEquals(name,f.getClass().getName());
+      Assert.assertEquals(id,f.frozenType());
+
+      Prebuilt p = new Prebuilt();
+      p._x = 17;  p._s = "prebuilt";
+      Assert.assertEquals(id,p.frozenType());
+      Prebuilt q = new AutoBuffer().put(p).flipForReading().get();
+      Assert.assertEquals(17,q._x);
+      Assert.assertEquals("prebuilt",q._s);
+    } finally {
+      icer.delete();
+    }
+  }
+
+  // No prebuilt Icer: one is woven on first use
+  @Test public void testWovenFallback() {
+    int id = TypeMap.onIce(Woven.class.getName());
+    Assert.assertNull(TypeMap.prebuiltIcerClass(Woven.class,id));
+    Icer f = TypeMap.getIcer(id,Woven.class);
+    Assert.assertNotEquals(TypeMap.prebuiltIcerName(Woven.class.getName(),id),f.getClass().getName());
+    Assert.assertEquals(id,f.frozenType());
+
+    Woven w = new Woven();
+    w._x = 42;  w._s = "woven";
+    Assert.assertEquals(id,w.frozenType());
+    Woven v = new AutoBuffer().put(w).flipForReading().get();
+    Assert.assertEquals(42,v._x);
+    Assert.assertEquals("woven",v._s);
+  }
+
+  // IcerGen keeps the IDs TypeMap already has, numbers new types from
+  // TypeMap.nextId(), and tables only the new ones
+  @Test public void testIcerGen() throws Exception {
+    int known = TypeMap.onIce(Known.class.getName());
+    Assert.assertEquals(-1,TypeMap.knownId(Fresh.class.getName()));
+    File dir = Files.createTempDirectory("icergen").toFile();
+    try {
+      copyClass(Known.class,dir);
+      copyClass(Fresh.class,dir);
+      int next = TypeMap.nextId();
+      IcerGen.main(new String[]{dir.getPath()});
+
+      List<String> tab = Files.readAllLines(new File(dir,TypeMap.PREBUILT_IDS).toPath(),StandardCharsets.UTF_8);
+      Assert.assertEquals(1,tab.size());
+      String[] line = tab.get(0).split(" ");
+      Assert.assertEquals(Fresh.class.getName(),line[1]);
+      int fresh = Integer.parseInt(line[0]);
+      Assert.assertTrue(fresh >= next);
+
+      // The generated Icers freeze under those IDs
+      try( URLClassLoader loader = new URLClassLoader(new URL[]{dir.toURI().toURL()},IcerGenTest.class.getClassLoader()) ) {
+        Assert.assertEquals(known,loadIcer(loader,Known.class,known).frozenType());
+        Assert.assertEquals(fresh,loadIcer(loader,Fresh.class,fresh).frozenType());
+      }
+    } finally {
+      delete(dir);
+    }
+  }
+
+  private static Icer loadIcer( ClassLoader loader, Class clz, int id ) throws ClassNotFoundException {
+    return TypeMap.newIcer(loader.loadClass(TypeMap.prebuiltIcerName(clz.getName(),id)),clz);
+  }
+
+  private static void copyClass( Class clz, File dir ) throws Exception {
+    String res = clz.getName().replace('.','/')+".class";
+    File f = new File(dir,res);
+    f.getParentFile().mkdirs();
+    try( InputStream is = clz.getClassLoader().getResourceAsStream(res) ) { Files.copy(is,f.toPath()); }
+  }
+
+  private static void delete( File f ) {
+    File[] fs = f.listFiles();
+    if( fs != null ) for( File g : fs ) delete(g);
+    f.delete();
+  }
+}
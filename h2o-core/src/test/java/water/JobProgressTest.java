@@ -0,0 +1,46 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class JobProgressTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  @Test public void testStripedUpdates() throws Exception {
+    final int T = 4, N = 5000;
+    final Job job = new Job(Key.make(),"progress test",2*T*N);
+    DKV.put(job._key,job);
+    try {
+      Thread[] ts = new Thread[T];
+      for( int t=0; t<T; t++ ) {
+        ts[t] = new Thread() {
+            @Override public void run() { for( int i=0; i<N; i++ ) Job.update(1,job._key); }
+          };
+        ts[t].start();
+      }
+      for( Thread t : ts ) t.join();
+
+      // Unpushed work shows up at once on this node
+      Job j2 = DKV.get(job._key).get();
+      Assert.assertEquals(0.5f,j2.progress(),1e-6);
+
+      // Once pushed, the Job itself holds the total
+      JobProgress.flush(true);
+      Assert.assertEquals(0,JobProgress.pending(job._key));
+      j2 = DKV.get(job._key).get();
+      Assert.assertEquals(0.5f,j2.progress(),1e-6);
+
+      // The pusher thread delivers without help
+      Job.update(T*N,job._key);
+      long deadline = System.currentTimeMillis()+10*JobProgress.PUSH_MS;
+      Job j3;
+      while( ((j3 = DKV.get(job._key).get()).progress() < 1 || JobProgress.pending(job._key) != 0) && System.currentTimeMillis() < deadline )
+        Thread.sleep(10);
+      Assert.assertEquals(0,JobProgress.pending(job._key));
+      Assert.assertEquals(1.0f,j3.progress(),1e-6);
+    } finally {
+      DKV.remove(job._key);
+    }
+  }
+}
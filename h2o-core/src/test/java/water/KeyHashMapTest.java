@@ -0,0 +1,48 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class KeyHashMapTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  private static byte[] kb( int i ) {
+    // Mix of Keys short enough to compare inline, and longer ones
+    return (i%3==0 ? "s"+i : "khm"+i+"-with-a-longer-tail").getBytes();
+  }
+
+  // Concurrent put/get/remove through resizes; lookups use fresh, equal Keys
+  @Test public void testConcurrent() throws InterruptedException {
+    final NonBlockingKeyHashMap<Integer> m = new NonBlockingKeyHashMap<>();
+    final int N = 20000, T = 4;
+    final Throwable[] err = new Throwable[1];
+    Thread[] ts = new Thread[T];
+    for( int t=0; t<T; t++ ) {
+      final int base = t*N;
+      ts[t] = new Thread() {
+        @Override public void run() {
+          try {
+            for( int i=base; i<base+N; i++ ) {
+              m.put(Key.make(kb(i)),i);
+              Assert.assertEquals((Integer)i,m.get(Key.make(kb(i))));
+              if( (i&1)==0 ) {
+                Assert.assertEquals((Integer)i,m.remove(Key.make(kb(i))));
+                Assert.assertNull(m.get(Key.make(kb(i))));
+              }
+            }
+          } catch( Throwable e ) { err[0] = e; }
+        }
+      };
+      ts[t].start();
+    }
+    for( Thread t : ts ) t.join();
+    if( err[0] != null ) throw new RuntimeException(err[0]);
+    Assert.assertEquals(T*N/2,m.size());
+    for( int i=1; i<T*N; i+=2 ) {
+      Key k = Key.make(kb(i));
+      Assert.assertEquals((Integer)i,m.get(k));
+      Assert.assertNotSame(k,m.getk(k)); // The stored Key, not the probe
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.api.MRMetricsHandler;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+import water.util.MRMetrics;
+import water.util.MRMetrics.TaskStats;
+
+public class MRMetricsTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  private static class SumTask extends MRTask<SumTask> {
+    long _sum;
+    @Override public void map( Chunk c ) { for( int i=0; i<c.len(); i++ ) _sum += c.at80(i); }
+    @Override public void map( Key k ) { _sum++; }
+    @Override public void reduce( SumTask t ) { _sum += t._sum; }
+  }
+
+  private static TaskStats find( TaskStats[] tss ) {
+    for( TaskStats ts : tss )
+      if( ts._clz.equals(SumTask.class.getName()) ) return ts;
+    return null;
+  }
+
+  @Test public void testMetrics() {
+    Vec v = vec(1,2,3,4,5);
+    try {
+      TaskStats before = find(MRMetrics.collect());
+      long calls = before == null ? 0 : before._calls;
+      long chks  = before == null ? 0 : before._chunks._sum;
+      Assert.assertEquals(15,new SumTask().doAll(v)._sum);
+      Key[] keys = new Key[7];
+      for( int i=0; i<keys.length; i++ ) keys[i] = Key.make("mrmetrics"+i);
+      Assert.assertEquals(keys.length,new SumTask().doAll(keys)._sum);
+
+      TaskStats ts = find(MRMetrics.collect());
+      Assert.assertNotNull(ts);
+      // Every node records its own local pass; at least this node did both
+      Assert.assertTrue(ts._calls >= calls+2);
+      Assert.assertEquals(chks+v.nChunks()+keys.length,ts._chunks._sum);
+      Assert.assertEquals(ts._calls,ts._mapUs._cnt);
+      long n=0;
+      for( long b : ts._chunks._bins ) n += b;
+      Assert.assertEquals(ts._chunks._cnt,n);
+
+      // And the REST view serializes
+      MRMetricsHandler.MRMetricsInfo m = new MRMetricsHandler.MRMetricsInfo();
+      String json = new String(new MRMetricsHandler().fetch(2,m).writeJSON(new AutoBuffer()).buf());
+      Assert.assertTrue(json.contains(SumTask.class.getName()));
+    } finally {
+      v.remove();
+    }
+  }
+}
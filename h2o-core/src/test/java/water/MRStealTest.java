@@ -0,0 +1,60 @@
+package water;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.*;
+
+public class MRStealTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(3); }
+
+  // Chunks homed on Node _slow take a while, so the other Nodes run dry
+  private static class SumTask extends MRTask<SumTask> {
+    final int _slow;
+    long _sum;
+    SumTask( int slow ) { _slow = slow; }
+    @Override public void map( Chunk c, NewChunk nc ) {
+      if( c.vec().chunkKey(c.cidx()).home_node().index() == _slow )
+        try { Thread.sleep(50); } catch( InterruptedException ignore ) { }
+      for( int i=0; i<c.len(); i++ ) { _sum += c.at80(i); nc.addNum(2*c.at80(i)); }
+    }
+    @Override public void reduce( SumTask t ) { _sum += t._sum; }
+  }
+
+  // Stealing or not, every Chunk is mapped and reduced exactly once
+  @Test public void testSameResult() {
+    final int NCHKS = 50, ROWS = 100;
+    Futures fs = new Futures();
+    AppendableVec av = new AppendableVec(Vec.newKey());
+    for( int c=0; c<NCHKS; c++ ) {
+      NewChunk nc = new NewChunk(av,c);
+      for( int i=0; i<ROWS; i++ ) nc.addNum(c*ROWS+i);
+      nc.close(c,fs);
+    }
+    Vec v = av.close(fs);
+    fs.blockForPending();
+    int slow = v.chunkKey(0).home_node().index();
+    Frame base = null, out = null;
+    try {
+      SumTask bt = new SumTask(slow).doAll(1,v);
+      base = bt.outputFrame(new String[]{"x2"},null);
+      long expect = bt._sum;
+      Assert.assertEquals((long)NCHKS*ROWS*(NCHKS*ROWS-1)/2,expect);
+      Assert.assertEquals(0,bt.nstolen());
+      SumTask st = new SumTask(slow).withWorkStealing().doAll(1,v);
+      Assert.assertTrue(st.profString(),st.nstolen() > 0);
+      Assert.assertEquals(expect,st._sum);
+      // Stolen Chunks are written where they belong, every row once
+      out = st.outputFrame(new String[]{"x2"},null);
+      Assert.assertEquals(v.length(),out.numRows());
+      Assert.assertEquals(v.nChunks(),out.vecs()[0].nChunks());
+      for( long r=0; r<v.length(); r++ )
+        Assert.assertEquals(2*v.at8(r),out.vecs()[0].at8(r));
+      Assert.assertTrue(st.profString(),st.profString().contains("stole"));
+    } finally {
+      v.remove();
+      if( base != null ) base.remove();
+      if( out != null ) out.remove();
+    }
+  }
+}
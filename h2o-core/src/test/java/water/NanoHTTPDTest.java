@@ -0,0 +1,160 @@
+package water;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Properties;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NanoHTTPDTest {
+  // Echoes the uri; counts requests served
+  private static class Echo extends NanoHTTPD {
+    volatile int _served;
+    final int _port;
+    Echo( ServerSocket ss ) throws IOException { super(ss, null); _port = ss.getLocalPort(); }
+    @Override public Response serve( String uri, String method, Properties header, Properties parms ) {
+      _served++;
+      if( uri.startsWith("/fail") )
+        return new Response(HTTP_OK, MIME_PLAINTEXT, new StreamWriter() {
+            // Part of the body, then a failure, as from a broken serializer
+            @Override public void writeTo( OutputStream os ) throws IOException {
+              os.write("half".getBytes()); os.flush();
+              throw new RuntimeException("writeTo failed");
+            }
+          });
+      if( uri.startsWith("/stream") ) {
+        final String txt = uri;
+        return new Response(HTTP_OK, MIME_PLAINTEXT, new StreamWriter() {
+            // In pieces, to make several chunks
+            @Override public void writeTo( OutputStream os ) throws IOException {
+              for( int i=0; i<txt.length(); i++ ) { os.write(txt.charAt(i)); os.flush(); }
+              os.close();
+            }
+          });
+      }
+      return new Response(HTTP_OK, MIME_PLAINTEXT, uri);
+    }
+  }
+
+  private static String line( InputStream in ) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for( int c; (c = in.read()) != '\n'; ) {
+      if( c == -1 ) return sb.length() == 0 ? null : sb.toString();
+      if( c != '\r' ) sb.append((char)c);
+    }
+    return sb.toString();
+  }
+
+  // Read one response; returns its body, and its headers in hdrs with the
+  // protocol of the status line under "protocol"
+  private static String response( InputStream in, Properties hdrs ) throws IOException {
+    String status = line(in);
+    Assert.assertNotNull(status);
+    Assert.assertTrue(status, status.contains("200"));
+    hdrs.put("protocol", status.substring(0,status.indexOf(' ')));
+    for( String l; (l = line(in)) != null && !l.isEmpty(); ) {
+      int x = l.indexOf(':');
+      hdrs.put(l.substring(0,x).trim().toLowerCase(), l.substring(x+1).trim());
+    }
+    if( "chunked".equals(hdrs.getProperty("transfer-encoding")) ) {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      for( int n; (n = Integer.parseInt(line(in),16)) > 0; ) {
+        byte[] chunk = new byte[n];
+        new DataInputStream(in).readFully(chunk);
+        bos.write(chunk);
+        Assert.assertEquals("", line(in));
+      }
+      Assert.assertEquals("", line(in)); // End of the last chunk
+      return bos.toString();
+    }
+    String len = hdrs.getProperty("content-length");
+    if( len == null ) {         // Body runs to the close
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      for( int c; (c = in.read()) != -1; ) bos.write(c);
+      return bos.toString();
+    }
+    byte[] body = new byte[Integer.parseInt(len)];
+    new DataInputStream(in).readFully(body);
+    return new String(body);
+  }
+
+  @Test public void testKeepAlive() throws IOException {
+    Echo srv = new Echo(new ServerSocket(0));
+    try( Socket s = new Socket("127.0.0.1", srv._port) ) {
+      OutputStream out = s.getOutputStream();
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      // Several requests on one connection, the last asking to close
+      for( int i=0; i<3; i++ ) {
+        out.write(("GET /req"+i+" HTTP/1.1\r\nHost: x\r\n"+(i==2 ? "Connection: close\r\n" : "")+"\r\n").getBytes());
+        out.flush();
+        Properties hdrs = new Properties();
+        Assert.assertEquals("/req"+i, response(in,hdrs));
+        Assert.assertEquals(i==2 ? "close" : "keep-alive", hdrs.getProperty("connection"));
+        Assert.assertEquals("HTTP/1.1", hdrs.getProperty("protocol"));
+      }
+      Assert.assertEquals(-1, in.read());
+    } finally { srv.stop(); }
+    Assert.assertEquals(3, srv._served);
+  }
+
+  @Test public void testHttp10Closes() throws IOException {
+    Echo srv = new Echo(new ServerSocket(0));
+    try( Socket s = new Socket("127.0.0.1", srv._port) ) {
+      s.getOutputStream().write("GET /one HTTP/1.0\r\n\r\n".getBytes());
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      Properties hdrs = new Properties();
+      Assert.assertEquals("/one", response(in,hdrs));
+      Assert.assertEquals("close", hdrs.getProperty("connection"));
+      Assert.assertEquals("HTTP/1.0", hdrs.getProperty("protocol"));
+      Assert.assertEquals(-1, in.read());
+    } finally { srv.stop(); }
+  }
+
+  @Test public void testChunkedStream() throws IOException {
+    Echo srv = new Echo(new ServerSocket(0));
+    try( Socket s = new Socket("127.0.0.1", srv._port) ) {
+      OutputStream out = s.getOutputStream();
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      // A streamed response, then a plain one on the same connection
+      out.write("GET /stream/abc HTTP/1.1\r\nHost: x\r\n\r\n".getBytes());
+      out.flush();
+      Properties hdrs = new Properties();
+      Assert.assertEquals("/stream/abc", response(in,hdrs));
+      Assert.assertEquals("chunked", hdrs.getProperty("transfer-encoding"));
+      Assert.assertNull(hdrs.getProperty("content-length"));
+      Assert.assertEquals("keep-alive", hdrs.getProperty("connection"));
+      out.write("GET /next HTTP/1.1\r\nHost: x\r\nConnection: close\r\n\r\n".getBytes());
+      out.flush();
+      Assert.assertEquals("/next", response(in,new Properties()));
+      Assert.assertEquals(-1, in.read());
+    } finally { srv.stop(); }
+    Assert.assertEquals(2, srv._served);
+  }
+
+  @Test public void testHttp10Stream() throws IOException {
+    Echo srv = new Echo(new ServerSocket(0));
+    try( Socket s = new Socket("127.0.0.1", srv._port) ) {
+      s.getOutputStream().write("GET /stream/xyz HTTP/1.0\r\n\r\n".getBytes());
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      Properties hdrs = new Properties();
+      Assert.assertEquals("/stream/xyz", response(in,hdrs)); // Up to the close
+      Assert.assertNull(hdrs.getProperty("transfer-encoding"));
+      Assert.assertEquals("close", hdrs.getProperty("connection"));
+    } finally { srv.stop(); }
+  }
+
+  // A body cut short by a failing writer is never ended with the last chunk
+  @Test public void testStreamFailure() throws IOException {
+    Echo srv = new Echo(new ServerSocket(0));
+    try( Socket s = new Socket("127.0.0.1", srv._port) ) {
+      s.getOutputStream().write("GET /fail HTTP/1.1\r\nHost: x\r\n\r\n".getBytes());
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      try { for( int c; (c = in.read()) != -1; ) bos.write(c); }
+      catch( IOException reset ) { /*the connection is dropped*/ }
+      String raw = bos.toString();
+      Assert.assertFalse(raw, raw.endsWith("0\r\n\r\n"));
+    } finally { srv.stop(); }
+  }
+}
@@ -0,0 +1,64 @@
+package water;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import water.fvec.*;
+
+/** Chunks moved off-heap must decode exactly as their heap originals. */
+public class OffHeapTest extends TestUtil {
+  private static long _oldMax;
+  @BeforeClass public static void stall() {
+    stall_till_cloudsize(1);
+    _oldMax = OffHeap.MAX;
+    OffHeap.MAX = 1<<20;
+  }
+  @AfterClass public static void restore() { OffHeap.MAX = _oldMax; }
+
+  // Compress 'vals' (NaN for missing), move the chunk off-heap and compare
+  private void check( Class expected, double... vals ) {
+    NewChunk nc = new NewChunk(null,0);
+    for( double d : vals )
+      if( Double.isNaN(d) ) nc.addNA();
+      else if( d == (long)d ) nc.addNum((long)d,0);
+      else nc.addNum(d);
+    Chunk heap = nc.new_close();
+    assertEquals(expected,heap.getClass());
+    Chunk off = heap.offHeapClone();
+    assertNotNull(off);
+    assertTrue(off.isOffHeap());
+    assertFalse(heap.isOffHeap());
+    assertArrayEquals(heap.getBytes(),off.getBytes());
+    for( int i=0; i<vals.length; i++ ) {
+      assertEquals(heap.isNA0(i),off.isNA0(i));
+      assertEquals(heap.at0(i),off.at0(i),0);
+      if( !heap.isNA0(i) ) assertEquals(heap.at80(i),off.at80(i));
+    }
+  }
+
+  @Test public void testDecoders() {
+    check(C1Chunk .class, 1, 2, 250, Double.NaN, 0, 7);
+    check(C2Chunk .class, 1, 2, 30000, Double.NaN, -3000, 7);
+    check(C4Chunk .class, 1, 2, 3000000, Double.NaN, -3000000, 7);
+    check(C8Chunk .class, 1, 2, 3000000000000L, Double.NaN, -3000000000000L, 7);
+    check(CBSChunk.class, 1, 0, 1, Double.NaN, 0, 1);
+    double[] sparse = new double[1000];
+    sparse[3] = 17; sparse[500] = Double.NaN; sparse[999] = 123456;
+    check(CXIChunk.class, sparse);
+  }
+
+  @Test public void testUnsupported() {
+    NewChunk nc = new NewChunk(null,0);
+    for( int i=0; i<100; i++ ) nc.addNum(i*0.5);
+    assertNull(nc.new_close().offHeapClone()); // Scaled chunks stay on heap
+  }
+
+  @Test public void testAccounting() {
+    long used = OffHeap.used();
+    OffHeap oh = OffHeap.copyOf(new byte[1000]);
+    assertNotNull(oh);
+    assertEquals(used+1000,OffHeap.used());
+    assertEquals(1000,oh.toHeap().length);
+    assertNull(OffHeap.copyOf(new byte[2<<20])); // Over the limit
+    assertEquals(512L<<20,OffHeap.parseSize("512m"));
+  }
+}
@@ -0,0 +1,257 @@
+package water;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.util.LZ4;
+
+public class TCPMuxTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  // Collects whole messages instead of dispatching them; reading starts once
+  // the gate, if any, opens
+  private static class Inbox extends TCPMux.InLink {
+    final LinkedBlockingQueue<byte[]> _msgs = new LinkedBlockingQueue<>();
+    volatile CountDownLatch _gate;
+    Inbox( SocketChannel sock ) { super(sock); }
+    @Override void received( TCPMux.InStream s ) {
+      ByteBuffer bb = ByteBuffer.allocate(1<<24);
+      try {
+        if( _gate != null ) _gate.await();
+        while( s.read(bb) > 0 ) ;
+      }
+      catch( EOFException e ) { return; } // Cut short: dropped
+      catch( IOException|InterruptedException e ) { throw new RuntimeException(e); }
+      _msgs.add(Arrays.copyOf(bb.array(),bb.position()));
+    }
+  }
+
+  private static byte[] bytes( int len, int seed ) {
+    byte[] b = new byte[len];
+    for( int i=0; i<len; i++ ) b[i] = (byte)(i*31+seed);
+    return b;
+  }
+
+  @Test public void testInterleave() throws Exception {
+    ServerSocketChannel ss = ServerSocketChannel.open();
+    ss.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),0));
+    try {
+      H2ONode peer = H2ONode.intern(InetAddress.getLoopbackAddress(),ss.socket().getLocalPort());
+      TCPMux.OutLink out = TCPMux.connect(peer);
+      SocketChannel sock = ss.accept();
+      sock.configureBlocking(false);
+      Inbox in = new Inbox(sock);
+      TCPMux.register(in);
+
+      // A bulk message is still open when a small one is sent; the small one
+      // arrives whole first
+      byte[] big = bytes(10*TCPMux.FRAME+17,1), small = bytes(100,2);
+      TCPMux.OutStream bs = out.open();
+      bs.write(ByteBuffer.wrap(big,0,3*TCPMux.FRAME));
+      TCPMux.OutStream ss2 = out.open();
+      ss2.write(ByteBuffer.wrap(small));
+      ss2.close();
+      Assert.assertArrayEquals(small,in._msgs.poll(10,TimeUnit.SECONDS));
+      bs.write(ByteBuffer.wrap(big,3*TCPMux.FRAME,big.length-3*TCPMux.FRAME));
+      bs.close();
+      Assert.assertArrayEquals(big,in._msgs.poll(10,TimeUnit.SECONDS));
+
+      // An aborted message is never delivered
+      TCPMux.OutStream as = out.open();
+      as.write(ByteBuffer.wrap(big));
+      as.abort();
+      TCPMux.OutStream s3 = out.open();
+      s3.write(ByteBuffer.wrap(small));
+      s3.close();
+      Assert.assertArrayEquals(small,in._msgs.poll(10,TimeUnit.SECONDS));
+
+      // Many concurrent writers share the link
+      final TCPMux.OutLink link = out;
+      Thread[] ts = new Thread[4];
+      final int N = 20;
+      for( int t=0; t<ts.length; t++ ) {
+        final int seed = t;
+        ts[t] = new Thread() {
+            @Override public void run() {
+              try {
+                for( int i=0; i<N; i++ ) {
+                  TCPMux.OutStream s = link.open();
+                  s.write(ByteBuffer.wrap(bytes((seed+1)*TCPMux.FRAME/3+i,seed)));
+                  s.close();
+                }
+              } catch( Exception e ) { throw new RuntimeException(e); }
+            }
+          };
+        ts[t].start();
+      }
+      for( Thread t : ts ) t.join();
+      int[] cnts = new int[ts.length];
+      for( int i=0; i<N*ts.length; i++ ) {
+        byte[] m = in._msgs.poll(10,TimeUnit.SECONDS);
+        Assert.assertNotNull(m);
+        int seed = m[0];        // bytes() starts each message with its seed
+        Assert.assertArrayEquals(bytes(m.length,seed),m);
+        cnts[seed]++;
+      }
+      for( int c : cnts ) Assert.assertEquals(N,c);
+      Assert.assertFalse(out.failed());
+    } finally {
+      ss.close();
+    }
+  }
+
+  // A reader not reading holds its writer to the window, and close() returns
+  // only once the reader is done with the message
+  @Test public void testFlowControl() throws Exception {
+    ServerSocketChannel ss = ServerSocketChannel.open();
+    ss.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),0));
+    try {
+      H2ONode peer = H2ONode.intern(InetAddress.getLoopbackAddress(),ss.socket().getLocalPort());
+      final TCPMux.OutLink out = TCPMux.connect(peer);
+      SocketChannel sock = ss.accept();
+      sock.configureBlocking(false);
+      Inbox in = new Inbox(sock);
+      TCPMux.register(in);
+      in._gate = new CountDownLatch(1);
+
+      final byte[] big = bytes(3*TCPMux.WINDOW*TCPMux.FRAME+5,4), small = bytes(100,5);
+      Thread[] ws = new Thread[2];
+      for( int t=0; t<ws.length; t++ ) {
+        final byte[] msg = t == 0 ? big : small;
+        ws[t] = new Thread() {
+            @Override public void run() {
+              try {
+                TCPMux.OutStream s = out.open();
+                s.write(ByteBuffer.wrap(msg));
+                s.close();
+              } catch( IOException e ) { throw new RuntimeException(e); }
+            }
+          };
+        ws[t].start();
+      }
+      for( Thread w : ws ) {
+        w.join(2000);
+        Assert.assertTrue(w.isAlive()); // Out of credit, or waiting on the reader
+      }
+      Assert.assertTrue(in._msgs.isEmpty());
+      in._gate.countDown();
+      for( Thread w : ws ) {
+        w.join(10000);
+        Assert.assertFalse(w.isAlive());
+      }
+      byte[] m0 = in._msgs.poll(), m1 = in._msgs.poll();
+      Assert.assertNotNull(m1);
+      if( m0.length != big.length ) { byte[] m = m0; m0 = m1; m1 = m; }
+      Assert.assertArrayEquals(big,m0);
+      Assert.assertArrayEquals(small,m1);
+      Assert.assertFalse(out.failed());
+    } finally {
+      ss.close();
+    }
+  }
+
+  // A frame longer than FRAME fails the link rather than being read
+  @Test public void testBadFrame() throws Exception {
+    ServerSocketChannel ss = ServerSocketChannel.open();
+    ss.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),0));
+    try( SocketChannel cli = SocketChannel.open(ss.socket().getLocalSocketAddress()) ) {
+      SocketChannel sock = ss.accept();
+      sock.configureBlocking(false);
+      Inbox in = new Inbox(sock);
+      TCPMux.register(in);
+      ByteBuffer bb = ByteBuffer.allocate(6+8).putInt(TCPMux.MAGIC).putChar((char)ss.socket().getLocalPort()).putInt(0).putInt(TCPMux.FRAME+1);
+      bb.flip();
+      while( bb.hasRemaining() ) cli.write(bb);
+      cli.socket().setSoTimeout(10000);
+      Assert.assertEquals(-1,cli.socket().getInputStream().read()); // Dropped
+      Assert.assertTrue(in._msgs.isEmpty());
+    } finally {
+      ss.close();
+    }
+  }
+
+  private static byte[] roundTrip( byte[] raw ) {
+    byte[] z = new byte[raw.length+raw.length/255+16];
+    int zlen = LZ4.compress(raw,0,raw.length,z,0,z.length);
+    Assert.assertTrue(zlen > 0);
+    byte[] back = new byte[raw.length];
+    Assert.assertEquals(raw.length,LZ4.decompress(z,0,zlen,back,0));
+    Assert.assertArrayEquals(raw,back);
+    return Arrays.copyOf(z,zlen);
+  }
+
+  @Test public void testLZ4() {
+    Random r = new Random(1234);
+    byte[] rnd = new byte[70000];
+    r.nextBytes(rnd);
+    roundTrip(new byte[0]);
+    roundTrip(new byte[]{1,2,3});
+    roundTrip(rnd);
+    Assert.assertTrue(roundTrip(new byte[100000]).length < 1000); // Zeros: long matches
+    Assert.assertTrue(roundTrip(bytes(50000,7)).length < 5000);   // Short period: overlapping copies
+    byte[] ints = new byte[80000];
+    for( int i=0; i<ints.length; i+=4 ) ints[i] = (byte)r.nextInt(4);
+    Assert.assertTrue(roundTrip(ints).length < ints.length*3/4);
+    // Incompressible data does not fit a smaller budget
+    byte[] z = new byte[rnd.length];
+    Assert.assertEquals(-1,LZ4.compress(rnd,0,rnd.length,z,0,rnd.length-(rnd.length>>3)));
+  }
+
+  @Test public void testCompressed() throws Exception {
+    ServerSocketChannel ss = ServerSocketChannel.open();
+    ss.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),0));
+    boolean tcp_compress = H2O.ARGS.tcp_compress;
+    try {
+      H2ONode peer = H2ONode.intern(InetAddress.getLoopbackAddress(),ss.socket().getLocalPort());
+      TCPMux.OutLink out = TCPMux.connect(peer);
+      SocketChannel sock = ss.accept();
+      sock.configureBlocking(false);
+      Inbox in = new Inbox(sock);
+      TCPMux.register(in);
+
+      // Both sides must allow compression
+      H2O.ARGS.tcp_compress = true;
+      peer._heartbeat._tcp_lz4 = true;
+      byte[] big = bytes(6*TCPMux.FRAME+17,3);
+      TCPMux.OutStream s = out.open();
+      s.write(ByteBuffer.wrap(big));
+      long wire = s._wire;
+      s.close();
+      Assert.assertTrue("wire "+wire,wire < big.length/4);
+      Assert.assertArrayEquals(big,in._msgs.poll(10,TimeUnit.SECONDS));
+
+      // Random bytes go out raw
+      byte[] rnd = new byte[3*TCPMux.FRAME];
+      new Random(42).nextBytes(rnd);
+      s = out.open();
+      s.write(ByteBuffer.wrap(rnd));
+      Assert.assertEquals(rnd.length,s._wire);
+      s.close();
+      Assert.assertArrayEquals(rnd,in._msgs.poll(10,TimeUnit.SECONDS));
+
+      // No compression unless the peer allows it
+      peer._heartbeat._tcp_lz4 = false;
+      s = out.open();
+      s.write(ByteBuffer.wrap(big));
+      Assert.assertEquals(big.length,s._wire);
+      s.close();
+      Assert.assertArrayEquals(big,in._msgs.poll(10,TimeUnit.SECONDS));
+      Assert.assertFalse(out.failed());
+    } finally {
+      H2O.ARGS.tcp_compress = tcp_compress;
+      ss.close();
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package water;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class UDPBatchTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  // Small packets are padded out to 16 bytes for the TimeLine
+  private static final int PKT = 16;
+
+  private static ByteBuffer recv( DatagramChannel dc ) throws Exception {
+    ByteBuffer bb = ByteBuffer.allocate(AutoBuffer.MTU).order(ByteOrder.nativeOrder());
+    long deadline = System.currentTimeMillis()+10000;
+    while( dc.receive(bb) == null ) {
+      Assert.assertTrue("no datagram",System.currentTimeMillis() < deadline);
+      Thread.sleep(1);
+    }
+    bb.flip();
+    return bb;
+  }
+
+  @Test public void testCoalesce() throws Exception {
+    DatagramChannel dc = DatagramChannel.open();
+    int us = H2O.ARGS.rpc_batch_us, msgs = H2O.ARGS.rpc_batch_msgs;
+    try {
+      dc.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),0));
+      dc.configureBlocking(false);
+      H2ONode peer = H2ONode.intern(InetAddress.getLoopbackAddress(),dc.socket().getLocalPort());
+
+      // Three ackacks fill a 3-message batch and go out as one datagram
+      H2O.ARGS.rpc_batch_us = 10000000;
+      H2O.ARGS.rpc_batch_msgs = 3;
+      for( int i=0; i<3; i++ )
+        new AutoBuffer(peer).putTask(UDP.udp.ackack,100+i).close(false,false);
+      ByteBuffer bb = recv(dc);
+      Assert.assertEquals(UDP.udp.batch.ordinal(),bb.get()&0xFF);
+      Assert.assertEquals(H2O.H2O_PORT,bb.getChar());
+      for( int i=0; i<3; i++ ) {
+        Assert.assertEquals(PKT,bb.getChar());
+        int start = bb.position();
+        Assert.assertEquals(UDP.udp.ackack.ordinal(),bb.get()&0xFF);
+        Assert.assertEquals(H2O.H2O_PORT,bb.getChar());
+        Assert.assertEquals(100+i,bb.getInt());
+        bb.position(start+PKT);
+      }
+      Assert.assertFalse(bb.hasRemaining());
+
+      // A lone packet goes out raw when its window closes
+      H2O.ARGS.rpc_batch_us = 1000;
+      new AutoBuffer(peer).putTask(UDP.udp.ackack,7).close(false,false);
+      bb = recv(dc);
+      Assert.assertEquals(PKT,bb.remaining());
+      Assert.assertEquals(UDP.udp.ackack.ordinal(),bb.get()&0xFF);
+      Assert.assertEquals(H2O.H2O_PORT,bb.getChar());
+      Assert.assertEquals(7,bb.getInt());
+
+      // Heartbeats are never batched
+      new AutoBuffer(peer).putUdp(UDP.udp.heartbeat).put4(0).close(false,false);
+      Assert.assertEquals(UDP.udp.heartbeat.ordinal(),recv(dc).get()&0xFF);
+    } finally {
+      H2O.ARGS.rpc_batch_us = us;
+      H2O.ARGS.rpc_batch_msgs = msgs;
+      dc.close();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package water.api;
+
+import java.lang.reflect.Field;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.AutoBuffer;
+import water.TestUtil;
+import water.fvec.Frame;
+
+public class FrameV2Test extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  // A column's JSON has exactly the @API fields of Col, the rows included
+  @Test public void testColJSON() throws Exception {
+    Frame fr = frame(ar("a","b"), ard(1,2.5), ard(3,-4), ard(5,6.25));
+    try {
+      String json = new String(new FrameV2(fr,1,10).writeJSON(new AutoBuffer()).buf());
+      Set<String> api = new TreeSet<>();
+      for( Field f : Class.forName("water.api.FrameV2$Col").getDeclaredFields() )
+        if( f.getAnnotation(API.class) != null ) api.add(f.getName());
+      int col0 = json.indexOf("\"columns\":[")+"\"columns\":[".length();
+      Assert.assertEquals(api, keys(json,col0));
+      int col1 = json.indexOf("{\"label\":\"b\"");
+      Assert.assertTrue(json, col1 > col0);
+      Assert.assertEquals(api, keys(json,col1));
+      Assert.assertTrue(json, json.contains("\"data\":[2.5,-4.0,6.25],\"str_data\":null"));
+    } finally {
+      fr.delete();
+    }
+  }
+
+  // Names of the fields of the JSON object starting at json[x]
+  private static Set<String> keys( String json, int x ) {
+    Assert.assertEquals('{', json.charAt(x));
+    Set<String> keys = new TreeSet<>();
+    int depth = 0;
+    do {
+      char c = json.charAt(x++);
+      if( c == '{' || c == '[' ) depth++;
+      else if( c == '}' || c == ']' ) depth--;
+      else if( c == '"' ) {
+        int start = x;
+        while( json.charAt(x) != '"' ) x += json.charAt(x) == '\\' ? 2 : 1;
+        String s = json.substring(start,x++);
+        if( depth == 1 && json.charAt(x) == ':' ) keys.add(s);
+      }
+    } while( depth > 0 );
+    return keys;
+  }
+}
@@ -0,0 +1,164 @@
+package water.fvec;
+
+import static org.junit.Assert.*;
+import java.util.Arrays;
+import org.junit.*;
+import water.TestUtil;
+import water.util.UnsafeUtils;
+
+/** The bulk decoders must agree with the row-at-a-time API for every Chunk type. */
+public class BulkDecodeTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  // Compress 'vals' (NaN for missing) and check the decoders
+  private static void check( Class expected, double... vals ) { check(expected,newChunk(vals)); }
+  private static NewChunk newChunk( double... vals ) {
+    NewChunk nc = new NewChunk(null,0);
+    for( double d : vals )
+      if( d == (long)d ) nc.addNum((long)d,0);
+      else if( Double.isNaN(d) && nc._ds == null ) nc.addNA();
+      else nc.addNum(d);
+    return nc;
+  }
+  // Values base+i*stride, scaled by 10^exp, with one missing
+  private static void check( Class expected, long base, long stride, int exp ) {
+    NewChunk nc = new NewChunk(null,0);
+    for( int i=0; i<200; i++ )
+      if( i == 100 ) nc.addNA();
+      else nc.addNum(base+i*stride,exp);
+    check(expected,nc);
+  }
+  private static void check( Class expected, NewChunk nc ) {
+    Chunk c = nc.new_close();
+    assertEquals(expected,c.getClass());
+    check(c);
+  }
+  // Compare bulk vs row decoding over the whole chunk and over a few
+  // odd-sized sub-ranges
+  private static void check( Chunk c ) {
+    int len = c.len();
+    int[][] ranges = {{0,len},{1,len},{0,len-1},{len/3,len/2},{len/2,len/2},{len-1,len}};
+    for( int[] r : ranges ) {
+      int from = r[0], to = r[1];
+      double[] ds = c.getDoubles(new double[to-from+3],from,to);
+      long[] ls = new long[to-from];
+      long[] nas = new long[(to-from+63)>>6];
+      Arrays.fill(nas,-1);      // Stale bits must be cleared
+      int nacnt = c.getLongs(ls,nas,from,to), n = 0;
+      for( int i=from; i<to; i++ ) {
+        String msg = c.getClass().getSimpleName()+" row "+i;
+        assertEquals(msg,c.at0(i),ds[i-from],0);
+        assertEquals(msg,c.isNA0(i),Chunk.isNA(nas,i-from));
+        if( c.isNA0(i) ) { assertEquals(msg,0,ls[i-from]); n++; }
+        else assertEquals(msg,c.at80(i),ls[i-from]);
+      }
+      assertEquals(n,nacnt);
+    }
+  }
+
+  private static double[] seq( int len, double base, double stride ) {
+    double[] ds = new double[len];
+    for( int i=0; i<len; i++ ) ds[i] = base+i*stride;
+    return ds;
+  }
+  private static double[] withNA( double[] ds ) { ds[ds.length/2] = Double.NaN; return ds; }
+  private static double[] sparse( int len, double v ) {
+    double[] ds = new double[len];
+    for( int i=5; i<len; i+=97 ) ds[i] = v;
+    return ds;
+  }
+
+  @Test public void testDense() {
+    check(C0LChunk.class, 7,7,7,7,7);
+    NewChunk con = new NewChunk(null,0);
+    for( int i=0; i<10; i++ ) con.addNum(15,-1);
+    check(C0DChunk.class, con);
+    check(C1Chunk .class, withNA(seq(200,0,1)));
+    check(C1NChunk.class, seq(200,0,1));
+    check(C1SChunk.class, 5,1,-1);
+    check(C2Chunk .class, withNA(seq(200,-3000,31)));
+    check(C2SChunk.class, -3050,31,-2);
+    check(C4Chunk .class, withNA(seq(200,-3000000,31111)));
+    check(C4SChunk.class, -3000050,31111,-2);
+    byte[] fs = new byte[200*4];  // Not made by NewChunk.compress
+    for( int i=0; i<200; i++ ) UnsafeUtils.set4f(fs,i<<2,i==100 ? Float.NaN : i*1.5e20f);
+    check(new C4FChunk(fs));
+    check(C8Chunk .class, withNA(seq(200,-3000000000000L,31111111111L)));
+    check(C8DChunk.class, withNA(seq(200,Math.PI,Math.E)));
+  }
+
+  @Test public void testBits() {
+    double[] bits = new double[200];
+    for( int i=0; i<bits.length; i++ ) bits[i] = (i*7)%3 == 0 ? 1 : 0;
+    check(CBSChunk.class, bits);
+    check(CBSChunk.class, withNA(bits));
+  }
+
+  @Test public void testSparse() {
+    check(CX0Chunk.class, sparse(2000,1));
+    check(CXIChunk.class, withNA(sparse(2000,17)));
+    check(CXDChunk.class, withNA(sparse(2000,Math.PI)));
+    check(CXDChunk.class, withNA(sparse(2000,1.5))); // As floats
+  }
+
+  @Test public void testDelta() {
+    // Time stamps a second apart: 2-byte deltas
+    check(CDLChunk.class, withNA(seq(1000,1.4e12,1003)));
+    // Near-sorted ids: 1-byte deltas
+    double[] ids = seq(1000,1e12,1);
+    for( int i=0; i<ids.length; i+=7 ) ids[i] += 3;
+    check(CDLChunk.class, withNA(ids));
+    // Sorted but spread-out ints still fit 4-byte deltas
+    check(CDLChunk.class, seq(1000,-5e12,1000003));
+    // Random longs get no smaller
+    double[] rnd = new double[1000];
+    java.util.Random r = new java.util.Random(42);
+    for( int i=0; i<rnd.length; i++ ) rnd[i] = r.nextLong()>>12;
+    check(C8Chunk.class, rnd);
+  }
+
+  @Test public void testDictAndFloats() {
+    double[] ds = new double[1000];
+    for( int i=0; i<ds.length; i++ ) ds[i] = new double[]{0.1,2.75,-3.3}[i%3];
+    check(CDDChunk.class, withNA(ds));
+    for( int i=0; i<ds.length; i++ ) ds[i] = (i%300)*0.1+0.01;
+    check(CDDChunk.class, withNA(ds)); // 2-byte codes
+    check(C4FChunk.class, withNA(seq(200,0.25,1.5)));
+    check(C8DChunk.class, withNA(seq(200,Math.PI,Math.E)));
+  }
+
+  private static double[] runs( int len, int runlen, double... vals ) {
+    double[] ds = new double[len];
+    for( int i=0; i<len; i++ ) ds[i] = vals[(i/runlen)%vals.length];
+    return ds;
+  }
+
+  @Test public void testRuns() {
+    check(CRLChunk.class, runs(5000,300,3,-7,1e12,3,Double.NaN,0));
+    check(CRLChunk.class, runs(5000,1000,0.1,Math.PI,Double.NaN));
+    // Long runs of mostly-zeros beat the sparse encodings too
+    check(CRLChunk.class, runs(100000,20000,0,0,7));
+    // Short runs do not pay
+    check(C1Chunk.class, runs(5000,3,1,2,Double.NaN));
+    // Random access, both forwards and backwards, agrees with a scan
+    Chunk c = newChunk(runs(5000,300,3,-7,1e12,3,Double.NaN,0)).new_close();
+    double[] ds = c.getDoubles(new double[c.len()],0,c.len());
+    for( int i=c.len()-1; i>=0; i-=7 ) assertEquals(ds[i],c.at0(i),0);
+    for( int i=0; i<c.len(); i++ ) assertEquals(ds[i],c.at0(i),0);
+  }
+
+  // Writes to the new encodings inflate; inflating and compressing again
+  // must give back the same rows
+  @Test public void testInflate() {
+    double[] ds = new double[1000];
+    for( int i=0; i<ds.length; i++ ) ds[i] = new double[]{0.1,2.75,-3.3}[i%3];
+    for( double[] vals : new double[][]{withNA(seq(1000,1.4e12,1003)),withNA(ds),runs(5000,300,3,-7,Double.NaN)} ) {
+      Chunk c = newChunk(vals).new_close();
+      NewChunk nc2 = new NewChunk(null,0);
+      nc2._len = nc2._len2 = c.len();
+      Chunk c2 = c.inflate_impl(nc2).new_close();
+      assertEquals(c.getClass(),c2.getClass());
+      for( int i=0; i<c.len(); i++ ) assertEquals(c.at0(i),c2.at0(i),0);
+    }
+  }
+}
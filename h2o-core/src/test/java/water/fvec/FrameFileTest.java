@@ -0,0 +1,80 @@
+package water.fvec;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.util.ArrayList;
+import org.junit.*;
+import water.*;
+import water.parser.ParseDataset2;
+import water.util.FileIntegrityChecker;
+
+public class FrameFileTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  // A few chunks of ints, doubles with NAs, and enums
+  private static Frame parsed() {
+    String[] chks = new String[4];
+    StringBuilder sb = new StringBuilder("a,b,c\n");
+    for( int c=0, r=0; c<chks.length; c++ ) {
+      for( int i=0; i<500; i++, r++ )
+        sb.append(r).append(',').append(r%17==0 ? "" : Double.toString(r*0.5)).append(',').append("lvl").append(r%5).append('\n');
+      chks[c] = sb.toString();
+      sb.setLength(0);
+    }
+    Futures fs = new Futures();
+    Key k = Vec.newKey();
+    long[] espc = new long[chks.length+1];
+    for( int i=0; i<chks.length; i++ ) espc[i+1] = espc[i]+chks[i].length();
+    ByteVec bv = new ByteVec(k,espc);
+    DKV.put(k,bv,fs);
+    for( int i=0; i<chks.length; i++ ) {
+      Key ck = bv.chunkKey(i);
+      DKV.put(ck,new Value(ck,new C1NChunk(chks[i].getBytes())),fs);
+    }
+    fs.blockForPending();
+    return ParseDataset2.parse(Key.make("frame_file_src.hex"),k);
+  }
+
+  @Test public void testExportImport() throws Exception {
+    File f = File.createTempFile("frame_file_test",".h2o");
+    Frame src = parsed(), fr = null;
+    try {
+      FrameFile.export(src,f);
+      assertTrue(FrameFile.isFrameFile(f));
+
+      // Import as a directory sync would; the file comes back as a Frame
+      ArrayList<String> files = new ArrayList<>(), keys = new ArrayList<>(), fails = new ArrayList<>(), dels = new ArrayList<>();
+      Key k = FileIntegrityChecker.check(f).syncDirectory(files,keys,fails,dels);
+      fr = DKV.get(k).get();
+      assertArrayEquals(src.names(),fr.names());
+      assertEquals(src.numRows(),fr.numRows());
+      for( int c=0; c<src.numCols(); c++ ) {
+        Vec v0 = src.vecs()[c], v1 = fr.vecs()[c];
+        assertTrue(v1 instanceof FrameFileVec);
+        assertArrayEquals(v0.domain(),v1.domain());
+        // Rollups are restored, not recomputed
+        assertNotNull(RollupStats.getOrNull(v1));
+        assertEquals(v0.naCnt(),v1.naCnt());
+        assertEquals(v0.mean(),v1.mean(),0);
+        assertEquals(v0.sigma(),v1.sigma(),0);
+        assertEquals(v0.min(),v1.min(),0);
+        assertEquals(v0.max(),v1.max(),0);
+        for( int i=0; i<v0.nChunks(); i++ )
+          assertEquals(v0.chunkForChunkIdx(i).getClass(),v1.chunkForChunkIdx(i).getClass());
+      }
+      assertTrue(isBitIdentical(src,fr));
+
+      // Dropped Chunks reload (or map) from the file
+      Vec v1 = fr.vecs()[1];
+      Value val = v1.chunkIdx(2);
+      byte[] mem = val.memOrLoad();
+      assertArrayEquals(mem,((FrameFileVec)v1).loadChunk(v1.chunkKey(2)));
+      OffHeap oh = ((FrameFileVec)v1).mapChunk(v1.chunkKey(2));
+      assertArrayEquals(mem,oh.toHeap());
+    } finally {
+      src.delete();
+      if( fr != null ) fr.delete();
+      f.delete();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package water.fvec;
+
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Futures;
+import water.H2O;
+import water.TestUtil;
+
+public class ReadAheadTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  // Walk a many-Chunk Vec row by row; in a multi-node cloud the remote
+  // Chunks should be read ahead.
+  @Test public void testSequentialScan() {
+    final int NCHKS = 100, ROWS = 1000;
+    Futures fs = new Futures();
+    AppendableVec av = new AppendableVec(Vec.newKey());
+    for( int c=0; c<NCHKS; c++ ) {
+      NewChunk nc = new NewChunk(av,c);
+      for( int i=0; i<ROWS; i++ ) nc.addNum(c*ROWS+i);
+      nc.close(c,fs);
+    }
+    Vec v = av.close(fs);
+    fs.blockForPending();
+    try {
+      ReadAhead.Stats s0 = ReadAhead.stats();
+      for( long r=0; r<v.length(); r+=7 )
+        assertEquals(r,v.at8(r));
+      ReadAhead.Stats s1 = ReadAhead.stats();
+      if( H2O.CLOUD.size() > 1 ) {
+        assertTrue(s1.toString(),s1._issued > s0._issued);
+        assertTrue(s1.toString(),s1._hits+s1._late > s0._hits+s0._late);
+      } else
+        assertEquals(s0._issued,s1._issued); // Nothing is remote
+    } finally {
+      v.remove();
+    }
+  }
+}
@@ -1,8 +1,11 @@
 package water.fvec;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import java.util.Random;
 import org.junit.Test;
+import water.DKV;
 import water.Futures;
 import water.TestUtil;
 import water.Key;
@@ -55,4 +58,74 @@ public class VecStatsTest extends TestUtil {
       if( frame != null ) frame.delete();
     }
   }
-}
\ No newline at end of file
+
+  // After a write only the written Chunk is rolled up again, and the merged
+  // rollups match the whole column.
+  @Test public void testIncremental() {
+    Futures fs = new Futures();
+    AppendableVec avec = new AppendableVec(Vec.newKey());
+    for( int i = 0; i < 3; i++ ) {
+      NewChunk chunk = new NewChunk(avec, i);
+      for( int r = 0; r < 1000; r++ )
+        chunk.addNum(r);
+      chunk.close(i, fs);
+    }
+    Vec v = avec.close(fs);
+    fs.blockForPending();
+    try {
+      assertEquals(999, v.max(), 0);
+      ChunkRollups cr = DKV.get(v.chunkRollupsKey()).get(ChunkRollups.class);
+      assertEquals(3, cr.nChunks());
+      assertEquals(0, cr.dirty().length);
+
+      v.set(1500, 5000.5);
+      cr = DKV.get(v.chunkRollupsKey()).get(ChunkRollups.class);
+      assertArrayEquals(new int[]{1}, cr.dirty());
+      assertNull(ChunkRollups.WRITTEN.get(v._key)); // No tracking left behind
+
+      double mean = 0, sigma = 0;
+      for( int r = 0; r < v.length(); r++ ) mean += v.at(r);
+      mean /= v.length();
+      for( int r = 0; r < v.length(); r++ ) sigma += (v.at(r)-mean)*(v.at(r)-mean);
+      sigma = Math.sqrt(sigma / (v.length() - 1));
+      assertEquals(5000.5, v.max(), 0);
+      assertEquals(999, v.maxs()[1], 0);
+      assertEquals(mean, v.mean(), 1e-9);
+      assertEquals(sigma, v.sigma(), 1e-9);
+      assertEquals(false, v.isInt());
+      cr = DKV.get(v.chunkRollupsKey()).get(ChunkRollups.class);
+      assertEquals(0, cr.dirty().length);
+    } finally {
+      v.remove();
+    }
+  }
+
+  // Empty Chunks, first and in the middle, roll up to nothing and do not hide
+  // the rows of the others.
+  @Test public void testEmptyChunks() {
+    Futures fs = new Futures();
+    AppendableVec avec = new AppendableVec(Vec.newKey());
+    double[][] rows = {{},{3,4,5},{},{4}};
+    for( int i = 0; i < rows.length; i++ ) {
+      NewChunk chunk = new NewChunk(avec, i);
+      for( double d : rows[i] ) chunk.addNum(d);
+      chunk.close(i, fs);
+    }
+    Vec v = avec.close(fs);
+    fs.blockForPending();
+    try {
+      assertEquals(4, v.nChunks());
+      assertEquals(4, v.length());
+      assertEquals(3, v.min(), 0);
+      assertEquals(5, v.max(), 0);
+      assertEquals(4, v.mean(), 1e-9);
+      assertEquals(Math.sqrt(2.0/3), v.sigma(), 1e-9);
+      assertEquals(0, v.naCnt());
+      ChunkRollups cr = DKV.get(v.chunkRollupsKey()).get(ChunkRollups.class);
+      assertEquals(0, cr.dirty().length);
+      assertArrayEquals(new long[]{0,3,0,1}, cr._rows);
+    } finally {
+      v.remove();
+    }
+  }
+}
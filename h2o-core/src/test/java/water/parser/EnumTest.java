@@ -0,0 +1,87 @@
+package water.parser;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+import water.AutoBuffer;
+import water.TestUtil;
+
+public class EnumTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  private static ValueString vs( String s ) { return new ValueString(s); }
+
+  @Test public void testAddLookup() {
+    Enum e = new Enum();
+    // Keys are read straight out of a larger parse buffer
+    byte[] buf = "xxapplebananaapple".getBytes();
+    int a = e.addKey(new ValueString(buf,2,5));
+    int b = e.addKey(new ValueString(buf,7,6));
+    assertEquals(a, e.addKey(new ValueString(buf,13,5)));
+    assertTrue(a != b);
+    assertEquals(2, e.size());
+    assertEquals(b, e.getTokenId(vs("banana")));
+    assertEquals(-1, e.getTokenId(vs("cherry")));
+    assertFalse(e.containsKey(vs("appl")));
+    // Growing the table keeps every key
+    for( int i=0; i<10000; i++ ) e.addKey(vs("k"+i));
+    assertEquals(10002, e.size());
+    for( int i=0; i<10000; i++ ) assertTrue(e.containsKey(vs("k"+i)));
+  }
+
+  @Test public void testConcurrentAdd() throws InterruptedException {
+    final Enum e = new Enum();
+    final int N = 20000;
+    final int[][] ids = new int[4][N];
+    Thread[] ts = new Thread[ids.length];
+    for( int t=0; t<ts.length; t++ ) {
+      final int[] tids = ids[t];
+      ts[t] = new Thread() { @Override public void run() {
+        for( int i=0; i<N; i++ ) tids[i] = e.addKey(vs("level"+i));
+      } };
+      ts[t].start();
+    }
+    for( Thread t : ts ) t.join();
+    assertEquals(N, e.size());
+    // Every thread got the same id for the same level
+    for( int t=1; t<ids.length; t++ ) assertArrayEquals(ids[0], ids[t]);
+    for( int i=0; i<N; i++ ) assertEquals(ids[0][i], e.getTokenId(vs("level"+i)));
+  }
+
+  @Test public void testDomainAndWire() {
+    Enum e = new Enum();
+    for( String s : new String[]{"pear","apple","fig","apple"} ) e.addKey(vs(s));
+    Enum f = e.deepCopy();
+    ValueString[] dom = f.computeColumnDomain();
+    assertArrayEquals(new String[]{"apple","fig","pear"}, ValueString.toString(dom));
+    assertEquals(2, f.getTokenId(vs("pear")));
+    // The original keeps its own numbering
+    assertEquals(1, e.getTokenId(vs("pear")));
+
+    Enum g = new AutoBuffer().put(e).flipForReading().get();
+    assertEquals(e.size(), g.size());
+    assertEquals(e.maxId(), g.maxId());
+    for( String s : new String[]{"pear","apple","fig"} )
+      assertEquals(e.getTokenId(vs(s)), g.getTokenId(vs(s)));
+
+    Enum h = new Enum();
+    h.addKey(vs("kiwi"));
+    h.addKey(vs("fig"));
+    h.merge(g);
+    assertEquals(4, h.size());
+    assertArrayEquals(new String[]{"apple","fig","kiwi","pear"}, ValueString.toString(h.computeColumnDomain()));
+  }
+
+  @Test public void testKill() {
+    Enum e = new Enum();
+    e.addKey(vs("a"));
+    Enum big = new Enum();
+    for( int i=0; i<=Enum.MAX_ENUM_SIZE; i++ ) big.addKey(vs(Integer.toString(i)));
+    assertTrue(big.isKilled());
+    assertEquals(Integer.MAX_VALUE, big.addKey(vs("x")));
+    assertNull(big.computeColumnDomain());
+    Enum k = new AutoBuffer().put(big).flipForReading().get();
+    assertTrue(k.isKilled());
+    e.merge(k);
+    assertTrue(e.isKilled());
+  }
+}
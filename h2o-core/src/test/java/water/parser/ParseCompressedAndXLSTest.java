@@ -2,6 +2,14 @@ package water.parser;
 
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import water.*;
@@ -56,4 +64,73 @@ public class ParseCompressedAndXLSTest extends TestUtil {
       if( k1 != null ) k1.delete();
     }
   }
+
+  // Every entry of a ZIP, and every member of a concatenated GZIP, is parsed;
+  // rows come out in file order.
+  @Test public void testMultiUnit() throws IOException {
+    byte[] bits = Files.readAllBytes(find_test_file("smalldata/junit/iris.csv").toPath());
+    File zip = File.createTempFile("iris3",".zip");
+    File gz  = File.createTempFile("iris3",".csv.gz");
+    zip.deleteOnExit();  gz.deleteOnExit();
+    try( ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zip)) ) {
+      zos.putNextEntry(new ZipEntry("dir/"));
+      for( int i = 0; i < 3; i++ ) {
+        zos.putNextEntry(new ZipEntry("dir/iris"+i+".csv"));
+        zos.write(bits);
+        zos.closeEntry();
+      }
+    }
+    try( FileOutputStream fos = new FileOutputStream(gz) ) {
+      for( int i = 0; i < 3; i++ ) {
+        GZIPOutputStream gos = new GZIPOutputStream(fos);
+        gos.write(bits);
+        gos.finish();
+      }
+    }
+    Frame k1 = null, k2 = null, k3 = null;
+    try {
+      k1 = parse_test_file("smalldata/junit/iris.csv");
+      for( File f : new File[]{zip,gz} ) {
+        NFSFileVec nfs = NFSFileVec.make(f);
+        ZipUtil.Unit[] units = ZipUtil.units(nfs);
+        assertEquals(3, units.length);
+        if( f == gz ) {         // Each GZIP unit is exactly one member
+          assertEquals(0, units[0]._off);
+          assertEquals(units[0]._len, units[1]._len);
+          assertEquals(gz.length(), units[2]._off+units[2]._len);
+        }
+        Frame fr = ParseDataset2.parse(Key.make(),nfs._key);
+        if( k2 == null ) k2 = fr; else k3 = fr;
+        assertEquals(  5,fr.numCols());
+        assertEquals(450,fr.numRows());
+        for( int r = 0; r < 450; r++ )
+          for( int c = 0; c < 4; c++ )
+            assertEquals(k1.vecs()[c].at(r%150), fr.vecs()[c].at(r), 0);
+        assertEquals(k1.vecs()[4].domain().length, fr.vecs()[4].domain().length);
+      }
+    } finally {
+      if( k1 != null ) k1.delete();
+      if( k2 != null ) k2.delete();
+      if( k3 != null ) k3.delete();
+    }
+  }
+
+  // An ordinary one-member GZIP is not split
+  @Test public void testSingleMember() throws IOException {
+    File gz = File.createTempFile("single",".csv.gz");
+    gz.deleteOnExit();
+    try( GZIPOutputStream gos = new GZIPOutputStream(new FileOutputStream(gz)) ) {
+      java.util.Random r = new java.util.Random(1234);
+      for( int i = 0; i < 200000; i++ ) gos.write((r.nextInt(1000)+","+r.nextInt()+"\n").getBytes());
+    }
+    NFSFileVec nfs = NFSFileVec.make(gz);
+    assertNull(ZipUtil.units(nfs));
+    Frame fr = null;
+    try {
+      fr = ParseDataset2.parse(Key.make(),nfs._key);
+      assertEquals(200000,fr.numRows());
+    } finally {
+      if( fr != null ) fr.delete();
+    }
+  }
 }
@@ -590,4 +590,67 @@ public class ParserTest extends TestUtil {
     ParseDataset2.parse(r1, k);
     testParsed(r1,pows10_exp);
   }
+  // Skipped columns and filtered-out rows never reach the Frame; rows split
+  // across Chunks are kept or dropped whole
+  @Test public void testProjection() {
+    String[] data = new String[] {
+      "a,b,c,d\n1,x,10,foo\n2,y,2",
+      "0,bar\n3,z,30,foo\n4,w,40,foo\n5,v,50,bar\n",
+    };
+    double[][] exp = new double[][] {
+      ard(1, 10, 0),
+      ard(3, 30, 0),
+      ard(4, 40, 0),
+    };
+    ParseSetup ps = ParseSetup.guessSetup((data[0]+data[1]).getBytes(), false, 1);
+    ps.withProjection(new int[]{1}, RowFilter.parse("d == foo", ps._columnNames));
+    Frame fr = null;
+    try {
+      fr = ParseDataset2.parse(Key.make(), new Key[]{makeByteVec(data)}, true, ps);
+      Assert.assertArrayEquals(new String[]{"a","c","d"}, fr.names());
+      Assert.assertArrayEquals(new String[]{"foo"}, fr.vecs()[2].domain());
+      Assert.assertEquals(exp.length, fr.numRows());
+      for( int j = 0; j < fr.numCols(); ++j )
+        for( int i = 0; i < exp.length; ++i )
+          Assert.assertEquals(exp[i][j], fr.vecs()[j].at(i), 0);
+    } finally {
+      if( fr != null ) fr.delete();
+    }
+
+    // Filtering empties the first Chunk
+    ps = ParseSetup.guessSetup((data[0]+data[1]).getBytes(), false, 1);
+    ps.withProjection(null, RowFilter.parse("C3 >= 30", null));
+    fr = null;
+    try {
+      fr = ParseDataset2.parse(Key.make(), new Key[]{makeByteVec(data)}, true, ps);
+      Assert.assertEquals(4, fr.numCols());
+      Assert.assertEquals(3, fr.numRows());
+      Assert.assertEquals(3, fr.vecs()[0].min(), 0);
+      Assert.assertEquals(5, fr.vecs()[0].max(), 0);
+    } finally {
+      if( fr != null ) fr.delete();
+    }
+  }
+
+  // With no column names given, a row filter names a column of the header,
+  // as a REST parse request does
+  @Test public void testFilterByHeaderName() {
+    String data = "name,age\nann,19\nbob,23\ncid,40\n";
+    Key k = makeByteVec(data);
+    Frame fr = null;
+    try {
+      String[] names = ParseDataset2.guessColumnNames(k, false, 0);
+      Assert.assertArrayEquals(new String[]{"name","age"}, names);
+      RowFilter filter = RowFilter.parse("age >= 21", names);
+      Assert.assertEquals(1, filter._col);
+      ParseSetup ps = ParseSetup.guessSetup(data.getBytes(), false, 0);
+      ps.withProjection(null, filter);
+      fr = ParseDataset2.parse(Key.make(), new Key[]{k}, true, ps);
+      Assert.assertEquals(2, fr.numRows());
+      Assert.assertEquals(23, fr.vecs()[1].min(), 0);
+    } finally {
+      if( fr != null ) fr.delete();
+      else Keyed.remove(k);
+    }
+  }
 }
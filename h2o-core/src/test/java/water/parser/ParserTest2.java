@@ -2,6 +2,12 @@ package water.parser;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.junit.Assert;
 import org.junit.Test;
 import water.*;
@@ -225,4 +231,117 @@ public class ParserTest2 extends TestUtil {
     Key k = ParserTest.makeByteVec(data);
     ParserTest.testParsed(ParseDataset2.parse(Key.make(), k),exp,33);
   }
+
+  // Split compressed bytes across several chunks, so the inflated stream is
+  // parsed as several blocks in parallel
+  private static Key makeByteVec( byte[] bits, int nchunks ) {
+    int len = (bits.length+nchunks-1)/nchunks;
+    long[] espc = new long[nchunks+1];
+    for( int i=0; i<nchunks; i++ ) espc[i+1] = Math.min(espc[i]+len,bits.length);
+    return makeByteVec(bits,espc);
+  }
+  private static Key makeByteVec( byte[] bits, long[] espc ) {
+    Futures fs = new Futures();
+    int nchunks = espc.length-1;
+    Key k = Vec.newKey();
+    ByteVec bv = new ByteVec(k,espc);
+    DKV.put(k,bv,fs);
+    for( int i=0; i<nchunks; i++ ) {
+      Key ck = bv.chunkKey(i);
+      DKV.put(ck,new Value(ck,new C1NChunk(Arrays.copyOfRange(bits,(int)espc[i],(int)espc[i+1]))),fs);
+    }
+    fs.blockForPending();
+    return k;
+  }
+
+  @Test public void testParallelZipParse() throws IOException {
+    final int nrows = 50000;
+    StringBuilder sb = new StringBuilder("a,b,c\n");
+    double[][] exp = new double[nrows][];
+    for( int i=0; i<nrows; i++ ) {
+      sb.append(i).append(',').append((i*7919)%1013).append(',').append(i*0.25).append('\n');
+      exp[i] = ard(i,(i*7919)%1013,i*0.25);
+    }
+    byte[] csv = sb.toString().getBytes();
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try( GZIPOutputStream gz = new GZIPOutputStream(bos) ) { gz.write(csv); }
+    ParserTest.testParsed(ParseDataset2.parse(Key.make(), makeByteVec(bos.toByteArray(),7)),exp,nrows);
+
+    bos = new ByteArrayOutputStream();
+    try( ZipOutputStream zip = new ZipOutputStream(bos) ) {
+      zip.putNextEntry(new ZipEntry("data.csv"));
+      zip.write(csv);
+      zip.closeEntry();
+    }
+    ParserTest.testParsed(ParseDataset2.parse(Key.make(), makeByteVec(bos.toByteArray(),5)),exp,nrows);
+  }
+
+  // A compressed chunk inflating to more than a block is parsed as several
+  // blocks, in order, into the one output chunk
+  @Test public void testZipBlocksPerChunk() throws IOException {
+    final int nrows = 600000;
+    StringBuilder sb = new StringBuilder();
+    double[][] exp = new double[nrows][];
+    for( int i=0; i<nrows; i++ ) {
+      sb.append(i).append(",1234567890\n");
+      exp[i] = ard(i,1234567890);
+    }
+    byte[] csv = sb.toString().getBytes();
+    assertTrue(csv.length > 2*Parser.ZIP_BLOCK);
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try( GZIPOutputStream gz = new GZIPOutputStream(bos) ) { gz.write(csv); }
+    Frame fr = ParseDataset2.parse(Key.make(), makeByteVec(bos.toByteArray(),2));
+    assertTrue(fr.anyVec().nChunks() <= 2);
+    ParserTest.testParsed(fr,exp,nrows);
+  }
+
+  // GZIP members are found even when a member header spans two chunks
+  @Test public void testGzipMembersAcrossChunks() throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    long[] moffs = new long[3];
+    double[][] exp = new double[3000][];
+    for( int m=0; m<3; m++ ) {
+      moffs[m] = bos.size();
+      StringBuilder sb = new StringBuilder();
+      for( int i=m*1000; i<(m+1)*1000; i++ ) {
+        sb.append(i).append(',').append(i*0.5).append('\n');
+        exp[i] = ard(i,i*0.5);
+      }
+      try( GZIPOutputStream gz = new GZIPOutputStream(bos) ) { gz.write(sb.toString().getBytes()); }
+    }
+    byte[] bits = bos.toByteArray();
+    // Chunks end 2 bytes into the 2nd member's header, and 1 byte into the 3rd's
+    Key k = makeByteVec(bits,new long[]{0,moffs[1]+2,moffs[2]+1,bits.length});
+    ZipUtil.Unit[] units = ZipUtil.units(ParseDataset2.getByteVec(k));
+    assertEquals(3,units.length);
+    for( int m=0; m<3; m++ ) assertEquals(moffs[m],units[m]._off);
+    ParserTest.testParsed(ParseDataset2.parse(Key.make(),k),exp,3000);
+  }
+
+  // GZIP members cut mid-line are stitched back into whole lines: a member
+  // ending mid-row, one holding no line end at all, one starting exactly at a
+  // row, and one starting between the CR and LF of a row
+  @Test public void testGzipMembersMidLine() throws IOException {
+    for( String eol : new String[]{"\n","\r\n"} ) {
+      StringBuilder sb = new StringBuilder("a,b").append(eol);
+      double[][] exp = new double[1000][];
+      int[] rows = new int[1000];
+      for( int i=0; i<1000; i++ ) {
+        rows[i] = sb.length();
+        sb.append(i).append(',').append(i*2).append(eol);
+        exp[i] = ard(i,i*2);
+      }
+      byte[] csv = sb.toString().getBytes();
+      int[] cuts = {rows[537]+2, rows[537]+4, rows[800], rows[900]-1, csv.length};
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      for( int m=0, off=0; m<cuts.length; off = cuts[m++] )
+        try( GZIPOutputStream gz = new GZIPOutputStream(bos) ) { gz.write(csv,off,cuts[m]-off); }
+      Key k = makeByteVec(bos.toByteArray(),3);
+      assertEquals(cuts.length,ZipUtil.units(ParseDataset2.getByteVec(k)).length);
+      Frame fr = ParseDataset2.parse(Key.make(),k);
+      Assert.assertArrayEquals(new String[]{"a","b"},fr.names());
+      ParserTest.testParsed(fr,exp,1000);
+    }
+  }
 }
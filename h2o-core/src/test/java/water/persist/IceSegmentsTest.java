@@ -0,0 +1,102 @@
+package water.persist;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import org.junit.*;
+import water.*;
+import water.fvec.*;
+
+public class IceSegmentsTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  private File _dir;
+  @Before public void mkDir() { _dir = new File(System.getProperty("java.io.tmpdir"), "ice_segments_test_" + System.nanoTime()); }
+  @After public void rmDir() {
+    File[] fs = _dir.listFiles();
+    if( fs != null ) for( File f : fs ) f.delete();
+    _dir.delete();
+  }
+
+  private static byte[] bytes( int len, int seed ) {
+    byte[] b = new byte[len];
+    for( int i=0; i<len; i++ ) b[i] = (byte)(i*31+seed);
+    return b;
+  }
+
+  @Test public void testStoreLoadMap() throws Exception {
+    IceSegments segs = new IceSegments(_dir);
+    Key k = Key.make("seg_test_1");
+    byte[] b = bytes(1000,7);
+    segs.store(k,b);
+    assertTrue(segs.contains(k));
+    assertArrayEquals(b, segs.load(k));
+    OffHeap oh = segs.map(k);
+    assertEquals(b.length, oh._len);
+    assertArrayEquals(b, oh.toHeap());
+    assertTrue(segs.delete(k));
+    assertNull(segs.load(k));
+    assertNull(segs.map(k));
+    // Views stay valid after the entry is deleted
+    assertArrayEquals(b, oh.toHeap());
+  }
+
+  @Test public void testMappedChunk() throws Exception {
+    IceSegments segs = new IceSegments(_dir);
+    NewChunk nc = new NewChunk(null,0);
+    for( int i=0; i<100; i++ ) if( i==13 ) nc.addNA(); else nc.addNum(i*1000,0);
+    Chunk heap = nc.new_close();
+    Key k = Key.make("seg_test_chunk");
+    segs.store(k, heap.getBytes());
+    Chunk mapped = ((Chunk)heap.clone()).readOffHeap(segs.map(k));
+    assertTrue(mapped.isOffHeap());
+    assertEquals(heap.len(), mapped.len());
+    for( int i=0; i<heap.len(); i++ ) {
+      assertEquals(heap.isNA0(i), mapped.isNA0(i));
+      assertEquals(heap.at0(i), mapped.at0(i), 0);
+    }
+    segs.delete(k);
+  }
+
+  @Test public void testCompaction() throws Exception {
+    IceSegments segs = new IceSegments(_dir);
+    int len = 1<<20;            // 64 values per segment
+    int n = 3*IceSegments.SEG_SIZE/len;
+    Key[] ks = new Key[n];
+    for( int i=0; i<n; i++ ) segs.store(ks[i] = Key.make("seg_test_c"+i), bytes(len,i));
+    assertEquals(3, segs.numSegments());
+    // Kill 3 of every 4 values; the 2 sealed segments become mostly dead
+    for( int i=0; i<n; i++ ) if( (i&3) != 0 ) segs.delete(ks[i]);
+    assertEquals((long)(n/4)*len, segs.liveBytes());
+    // Survivors spill the full append segment into a fresh one, which may
+    // seal it in turn; either way the live quarter fits in 2 segments
+    assertTrue(segs.compact() >= 2);
+    assertTrue(segs.numSegments() <= 2);
+    assertEquals((long)(n/4)*len, segs.liveBytes());
+    for( int i=0; i<n; i+=4 ) assertArrayEquals(bytes(len,i), segs.load(ks[i]));
+    for( int i=0; i<n; i+=4 ) segs.delete(ks[i]);
+    assertEquals(0, segs.liveBytes());
+  }
+
+  // A Value bigger than a segment gets a mapping of its own, and the append
+  // segment stays open around it
+  @Test public void testOversized() throws Exception {
+    IceSegments segs = new IceSegments(_dir);
+    Key small0 = Key.make("seg_test_s0"), big = Key.make("seg_test_big"), small1 = Key.make("seg_test_s1");
+    byte[] b = bytes(IceSegments.SEG_SIZE+1000,3);
+    segs.store(small0, bytes(1000,1));
+    segs.store(big, b);
+    segs.store(small1, bytes(1000,2));
+    assertEquals(2, segs.numSegments());
+    assertArrayEquals(b, segs.load(big));
+    assertArrayEquals(b, segs.map(big).toHeap());
+    assertEquals(0, segs.compact()); // Everything live
+    segs.delete(big);
+    assertEquals(1, segs.compact());
+    assertEquals(1, segs.numSegments());
+    assertArrayEquals(bytes(1000,1), segs.load(small0));
+    assertArrayEquals(bytes(1000,2), segs.load(small1));
+    segs.delete(small0);
+    segs.delete(small1);
+    assertEquals(0, segs.liveBytes());
+  }
+}
@@ -0,0 +1,82 @@
+package water.util;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.AutoBuffer;
+import water.TestUtil;
+
+public class AccTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  private static <T extends water.Freezable> T roundTrip( T t ) {
+    return new AutoBuffer().put(t).flipForReading().get();
+  }
+
+  @Test public void testLongs() {
+    AccLongs sparse = new AccLongs(100000);
+    sparse.add(7,3);  sparse.add(99999,-5);
+    Assert.assertTrue(new AutoBuffer().put(sparse).buf().length < 100); // Not 100000 longs
+    AccLongs s2 = roundTrip(sparse);
+    Assert.assertEquals(100000,s2.len());
+    Assert.assertEquals(3,s2.get(7));
+    Assert.assertEquals(-5,s2.get(99999));
+    Assert.assertEquals(0,s2.get(8));
+
+    AccLongs dense = new AccLongs(10);
+    for( int i=0; i<10; i++ ) dense.add(i,i+1);
+    AccLongs d2 = roundTrip(dense);
+    Assert.assertArrayEquals(dense.vals(),d2.vals());
+    Assert.assertEquals(10,AccLongs.add(null,d2).add(dense).get(4));
+
+    // The cut-off follows the packed width: 30% small counts ship dense as
+    // bytes, half-full wide values ship sparse
+    AccLongs narrow = new AccLongs(100), wide = new AccLongs(100);
+    for( int i=0; i<100; i+=3 ) narrow.add(i,200);
+    for( int i=0; i<100; i+=2 ) wide.add(i,1L<<40);
+    Assert.assertTrue(new AutoBuffer().put(narrow).buf().length < 100*2);
+    Assert.assertTrue(new AutoBuffer().put(wide).buf().length < 100*8);
+    Assert.assertArrayEquals(narrow.vals(),roundTrip(narrow).vals());
+    Assert.assertArrayEquals(wide.vals(),roundTrip(wide).vals());
+  }
+
+  @Test public void testDoubles() {
+    AccDoubles sparse = new AccDoubles(1000);
+    sparse.add(500,1.5);
+    AccDoubles s2 = roundTrip(sparse);
+    Assert.assertArrayEquals(sparse.vals(),s2.vals(),0);
+    AccDoubles dense = new AccDoubles(3);
+    dense.add(0,1);  dense.add(1,2);  dense.add(2,3);
+    Assert.assertArrayEquals(dense.vals(),roundTrip(dense).vals(),0);
+  }
+
+  @Test public void testMeanVar() {
+    double[] ds = {1,4,9,16,25,36,49,64};
+    MeanVar all = new MeanVar(), lo = new MeanVar(), hi = new MeanVar();
+    for( int i=0; i<ds.length; i++ ) { all.add(ds[i]); (i<3 ? lo : hi).add(ds[i]); }
+    lo.add(hi).add(new MeanVar());
+    Assert.assertEquals(ds.length,lo._n);
+    Assert.assertEquals(all._mean,lo._mean,1e-12);
+    Assert.assertEquals(all.var(),lo.var(),1e-9);
+    Assert.assertEquals(25.5,all._mean,1e-12);
+  }
+
+  @Test public void testLocalReducer() throws InterruptedException {
+    final LocalReducer<AccLongs> lr = AccLongs.localReducer(4);
+    Thread[] ts = new Thread[4];
+    for( int t=0; t<ts.length; t++ ) {
+      final int tt = t;
+      ts[t] = new Thread() { @Override public void run() { for( int i=0; i<1000; i++ ) lr.get().add(tt,1); } };
+      ts[t].start();
+    }
+    for( Thread t : ts ) t.join();
+    AccLongs res = lr.fold();
+    for( int t=0; t<ts.length; t++ ) Assert.assertEquals(1000,res.get(t));
+    Assert.assertNull(lr.fold()); // All folded already
+    // The result is detached: this thread gets a fresh accumulator
+    AccLongs mine = lr.get();
+    Assert.assertNotSame(res,mine);
+    Assert.assertEquals(0,mine.get(0));
+    Assert.assertSame(mine,lr.fold());
+  }
+}